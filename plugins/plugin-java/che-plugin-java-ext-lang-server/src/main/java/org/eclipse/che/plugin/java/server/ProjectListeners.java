@@ -21,6 +21,7 @@ import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.project.server.ProjectCreatedEvent;
 import org.eclipse.che.api.project.server.ProjectRegistry;
 import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
+import org.eclipse.che.api.project.server.notification.ProjectItemsModifiedEvent;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
 import org.eclipse.che.jdt.core.resources.ResourceChangedEvent;
 import org.eclipse.core.filebuffers.FileBuffers;
@@ -62,6 +63,12 @@ public class ProjectListeners {
                 handleEvent(event);
             }
         });
+        eventService.subscribe(new EventSubscriber<ProjectItemsModifiedEvent>() {
+            @Override
+            public void onEvent(ProjectItemsModifiedEvent event) {
+                event.getEvents().forEach(ProjectListeners.this::handleEvent);
+            }
+        });
     }
 
     public void handleEvent(ProjectItemModifiedEvent event) {
@@ -17,11 +17,13 @@ import org.eclipse.che.api.project.shared.dto.event.PomModifiedEventDto;
 import org.eclipse.che.api.vfs.impl.file.event.EventTreeNode;
 import org.eclipse.che.api.vfs.impl.file.event.HiEvent;
 import org.eclipse.che.api.vfs.impl.file.event.HiEventBroadcaster;
-import org.eclipse.che.api.vfs.impl.file.event.HiEventDetector;
 import org.eclipse.che.api.vfs.impl.file.event.HiEventServerPublisher;
+import org.eclipse.che.api.vfs.impl.file.event.PathPatternHiEventDetector;
 
 import java.util.Optional;
+import java.util.Set;
 
+import static java.util.Collections.singleton;
 import static java.util.Optional.empty;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.api.vfs.impl.file.event.HiEvent.Category.PROJECT_INFRASTRUCTURE;
@@ -42,9 +44,10 @@ import static org.eclipse.che.dto.server.DtoFactory.newDto;
  * @since 4.5
  */
 @Beta
-public class PomModifiedHiEventDetector implements HiEventDetector<PomModifiedEventDto> {
+public class PomModifiedHiEventDetector implements PathPatternHiEventDetector<PomModifiedEventDto> {
 
-    private static final String POM_XML = "pom.xml";
+    private static final String      POM_XML       = "pom.xml";
+    private static final Set<String> PATH_PATTERNS = singleton("/**/" + POM_XML);
 
     private HiEventBroadcaster broadcaster;
 
@@ -53,6 +56,11 @@ public class PomModifiedHiEventDetector implements HiEventDetector<PomModifiedEv
         this.broadcaster = broadcaster;
     }
 
+    @Override
+    public Set<String> getPathPatterns() {
+        return PATH_PATTERNS;
+    }
+
     @Override
     public Optional<HiEvent<PomModifiedEventDto>> detect(EventTreeNode eventTreeNode) {
         if (!eventTreeNode.isRoot() || eventTreeNode.getChildren().isEmpty()) {
@@ -17,6 +17,7 @@ import com.google.inject.name.Named;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
+import org.eclipse.che.api.project.server.notification.ProjectItemsModifiedEvent;
 import org.eclipse.che.api.project.shared.dto.event.PomModifiedEventDto;
 import org.eclipse.che.commons.schedule.executor.ThreadPullLauncher;
 import org.eclipse.che.ide.maven.tools.Model;
@@ -61,15 +62,14 @@ public class PomChangeListener {
         eventService.subscribe(new EventSubscriber<ProjectItemModifiedEvent>() {
             @Override
             public void onEvent(ProjectItemModifiedEvent event) {
-                String eventPath = event.getPath();
-                if (!event.isFolder() && eventPath.endsWith("pom.xml")) {
-                    //TODO update only pom file that in root of project
-//                    if(event.getProject().equals(eventPath.substring(0, eventPath.lastIndexOf("pom.xml") - 1))) {
-                    if (pomIsValid(eventPath)) {
-                        projectToUpdate.add(new Path(eventPath).removeLastSegments(1).toOSString());
-                    }
-//                    }
-                }
+                handleItemModified(event);
+            }
+        });
+
+        eventService.subscribe(new EventSubscriber<ProjectItemsModifiedEvent>() {
+            @Override
+            public void onEvent(ProjectItemsModifiedEvent event) {
+                event.getEvents().forEach(PomChangeListener.this::handleItemModified);
             }
         });
 
@@ -84,6 +84,18 @@ public class PomChangeListener {
         });
     }
 
+    private void handleItemModified(ProjectItemModifiedEvent event) {
+        String eventPath = event.getPath();
+        if (!event.isFolder() && eventPath.endsWith("pom.xml")) {
+            //TODO update only pom file that in root of project
+//            if(event.getProject().equals(eventPath.substring(0, eventPath.lastIndexOf("pom.xml") - 1))) {
+            if (pomIsValid(eventPath)) {
+                projectToUpdate.add(new Path(eventPath).removeLastSegments(1).toOSString());
+            }
+//            }
+        }
+    }
+
     private boolean pomIsValid(String path) {
         try {
             Model.readFrom(new File(workspacePath, path));
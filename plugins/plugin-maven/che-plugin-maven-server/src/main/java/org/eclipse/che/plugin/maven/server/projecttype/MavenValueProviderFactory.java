@@ -74,6 +74,11 @@ public class MavenValueProviderFactory implements ValueProviderFactory {
             this.projectFolder = projectFolder;
         }
 
+        @Override
+        public List<String> getDependencies() {
+            return Collections.singletonList("pom.xml");
+        }
+
         @Override
         public List<String> getValues(String attributeName) throws ValueStorageException {
             try {
@@ -56,6 +56,17 @@ public interface CloneRequest {
 
     CloneRequest withRecursive(boolean recursive);
 
+    /**
+     * @return name of local repository which objects are borrowed by cloned repository instead of being fetched from remote repository.
+     * Repository is looked up in directory of reference repositories configured by {@code git.clone.reference_root_dir}. If
+     * <code>null</code> or repository doesn't exist all objects are fetched
+     */
+    String getReference();
+
+    void setReference(String reference);
+
+    CloneRequest withReference(String reference);
+
     /**
      * @return time (in seconds) to wait without data transfer occurring before aborting fetching data from remote repository. If 0 then
      * default timeout may be used. This is implementation specific
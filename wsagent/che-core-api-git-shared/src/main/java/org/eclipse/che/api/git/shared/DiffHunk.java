@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Describes one hunk of difference of file. Lines of hunk have the same format as in unified diff: first character of each line is
+ * {@code ' '} for context line, {@code '-'} for removed line and {@code '+'} for added line.
+ */
+@DTO
+public interface DiffHunk {
+
+    /** Returns number of the first line of hunk in old content, lines are counted from 1. */
+    int getOldStart();
+
+    void setOldStart(int oldStart);
+
+    DiffHunk withOldStart(int oldStart);
+
+    /** Returns number of lines of old content covered by hunk. */
+    int getOldLines();
+
+    void setOldLines(int oldLines);
+
+    DiffHunk withOldLines(int oldLines);
+
+    /** Returns number of the first line of hunk in new content, lines are counted from 1. */
+    int getNewStart();
+
+    void setNewStart(int newStart);
+
+    DiffHunk withNewStart(int newStart);
+
+    /** Returns number of lines of new content covered by hunk. */
+    int getNewLines();
+
+    void setNewLines(int newLines);
+
+    DiffHunk withNewLines(int newLines);
+
+    List<String> getLines();
+
+    void setLines(List<String> lines);
+
+    DiffHunk withLines(List<String> lines);
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/** Describes part of difference of single file, hunks of difference are returned by portions. */
+@DTO
+public interface FileDiff {
+
+    /** Returns type of change, e.g. {@code ADD}, {@code MODIFY}, {@code RENAME}. */
+    String getChangeType();
+
+    void setChangeType(String changeType);
+
+    FileDiff withChangeType(String changeType);
+
+    String getOldPath();
+
+    void setOldPath(String oldPath);
+
+    FileDiff withOldPath(String oldPath);
+
+    String getNewPath();
+
+    void setNewPath(String newPath);
+
+    FileDiff withNewPath(String newPath);
+
+    /** Returns {@code true} if content of file is binary, there are no hunks for such file. */
+    boolean isBinary();
+
+    void setBinary(boolean binary);
+
+    FileDiff withBinary(boolean binary);
+
+    /** Returns {@code true} if content of file is too large to be compared, there are no hunks for such file. */
+    boolean isSizeLimitExceeded();
+
+    void setSizeLimitExceeded(boolean sizeLimitExceeded);
+
+    FileDiff withSizeLimitExceeded(boolean sizeLimitExceeded);
+
+    List<DiffHunk> getHunks();
+
+    void setHunks(List<DiffHunk> hunks);
+
+    FileDiff withHunks(List<DiffHunk> hunks);
+
+    /** Returns index of the first hunk which is not returned yet or {@code -1} if all hunks are returned. */
+    int getNext();
+
+    void setNext(int next);
+
+    FileDiff withNext(int next);
+
+    /** Returns {@code true} if lines of the last returned hunk are cut because of size limit. */
+    boolean isTruncated();
+
+    void setTruncated(boolean truncated);
+
+    FileDiff withTruncated(boolean truncated);
+}
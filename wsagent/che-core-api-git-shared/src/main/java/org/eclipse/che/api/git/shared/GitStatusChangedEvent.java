@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git.shared;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Event which is published when status of files in working tree of project is changed. Contains only files which status is changed
+ * since previous event.
+ */
+@EventOrigin("gitstatus")
+@DTO
+public interface GitStatusChangedEvent {
+
+    String getWorkspaceId();
+
+    void setWorkspaceId(String workspaceId);
+
+    GitStatusChangedEvent withWorkspaceId(String workspaceId);
+
+    String getProjectName();
+
+    void setProjectName(String projectName);
+
+    GitStatusChangedEvent withProjectName(String projectName);
+
+    /** Returns files which status is changed. */
+    List<StatusChange> getChanges();
+
+    void setChanges(List<StatusChange> changes);
+
+    GitStatusChangedEvent withChanges(List<StatusChange> changes);
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/** Describes new status of file in working tree of repository. */
+@DTO
+public interface StatusChange {
+
+    /** Returns path of file relative to working tree. */
+    String getPath();
+
+    void setPath(String path);
+
+    StatusChange withPath(String path);
+
+    /**
+     * Returns states of file, e.g. {@code MODIFIED}, {@code UNTRACKED}, each state has the same meaning as corresponding list of
+     * {@link Status}. Empty list means that file is clean now.
+     */
+    List<String> getStates();
+
+    void setStates(List<String> states);
+
+    StatusChange withStates(List<String> states);
+}
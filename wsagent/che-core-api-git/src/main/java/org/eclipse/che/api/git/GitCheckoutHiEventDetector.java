@@ -22,13 +22,15 @@ import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.event.EventTreeNode;
 import org.eclipse.che.api.vfs.impl.file.event.HiEvent;
-import org.eclipse.che.api.vfs.impl.file.event.HiEventDetector;
+import org.eclipse.che.api.vfs.impl.file.event.PathPatternHiEventDetector;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+import static java.util.Collections.singleton;
 import static java.util.Optional.empty;
 import static java.util.regex.Pattern.compile;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
@@ -58,12 +60,13 @@ import static org.slf4j.LoggerFactory.getLogger;
  * @since 4.5
  */
 @Beta
-public class GitCheckoutHiEventDetector implements HiEventDetector<GitCheckoutEventDto> {
+public class GitCheckoutHiEventDetector implements PathPatternHiEventDetector<GitCheckoutEventDto> {
     private static final Logger LOG = getLogger(GitCheckoutHiEventDetector.class);
 
-    private static final String  GIT_DIR                  = ".git";
-    private static final String  HEAD_FILE                = "HEAD";
-    private static final Pattern PATTERN                  = compile("ref: refs/heads/");
+    private static final String      GIT_DIR       = ".git";
+    private static final String      HEAD_FILE     = "HEAD";
+    private static final Pattern     PATTERN       = compile("ref: refs/heads/");
+    private static final Set<String> PATH_PATTERNS = singleton("/*/" + GIT_DIR + '/' + HEAD_FILE);
 
     private final VirtualFileSystemProvider virtualFileSystemProvider;
 
@@ -76,6 +79,11 @@ public class GitCheckoutHiEventDetector implements HiEventDetector<GitCheckoutEv
         this.transmitter = transmitter;
     }
 
+    @Override
+    public Set<String> getPathPatterns() {
+        return PATH_PATTERNS;
+    }
+
     @Override
     public Optional<HiEvent<GitCheckoutEventDto>> detect(EventTreeNode eventTreeNode) {
         if (!eventTreeNode.isRoot() || eventTreeNode.getChildren().isEmpty()) {
@@ -31,6 +31,7 @@ import org.eclipse.che.api.git.params.ResetParams;
 import org.eclipse.che.api.git.params.RmParams;
 import org.eclipse.che.api.git.params.TagCreateParams;
 import org.eclipse.che.api.git.shared.Branch;
+import org.eclipse.che.api.git.shared.FileDiff;
 import org.eclipse.che.api.git.shared.GitUser;
 import org.eclipse.che.api.git.shared.MergeResult;
 import org.eclipse.che.api.git.shared.PullResponse;
@@ -144,7 +145,9 @@ public interface GitConnection extends Closeable {
     List<String> listFiles(LsFilesParams params) throws GitException;
 
     /**
-     * Clone repository.
+     * Clone repository. If branches to fetch are specified only these branches are fetched and the first of them is checked out. If
+     * reference repository is specified cloned repository borrows objects from it, see {@code objects/info/alternates}, and only objects
+     * which reference repository doesn't have are fetched. Reference repository must not be removed while cloned repository exists.
      *
      * @param params
      *         clone params
@@ -170,6 +173,21 @@ public interface GitConnection extends Closeable {
      */
     void cloneWithSparseCheckout(String directory, String remoteUrl) throws GitException, UnauthorizedException;
 
+    /**
+     * Perform clone with sparse-checkout to specified directory.
+     *
+     * @param directory
+     *         path to keep in working tree
+     * @param params
+     *         clone params
+     * @throws UnauthorizedException
+     *         if it is not possible to clone with existing credentials
+     * @throws GitException
+     *         if any other error occurs
+     * @see #clone(CloneParams)
+     */
+    void cloneWithSparseCheckout(String directory, CloneParams params) throws GitException, UnauthorizedException;
+
     /**
      * Commit current state of index in new commit.
      *
@@ -195,6 +213,54 @@ public interface GitConnection extends Closeable {
      */
     DiffPage diff(DiffParams params) throws GitException;
 
+    /**
+     * Show files which differ, in the same way as {@link #diff(DiffParams)}, with number of added and deleted lines of each file. Result
+     * is JSON object which is written while files are compared:
+     * <pre>
+     * {
+     *   "files": [
+     *     {"changeType": "MODIFY", "oldPath": "pom.xml", "newPath": "pom.xml", "binary": false, "added": 2, "deleted": 1}
+     *   ],
+     *   "renameLimitExceeded": false,
+     *   "sizeLimitExceeded": false
+     * }
+     * </pre>
+     * Added file has no {@code oldPath} and deleted file has no {@code newPath}. Field {@code renameLimitExceeded} is {@code true} if there
+     * are too many added and deleted files to look for renames between them, see {@link DiffParams#getRenameLimit()}. When total size of
+     * compared content reaches {@link DiffParams#getSizeLimit()} the rest of files are written without {@code binary}, {@code added} and
+     * {@code deleted} fields and {@code sizeLimitExceeded} is {@code true}. Type of diff from params is ignored. Page reads repository of
+     * this connection, so it must be written before connection is closed.
+     *
+     * @param params
+     *         diff params
+     * @return page which writes files to stream
+     * @throws GitException
+     *         if any error occurs
+     */
+    InfoPage diffFiles(DiffParams params) throws GitException;
+
+    /**
+     * Show hunks of difference of single file. File is compared in the same way as by {@link #diff(DiffParams)}, file filter from params
+     * is ignored. Hunks are returned by portions, total length of lines of hunks in one portion is limited by
+     * {@link DiffParams#getSizeLimit()}. Implementation may refuse to compare too large content, then file is returned without hunks
+     * and {@link FileDiff#isSizeLimitExceeded()} is set.
+     *
+     * @param params
+     *         diff params
+     * @param path
+     *         path of file, for deleted file its old path
+     * @param oldPath
+     *         path of file before rename, may be {@code null}. Rename is detected only if this path is specified
+     * @param skipHunks
+     *         number of hunks to skip
+     * @param maxHunks
+     *         max number of hunks to return, {@code 0} means no limit
+     * @return difference of file or {@code null} if file is not changed
+     * @throws GitException
+     *         if any error occurs
+     */
+    FileDiff diffFile(DiffParams params, String path, String oldPath, int skipHunks, int maxHunks) throws GitException;
+
     /**
      * Show content of the file from specified revision or branch.
      *
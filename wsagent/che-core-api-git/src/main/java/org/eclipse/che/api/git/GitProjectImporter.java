@@ -46,6 +46,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.Collections.singletonList;
 import static org.eclipse.che.api.core.ErrorCodes.FAILED_CHECKOUT;
 import static org.eclipse.che.api.core.ErrorCodes.FAILED_CHECKOUT_WITH_START_POINT;
 import static org.eclipse.che.api.git.GitBasicAuthenticationCredentialsProvider.clearCredentials;
@@ -62,14 +63,21 @@ public class GitProjectImporter implements ProjectImporter {
 
     private static final Logger LOG = LoggerFactory.getLogger(GitProjectImporter.class);
 
-    private final GitConnectionFactory gitConnectionFactory;
-    private final EventService         eventService;
+    private final GitConnectionFactory        gitConnectionFactory;
+    private final EventService                eventService;
+    private final ReferenceRepositoryResolver referenceRepositories;
 
+    /**
+     * @param referenceRepositories
+     *         resolves parameter {@code reference} of source storage to repository which objects are borrowed by clone
+     */
     @Inject
     public GitProjectImporter(GitConnectionFactory gitConnectionFactory,
-                              EventService eventService) {
+                              EventService eventService,
+                              ReferenceRepositoryResolver referenceRepositories) {
         this.gitConnectionFactory = gitConnectionFactory;
         this.eventService = eventService;
+        this.referenceRepositories = referenceRepositories;
     }
 
     @Override
@@ -130,6 +138,10 @@ public class GitProjectImporter implements ProjectImporter {
             boolean keepVcs = true;
             boolean recursiveEnabled = false;
             boolean convertToTopLevelProject = false;
+            // Fetch only branch which is checked out.
+            boolean singleBranch = false;
+            // Name of repository in reference root directory which objects are borrowed instead of being fetched.
+            String reference = null;
 
             Map<String, String> parameters = storage.getParameters();
             if (parameters != null) {
@@ -150,6 +162,8 @@ public class GitProjectImporter implements ProjectImporter {
                     convertToTopLevelProject = Boolean.parseBoolean(parameters.get("convertToTopLevelProject"));
                 }
                 branchMerge = parameters.get("branchMerge");
+                singleBranch = Boolean.parseBoolean(parameters.get("singleBranch"));
+                reference = referenceRepositories.resolve(parameters.get("reference"));
                 final String user = storage.getParameters().remove("username");
                 final String pass = storage.getParameters().remove("password");
                 if (user != null && pass != null) {
@@ -176,13 +190,16 @@ public class GitProjectImporter implements ProjectImporter {
             }
 
             if (keepDir != null) {
-                git.cloneWithSparseCheckout(keepDir, location);
+                git.cloneWithSparseCheckout(keepDir, createCloneParams("origin", location, recursiveEnabled, reference,
+                                                                       singleBranch ? branch : null));
                 if (branch != null) {
                     git.checkout(CheckoutParams.create(branch));
                 }
             } else {
                 if (baseFolder.getChildren().size() == 0) {
-                    cloneRepository(git, "origin", location, recursiveEnabled);
+                    // single branch clone doesn't make sense if commit or refspec should be fetched after clone
+                    final boolean fetchSingleBranch = singleBranch && commitId == null && fetch == null && startPoint == null;
+                    cloneRepository(git, "origin", location, recursiveEnabled, reference, fetchSingleBranch ? branch : null);
                     if (commitId != null) {
                         checkoutCommit(git, commitId);
                     } else if (fetch != null) {
@@ -244,10 +261,25 @@ public class GitProjectImporter implements ProjectImporter {
         }
     }
 
-    private void cloneRepository(GitConnection git, String remoteName, String url, boolean recursiveEnabled)
-            throws ServerException, UnauthorizedException, URISyntaxException {
-        final CloneParams params = CloneParams.create(url).withRemoteName(remoteName).withRecursive(recursiveEnabled);
-        git.clone(params);
+    private void cloneRepository(GitConnection git,
+                                 String remoteName,
+                                 String url,
+                                 boolean recursiveEnabled,
+                                 String reference,
+                                 String branch) throws ServerException, UnauthorizedException, URISyntaxException {
+        git.clone(createCloneParams(remoteName, url, recursiveEnabled, reference, branch));
+    }
+
+    /** Creates clone params, if {@code branch} is not {@code null} only this branch is fetched. */
+    private CloneParams createCloneParams(String remoteName, String url, boolean recursiveEnabled, String reference, String branch) {
+        final CloneParams params = CloneParams.create(url)
+                                              .withRemoteName(remoteName)
+                                              .withRecursive(recursiveEnabled)
+                                              .withReference(reference);
+        if (branch != null) {
+            params.withBranchesToFetch(singletonList("refs/heads/" + branch));
+        }
+        return params;
     }
 
     private void addRemote(GitConnection git, String name, String url) throws GitException {
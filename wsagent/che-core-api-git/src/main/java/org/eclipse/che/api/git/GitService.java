@@ -12,6 +12,7 @@ package org.eclipse.che.api.git;
 
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.git.exception.GitException;
 import org.eclipse.che.api.git.params.AddParams;
 import org.eclipse.che.api.git.params.CheckoutParams;
@@ -38,6 +39,7 @@ import org.eclipse.che.api.git.shared.Commiters;
 import org.eclipse.che.api.git.shared.ConfigRequest;
 import org.eclipse.che.api.git.shared.DiffType;
 import org.eclipse.che.api.git.shared.FetchRequest;
+import org.eclipse.che.api.git.shared.FileDiff;
 import org.eclipse.che.api.git.shared.MergeRequest;
 import org.eclipse.che.api.git.shared.MergeResult;
 import org.eclipse.che.api.git.shared.MoveRequest;
@@ -67,6 +69,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
@@ -76,7 +79,10 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.List;
@@ -101,6 +107,9 @@ public class GitService {
     @Inject
     private ProjectRegistry projectRegistry;
 
+    @Inject
+    private ReferenceRepositoryResolver referenceRepositories;
+
     @QueryParam("projectPath")
     private String projectPath;
 
@@ -180,6 +189,7 @@ public class GitService {
                                            .withWorkingDir(getAbsoluteProjectPath(request.getWorkingDir()))
                                            .withBranchesToFetch(request.getBranchesToFetch())
                                            .withRemoteName(request.getRemoteName())
+                                           .withReference(referenceRepositories.resolve(request.getReference()))
                                            .withTimeout(request.getTimeout())
                                            .withUsername(request.getUsername())
                                            .withPassword(request.getPassword()));
@@ -228,6 +238,65 @@ public class GitService {
         }
     }
 
+    @GET
+    @Path("diff/files")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response diffFiles(@QueryParam("fileFilter") List<String> fileFilter,
+                              @QueryParam("noRenames") boolean noRenames,
+                              @QueryParam("renameLimit") int renameLimit,
+                              @QueryParam("commitA") String commitA,
+                              @QueryParam("commitB") String commitB,
+                              @QueryParam("cached") boolean cached,
+                              @DefaultValue("104857600") @QueryParam("sizeLimit") long sizeLimit) throws ApiException {
+        // files are written while they are compared, page is written before connection is released, even if response is never sent
+        try (GitConnection gitConnection = getGitConnection()) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            gitConnection.diffFiles(DiffParams.create()
+                                              .withFileFilter(fileFilter)
+                                              .withNoRenames(noRenames)
+                                              .withRenameLimit(renameLimit)
+                                              .withCommitA(commitA)
+                                              .withCommitB(commitB)
+                                              .withCached(cached)
+                                              .withSizeLimit(sizeLimit))
+                         .writeTo(output);
+            return Response.ok(output.toByteArray(), MediaType.APPLICATION_JSON).build();
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+    }
+
+    @GET
+    @Path("diff/file")
+    @Produces(MediaType.APPLICATION_JSON)
+    public FileDiff diffFile(@QueryParam("path") String path,
+                             @QueryParam("oldPath") String oldPath,
+                             @QueryParam("commitA") String commitA,
+                             @QueryParam("commitB") String commitB,
+                             @QueryParam("cached") boolean cached,
+                             @QueryParam("skipHunks") int skipHunks,
+                             @DefaultValue("50") @QueryParam("maxHunks") int maxHunks,
+                             @DefaultValue("1048576") @QueryParam("sizeLimit") long sizeLimit) throws ApiException {
+        if (path == null || path.isEmpty()) {
+            throw new BadRequestException("Path of file is required");
+        }
+        try (GitConnection gitConnection = getGitConnection()) {
+            final FileDiff diff = gitConnection.diffFile(DiffParams.create()
+                                                                   .withCommitA(commitA)
+                                                                   .withCommitB(commitB)
+                                                                   .withCached(cached)
+                                                                   .withSizeLimit(sizeLimit),
+                                                         path,
+                                                         oldPath,
+                                                         skipHunks,
+                                                         maxHunks);
+            if (diff == null) {
+                throw new NotFoundException(String.format("File %s is not changed", path));
+            }
+            return diff;
+        }
+    }
+
     @GET
     @Path("show")
     @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
@@ -275,12 +344,14 @@ public class GitService {
     @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
     public LogPage log(@QueryParam("fileFilter") List<String> fileFilter,
                        @QueryParam("since") String revisionRangeSince,
-                       @QueryParam("until") String revisionRangeUntil) throws ApiException {
+                       @QueryParam("until") String revisionRangeUntil,
+                       @QueryParam("diffFiles") boolean diffFiles) throws ApiException {
         try (GitConnection gitConnection = getGitConnection()) {
             return gitConnection.log(LogParams.create()
                                               .withFileFilter(fileFilter)
                                               .withRevisionRangeSince(revisionRangeSince)
-                                              .withRevisionRangeUntil(revisionRangeUntil));
+                                              .withRevisionRangeUntil(revisionRangeUntil)
+                                              .withDiffFiles(diffFiles));
         }
     }
 
@@ -21,6 +21,7 @@ import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 
 import javax.inject.Singleton;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,6 +42,12 @@ public class GitValueProviderFactory implements ValueProviderFactory {
     @Override
     public ValueProvider newInstance(final FolderEntry folder) {
         return new ReadonlyValueProvider() {
+            @Override
+            public List<String> getDependencies() {
+                // current branch and remotes, values are dropped also when .git folder is created or removed
+                return Arrays.asList(".git/HEAD", ".git/config");
+            }
+
             @Override
             public List<String> getValues(String attributeName) throws ValueStorageException {
                 if (folder == null) {
@@ -13,6 +13,7 @@ package org.eclipse.che.api.git;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.git.shared.GitCheckoutEvent;
+import org.eclipse.che.api.git.shared.GitStatusChangedEvent;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.inject.StringArrayConverter;
 import org.everrest.websockets.WSConnectionContext;
@@ -32,31 +33,44 @@ import javax.inject.Singleton;
 public class GitWebSocketMessenger implements EventSubscriber<GitCheckoutEvent> {
     private static final Logger LOG = LoggerFactory.getLogger(GitWebSocketMessenger.class);
     private static final String CHANNEL = "git:checkout:%s:%s";
+    private static final String STATUS_CHANNEL = "git:status:%s:%s";
 
-    private final EventService eventService;
+    private final EventService                           eventService;
+    private final EventSubscriber<GitStatusChangedEvent> statusSubscriber;
 
     @Inject
     public GitWebSocketMessenger(EventService eventService) {
         this.eventService = eventService;
+        this.statusSubscriber = new EventSubscriber<GitStatusChangedEvent>() {
+            @Override
+            public void onEvent(GitStatusChangedEvent event) {
+                send(String.format(STATUS_CHANNEL, event.getWorkspaceId(), event.getProjectName()), DtoFactory.getInstance().toJson(event));
+            }
+        };
     }
 
     @PostConstruct
     private void subscribe() {
         eventService.subscribe(this);
+        eventService.subscribe(statusSubscriber);
     }
 
     @PreDestroy
     private void unsubscribe() {
         eventService.unsubscribe(this);
+        eventService.unsubscribe(statusSubscriber);
     }
 
     @Override
     public void onEvent(GitCheckoutEvent event) {
+        send(String.format(CHANNEL, event.getWorkspaceId(), event.getProjectName()), DtoFactory.getInstance().toJson(event));
+    }
+
+    private void send(String channel, String body) {
         try {
             final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-            final String channel = String.format(CHANNEL, event.getWorkspaceId(), event.getProjectName());
             bm.setChannel(channel);
-            bm.setBody(DtoFactory.getInstance().toJson(event));
+            bm.setBody(body);
             WSConnectionContext.sendMessage(bm);
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
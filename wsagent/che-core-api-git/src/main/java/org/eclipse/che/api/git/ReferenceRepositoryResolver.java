@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * Resolves names of reference repositories of clone. Reference repositories may be used only from configured root directory, so client
+ * can't make cloned repository borrow objects of arbitrary repository of the machine.
+ */
+@Singleton
+class ReferenceRepositoryResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(ReferenceRepositoryResolver.class);
+
+    private final Path referenceRootDir;
+
+    /**
+     * @param referenceRootDir
+     *         directory which contains repositories that may be used as reference repositories of clone. Reference repositories are not
+     *         used if it is {@code null}
+     */
+    @Inject
+    ReferenceRepositoryResolver(@Nullable @Named("git.clone.reference_root_dir") String referenceRootDir) {
+        this.referenceRootDir = referenceRootDir == null ? null : Paths.get(referenceRootDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resolves name of reference repository against reference root directory. Returns {@code null}, so whole repository is fetched, if
+     * name is not specified, reference repositories are not configured or repository doesn't exist.
+     *
+     * @throws ForbiddenException
+     *         if name points outside of reference root directory
+     */
+    String resolve(String name) throws ForbiddenException {
+        if (isNullOrEmpty(name)) {
+            return null;
+        }
+        if (referenceRootDir == null) {
+            LOG.warn("Reference repository {} is ignored, directory of reference repositories is not configured", name);
+            return null;
+        }
+        final Path reference = referenceRootDir.resolve(name).normalize();
+        if (!reference.startsWith(referenceRootDir) || reference.equals(referenceRootDir)) {
+            throw new ForbiddenException(String.format("Invalid reference repository %s", name));
+        }
+        if (!reference.toFile().isDirectory()) {
+            LOG.warn("Reference repository {} doesn't exist, clone whole repository", reference);
+            return null;
+        }
+        return reference.toString();
+    }
+}
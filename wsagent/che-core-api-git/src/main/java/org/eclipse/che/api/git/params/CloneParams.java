@@ -28,6 +28,7 @@ public class CloneParams {
     private String       remoteName;
     private String       username;
     private String       password;
+    private String       reference;
     private int          timeout;
     private boolean      recursive;
 
@@ -120,6 +121,17 @@ public class CloneParams {
         return this;
     }
 
+    /** @see CloneRequest#getReference() */
+    public String getReference() {
+        return reference;
+    }
+
+    /** @see CloneRequest#withReference(String) */
+    public CloneParams withReference(String reference) {
+        this.reference = reference;
+        return this;
+    }
+
     /** Returns user name for authentication. */
     public String getUsername() {
         return username;
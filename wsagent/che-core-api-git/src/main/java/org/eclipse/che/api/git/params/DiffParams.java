@@ -29,6 +29,7 @@ public class DiffParams {
     private int          renameLimit;
     private boolean      noRenames;
     private boolean      isCached;
+    private long         sizeLimit;
 
     private DiffParams() {
     }
@@ -113,4 +114,18 @@ public class DiffParams {
         return this;
     }
 
+    /**
+     * Returns max size in bytes of content which may be compared or returned, {@code 0} (default) means no limit. Used by
+     * {@link org.eclipse.che.api.git.GitConnection#diffFiles(DiffParams)} and
+     * {@link org.eclipse.che.api.git.GitConnection#diffFile(DiffParams, String, String, int, int)}.
+     */
+    public long getSizeLimit() {
+        return sizeLimit;
+    }
+
+    public DiffParams withSizeLimit(long sizeLimit) {
+        this.sizeLimit = sizeLimit;
+        return this;
+    }
+
 }
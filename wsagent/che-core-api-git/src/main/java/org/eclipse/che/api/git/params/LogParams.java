@@ -26,6 +26,7 @@ public class LogParams {
     private String       filePath;
     private int          skip;
     private int          maxCount;
+    private boolean      diffFiles;
 
     private LogParams() {
         skip = -1;
@@ -166,4 +167,25 @@ public class LogParams {
         this.fileFilter = fileFilter;
         return this;
     }
+
+    /** Returns {@code true} if lists of files changed by commits should be returned. */
+    public boolean isDiffFiles() {
+        return diffFiles;
+    }
+
+    /** Set whether lists of files changed by commits should be returned. */
+    public void setDiffFiles(boolean diffFiles) {
+        this.diffFiles = diffFiles;
+    }
+
+    /**
+     * Create a {@link LogParams} object based on a given flag of returning lists of files changed by commits
+     *
+     * @param diffFiles
+     *         if {@code true} lists of files changed by commits are returned, they are not counted by default
+     */
+    public LogParams withDiffFiles(boolean diffFiles) {
+        this.diffFiles = diffFiles;
+        return this;
+    }
 }
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import com.google.common.io.Files;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.model.project.SourceStorage;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.server.FolderEntry;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.HashMap;
+
+import static java.util.Collections.singletonMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link GitProjectImporter}
+ */
+public class GitProjectImporterTest {
+    private File                 referenceRootDir;
+    private GitConnectionFactory connectionFactory;
+    private GitProjectImporter   importer;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        referenceRootDir = Files.createTempDir();
+        connectionFactory = mock(GitConnectionFactory.class);
+        importer = new GitProjectImporter(connectionFactory,
+                                          mock(EventService.class),
+                                          new ReferenceRepositoryResolver(referenceRootDir.getAbsolutePath()));
+    }
+
+    @AfterMethod
+    public void cleanUp() throws Exception {
+        IoUtil.deleteRecursive(referenceRootDir);
+    }
+
+    @Test(expectedExceptions = ForbiddenException.class)
+    public void rejectsReferenceRepositoryOutsideOfReferenceRootDir() throws Exception {
+        SourceStorage storage = mock(SourceStorage.class);
+        when(storage.getLocation()).thenReturn("https://host/repo.git");
+        when(storage.getParameters()).thenReturn(new HashMap<>(singletonMap("reference", "../" + referenceRootDir.getName())));
+
+        try {
+            importer.importSources(mock(FolderEntry.class), storage);
+        } finally {
+            verifyZeroInteractions(connectionFactory);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.git.GitConnection;
 import org.eclipse.che.api.git.GitConnectionFactory;
 import org.eclipse.che.api.git.params.CloneParams;
+import org.eclipse.che.api.git.shared.Branch;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -26,7 +27,12 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.api.git.shared.BranchListMode.LIST_REMOTE;
 import static org.eclipse.che.git.impl.GitTestUtil.cleanupTestRepo;
 import static org.eclipse.che.git.impl.GitTestUtil.connectToGitRepositoryWithContent;
 import static org.mockito.Matchers.anyString;
@@ -35,6 +41,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 /**
  * @author Igor Vinokur
@@ -91,4 +98,48 @@ public class CloneTest {
         //then
         verify(lineConsumer, atLeastOnce()).writeLine(anyString());
     }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = GitConnectionFactoryProvider.class)
+    public void testCloneOfSingleBranch(GitConnectionFactory connectionFactory)
+            throws ServerException, IOException, UnauthorizedException, URISyntaxException {
+        //given
+        GitConnection remoteConnection = connectToGitRepositoryWithContent(connectionFactory, remoteRepo);
+        remoteConnection.branchCreate("other", null);
+        GitConnection localConnection = connectionFactory.getConnection(localRepo.getAbsolutePath());
+
+        //when
+        localConnection.clone(CloneParams.create(remoteConnection.getWorkingDir().getAbsolutePath())
+                                         .withBranchesToFetch(singletonList("refs/heads/other")));
+
+        //then
+        List<String> remoteBranches = localConnection.branchList(LIST_REMOTE)
+                                                     .stream()
+                                                     .map(Branch::getDisplayName)
+                                                     .collect(Collectors.toList());
+        assertEquals(singletonList("origin/other"), remoteBranches);
+        assertEquals("other", localConnection.getCurrentBranch());
+    }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = GitConnectionFactoryProvider.class)
+    public void testCloneWithReferenceRepository(GitConnectionFactory connectionFactory)
+            throws ServerException, IOException, UnauthorizedException, URISyntaxException {
+        //given
+        GitConnection remoteConnection = connectToGitRepositoryWithContent(connectionFactory, remoteRepo);
+        GitConnection localConnection = connectionFactory.getConnection(localRepo.getAbsolutePath());
+        int filesBefore = localRepo.listFiles().length;
+
+        //when
+        localConnection.clone(CloneParams.create(remoteConnection.getWorkingDir().getAbsolutePath())
+                                         .withReference(remoteRepo.getAbsolutePath()));
+
+        //then
+        assertEquals(localRepo.listFiles().length, filesBefore + 2);
+        File alternates = new File(localRepo, ".git/objects/info/alternates");
+        assertTrue(alternates.exists());
+        assertEquals(new File(remoteRepo, ".git/objects").getCanonicalPath(), Files.toString(alternates, UTF_8).trim());
+        // all objects are borrowed from reference repository, nothing is fetched
+        File[] packs = new File(localRepo, ".git/objects/pack").listFiles((dir, name) -> name.endsWith(".pack"));
+        assertTrue(packs == null || packs.length == 0);
+        assertEquals("master", localConnection.getCurrentBranch());
+    }
 }
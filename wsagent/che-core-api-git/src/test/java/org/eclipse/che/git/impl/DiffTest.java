@@ -22,6 +22,7 @@ import org.eclipse.che.api.git.params.DiffParams;
 import org.eclipse.che.api.git.params.RmParams;
 import org.eclipse.che.api.git.shared.AddRequest;
 import org.eclipse.che.api.git.shared.DiffType;
+import org.eclipse.che.api.git.shared.FileDiff;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -33,6 +34,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static java.util.Collections.singletonList;
@@ -338,6 +340,88 @@ public class DiffTest {
         diffPage.writeTo(System.out);
     }
 
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testDiffFiles(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        makeCommitInMaster(connection);
+
+        //when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        connection.diffFiles(DiffParams.create()).writeTo(out);
+
+        //then
+        assertEquals(out.toString(),
+                     "{\"files\":[{\"changeType\":\"MODIFY\",\"oldPath\":\"aaa\",\"newPath\":\"aaa\",\"binary\":false,"
+                     + "\"added\":1,\"deleted\":1}],\"renameLimitExceeded\":false,\"sizeLimitExceeded\":false}");
+    }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testDiffFilesWithSizeLimit(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        makeCommitInMaster(connection);
+
+        //when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        connection.diffFiles(DiffParams.create().withSizeLimit(1)).writeTo(out);
+
+        //then
+        assertEquals(out.toString(),
+                     "{\"files\":[{\"changeType\":\"MODIFY\",\"oldPath\":\"aaa\",\"newPath\":\"aaa\"}],"
+                     + "\"renameLimitExceeded\":false,\"sizeLimitExceeded\":true}");
+    }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testDiffFileHunksByPortions(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection, "lines", lines(1, 20));
+        connection.add(AddParams.create(singletonList("lines")));
+        connection.commit(CommitParams.create("add lines"));
+        addFile(connection, "lines", "changed\n" + lines(2, 19) + "changed\n");
+
+        //when
+        FileDiff first = connection.diffFile(DiffParams.create(), "lines", null, 0, 1);
+        FileDiff second = connection.diffFile(DiffParams.create(), "lines", null, first.getNext(), 1);
+
+        //then
+        assertEquals(first.getHunks().size(), 1);
+        assertEquals(first.getHunks().get(0).getOldStart(), 1);
+        assertEquals(first.getHunks().get(0).getLines().subList(0, 2), Arrays.asList("-line1", "+changed"));
+        assertEquals(first.getNext(), 1);
+        assertEquals(second.getHunks().size(), 1);
+        assertEquals(second.getHunks().get(0).getNewStart(), 17);
+        assertEquals(second.getNext(), -1);
+    }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testDiffFileHunkIsCutBySizeLimit(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection, "lines", lines(1, 20));
+        connection.add(AddParams.create(singletonList("lines")));
+        connection.commit(CommitParams.create("add lines"));
+        addFile(connection, "lines", "changed\n" + lines(2, 19) + "changed\n");
+
+        //when
+        FileDiff diff = connection.diffFile(DiffParams.create().withSizeLimit(15), "lines", null, 0, 0);
+
+        //then
+        assertEquals(diff.getHunks().size(), 1);
+        assertEquals(diff.getHunks().get(0).getLines(), Arrays.asList("-line1", "+changed"));
+        assertTrue(diff.isTruncated());
+        assertEquals(diff.getNext(), 1);
+    }
+
+    private String lines(int from, int to) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = from; i <= to; i++) {
+            lines.append("line").append(i).append('\n');
+        }
+        return lines.toString();
+    }
+
     private List<String> readDiff(DiffParams params, GitConnection connection) throws GitException, IOException {
         DiffPage diffPage = connection.diff(params);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
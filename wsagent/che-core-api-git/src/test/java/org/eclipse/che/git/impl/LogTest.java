@@ -19,6 +19,7 @@ import org.eclipse.che.api.git.exception.GitException;
 import org.eclipse.che.api.git.params.AddParams;
 import org.eclipse.che.api.git.params.CommitParams;
 import org.eclipse.che.api.git.params.LogParams;
+import org.eclipse.che.api.git.shared.Branch;
 import org.eclipse.che.api.git.shared.Revision;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -29,12 +30,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 
 import static org.eclipse.che.git.impl.GitTestUtil.addFile;
 import static org.eclipse.che.git.impl.GitTestUtil.cleanupTestRepo;
 import static org.eclipse.che.git.impl.GitTestUtil.connectToInitializedGitRepository;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Igor Vinokur
@@ -115,6 +118,31 @@ public class LogTest {
         assertEquals(4, allFilesCommitCount);
     }
 
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = GitConnectionFactoryProvider.class)
+    public void testLogBranchesOfCommits(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection, "1.txt", "someChanges");
+        connection.add(AddParams.create());
+        connection.commit(CommitParams.create("add 1.txt file"));
+        connection.branchCreate("first", null);
+
+        addFile(connection, "2.txt", "newChanges");
+        connection.add(AddParams.create());
+        connection.commit(CommitParams.create("add 2.txt file"));
+        List<Revision> commitsBeforeBranch = connection.log(LogParams.create()).getCommits();
+        connection.branchCreate("second", null);
+
+        //when
+        List<Revision> commits = connection.log(LogParams.create()).getCommits();
+
+        //then
+        assertEquals(branchNames(commitsBeforeBranch.get(0)), ImmutableList.of("refs/heads/master"));
+        assertEquals(branchNames(commits.get(0)), ImmutableList.of("refs/heads/master", "refs/heads/second"));
+        assertEquals(branchNames(commits.get(1)), ImmutableList.of("refs/heads/first", "refs/heads/master", "refs/heads/second"));
+        assertTrue(commits.get(0).getDiffCommitFile().isEmpty());
+    }
+
     @Test(dataProvider = "GitConnectionFactory", dataProviderClass = GitConnectionFactoryProvider.class)
     public void testLogSkip(GitConnectionFactory connectionFactory) throws GitException, IOException {
         //given
@@ -139,9 +167,9 @@ public class LogTest {
         List<Revision> allCommits =
             connection.log(LogParams.create()).getCommits();
         List<Revision> firstBucketOfCommits =
-            connection.log(LogParams.create().withSkip(1)).getCommits();
+            connection.log(LogParams.create().withSkip(1).withDiffFiles(true)).getCommits();
         List<Revision> secondBucketOfCommits =
-            connection.log(LogParams.create().withSkip(3)).getCommits();
+            connection.log(LogParams.create().withSkip(3).withDiffFiles(true)).getCommits();
 
         //then
         assertEquals(4, allCommits.size());
@@ -240,9 +268,9 @@ public class LogTest {
         List<Revision> allCommits =
             connection.log(LogParams.create()).getCommits();
         List<Revision> firstBacketOfCommits =
-            connection.log(LogParams.create().withSkip(1).withMaxCount(2)).getCommits();
+            connection.log(LogParams.create().withSkip(1).withMaxCount(2).withDiffFiles(true)).getCommits();
         List<Revision> secondBacketOfCommits =
-            connection.log(LogParams.create().withSkip(2).withMaxCount(2)).getCommits();
+            connection.log(LogParams.create().withSkip(2).withMaxCount(2).withDiffFiles(true)).getCommits();
 
         //then
         assertEquals(4, allCommits.size());
@@ -316,4 +344,8 @@ public class LogTest {
         assertEquals(thirdAndFourthCommits.get(0).getMessage(), "add 4.txt file");
         assertEquals(thirdAndFourthCommits.get(1).getMessage(), "add 3.txt file");
     }
+
+    private List<String> branchNames(Revision revision) {
+        return revision.getBranches().stream().map(Branch::getName).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Text edits of file made against known version of its content. Version of content is MD5 hash sum of content represented as HEX
+ * String.
+ */
+@DTO
+public interface FileEdits {
+    @ApiModelProperty(value = "Version of content the edits are made against", required = true, position = 1)
+    String getVersion();
+
+    FileEdits withVersion(String version);
+
+    /** Gets edits. Ranges of edits must not overlap. */
+    @ApiModelProperty(value = "Non-overlapping edits of content", required = true, position = 2)
+    List<TextEdit> getEdits();
+
+    FileEdits withEdits(List<TextEdit> edits);
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Single operation of batch of file operations, see {@link FileOperationsBatch}.
+ */
+@DTO
+public interface FileOperation {
+    String CREATE_FILE   = "create-file";
+    String CREATE_FOLDER = "create-folder";
+    String UPDATE        = "update";
+    String COPY          = "copy";
+    String MOVE          = "move";
+    String DELETE        = "delete";
+
+    @ApiModelProperty(value = "Type of operation",
+                      allowableValues = "create-file, create-folder, update, copy, move, delete",
+                      required = true,
+                      position = 1)
+    String getType();
+
+    FileOperation withType(String type);
+
+    /** Gets path of item. For creation operations it is path of new item. */
+    @ApiModelProperty(value = "Path of item", required = true, position = 2)
+    String getPath();
+
+    FileOperation withPath(String path);
+
+    /** Gets content of file to create or update. */
+    @ApiModelProperty(value = "Text content of file to create or update", position = 3)
+    String getContent();
+
+    FileOperation withContent(String content);
+
+    /** Gets path of new parent for copy and move operations. If it is not set move operation renames item. */
+    @ApiModelProperty(value = "Path of new parent of item to copy or move", position = 4)
+    String getTo();
+
+    FileOperation withTo(String to);
+
+    /** Gets new name of item for copy and move operations. */
+    @ApiModelProperty(value = "New name of item to copy or move", position = 5)
+    String getName();
+
+    FileOperation withName(String name);
+
+    @ApiModelProperty(value = "Overwrite if there's a conflict with file names", position = 6)
+    boolean isOverWrite();
+
+    FileOperation withOverWrite(boolean overWrite);
+}
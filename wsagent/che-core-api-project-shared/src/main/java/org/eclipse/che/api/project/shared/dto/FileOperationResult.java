@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Result of single operation of batch of file operations.
+ */
+@DTO
+public interface FileOperationResult {
+    /** Gets path of item after operation, e.g. path of copy of item. */
+    @ApiModelProperty(value = "Path of item after operation", position = 1)
+    String getPath();
+
+    FileOperationResult withPath(String path);
+
+    /** Gets HTTP status code which corresponds to the result of operation, e.g. 404 if item is not found. */
+    @ApiModelProperty(value = "HTTP status code of operation", position = 2)
+    int getStatus();
+
+    FileOperationResult withStatus(int status);
+
+    @ApiModelProperty(value = "Error message if operation failed", position = 3)
+    String getMessage();
+
+    FileOperationResult withMessage(String message);
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Ordered list of file operations which are applied with one request.
+ */
+@DTO
+public interface FileOperationsBatch {
+    @ApiModelProperty(value = "Operations in order they must be applied", required = true)
+    List<FileOperation> getOperations();
+
+    FileOperationsBatch withOperations(List<FileOperation> operations);
+}
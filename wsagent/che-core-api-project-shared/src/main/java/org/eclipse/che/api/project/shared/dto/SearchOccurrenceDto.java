@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Occurrence of searched text in the file.
+ */
+@DTO
+public interface SearchOccurrenceDto {
+    /** Matched text. */
+    String getPhrase();
+
+    void setPhrase(String phrase);
+
+    SearchOccurrenceDto withPhrase(String phrase);
+
+    /** Number of line that contains matched text, starting from 1. */
+    int getLineNumber();
+
+    void setLineNumber(int lineNumber);
+
+    SearchOccurrenceDto withLineNumber(int lineNumber);
+
+    /** Offset of the first character of matched text from the beginning of the file. */
+    int getStartOffset();
+
+    void setStartOffset(int startOffset);
+
+    SearchOccurrenceDto withStartOffset(int startOffset);
+
+    /** Offset after the last character of matched text from the beginning of the file. */
+    int getEndOffset();
+
+    void setEndOffset(int endOffset);
+
+    SearchOccurrenceDto withEndOffset(int endOffset);
+
+    /** Content of line that contains matched text. */
+    String getLineContent();
+
+    void setLineContent(String lineContent);
+
+    SearchOccurrenceDto withLineContent(String lineContent);
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * File that matches the search criteria together with occurrences of searched text in it.
+ */
+@DTO
+public interface SearchResultDto extends ItemReference {
+    /** Occurrences of searched text in the file. Empty if search was performed without text criteria. */
+    List<SearchOccurrenceDto> getSearchOccurrences();
+
+    void setSearchOccurrences(List<SearchOccurrenceDto> searchOccurrences);
+
+    SearchResultDto withSearchOccurrences(List<SearchOccurrenceDto> searchOccurrences);
+}
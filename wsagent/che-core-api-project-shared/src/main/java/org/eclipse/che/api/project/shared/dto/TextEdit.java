@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Replacement of range of text. Range is set with offsets of characters in original content of file, before any edit of the same
+ * {@link FileEdits} is applied.
+ */
+@DTO
+public interface TextEdit {
+    @ApiModelProperty(value = "Offset of the first replaced character", required = true, position = 1)
+    int getStart();
+
+    TextEdit withStart(int start);
+
+    /** Gets offset of character after the last replaced character. It is equal to {@link #getStart()} for insertion. */
+    @ApiModelProperty(value = "Offset of character after the last replaced character", required = true, position = 2)
+    int getEnd();
+
+    TextEdit withEnd(int end);
+
+    @ApiModelProperty(value = "Text to insert instead of range, empty for deletion", position = 3)
+    String getText();
+
+    TextEdit withText(String text);
+}
@@ -20,7 +20,10 @@ import org.eclipse.che.api.project.shared.dto.AttributeDto;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.ProjectImporterDescriptor;
 import org.eclipse.che.api.project.shared.dto.ProjectTypeDto;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
+import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.ValueDto;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectProblemDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
@@ -86,6 +89,29 @@ public class DtoConverter {
                                           .withContentLength(file.getVirtualFile().getLength());
     }
 
+    /** Converts {@link FileEntry} and occurrences of searched text in it to {@link SearchResultDto}. */
+    public static SearchResultDto asDto(FileEntry file, List<SearchOccurrence> occurrences) throws ServerException {
+        final SearchResultDto searchResult = newDto(SearchResultDto.class);
+        searchResult.setName(file.getName());
+        searchResult.setPath(file.getPath().toString());
+        searchResult.setType("file");
+        searchResult.setAttributes(file.getAttributes());
+        searchResult.setModified(file.getModified());
+        searchResult.setContentLength(file.getVirtualFile().getLength());
+        return searchResult.withSearchOccurrences(occurrences.stream()
+                                                             .map(DtoConverter::asDto)
+                                                             .collect(Collectors.toList()));
+    }
+
+    /** Converts {@link SearchOccurrence} to {@link SearchOccurrenceDto}. */
+    public static SearchOccurrenceDto asDto(SearchOccurrence occurrence) {
+        return newDto(SearchOccurrenceDto.class).withPhrase(occurrence.getPhrase())
+                                                .withLineNumber(occurrence.getLineNumber())
+                                                .withStartOffset(occurrence.getStartOffset())
+                                                .withEndOffset(occurrence.getEndOffset())
+                                                .withLineContent(occurrence.getLineContent());
+    }
+
     /** Converts {@link FolderEntry} to {@link ItemReference}. */
     public static ItemReference asDto(FolderEntry folder) {
         return newDto(ItemReference.class).withName(folder.getName())
@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.hash.Hashing;
+
+import org.eclipse.che.api.core.ApiException;
+import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
+import org.eclipse.che.api.project.server.notification.ProjectItemsModifiedEvent;
+import org.eclipse.che.api.project.shared.dto.FileOperation;
+import org.eclipse.che.api.project.shared.dto.FileOperationResult;
+import org.eclipse.che.api.project.shared.dto.TextEdit;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.search.impl.LuceneSearcher;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingInt;
+import static org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent.EventType.CREATED;
+import static org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent.EventType.DELETED;
+import static org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent.EventType.MOVED;
+import static org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent.EventType.UPDATED;
+
+/**
+ * Applies batches of file operations. Each batch holds locks of all paths it changes while its operations are applied, so batches
+ * which change the same items do not interleave with each other and with other requests which change them through virtual file
+ * system. Failure of one operation does not stop the batch, result of each operation is
+ * reported separately. When the whole batch is applied changes become visible for search at once and are published with single
+ * {@link ProjectItemsModifiedEvent}.
+ * <p>
+ * Also applies text edits to content of single file, see {@link #applyEdits(String, String, List)}.
+ */
+class FileOperationsRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(FileOperationsRunner.class);
+
+    private static final long LOCK_TIMEOUT_MILLIS = 30000;
+
+    /** Used when virtual file system doesn't expose its locks, shared by all runners since runner is created per request. */
+    private static final PathLockFactory FALLBACK_LOCKS = new PathLockFactory(1);
+
+    private final ProjectManager  projectManager;
+    private final EventService    eventService;
+    private final String          workspace;
+    private final PathLockFactory locks;
+
+    FileOperationsRunner(ProjectManager projectManager, EventService eventService, String workspace) {
+        this.projectManager = projectManager;
+        this.eventService = eventService;
+        this.workspace = workspace;
+        final PathLockFactory fileSystemLocks = projectManager.getPathLockFactory();
+        this.locks = fileSystemLocks == null ? FALLBACK_LOCKS : fileSystemLocks;
+    }
+
+    /**
+     * Applies operations in specified order.
+     *
+     * @return results of operations in the same order as operations
+     * @throws ServerException
+     *         if paths changed by operations can't be locked
+     */
+    List<FileOperationResult> apply(List<FileOperation> operations) throws ServerException {
+        final List<PathLockFactory.PathLock> acquired = lock(operations);
+        final List<FileOperationResult> results = new ArrayList<>(operations.size());
+        final Map<String, ProjectItemModifiedEvent> changes = new LinkedHashMap<>();
+        try {
+            for (FileOperation operation : operations) {
+                results.add(apply(operation, changes));
+            }
+            if (operations.stream().anyMatch(operation -> FileOperation.DELETE.equals(operation.getType()))) {
+                projectManager.syncProjects();
+            }
+        } finally {
+            Collections.reverse(acquired);
+            acquired.forEach(PathLockFactory.PathLock::release);
+        }
+
+        refreshSearcher();
+        if (!changes.isEmpty()) {
+            eventService.publish(new ProjectItemsModifiedEvent(workspace, new ArrayList<>(changes.values())));
+        }
+        return results;
+    }
+
+    /**
+     * Applies text edits to content of file. Edits are made against specified version of content, version is MD5 hash sum of content
+     * represented as HEX String. All edits are applied in memory and then file is updated once, so search index and file watchers see
+     * single change.
+     *
+     * @return version of updated content
+     * @throws NotFoundException
+     *         if file doesn't exist
+     * @throws ConflictException
+     *         if current content of file has different version
+     * @throws BadRequestException
+     *         if any edit is out of content or edits overlap or content of file is not valid UTF-8 text
+     * @throws ForbiddenException
+     *         if file is locked
+     * @throws ServerException
+     *         if other error occurs
+     */
+    String applyEdits(String path, String version, List<TextEdit> edits) throws NotFoundException,
+                                                                                ConflictException,
+                                                                                BadRequestException,
+                                                                                ForbiddenException,
+                                                                                ServerException {
+        final PathLockFactory.PathLock lock = lock(Path.of(ProjectRegistry.absolutizePath(path)));
+        final FileEntry file;
+        final String newVersion;
+        try {
+            file = projectManager.asFile(path);
+            if (file == null) {
+                throw new NotFoundException("File not found for " + path);
+            }
+            final byte[] content = file.contentAsBytes();
+            if (!version(content).equals(version)) {
+                throw new ConflictException(String.format("Content of %s was changed, its version is not %s", path, version));
+            }
+            final byte[] newContent = applyEdits(decode(path, content), edits).getBytes(UTF_8);
+            file.updateContent(newContent);
+            newVersion = version(newContent);
+        } finally {
+            lock.release();
+        }
+
+        refreshSearcher();
+        eventService.publish(new ProjectItemModifiedEvent(UPDATED, workspace, file.getProject(), file.getPath().toString(), false));
+        return newVersion;
+    }
+
+    /**
+     * Decodes content of file as UTF-8 text. Malformed content is rejected instead of being replaced, otherwise edits of binary or
+     * differently encoded file would silently corrupt it.
+     */
+    private static String decode(String path, byte[] content) throws BadRequestException {
+        try {
+            return UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(ByteBuffer.wrap(content))
+                        .toString();
+        } catch (CharacterCodingException e) {
+            throw new BadRequestException(String.format("Content of %s is not valid UTF-8 text and can't be edited", path));
+        }
+    }
+
+    /** Returns version of content which is MD5 hash sum of content represented as HEX String. */
+    static String version(byte[] content) {
+        return Hashing.md5().hashBytes(content).toString();
+    }
+
+    /**
+     * Applies edits to text. Offsets of all edits point to the original text.
+     *
+     * @throws BadRequestException
+     *         if any edit is out of text or edits overlap
+     */
+    static String applyEdits(String text, List<TextEdit> edits) throws BadRequestException {
+        final List<TextEdit> sorted = new ArrayList<>(edits);
+        // sort is stable, insertions at the same offset keep their order
+        sorted.sort(comparingInt(TextEdit::getStart));
+        final StringBuilder result = new StringBuilder(text.length());
+        int offset = 0;
+        for (TextEdit edit : sorted) {
+            if (edit.getStart() < offset || edit.getEnd() < edit.getStart() || edit.getEnd() > text.length()) {
+                throw new BadRequestException(String.format("Invalid edit of range [%d, %d), edits must not overlap and must be in range " +
+                                                            "[0, %d]", edit.getStart(), edit.getEnd(), text.length()));
+            }
+            result.append(text, offset, edit.getStart());
+            if (edit.getText() != null) {
+                result.append(edit.getText());
+            }
+            offset = edit.getEnd();
+        }
+        return result.append(text, offset, text.length()).toString();
+    }
+
+    private FileOperationResult apply(FileOperation operation, Map<String, ProjectItemModifiedEvent> changes) {
+        try {
+            final String path = operation.getPath();
+            if (path == null || path.isEmpty()) {
+                throw new BadRequestException("Path of item is not specified");
+            }
+            final String type = operation.getType() == null ? "" : operation.getType();
+            switch (type) {
+                case FileOperation.CREATE_FILE: {
+                    final Path filePath = Path.of(ProjectRegistry.absolutizePath(path));
+                    final FolderEntry parent = projectManager.asFolder(filePath.getParent().toString());
+                    if (parent == null) {
+                        throw new NotFoundException("Parent not found for " + path);
+                    }
+                    final FileEntry file = parent.createFile(filePath.getName(), getContent(operation));
+                    addChange(changes, CREATED, file, null);
+                    return result(file.getPath().toString(), 201, null);
+                }
+                case FileOperation.CREATE_FOLDER: {
+                    final FolderEntry folder = projectManager.getProjectsRoot().createFolder(path);
+                    addChange(changes, CREATED, folder, null);
+                    return result(folder.getPath().toString(), 201, null);
+                }
+                case FileOperation.UPDATE: {
+                    final FileEntry file = projectManager.asFile(path);
+                    if (file == null) {
+                        throw new NotFoundException("File not found for " + path);
+                    }
+                    file.updateContent(getContent(operation));
+                    addChange(changes, UPDATED, file, null);
+                    return result(file.getPath().toString(), 200, null);
+                }
+                case FileOperation.COPY: {
+                    if (operation.getTo() == null) {
+                        throw new BadRequestException("New parent is not specified for copy of " + path);
+                    }
+                    final VirtualFileEntry copy =
+                            projectManager.copyTo(path, operation.getTo(), getNewName(operation), operation.isOverWrite());
+                    addChange(changes, CREATED, copy, null);
+                    return result(copy.getPath().toString(), 201, null);
+                }
+                case FileOperation.MOVE: {
+                    final String oldPath = getEntry(path).getPath().toString();
+                    final VirtualFileEntry move =
+                            projectManager.moveTo(path, operation.getTo(), getNewName(operation), operation.isOverWrite());
+                    addChange(changes, MOVED, move, oldPath);
+                    return result(move.getPath().toString(), 201, null);
+                }
+                case FileOperation.DELETE: {
+                    final VirtualFileEntry entry = getEntry(path);
+                    final String project = entry.getProject();
+                    projectManager.deleteItem(path);
+                    addChange(changes,
+                              new ProjectItemModifiedEvent(DELETED, workspace, project, entry.getPath().toString(), entry.isFolder()));
+                    return result(entry.getPath().toString(), 200, null);
+                }
+                default:
+                    throw new BadRequestException(String.format("Unknown type of operation '%s' for %s", operation.getType(), path));
+            }
+        } catch (ApiException e) {
+            return result(operation.getPath(), getStatus(e), e.getMessage());
+        }
+    }
+
+    private VirtualFileEntry getEntry(String path) throws NotFoundException, ServerException {
+        final VirtualFileEntry entry = projectManager.asVirtualFileEntry(path);
+        if (entry == null) {
+            throw new NotFoundException("Item not found " + path);
+        }
+        return entry;
+    }
+
+    private String getNewName(FileOperation operation) throws NotFoundException, ServerException {
+        return operation.getName() == null ? getEntry(operation.getPath()).getName() : operation.getName();
+    }
+
+    private static byte[] getContent(FileOperation operation) {
+        return operation.getContent() == null ? new byte[0] : operation.getContent().getBytes(UTF_8);
+    }
+
+    private void addChange(Map<String, ProjectItemModifiedEvent> changes,
+                           ProjectItemModifiedEvent.EventType type,
+                           VirtualFileEntry entry,
+                           String oldPath) {
+        addChange(changes, new ProjectItemModifiedEvent(type,
+                                                        workspace,
+                                                        entry.getProject(),
+                                                        entry.getPath().toString(),
+                                                        entry.isFolder(),
+                                                        oldPath));
+    }
+
+    /** Merges repeated changes of the same item, e.g. item created and then updated is reported as created. */
+    private static void addChange(Map<String, ProjectItemModifiedEvent> changes, ProjectItemModifiedEvent change) {
+        if (change.getType() == MOVED && change.getOldPath() != null) {
+            final ProjectItemModifiedEvent created = changes.get(change.getOldPath());
+            if (created != null && created.getType() == CREATED) {
+                // created and then moved item is reported as created at the new location
+                changes.remove(change.getOldPath());
+                change = new ProjectItemModifiedEvent(CREATED,
+                                                      change.getWorkspace(),
+                                                      change.getProject(),
+                                                      change.getPath(),
+                                                      change.isFolder());
+            }
+        }
+        final ProjectItemModifiedEvent previous = changes.remove(change.getPath());
+        if (previous != null && previous.getType() == CREATED) {
+            if (change.getType() == UPDATED) {
+                changes.put(change.getPath(), previous);
+            } else if (change.getType() != DELETED) {
+                changes.put(change.getPath(), change);
+            }
+            // created and then deleted item is not reported at all
+            return;
+        }
+        changes.put(change.getPath(), change);
+    }
+
+    /**
+     * Locks topmost paths changed by operations. Paths are locked in depth-first order, parent before its children, so two batches
+     * which change overlapping trees can't wait for each other.
+     */
+    private List<PathLockFactory.PathLock> lock(List<FileOperation> operations) throws ServerException {
+        final TreeSet<Path> paths = new TreeSet<>(FileOperationsRunner::compare);
+        for (FileOperation operation : operations) {
+            if (operation.getPath() == null || operation.getPath().isEmpty()) {
+                continue;
+            }
+            final Path path = Path.of(ProjectRegistry.absolutizePath(operation.getPath()));
+            final boolean copyOrMove = FileOperation.COPY.equals(operation.getType()) || FileOperation.MOVE.equals(operation.getType());
+            paths.add(path);
+            if (copyOrMove && operation.getTo() != null) {
+                paths.add(Path.of(ProjectRegistry.absolutizePath(operation.getTo())));
+            } else if (copyOrMove && operation.getName() != null && path.getParent() != null) {
+                // rename
+                paths.add(path.getParent().newPath(operation.getName()));
+            }
+        }
+
+        final List<PathLockFactory.PathLock> acquired = new ArrayList<>();
+        Path locked = null;
+        try {
+            for (Path path : paths) {
+                // children of locked path follow it
+                if (locked != null && path.isChild(locked)) {
+                    continue;
+                }
+                acquired.add(lock(path));
+                locked = path;
+            }
+        } catch (ServerException e) {
+            Collections.reverse(acquired);
+            acquired.forEach(PathLockFactory.PathLock::release);
+            throw e;
+        }
+        return acquired;
+    }
+
+    private PathLockFactory.PathLock lock(Path path) throws ServerException {
+        try {
+            return locks.getLock(path, true).acquire(LOCK_TIMEOUT_MILLIS);
+        } catch (RuntimeException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    private static int compare(Path one, Path two) {
+        final int length = Math.min(one.length(), two.length());
+        for (int i = 0; i < length; i++) {
+            final int result = one.element(i).compareTo(two.element(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(one.length(), two.length());
+    }
+
+    private void refreshSearcher() {
+        try {
+            final Searcher searcher = projectManager.getSearcher();
+            if (searcher instanceof LuceneSearcher) {
+                ((LuceneSearcher)searcher).refresh();
+            }
+        } catch (NotFoundException | ServerException e) {
+            LOG.warn(e.getMessage());
+        }
+    }
+
+    private static FileOperationResult result(String path, int status, String message) {
+        return DtoFactory.newDto(FileOperationResult.class).withPath(path).withStatus(status).withMessage(message);
+    }
+
+    private static int getStatus(ApiException e) {
+        if (e instanceof BadRequestException) {
+            return 400;
+        } else if (e instanceof UnauthorizedException) {
+            return 401;
+        } else if (e instanceof ForbiddenException) {
+            return 403;
+        } else if (e instanceof NotFoundException) {
+            return 404;
+        } else if (e instanceof ConflictException) {
+            return 409;
+        }
+        return 500;
+    }
+}
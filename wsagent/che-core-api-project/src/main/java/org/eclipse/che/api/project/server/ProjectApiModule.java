@@ -39,7 +39,8 @@ import org.eclipse.che.api.vfs.impl.file.event.detectors.FileTrackingOperationTr
 import org.eclipse.che.api.vfs.impl.file.event.detectors.ProjectTreeChangesDetector;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
-import org.eclipse.che.api.vfs.search.impl.FSLuceneSearcherProvider;
+import org.eclipse.che.api.vfs.search.impl.ConfiguredSearcherProvider;
+import org.eclipse.che.api.vfs.search.impl.FileWatcherIndexUpdater;
 
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
@@ -81,10 +82,12 @@ public class ProjectApiModule extends AbstractModule {
 
         Multibinder<PathMatcher> excludeMatcher = newSetBinder(binder(), PathMatcher.class, Names.named("vfs.index_filter_matcher"));
 
-        bind(SearcherProvider.class).to(FSLuceneSearcherProvider.class);
+        bind(SearcherProvider.class).toProvider(ConfiguredSearcherProvider.class);
         bind(VirtualFileSystemProvider.class).to(LocalVirtualFileSystemProvider.class);
 
         bind(FileWatcherNotificationHandler.class).to(DefaultFileWatcherNotificationHandler.class);
+        bind(FileWatcherIndexUpdater.class).asEagerSingleton();
+        bind(ProvidedValuesInvalidator.class).asEagerSingleton();
 
         configureVfsFilters(excludeMatcher);
         configureVfsEvent();
@@ -94,6 +97,7 @@ public class ProjectApiModule extends AbstractModule {
         addVfsFilter(excludeMatcher, ".che");
         addVfsFilter(excludeMatcher, ".codenvy");
         addVfsFilter(excludeMatcher, ".#");
+        addVfsFilter(excludeMatcher, ".vfs");
     }
 
     private void addVfsFilter(Multibinder<PathMatcher> excludeMatcher, String filter) {
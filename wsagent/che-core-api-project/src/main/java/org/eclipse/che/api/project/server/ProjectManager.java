@@ -19,7 +19,6 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 import org.eclipse.che.api.core.model.project.SourceStorage;
-import org.eclipse.che.api.core.model.project.type.ProjectType;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.project.server.handlers.CreateProjectHandler;
@@ -35,12 +34,14 @@ import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.FileTreeWatcher;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
 import org.eclipse.che.api.vfs.impl.file.event.LoEvent;
 import org.eclipse.che.api.vfs.impl.file.event.detectors.ProjectTreeChangesDetector;
 import org.eclipse.che.api.vfs.search.Searcher;
@@ -51,6 +52,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.IOException;
 import java.nio.file.PathMatcher;
@@ -81,8 +83,8 @@ public final class ProjectManager {
     private final ExecutorService                executor;
     private final WorkspaceProjectsSyncer        workspaceProjectsHolder;
     private final ProjectTreeChangesDetector     projectTreeChangesDetector;
+    private final ProjectTypesDetector           projectTypesDetector;
 
-    @Inject
     public ProjectManager(VirtualFileSystemProvider vfsProvider,
                           EventService eventService,
                           ProjectTypeRegistry projectTypeRegistry,
@@ -93,6 +95,36 @@ public final class ProjectManager {
                           FileTreeWatcher fileTreeWatcher,
                           WorkspaceProjectsSyncer workspaceProjectsHolder,
                           ProjectTreeChangesDetector projectTreeChangesDetector) throws ServerException {
+        this(vfsProvider,
+             eventService,
+             projectTypeRegistry,
+             projectRegistry,
+             handlers,
+             importers,
+             fileWatcherNotificationHandler,
+             fileTreeWatcher,
+             workspaceProjectsHolder,
+             projectTreeChangesDetector,
+             ProjectTypesDetector.DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * @param typesDetectionTimeBudget
+     *         max time in milliseconds during which project types of single folder are detected, types that are not checked
+     *         during this time are skipped
+     */
+    @Inject
+    public ProjectManager(VirtualFileSystemProvider vfsProvider,
+                          EventService eventService,
+                          ProjectTypeRegistry projectTypeRegistry,
+                          ProjectRegistry projectRegistry,
+                          ProjectHandlerRegistry handlers,
+                          ProjectImporterRegistry importers,
+                          FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                          FileTreeWatcher fileTreeWatcher,
+                          WorkspaceProjectsSyncer workspaceProjectsHolder,
+                          ProjectTreeChangesDetector projectTreeChangesDetector,
+                          @Named("project.types_detection.time_budget_ms") long typesDetectionTimeBudget) throws ServerException {
         this.vfs = vfsProvider.getVirtualFileSystem();
         this.eventService = eventService;
         this.projectTypeRegistry = projectTypeRegistry;
@@ -103,6 +135,7 @@ public final class ProjectManager {
         this.fileWatcher = fileTreeWatcher;
         this.workspaceProjectsHolder = workspaceProjectsHolder;
         this.projectTreeChangesDetector = projectTreeChangesDetector;
+        this.projectTypesDetector = new ProjectTypesDetector(typesDetectionTimeBudget);
 
         executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
                                                 new ThreadFactoryBuilder().setNameFormat("ProjectService-IndexingThread-")
@@ -154,6 +187,11 @@ public final class ProjectManager {
         return provider.getSearcher(vfs);
     }
 
+    /** Returns locks of items of virtual file system or {@code null} if virtual file system doesn't expose its locks. */
+    PathLockFactory getPathLockFactory() {
+        return vfs instanceof LocalVirtualFileSystem ? ((LocalVirtualFileSystem)vfs).getPathLockFactory() : null;
+    }
+
     public void addWatchListener(FileWatcherNotificationListener listener) {
         fileWatchNotifier.addNotificationListener(listener);
     }
@@ -458,24 +496,19 @@ public final class ProjectManager {
      * @throws NotFoundException
      */
     public List<ProjectTypeResolution> resolveSources(String path, boolean transientOnly) throws ServerException, NotFoundException {
-        final List<ProjectTypeResolution> resolutions = new ArrayList<>();
+        final FolderEntry baseFolder = asFolder(path);
+        if (baseFolder == null) {
+            throw new NotFoundException("Folder not found: " + path);
+        }
 
-        for (ProjectType type : projectTypeRegistry.getProjectTypes(ProjectTypeRegistry.CHILD_TO_PARENT_COMPARATOR)) {
-            if (transientOnly && type.isPersisted()) {
-                continue;
-            }
-
-            try {
-                final ProjectTypeResolution resolution = estimateProject(path, type.getId());
-                if (resolution.matched()) {
-                    resolutions.add(resolution);
-                }
-            } catch (ValueStorageException e) {
-                LOG.warn(e.getLocalizedMessage(), e);
+        final List<ProjectTypeDef> types = new ArrayList<>();
+        for (ProjectTypeDef type : projectTypeRegistry.getProjectTypes(ProjectTypeRegistry.CHILD_TO_PARENT_COMPARATOR)) {
+            if (!(transientOnly && type.isPersisted())) {
+                types.add(type);
             }
         }
 
-        return resolutions;
+        return projectTypesDetector.detect(baseFolder, types);
     }
 
     /**
@@ -489,6 +522,16 @@ public final class ProjectManager {
      * @throws ConflictException
      */
     public void delete(String path) throws ServerException, ForbiddenException, NotFoundException, ConflictException {
+        deleteItem(path);
+
+        syncProjects();
+    }
+
+    /**
+     * Deletes item including projects on and under its path but does not synchronize projects with workspace, see
+     * {@link #syncProjects()}.
+     */
+    void deleteItem(String path) throws ServerException, ForbiddenException, NotFoundException, ConflictException {
         final String apath = ProjectRegistry.absolutizePath(path);
 
         // delete item
@@ -499,7 +542,10 @@ public final class ProjectManager {
 
         // delete child projects
         projectRegistry.removeProjects(apath);
+    }
 
+    /** Synchronizes registered projects with workspace configuration. */
+    void syncProjects() throws ServerException {
         workspaceProjectsHolder.sync(projectRegistry);
     }
 
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -32,10 +34,14 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Stores internal representation of Projects registered in the Workspace Agent.
@@ -46,13 +52,16 @@ import java.util.stream.Collectors;
 public class ProjectRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectRegistry.class);
 
-    private final Map<String, RegisteredProject> projects;
-    private final WorkspaceProjectsSyncer        workspaceHolder;
-    private final VirtualFileSystem              vfs;
-    private final ProjectTypeRegistry            projectTypeRegistry;
-    private final ProjectHandlerRegistry         handlers;
-    private final FolderEntry                    root;
-    private final EventService                   eventService;
+    private static final int INIT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Sorted by path, so projects under some path are sequential keys, see {@link #descendants(String)}. */
+    private final ConcurrentNavigableMap<String, RegisteredProject> projects;
+    private final WorkspaceProjectsSyncer                           workspaceHolder;
+    private final VirtualFileSystem                                 vfs;
+    private final ProjectTypeRegistry                               projectTypeRegistry;
+    private final ProjectHandlerRegistry                            handlers;
+    private final FolderEntry                                       root;
+    private final EventService                                      eventService;
 
     private boolean initialized;
 
@@ -63,7 +72,7 @@ public class ProjectRegistry {
                            ProjectHandlerRegistry handlers,
                            EventService eventService) throws ServerException {
         this.eventService = eventService;
-        this.projects = new ConcurrentHashMap<>();
+        this.projects = new ConcurrentSkipListMap<>();
         this.workspaceHolder = workspaceHolder;
         this.vfs = vfsProvider.getVirtualFileSystem();
         this.projectTypeRegistry = projectTypeRegistry;
@@ -76,14 +85,38 @@ public class ProjectRegistry {
 
         List<? extends ProjectConfig> projectConfigs = workspaceHolder.getProjects();
 
-        // take all the projects from ws's config
-        for (ProjectConfig projectConfig : projectConfigs) {
-            final String path = projectConfig.getPath();
-            final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
-            final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
-
-            putProject(projectConfig, projectFolder, false, false);
+        // take all the projects from ws's config, projects are independent so initialize them in parallel
+        final ExecutorService executor = Executors.newFixedThreadPool(INIT_THREADS,
+                                                                      new ThreadFactoryBuilder().setNameFormat("ProjectRegistryInit-%d")
+                                                                                                .setDaemon(true)
+                                                                                                .build());
+        try {
+            final List<Future<RegisteredProject>> futures = new ArrayList<>(projectConfigs.size());
+            for (ProjectConfig projectConfig : projectConfigs) {
+                futures.add(executor.submit(() -> {
+                    final String path = projectConfig.getPath();
+                    final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
+                    final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
+
+                    return putProject(projectConfig, projectFolder, false, false);
+                }));
+            }
+            for (Future<RegisteredProject> future : futures) {
+                waitForProject(future);
+            }
 
+            // read all provided values, not only required ones, so first requests to projects don't wait for value providers
+            final List<Future<?>> providedValues = new ArrayList<>();
+            for (RegisteredProject project : projects.values()) {
+                if (project.getBaseFolder() != null) {
+                    providedValues.addAll(project.loadProvidedValues(executor));
+                }
+            }
+            for (Future<?> providedValue : providedValues) {
+                waitForProvidedValue(providedValue);
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
         initUnconfiguredFolders();
@@ -99,6 +132,36 @@ public class ProjectRegistry {
     }
 
 
+    private static void waitForProject(Future<RegisteredProject> future) throws ConflictException, NotFoundException, ServerException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while waiting for initialization of projects");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            } else if (cause instanceof ConflictException) {
+                throw (ConflictException)cause;
+            } else if (cause instanceof NotFoundException) {
+                throw (NotFoundException)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        }
+    }
+
+    private static void waitForProvidedValue(Future<?> future) throws ServerException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while waiting for initialization of projects");
+        } catch (ExecutionException e) {
+            LOG.warn("Unable read provided value of project attribute. {}", e.getCause().getMessage());
+        }
+    }
+
     /**
      * @return all the registered projects
      */
@@ -133,12 +196,7 @@ public class ProjectRegistry {
 
         initUnconfiguredFolders();
 
-        final Path root = Path.of(absolutizePath(parentPath));
-
-        return projects.keySet()
-                       .stream()
-                       .filter(key -> Path.of(key).isChild(root))
-                       .collect(Collectors.toList());
+        return new ArrayList<>(descendants(normalizePath(parentPath)).keySet());
     }
 
     /**
@@ -155,19 +213,44 @@ public class ProjectRegistry {
         }
 
         // otherwise try to find matched parent
-        Path test;
-        while ((test = Path.of(path).getParent()) != null) {
-            final RegisteredProject project = projects.get(test.toString());
+        String test = normalizePath(path);
+        while (!"/".equals(test)) {
+            final int separator = test.lastIndexOf('/');
+            test = separator == 0 ? "/" : test.substring(0, separator);
+            final RegisteredProject project = projects.get(test);
             if (project != null) {
                 return project;
             }
-
-            path = test.toString();
         }
 
         return null;
     }
 
+    /** Projects under specified absolute path, not including project with this path. */
+    private NavigableMap<String, RegisteredProject> descendants(String path) {
+        if ("/".equals(path)) {
+            return projects.tailMap(path, false);
+        }
+        // '0' is next character after '/'
+        return projects.subMap(path + '/', true, path + '0', false);
+    }
+
+    /**
+     * Drops cached provided values of projects which contain item with specified path and depend on it, see
+     * {@link RegisteredProject#invalidateProvidedValues(Path)}.
+     *
+     * @param path
+     *         absolute path of changed item
+     */
+    void invalidateProvidedValues(Path path) {
+        for (Path projectPath = path; projectPath != null; projectPath = projectPath.getParent()) {
+            final RegisteredProject project = projects.get(projectPath.toString());
+            if (project != null) {
+                project.invalidateProvidedValues(projectPath.equals(path) ? null : path.subPath(projectPath));
+            }
+        }
+    }
+
     /**
      * Creates RegisteredProject and caches it.
      *
@@ -208,8 +291,8 @@ public class ProjectRegistry {
 
         List<RegisteredProject> removed = new ArrayList<>();
         Optional.ofNullable(projects.remove(path)).ifPresent(removed::add);
-        getProjects(path).forEach(p -> Optional.ofNullable(projects.remove(p))
-                                               .ifPresent(removed::add));
+        new ArrayList<>(descendants(path).keySet()).forEach(p -> Optional.ofNullable(projects.remove(p))
+                                                                          .ifPresent(removed::add));
 
         removed.forEach(registeredProject -> eventService.publish(new ProjectDeletedEvent(registeredProject.getPath())));
     }
@@ -359,6 +442,12 @@ public class ProjectRegistry {
         return (path.startsWith("/")) ? path : "/".concat(path);
     }
 
+    /** Absolute path without trailing slash, in the same form as paths of registered projects. */
+    private static String normalizePath(String path) {
+        final String absolute = absolutizePath(path);
+        return absolute.length() > 1 && absolute.endsWith("/") ? absolute.substring(0, absolute.length() - 1) : absolute;
+    }
+
     /** Try to initialize projects from unconfigured folders on root. */
     private void initUnconfiguredFolders() {
         try {
@@ -34,6 +34,9 @@ import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
 import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
+import org.eclipse.che.api.project.shared.dto.FileEdits;
+import org.eclipse.che.api.project.shared.dto.FileOperationResult;
+import org.eclipse.che.api.project.shared.dto.FileOperationsBatch;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
@@ -58,6 +61,7 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
@@ -65,14 +69,21 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -83,6 +94,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.HttpMethod.DELETE;
 import static javax.ws.rs.HttpMethod.GET;
 import static javax.ws.rs.HttpMethod.PUT;
@@ -115,15 +127,17 @@ public class ProjectService extends Service {
     private static final Logger LOG  = LoggerFactory.getLogger(ProjectService.class);
     private static final Tika   TIKA = new Tika();
 
-    private final ProjectManager projectManager;
-    private final EventService   eventService;
-    private final String         workspace;
+    private final ProjectManager       projectManager;
+    private final EventService         eventService;
+    private final String               workspace;
+    private final FileOperationsRunner fileOperationsRunner;
 
     @Inject
     public ProjectService(ProjectManager projectManager, EventService eventService) {
         this.projectManager = projectManager;
         this.eventService = eventService;
         this.workspace = WorkspaceIdProvider.getWorkspaceId();
+        this.fileOperationsRunner = new FileOperationsRunner(projectManager, eventService, workspace);
     }
 
     @GET
@@ -449,20 +463,113 @@ public class ProjectService extends Service {
     }
 
     @ApiOperation(value = "Get file content",
-                  notes = "Get file content by its name")
+                  notes = "Get file content by its name. Single byte range may be requested with Range header. Response contains " +
+                          "ETag and Last-Modified headers, they may be used in conditional requests. ETag is MD5 hash sum of content " +
+                          "if it is already counted, otherwise it is weak tag built from length and modification date of file")
     @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 206, message = "Partial content"),
+                   @ApiResponse(code = 304, message = "Not modified"),
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 416, message = "Requested range not satisfiable"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
     @GET
     @Path("/file/{path:.*}")
     public Response getFile(@ApiParam(value = "Path to a file", required = true)
-                            @PathParam("path") String path) throws IOException, NotFoundException, ForbiddenException, ServerException {
+                            @PathParam("path") String path,
+                            @HeaderParam("Range") String range,
+                            @HeaderParam("If-Range") String ifRange,
+                            @Context Request request) throws IOException, NotFoundException, ForbiddenException, ServerException {
         final FileEntry file = projectManager.asFile(path);
         if (file == null) {
             throw new NotFoundException("File not found for " + path);
         }
-        return Response.ok().entity(file.getInputStream()).type(TIKA.detect(file.getName())).build();
+        final VirtualFile virtualFile = file.getVirtualFile();
+        final EntityTag tag = getEntityTag(virtualFile);
+        // HTTP dates have precision of one second
+        final Date modified = new Date(virtualFile.getLastModificationDate() / 1000 * 1000);
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(modified, tag);
+        if (notModified != null) {
+            return notModified.tag(tag).lastModified(modified).build();
+        }
+
+        final long length = virtualFile.getLength();
+        // range is ignored if content was changed since client got its If-Range tag, weak tags never match If-Range
+        final boolean rangeApplies = range != null && (ifRange == null || !tag.isWeak() && tag.toString().equals(ifRange));
+        final long[] byteRange = rangeApplies ? parseByteRange(range, length) : null;
+        if (byteRange == null) {
+            return Response.ok()
+                           .entity(file.getInputStream())
+                           .type(TIKA.detect(file.getName()))
+                           .tag(tag)
+                           .lastModified(modified)
+                           .header("Accept-Ranges", "bytes")
+                           .build();
+        }
+        if (byteRange.length == 0) {
+            return Response.status(416).header("Content-Range", "bytes */" + length).build();
+        }
+        return Response.status(206)
+                       .entity(virtualFile.getContent(byteRange[0], byteRange[1] - byteRange[0] + 1))
+                       .type(TIKA.detect(file.getName()))
+                       .tag(tag)
+                       .lastModified(modified)
+                       .header("Accept-Ranges", "bytes")
+                       .header("Content-Range", String.format("bytes %d-%d/%d", byteRange[0], byteRange[1], length))
+                       .build();
+    }
+
+    /**
+     * Gets tag of content of file. Content is not read to count MD5 hash sum, if hash sum is not known yet weak tag is built from
+     * length and modification date of file.
+     */
+    private static EntityTag getEntityTag(VirtualFile file) throws ServerException {
+        final String md5 = file.getKnownMd5Sum();
+        if (md5 != null) {
+            return new EntityTag(md5);
+        }
+        return new EntityTag(Long.toHexString(file.getLength()) + '-' + Long.toHexString(file.getLastModificationDate()), true);
+    }
+
+    /**
+     * Parses value of Range header. Only single range of bytes is supported, e.g. {@code bytes=0-499}, {@code bytes=500-} or
+     * {@code bytes=-500}.
+     *
+     * @return first and last positions of range, empty array if range is not satisfiable or {@code null} if header is not supported and
+     * should be ignored
+     */
+    private static long[] parseByteRange(String range, long length) {
+        final String prefix = "bytes=";
+        if (!range.startsWith(prefix) || range.indexOf(',') >= 0) {
+            return null;
+        }
+        final String spec = range.substring(prefix.length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        final long first;
+        final long last;
+        try {
+            if (dash == 0) {
+                // suffix range, last N bytes
+                final long suffix = Long.parseLong(spec.substring(1));
+                if (suffix == 0) {
+                    return new long[0];
+                }
+                first = Math.max(length - suffix, 0);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (first < 0 || first > last) {
+            return first >= length ? new long[0] : null;
+        }
+        return new long[]{first, last};
     }
 
     @PUT
@@ -494,6 +601,53 @@ public class ProjectService extends Service {
         return Response.ok().build();
     }
 
+    @POST
+    @Path("/edit/{path:.*}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Edit file",
+                  notes = "Applies text edits to content of file. Edits are made against version of content which is MD5 hash sum of " +
+                          "content represented as HEX String. Version of updated content is returned in ETag header")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 400, message = "Edits are not specified or invalid"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 409, message = "Content of file doesn't match specified version"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public Response editFile(@ApiParam(value = "Full path to a file", required = true)
+                             @PathParam("path") String path,
+                             @ApiParam(value = "Version of content and edits", required = true)
+                             FileEdits edits) throws NotFoundException,
+                                                     ConflictException,
+                                                     BadRequestException,
+                                                     ForbiddenException,
+                                                     ServerException {
+        if (edits == null || edits.getVersion() == null || edits.getEdits() == null) {
+            throw new BadRequestException("Version of content and edits are not specified");
+        }
+        final String version = fileOperationsRunner.applyEdits(path, edits.getVersion(), edits.getEdits());
+        return Response.ok().tag(version).build();
+    }
+
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Apply batch of file operations",
+                  notes = "Applies file operations in specified order. Result of each operation is reported separately, failure of one " +
+                          "operation does not stop the rest of batch",
+                  response = FileOperationResult.class,
+                  responseContainer = "List")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 400, message = "Operations are not specified"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public List<FileOperationResult> applyFileOperations(@ApiParam(value = "Operations to apply", required = true)
+                                                         FileOperationsBatch batch) throws BadRequestException, ServerException {
+        if (batch == null || batch.getOperations() == null) {
+            throw new BadRequestException("Operations are not specified");
+        }
+        return fileOperationsRunner.apply(batch.getOperations());
+    }
+
     @POST
     @Path("/copy/{path:.*}")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -692,8 +846,8 @@ public class ProjectService extends Service {
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public InputStream exportZip(@ApiParam(value = "Path to resource to be exported")
-                                 @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+    public Response exportZip(@ApiParam(value = "Path to resource to be exported")
+                              @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
 
         final FolderEntry folder = projectManager.asFolder(path);
 
@@ -701,7 +855,16 @@ public class ProjectService extends Service {
             throw new NotFoundException("Folder not found " + path);
         }
 
-        return folder.getVirtualFile().zip();
+        final VirtualFile virtualFile = folder.getVirtualFile();
+        // Archive is written directly to the response, so client gets first entries while the rest of folder is still compressed.
+        final StreamingOutput zip = output -> {
+            try {
+                virtualFile.zip(output);
+            } catch (ForbiddenException | ServerException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        return Response.ok(zip, ExtMediaType.APPLICATION_ZIP).build();
     }
 
     @GET
@@ -784,6 +947,64 @@ public class ProjectService extends Service {
                                         .withChildren(getTree(folder, depth, includeFiles));
     }
 
+    @GET
+    @Path("/entries/{parent:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get entries of project tree",
+                  notes = "Entries are streamed while tree is read. Each entry contains only name, path, type, modification date and " +
+                          "length of file, but no links. If number of entries exceeds 'maxItems' then response contains 'next' token " +
+                          "which should be sent as 'after' parameter to get the rest of entries")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 409, message = "Invalid parameters"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public Response getTreeEntries(@ApiParam(value = "Path to resource. Can be project or its folders", required = true)
+                                   @PathParam("parent") String path,
+                                   @ApiParam(value = "Tree depth. If not specified ?depth=1 is used by default")
+                                   @DefaultValue("1") @QueryParam("depth") int depth,
+                                   @ApiParam(value = "Include files in addition to folders. If not specified ?includeFiles=true is used")
+                                   @DefaultValue("true") @QueryParam("includeFiles") boolean includeFiles,
+                                   @ApiParam(value = "Glob pattern for names of files, e.g. *.java. Folders are not filtered by name")
+                                   @QueryParam("name") List<String> namePatterns,
+                                   @ApiParam(value = "Glob pattern for names of files and folders that must be skipped with their content")
+                                   @QueryParam("exclude") List<String> excludePatterns,
+                                   @ApiParam(value = "Maximum number of entries in response")
+                                   @DefaultValue("1000") @QueryParam("maxItems") int maxItems,
+                                   @ApiParam(value = "Token from 'next' field of previous response")
+                                   @QueryParam("after") String after) throws NotFoundException,
+                                                                              ForbiddenException,
+                                                                              ConflictException,
+                                                                              ServerException {
+        final FolderEntry folder = projectManager.asFolder(path);
+
+        if (folder == null) {
+            throw new NotFoundException("Folder not found " + path);
+        }
+        if (depth < 1) {
+            throw new ConflictException(String.format("Invalid 'depth' parameter: %d.", depth));
+        }
+        if (maxItems < 1) {
+            throw new ConflictException(String.format("Invalid 'maxItems' parameter: %d.", maxItems));
+        }
+
+        final TreeEntriesWriter entriesWriter;
+        try {
+            entriesWriter = new TreeEntriesWriter(folder, depth, includeFiles, namePatterns, excludePatterns, maxItems, after);
+        } catch (IllegalArgumentException e) {
+            throw new ConflictException(String.format("Invalid pattern. %s", e.getMessage()));
+        }
+        final StreamingOutput entries = output -> {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+            try {
+                entriesWriter.write(writer);
+            } catch (ServerException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        return Response.ok(entries, MediaType.APPLICATION_JSON).build();
+    }
+
     @GET
     @Path("/item/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -814,7 +1035,8 @@ public class ProjectService extends Service {
     @Path("/search/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
     @ApiOperation(value = "Search for resources",
-                  notes = "Search for resources applying a number of search filters as query parameters",
+                  notes = "Search for resources applying a number of search filters as query parameters. If there are more results, " +
+                          "response contains 'Link' header with relation 'next' which points to the next page of results",
                   response = ItemReference.class,
                   responseContainer = "List")
     @ApiResponses({@ApiResponse(code = 200, message = "OK"),
@@ -822,25 +1044,27 @@ public class ProjectService extends Service {
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 409, message = "Conflict error"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public List<ItemReference> search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
-                                      @PathParam("path") String path,
-                                      @ApiParam(value = "Resource name")
-                                      @QueryParam("name") String name,
-                                      @ApiParam(value = "Search keywords")
-                                      @QueryParam("text") String text,
-                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
-                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
-                                      @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount) throws NotFoundException,
-                                                                                     ForbiddenException,
-                                                                                     ConflictException,
-                                                                                     ServerException {
+    public Response search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                           @PathParam("path") String path,
+                           @ApiParam(value = "Resource name")
+                           @QueryParam("name") String name,
+                           @ApiParam(value = "Search keywords")
+                           @QueryParam("text") String text,
+                           @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                           @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                           @ApiParam(value = "Skip count")
+                           @QueryParam("skipCount") int skipCount,
+                           @ApiParam(value = "Include line numbers and offsets of occurrences of searched text in result")
+                           @QueryParam("includePositions") boolean includePositions,
+                           @ApiParam(value = "Token of next page returned with previous page. If it is set, skip count is not used")
+                           @QueryParam("continuationToken") String continuationToken)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException {
         final Searcher searcher;
         try {
             searcher = projectManager.getSearcher();
         } catch (NotFoundException e) {
             LOG.warn(e.getLocalizedMessage());
-            return Collections.emptyList();
+            return Response.ok(new GenericEntity<List<ItemReference>>(Collections.emptyList()) {}).build();
         }
 
         if (skipCount < 0) {
@@ -852,7 +1076,9 @@ public class ProjectService extends Service {
                 .setName(name)
                 .setText(text)
                 .setMaxItems(maxItems)
-                .setSkipCount(skipCount);
+                .setSkipCount(skipCount)
+                .setIncludePositions(includePositions)
+                .setContinuationToken(continuationToken);
 
         final SearchResult result = searcher.search(expr);
         final List<SearchResultEntry> searchResultEntries = result.getResults();
@@ -863,11 +1089,19 @@ public class ProjectService extends Service {
             final VirtualFileEntry child = root.getChild(searchResultEntry.getFilePath());
 
             if (child != null && child.isFile()) {
-                items.add(injectFileLinks(asDto((FileEntry)child)));
+                items.add(injectFileLinks(asDto((FileEntry)child, searchResultEntry.getOccurrences())));
             }
         }
 
-        return items;
+        final Response.ResponseBuilder response = Response.ok(new GenericEntity<List<ItemReference>>(items) {});
+        if (result.getContinuationToken().isPresent()) {
+            final URI next = uriInfo.getRequestUriBuilder()
+                                    .replaceQueryParam("skipCount", result.getNextPageQueryExpression().get().getSkipCount())
+                                    .replaceQueryParam("continuationToken", result.getContinuationToken().get())
+                                    .build();
+            response.header("Link", String.format("<%s>; rel=\"next\"", next));
+        }
+        return response.build();
     }
 
     private void logProjectCreatedEvent(@NotNull String projectName, @NotNull String projectType) {
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Comparator.comparing;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Checks which project types match folder. Types are checked concurrently on shared pool of threads. All types get the same view of
+ * folder: its children are listed once and content of well known manifest files, see {@link #MANIFESTS}, is read once, no matter how
+ * many value providers look at them. Time budget is counted from the moment types are submitted for checking, so detection never
+ * takes longer than the budget even if pool is busy. Types which are not checked during time budget are skipped.
+ * <p>
+ * Matched types are returned in order of confidence: type which resolves more provided attributes goes first. Types with the same
+ * confidence keep order in which they were passed to {@link #detect(FolderEntry, List)}.
+ */
+class ProjectTypesDetector {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectTypesDetector.class);
+
+    static final long DEFAULT_TIME_BUDGET_MILLIS = 10000;
+
+    /** Names of files which content is cached while types are checked. */
+    static final Set<String> MANIFESTS = ImmutableSet.of("pom.xml", "package.json", "composer.json");
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static class ExecutorHolder {
+        static final ExecutorService EXECUTOR =
+                Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder().setNameFormat("ProjectTypesDetector-%d")
+                                                                                 .setDaemon(true)
+                                                                                 .build());
+    }
+
+    private final long timeBudgetMillis;
+
+    ProjectTypesDetector() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * @param timeBudgetMillis
+     *         max time in milliseconds during which all project types passed to {@link #detect(FolderEntry, List)} may be checked
+     */
+    ProjectTypesDetector(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Checks specified project types against folder.
+     *
+     * @return resolutions of matched types sorted by confidence
+     */
+    List<ProjectTypeResolution> detect(FolderEntry folder, List<ProjectTypeDef> types) throws ServerException {
+        final ScannedFolderEntry scannedFolder = new ScannedFolderEntry(folder);
+        final long deadline = System.currentTimeMillis() + timeBudgetMillis;
+        final Map<ProjectTypeDef, Future<ProjectTypeResolution>> checks = new LinkedHashMap<>();
+        for (ProjectTypeDef type : types) {
+            checks.put(type, ExecutorHolder.EXECUTOR.submit(() -> type.resolveSources(scannedFolder)));
+        }
+
+        final List<ProjectTypeResolution> resolutions = new ArrayList<>();
+        try {
+            for (Map.Entry<ProjectTypeDef, Future<ProjectTypeResolution>> entry : checks.entrySet()) {
+                final ProjectTypeResolution resolution = waitFor(entry.getKey(), entry.getValue(), deadline);
+                if (resolution != null && resolution.matched()) {
+                    resolutions.add(resolution);
+                }
+            }
+        } finally {
+            for (Future<ProjectTypeResolution> check : checks.values()) {
+                check.cancel(true);
+            }
+        }
+        // sort is stable, types with the same confidence keep their order
+        resolutions.sort(comparing(ProjectTypesDetector::confidence).reversed());
+        return resolutions;
+    }
+
+    /** Returns {@code null} if type can't be checked before deadline. */
+    private ProjectTypeResolution waitFor(ProjectTypeDef type, Future<ProjectTypeResolution> check, long deadline)
+            throws ServerException {
+        try {
+            return check.get(Math.max(deadline - System.currentTimeMillis(), 0), MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.warn("Project type {} is not checked during {} ms, skip it", type.getId(), timeBudgetMillis);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while checking project types");
+        } catch (ExecutionException e) {
+            LOG.warn(e.getCause().getLocalizedMessage(), e.getCause());
+            return null;
+        }
+    }
+
+    private static int confidence(ProjectTypeResolution resolution) {
+        return resolution.getProvidedAttributes().size();
+    }
+
+    /** Folder which lists its children once and keeps content of manifest files in memory. It is shared by all checked types. */
+    private static class ScannedFolderEntry extends FolderEntry {
+        private volatile Map<String, VirtualFile> children;
+        private final    Map<String, byte[]>      manifests;
+
+        ScannedFolderEntry(FolderEntry folder) throws ServerException {
+            super(folder.getVirtualFile(), folder.projectRegistry);
+            manifests = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public VirtualFileEntry getChild(String path) throws ServerException {
+            final Path childPath = Path.of(path);
+            if (childPath.length() != 1) {
+                return super.getChild(path);
+            }
+            final VirtualFile child = getScannedChildren().get(childPath.getName());
+            if (child == null) {
+                return null;
+            }
+            return child.isFile() ? newFileEntry(child) : new FolderEntry(child, projectRegistry);
+        }
+
+        @Override
+        public FolderEntry getChildFolder(String path) throws ServerException {
+            final VirtualFileEntry child = getChild(path);
+            return child == null || child.isFile() ? null : (FolderEntry)child;
+        }
+
+        @Override
+        public List<VirtualFileEntry> getChildren(VirtualFileFilter filter) throws ServerException {
+            final List<VirtualFileEntry> result = new ArrayList<>();
+            for (VirtualFile child : getScannedChildren().values()) {
+                if (filter.accept(child)) {
+                    result.add(child.isFile() ? newFileEntry(child) : new FolderEntry(child, projectRegistry));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<FileEntry> getChildFiles() throws ServerException {
+            final List<FileEntry> result = new ArrayList<>();
+            for (VirtualFile child : getScannedChildren().values()) {
+                if (child.isFile()) {
+                    result.add(newFileEntry(child));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<FolderEntry> getChildFolders() throws ServerException {
+            final List<FolderEntry> result = new ArrayList<>();
+            for (VirtualFile child : getScannedChildren().values()) {
+                if (child.isFolder()) {
+                    result.add(new FolderEntry(child, projectRegistry));
+                }
+            }
+            return result;
+        }
+
+        private Map<String, VirtualFile> getScannedChildren() throws ServerException {
+            Map<String, VirtualFile> scanned = children;
+            if (scanned == null) {
+                synchronized (this) {
+                    scanned = children;
+                    if (scanned == null) {
+                        scanned = new LinkedHashMap<>();
+                        for (VirtualFile child : getVirtualFile().getChildren()) {
+                            scanned.put(child.getName(), child);
+                        }
+                        children = scanned;
+                    }
+                }
+            }
+            return scanned;
+        }
+
+        private FileEntry newFileEntry(VirtualFile file) throws ServerException {
+            return MANIFESTS.contains(file.getName()) ? new ManifestFileEntry(file, this) : new FileEntry(file, projectRegistry);
+        }
+    }
+
+    /** Manifest file which content is read once and then shared between all checked types. */
+    private static class ManifestFileEntry extends FileEntry {
+        private final ScannedFolderEntry folder;
+
+        ManifestFileEntry(VirtualFile virtualFile, ScannedFolderEntry folder) throws ServerException {
+            super(virtualFile, folder.projectRegistry);
+            this.folder = folder;
+        }
+
+        @Override
+        public InputStream getInputStream() throws ServerException {
+            return new ByteArrayInputStream(getCachedContent());
+        }
+
+        @Override
+        public byte[] contentAsBytes() throws ServerException {
+            return getCachedContent().clone();
+        }
+
+        private byte[] getCachedContent() throws ServerException {
+            byte[] content = folder.manifests.get(getName());
+            if (content == null) {
+                content = super.contentAsBytes();
+                folder.manifests.putIfAbsent(getName(), content);
+            }
+            return content;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Drops cached values of provided attributes of projects when files these values depend on are changed, see
+ * {@link org.eclipse.che.api.project.server.type.ValueProvider#getDependencies()}.
+ */
+@Singleton
+public class ProvidedValuesInvalidator {
+    private final ProjectRegistry                 projectRegistry;
+    private final FileWatcherNotificationHandler  fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener listener;
+
+    @Inject
+    public ProvidedValuesInvalidator(ProjectRegistry projectRegistry, FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this.projectRegistry = projectRegistry;
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.listener = new FileWatcherNotificationListener(file -> true) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                projectRegistry.invalidateProvidedValues(virtualFile.getPath());
+            }
+        };
+    }
+
+    @PostConstruct
+    void start() {
+        fileWatcherNotificationHandler.addNotificationListener(listener);
+    }
+
+    @PreDestroy
+    void stop() {
+        fileWatcherNotificationHandler.removeNotificationListener(listener);
+    }
+}
@@ -24,6 +24,8 @@ import org.eclipse.che.api.project.server.type.ValueProvider;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.server.type.Variable;
 import org.eclipse.che.api.vfs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -31,8 +33,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.emptyList;
+
 /**
  * Internal Project implementation.
  * It is supposed that it is object always consistent.
@@ -40,9 +47,11 @@ import java.util.stream.Collectors;
  * @author gazarenkov
  */
 public class RegisteredProject implements ProjectConfig {
+    private static final Logger LOG = LoggerFactory.getLogger(RegisteredProject.class);
 
-    private final List<Problem>      problems;
-    private final Map<String, Value> attributes;
+    private final List<Problem>              problems;
+    private final Map<String, Value>         attributes;
+    private final Map<String, ProvidedValue> providedValues;
 
     private final FolderEntry   folder;
     private final ProjectConfig config;
@@ -74,6 +83,7 @@ public class RegisteredProject implements ProjectConfig {
                                                                       ValueStorageException {
         problems = new ArrayList<>();
         attributes = new HashMap<>();
+        providedValues = new ConcurrentHashMap<>();
 
         Path path;
         if (folder != null) {
@@ -141,8 +151,14 @@ public class RegisteredProject implements ProjectConfig {
                     if (folder != null) {
 
                         if (!valueProvider.isSettable() || value.isEmpty()) {
+                            final ProvidedValue providedValue = new ProvidedValue(name, valueProvider);
+                            providedValues.put(name, providedValue);
+                            if (!variable.isRequired()) {
+                                // not needed for validation of project, read on first access
+                                continue;
+                            }
                             // get provided value
-                            value = new AttributeValue(valueProvider.getValues(name));
+                            value = providedValue.load();
                         } else {
                             // set provided (not empty) value
                             valueProvider.setValues(name, value.getList());
@@ -159,7 +175,7 @@ public class RegisteredProject implements ProjectConfig {
                     //throw new ProjectTypeConstraintException("Value for required attribute is not initialized " + variable.getId());
                 }
 
-                if (!value.isEmpty()) {
+                if (!value.isEmpty() && !providedValues.containsKey(name)) {
                     this.attributes.put(name, value);
                 }
             }
@@ -194,7 +210,42 @@ public class RegisteredProject implements ProjectConfig {
      * @return attributes as name / Value Map
      */
     public Map<String, Value> getAttributeEntries() {
-        return attributes;
+        final Map<String, Value> entries = new HashMap<>(attributes);
+        for (ProvidedValue providedValue : providedValues.values()) {
+            final AttributeValue value = providedValue.get();
+            if (!value.isEmpty()) {
+                entries.put(providedValue.name, value);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads provided values which are not cached yet with specified executor.
+     *
+     * @return futures of values, one per each provided value
+     */
+    List<Future<?>> loadProvidedValues(ExecutorService executor) {
+        final List<Future<?>> futures = new ArrayList<>(providedValues.size());
+        for (ProvidedValue providedValue : providedValues.values()) {
+            futures.add(executor.submit(providedValue::get));
+        }
+        return futures;
+    }
+
+    /**
+     * Drops cached provided values which depend on item with specified path, see {@link ValueProvider#getDependencies()}. Values
+     * are read again on next access.
+     *
+     * @param relativePath
+     *         path of changed item relative to the project folder or {@code null} to drop all cached values
+     */
+    void invalidateProvidedValues(Path relativePath) {
+        for (ProvidedValue providedValue : providedValues.values()) {
+            if (relativePath == null || providedValue.dependsOn(relativePath)) {
+                providedValue.invalidate();
+            }
+        }
     }
 
     /**
@@ -251,7 +302,8 @@ public class RegisteredProject implements ProjectConfig {
      */
     public Map<String, List<String>> getPersistableAttributes() {
         Map<String, List<String>> attrs = new HashMap<>();
-        for (HashMap.Entry<String, Value> entry : getAttributeEntries().entrySet()) {
+        // provided values are never persisted, so there is no need to read them
+        for (HashMap.Entry<String, Value> entry : attributes.entrySet()) {
             Attribute def = types.getAttributeDefs().get(entry.getKey());
             // not provided, not constants
             if (def != null &&
@@ -308,6 +360,56 @@ public class RegisteredProject implements ProjectConfig {
         return attrs;
     }
 
+    /** Value of provided attribute which is read on first access and cached until files it depends on are changed. */
+    private static class ProvidedValue {
+        final String        name;
+        final ValueProvider provider;
+        /** {@code null} if value may depend on any file of project. */
+        final List<Path>    dependencies;
+
+        AttributeValue value;
+
+        ProvidedValue(String name, ValueProvider provider) {
+            this.name = name;
+            this.provider = provider;
+            final List<String> dependencies = provider.getDependencies();
+            this.dependencies = dependencies == null ? null : dependencies.stream().map(Path::of).collect(Collectors.toList());
+        }
+
+        synchronized AttributeValue load() throws ValueStorageException {
+            value = new AttributeValue(provider.getValues(name));
+            return value;
+        }
+
+        synchronized AttributeValue get() {
+            if (value == null) {
+                try {
+                    load();
+                } catch (ValueStorageException e) {
+                    LOG.warn(String.format("Unable read value of attribute %s. %s", name, e.getMessage()));
+                    value = new AttributeValue(emptyList());
+                }
+            }
+            return value;
+        }
+
+        synchronized void invalidate() {
+            value = null;
+        }
+
+        boolean dependsOn(Path relativePath) {
+            if (dependencies == null) {
+                return true;
+            }
+            for (Path dependency : dependencies) {
+                if (dependency.equals(relativePath) || dependency.isChild(relativePath) || relativePath.isChild(dependency)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     public static class Problem {
         Problem(int code, String message) {
             this.code = code;
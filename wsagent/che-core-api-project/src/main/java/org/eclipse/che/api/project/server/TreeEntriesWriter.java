@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Comparator.comparing;
+
+/**
+ * Writes entries of folder tree as JSON while traversing the tree, without building whole tree in memory. Entries contain only name,
+ * path, type and, for files, length and modification date of item. Result has following format:
+ * <pre>
+ * {
+ *   "entries": [
+ *     {"name": "src", "path": "/project/src", "type": "folder", "modified": 1473235100000},
+ *     {"name": "pom.xml", "path": "/project/pom.xml", "type": "file", "modified": 1473235100000, "length": 1024}
+ *   ],
+ *   "next": "pom.xml"
+ * }
+ * </pre>
+ * Entries are written depth-first, children of each folder are sorted by name. Field {@code next} is present only if number of
+ * entries exceeds {@code maxItems}. It contains path, relative to the root of tree, of the last written entry and may be used as
+ * {@code after} parameter to get the rest of entries.
+ */
+class TreeEntriesWriter {
+    /** Entries are flushed to client by portions of this size. */
+    private static final int FLUSH_ENTRIES = 100;
+
+    private final FolderEntry       root;
+    private final int               depth;
+    private final VirtualFileFilter filter;
+    private final List<PathMatcher> nameMatchers;
+    private final int               maxItems;
+    private final String[]          after;
+
+    private int    written;
+    private String lastWritten;
+
+    /**
+     * @param root
+     *         root of tree, it is not included in result
+     * @param depth
+     *         number of levels of tree to write, children of root are on the first level
+     * @param includeFiles
+     *         if {@code false} only folders are written
+     * @param namePatterns
+     *         glob patterns for names of files, if not empty only files which name matches at least one of the pattern are written.
+     *         Folders are written regardless of these patterns
+     * @param excludePatterns
+     *         glob patterns for names of items which must be skipped together with all their children
+     * @param maxItems
+     *         max number of entries to write
+     * @param after
+     *         relative path of entry after which writing should be started, may be {@code null}
+     * @throws IllegalArgumentException
+     *         if any pattern is invalid
+     */
+    TreeEntriesWriter(FolderEntry root,
+                      int depth,
+                      boolean includeFiles,
+                      List<String> namePatterns,
+                      List<String> excludePatterns,
+                      int maxItems,
+                      String after) {
+        this.root = root;
+        this.depth = depth;
+        this.nameMatchers = toMatchers(namePatterns);
+        this.maxItems = maxItems;
+        this.after = after == null || after.isEmpty() ? null : Path.of(after).elements();
+
+        final List<PathMatcher> excludeMatchers = toMatchers(excludePatterns);
+        filter = file -> (file.isFolder() || (includeFiles && file.isFile())) && !matches(excludeMatchers, file.getName());
+    }
+
+    void write(Writer output) throws IOException, ServerException {
+        final JsonWriter json = new JsonWriter(output);
+        json.beginObject().name("entries").beginArray();
+        final boolean complete = writeChildren(json, root, 1);
+        json.endArray();
+        if (!complete) {
+            json.name("next").value(lastWritten);
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    /** Returns {@code false} if number of entries exceeds {@code maxItems} and writing must be stopped. */
+    private boolean writeChildren(JsonWriter json, FolderEntry folder, int level) throws IOException, ServerException {
+        final List<VirtualFileEntry> children = folder.getChildren(filter);
+        children.sort(comparing(VirtualFileEntry::getName));
+        for (VirtualFileEntry child : children) {
+            final String[] relativePath = child.getPath().subPath(root.getPath()).elements();
+            final int position = after == null ? 1 : compare(relativePath, after);
+            if (position < 0 && !isAncestor(relativePath, after)) {
+                continue;
+            }
+            if (position > 0 && (child.isFolder() || matches(nameMatchers, child.getName()))) {
+                if (written == maxItems) {
+                    return false;
+                }
+                writeEntry(json, child, relativePath);
+            }
+            if (child.isFolder() && level < depth && !writeChildren(json, (FolderEntry)child, level + 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeEntry(JsonWriter json, VirtualFileEntry entry, String[] relativePath) throws IOException, ServerException {
+        json.beginObject()
+            .name("name").value(entry.getName())
+            .name("path").value(entry.getPath().toString())
+            .name("type").value(entry.isFile() ? "file" : entry.isProject() ? "project" : "folder")
+            .name("modified").value(entry.getModified());
+        if (entry.isFile()) {
+            json.name("length").value(entry.getVirtualFile().getLength());
+        }
+        json.endObject();
+
+        written++;
+        lastWritten = String.join("/", relativePath);
+        if (written % FLUSH_ENTRIES == 0) {
+            json.flush();
+        }
+    }
+
+    private static List<PathMatcher> toMatchers(List<String> patterns) {
+        final List<PathMatcher> matchers = newArrayList();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+            }
+        }
+        return matchers;
+    }
+
+    /** Empty list of matchers matches any name. */
+    private static boolean matches(List<PathMatcher> matchers, String name) {
+        if (matchers.isEmpty()) {
+            return true;
+        }
+        final java.nio.file.Path namePath = Paths.get(name);
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(namePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Compares paths in the same order as entries are written. */
+    private static int compare(String[] one, String[] two) {
+        final int length = Math.min(one.length, two.length);
+        for (int i = 0; i < length; i++) {
+            final int result = one[i].compareTo(two[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(one.length, two.length);
+    }
+
+    private static boolean isAncestor(String[] ancestor, String[] path) {
+        if (ancestor.length >= path.length) {
+            return false;
+        }
+        for (int i = 0; i < ancestor.length; i++) {
+            if (!ancestor[i].equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
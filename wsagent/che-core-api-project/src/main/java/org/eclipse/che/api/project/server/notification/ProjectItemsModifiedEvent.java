@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+
+import java.util.List;
+
+/**
+ * Changes of several items made with one batch of file operations. Subscribers of {@link ProjectItemModifiedEvent} that want to know
+ * about changes made by batches should subscribe to this event as well.
+ */
+@EventOrigin("project")
+public class ProjectItemsModifiedEvent {
+    private String                         workspace;
+    private List<ProjectItemModifiedEvent> events;
+
+    public ProjectItemsModifiedEvent(String workspace, List<ProjectItemModifiedEvent> events) {
+        this.workspace = workspace;
+        this.events = events;
+    }
+
+    public ProjectItemsModifiedEvent() {
+    }
+
+    public String getWorkspace() {
+        return workspace;
+    }
+
+    public void setWorkspace(String workspace) {
+        this.workspace = workspace;
+    }
+
+    /** Changes of items in order they were made. */
+    public List<ProjectItemModifiedEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<ProjectItemModifiedEvent> events) {
+        this.events = events;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectItemsModifiedEvent{" +
+               "workspace='" + workspace + '\'' +
+               ", events=" + events +
+               '}';
+    }
+}
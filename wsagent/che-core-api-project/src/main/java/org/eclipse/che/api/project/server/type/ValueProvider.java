@@ -35,4 +35,14 @@ public interface ValueProvider {
      * @return whether this Value Provider intended to initialize values
      */
     boolean isSettable();
+
+    /**
+     * Paths of files, relative to the project folder, which values of this provider depend on. Project caches values and drops them
+     * when any of these files, or anything inside them if they are folders, is changed.
+     *
+     * @return paths of files or {@code null} if values may depend on any file of the project
+     */
+    default List<String> getDependencies() {
+        return null;
+    }
 }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prepares entries of archive, e.g. reads and compresses content of files, in parallel on shared pool of threads but hands them over
+ * to {@link EntryWriter} in the same order they were submitted. Number of entries that are prepared but not written yet is limited, so
+ * writing of archive starts as soon as first entry is ready and memory usage does not depend on size of archived folder.
+ *
+ * @param <T>
+ *         type of prepared entry
+ */
+class EntryPipeline<T> implements AutoCloseable {
+    interface EntryWriter<T> {
+        void write(T entry) throws IOException, ForbiddenException, ConflictException, ServerException;
+    }
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static class ExecutorHolder {
+        static final ExecutorService EXECUTOR =
+                Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder().setNameFormat("ArchiverPool-%d")
+                                                                                 .setDaemon(true)
+                                                                                 .build());
+    }
+
+    private final ExecutorService  executor;
+    private final int              window;
+    private final EntryWriter<T>   writer;
+    private final Deque<Future<T>> pending;
+
+    /** Creates pipeline that uses shared pool of threads and allows to prepare twice more entries than number of threads in pool. */
+    EntryPipeline(EntryWriter<T> writer) {
+        this(ExecutorHolder.EXECUTOR, THREADS * 2, writer);
+    }
+
+    EntryPipeline(ExecutorService executor, int window, EntryWriter<T> writer) {
+        this.executor = executor;
+        this.window = window;
+        this.writer = writer;
+        this.pending = new ArrayDeque<>(window);
+    }
+
+    /** Submits preparation of entry. If too many entries are waiting for writing this method writes the oldest ones first. */
+    void submit(Callable<T> task) throws IOException, ForbiddenException, ConflictException, ServerException {
+        while (pending.size() >= window) {
+            writeNext();
+        }
+        pending.add(executor.submit(task));
+    }
+
+    /** Adds entry which does not need any preparation. It is written after all entries submitted before. */
+    void add(T entry) throws IOException, ForbiddenException, ConflictException, ServerException {
+        while (pending.size() >= window) {
+            writeNext();
+        }
+        if (pending.isEmpty()) {
+            writer.write(entry);
+        } else {
+            pending.add(Futures.immediateFuture(entry));
+        }
+    }
+
+    /** Writes all entries which are still waiting. */
+    void finish() throws IOException, ForbiddenException, ConflictException, ServerException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+    }
+
+    /** Cancels preparation of entries that are not written yet. */
+    @Override
+    public void close() {
+        for (Future<T> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    private void writeNext() throws IOException, ForbiddenException, ConflictException, ServerException {
+        final T entry;
+        try {
+            entry = pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while waiting for entry of archive");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        }
+        writer.write(entry);
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+
+import org.eclipse.che.commons.lang.Pair;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Tree of hash sums of files and folders. Hash sum of file is hash sum of its content, hash sum of folder is calculated from names,
+ * types and hash sums of its children. Two folders that have the same hash sum have the same content, so two trees may be compared
+ * without visiting subtrees with the same hash sums, see {@link #diff(HashSumTree, HashSumTree)}.
+ * <p>
+ * Instances are immutable.
+ */
+public final class HashSumTree {
+    /** Creates node for file with specified hash sum of content represented as HEX String. */
+    public static HashSumTree file(String name, String hash) {
+        return new HashSumTree(name, hash, null);
+    }
+
+    /** Creates node for folder and calculates its hash sum with specified {@code hashFunction}. */
+    public static HashSumTree folder(String name, Collection<HashSumTree> children, HashFunction hashFunction) {
+        final SortedMap<String, HashSumTree> sortedChildren = new TreeMap<>();
+        for (HashSumTree child : children) {
+            sortedChildren.put(child.getName(), child);
+        }
+        final Hasher hasher = hashFunction.newHasher();
+        for (HashSumTree child : sortedChildren.values()) {
+            hasher.putString(child.getName(), UTF_8)
+                  .putByte((byte)0)
+                  .putBoolean(child.isFolder())
+                  .putString(child.getHash(), UTF_8)
+                  .putByte((byte)0);
+        }
+        return new HashSumTree(name, hasher.hash().toString(), Collections.unmodifiableSortedMap(sortedChildren));
+    }
+
+    private final String                         name;
+    private final String                         hash;
+    private final SortedMap<String, HashSumTree> children;
+
+    private HashSumTree(String name, String hash, SortedMap<String, HashSumTree> children) {
+        this.name = name;
+        this.hash = hash;
+        this.children = children;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Hash sum of file or folder represented as HEX String. */
+    public String getHash() {
+        return hash;
+    }
+
+    public boolean isFolder() {
+        return children != null;
+    }
+
+    /** Children of folder sorted by name. Empty collection is returned for file. */
+    public Collection<HashSumTree> getChildren() {
+        return children == null ? Collections.emptyList() : children.values();
+    }
+
+    public HashSumTree getChild(String name) {
+        return children == null ? null : children.get(name);
+    }
+
+    /**
+     * Hash sums of all files in this tree in the same format as {@link VirtualFile#countMd5Sums()} returns: each {@code Pair} contains
+     * hash sum of file and path of file relative to root of this tree.
+     */
+    public List<Pair<String, String>> toHashSums() {
+        final List<Pair<String, String>> hashSums = newArrayList();
+        if (isFolder()) {
+            for (HashSumTree child : getChildren()) {
+                child.collectHashSums(Path.of(child.getName()), hashSums);
+            }
+        }
+        return hashSums;
+    }
+
+    private void collectHashSums(Path path, List<Pair<String, String>> hashSums) {
+        if (isFolder()) {
+            for (HashSumTree child : getChildren()) {
+                child.collectHashSums(path.newPath(child.getName()), hashSums);
+            }
+        } else {
+            hashSums.add(Pair.of(hash, path.toString()));
+        }
+    }
+
+    /**
+     * Compares two trees and returns paths, relative to roots of trees, of files that are different, are present only in one of the
+     * trees, or are file in one tree and folder in another. Subtrees with the same hash sums are skipped.
+     */
+    public static List<String> diff(HashSumTree left, HashSumTree right) {
+        final List<String> differences = newArrayList();
+        diff(left, right, null, differences);
+        return differences;
+    }
+
+    private static void diff(HashSumTree left, HashSumTree right, Path path, List<String> differences) {
+        if (left != null && right != null && left.isFolder() == right.isFolder() && left.getHash().equals(right.getHash())) {
+            return;
+        }
+        final boolean leftFolder = left != null && left.isFolder();
+        final boolean rightFolder = right != null && right.isFolder();
+        if (!leftFolder && !rightFolder) {
+            differences.add(path == null ? "" : path.toString());
+            return;
+        }
+        if (left != null && right != null && leftFolder != rightFolder) {
+            // file in one tree and folder in another
+            differences.add(path == null ? "" : path.toString());
+        }
+        final SortedSet<String> names = new TreeSet<>();
+        if (leftFolder) {
+            names.addAll(left.children.keySet());
+        }
+        if (rightFolder) {
+            names.addAll(right.children.keySet());
+        }
+        for (String childName : names) {
+            final Path childPath = path == null ? Path.of(childName) : path.newPath(childName);
+            diff(leftFolder ? left.getChild(childName) : null, rightFolder ? right.getChild(childName) : null, childPath, differences);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HashSumTree)) {
+            return false;
+        }
+        HashSumTree other = (HashSumTree)o;
+        return Objects.equals(name, other.name) && Objects.equals(hash, other.hash) && isFolder() == other.isFolder();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, hash, isFolder());
+    }
+
+    @Override
+    public String toString() {
+        return "HashSumTree{name='" + name + "', hash='" + hash + "', folder=" + isFolder() + '}';
+    }
+}
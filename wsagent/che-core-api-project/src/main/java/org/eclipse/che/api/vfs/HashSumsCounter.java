@@ -54,23 +54,43 @@ public class HashSumsCounter implements VirtualFileVisitor {
         return hashSums;
     }
 
+    /** Hash sums of files in folder given in constructor organized in tree, see {@link HashSumTree}. */
+    public HashSumTree countHashSumTree() throws ServerException {
+        return countHashSumTree(folder);
+    }
+
+    private HashSumTree countHashSumTree(VirtualFile virtualFile) throws ServerException {
+        if (virtualFile.isFile()) {
+            return HashSumTree.file(virtualFile.getName(), countHashSum(virtualFile, hashFunction));
+        }
+        final List<HashSumTree> children = newArrayList();
+        for (VirtualFile child : virtualFile.getChildren()) {
+            children.add(countHashSumTree(child));
+        }
+        return HashSumTree.folder(virtualFile.getName(), children, hashFunction);
+    }
+
     @Override
     public void visit(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.isFile()) {
-            try (InputStream in = virtualFile.getContent()) {
-                final Hasher hasher = hashFunction.newHasher();
-                ByteStreams.copy(in, asOutputStream(hasher));
-                final String hexHash = hasher.hash().toString();
-                hashSums.add(Pair.of(hexHash, virtualFile.getPath().subPath(folder.getPath()).toString()));
-            } catch (IOException e) {
-                throw new ServerException(e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
-            }
+            hashSums.add(Pair.of(countHashSum(virtualFile, hashFunction), virtualFile.getPath().subPath(folder.getPath()).toString()));
         } else {
             for (VirtualFile child : virtualFile.getChildren()) {
                 child.accept(this);
             }
         }
     }
+
+    /** Calculates hash sum of content of file and returns it as HEX String. */
+    public static String countHashSum(VirtualFile file, HashFunction hashFunction) throws ServerException {
+        try (InputStream in = file.getContent()) {
+            final Hasher hasher = hashFunction.newHasher();
+            ByteStreams.copy(in, asOutputStream(hasher));
+            return hasher.hash().toString();
+        } catch (IOException e) {
+            throw new ServerException(e);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
 }
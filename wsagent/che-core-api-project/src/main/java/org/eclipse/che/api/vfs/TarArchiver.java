@@ -25,6 +25,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 public class TarArchiver extends Archiver {
+    /** Content of files bigger than this isn't read ahead and isn't kept in memory. */
+    private static final long MAX_PREFETCH_FILE_SIZE = 1024 * 1024;
+
     public TarArchiver(VirtualFile folder) {
         super(folder);
     }
@@ -36,14 +39,15 @@ public class TarArchiver extends Archiver {
 
     @Override
     public void compress(OutputStream tarOutput, VirtualFileFilter filter) throws IOException, ServerException {
-        try (TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(tarOutput)) {
+        try (TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(tarOutput);
+             EntryPipeline<PreparedTarEntry> pipeline = new EntryPipeline<>(entry -> entry.writeTo(tarOutputStream))) {
             tarOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
             folder.accept(new VirtualFileVisitor() {
                 @Override
                 public void visit(VirtualFile visitedVirtualFile) throws ServerException {
                     if (filter.accept(visitedVirtualFile)) {
                         if (!visitedVirtualFile.equals(folder)) {
-                            addTarEntry(visitedVirtualFile, tarOutputStream);
+                            addTarEntry(visitedVirtualFile, pipeline);
                         }
                         if (visitedVirtualFile.isFolder()) {
                             for (VirtualFile child : visitedVirtualFile.getChildren()) {
@@ -53,6 +57,9 @@ public class TarArchiver extends Archiver {
                     }
                 }
             });
+            pipeline.finish();
+        } catch (ForbiddenException | ConflictException e) {
+            throw new ServerException(e.getServiceError());
         }
     }
 
@@ -64,28 +71,67 @@ public class TarArchiver extends Archiver {
         return tarPath.toString();
     }
 
-    private void addTarEntry(VirtualFile virtualFile, TarArchiveOutputStream tarOutputStream) throws ServerException {
+    /** Content of small files is read in parallel ahead of writing. Big files are copied to the archive while it is written. */
+    private void addTarEntry(VirtualFile virtualFile, EntryPipeline<PreparedTarEntry> pipeline) throws ServerException {
         try {
             TarArchiveEntry tarEntry = new TarArchiveEntry(getTarEntryName(virtualFile));
             if (virtualFile.isFolder()) {
                 tarEntry.setModTime(0);
-                tarOutputStream.putArchiveEntry(tarEntry);
+                pipeline.add(new PreparedTarEntry(tarEntry, null, null));
             } else {
-                tarEntry.setSize(virtualFile.getLength());
                 tarEntry.setModTime(virtualFile.getLastModificationDate());
-                tarOutputStream.putArchiveEntry(tarEntry);
-                try (InputStream content = virtualFile.getContent()) {
-                    ByteStreams.copy(content, tarOutputStream);
+                final long length = virtualFile.getLength();
+                if (length > MAX_PREFETCH_FILE_SIZE) {
+                    tarEntry.setSize(length);
+                    pipeline.add(new PreparedTarEntry(tarEntry, virtualFile, null));
+                } else {
+                    pipeline.submit(() -> readEntry(tarEntry, virtualFile));
                 }
             }
-            tarOutputStream.closeArchiveEntry();
-        } catch (ForbiddenException e) {
+        } catch (ForbiddenException | ConflictException e) {
             throw new ServerException(e.getServiceError());
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         }
     }
 
+    private PreparedTarEntry readEntry(TarArchiveEntry tarEntry, VirtualFile virtualFile) throws IOException, ServerException {
+        try (InputStream contentStream = virtualFile.getContent()) {
+            final byte[] content = ByteStreams.toByteArray(contentStream);
+            tarEntry.setSize(content.length);
+            return new PreparedTarEntry(tarEntry, null, content);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
+
+    /** Entry of tar archive ready for writing. It has either content, or reference to the file, or nothing if entry is folder. */
+    private static class PreparedTarEntry {
+        final TarArchiveEntry tarEntry;
+        final VirtualFile     file;
+        final byte[]          content;
+
+        PreparedTarEntry(TarArchiveEntry tarEntry, VirtualFile file, byte[] content) {
+            this.tarEntry = tarEntry;
+            this.file = file;
+            this.content = content;
+        }
+
+        void writeTo(TarArchiveOutputStream tarOutputStream) throws IOException, ServerException {
+            tarOutputStream.putArchiveEntry(tarEntry);
+            if (content != null) {
+                tarOutputStream.write(content);
+            } else if (file != null) {
+                try (InputStream fileContent = file.getContent()) {
+                    ByteStreams.copy(fileContent, tarOutputStream);
+                } catch (ForbiddenException e) {
+                    throw new ServerException(e.getServiceError());
+                }
+            }
+            tarOutputStream.closeArchiveEntry();
+        }
+    }
+
     @Override
     public void extract(InputStream tarInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
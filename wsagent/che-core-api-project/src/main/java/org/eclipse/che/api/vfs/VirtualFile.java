@@ -18,6 +18,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Pair;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -112,6 +113,22 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream getContent() throws ForbiddenException, ServerException;
 
+    /**
+     * Gets part of content of the file. Implementation reads content from specified position, without reading the preceding bytes.
+     *
+     * @param offset
+     *         position of the first byte to read
+     * @param length
+     *         max number of bytes to read. Fewer bytes are returned if end of file is reached
+     * @return part of content ot he file
+     * @throws ForbiddenException
+     *         if this item is not a file
+     * @throws ServerException
+     *         if other error occurs
+     * @see #isFile()
+     */
+    InputStream getContent(long offset, long length) throws ForbiddenException, ServerException;
+
     /**
      * Gets content of the file as bytes.
      *
@@ -504,6 +521,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream zip() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of folder denoted by this VirtualFile as zip archive to {@code output}. Unlike {@link #zip()} archive is not
+     * spooled before it is returned to the caller, so first entries are written to {@code output} immediately.
+     *
+     * @param output
+     *         output for zipped content of folder, it is not closed by this method
+     * @throws ForbiddenException
+     *         if this item does not denote a folder
+     * @throws ServerException
+     *         if other error occurs
+     */
+    void zip(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Extracts zip archive to the folder denoted by this VirtualFile.
      *
@@ -699,6 +729,27 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     List<Pair<String, String>> countMd5Sums() throws ServerException;
 
+    /**
+     * Counts md5sums of all files in current folder and organizes them in tree. Hash sum of each folder in tree is calculated from hash
+     * sums of its children, so two trees may be compared by hash sums of subtrees, see {@link HashSumTree#diff(HashSumTree,
+     * HashSumTree)}. If this VirtualFile is a file this method returns tree with single node. Implementation may cache hash sums
+     * between invocations.
+     *
+     * @throws ServerException
+     *         if any error occurs
+     */
+    HashSumTree countMd5SumTree() throws ServerException;
+
+    /**
+     * Gets md5sum of content of this file if it may be got without reading content of file, e.g. it was counted before and file is not
+     * changed since then.
+     *
+     * @return md5sum represented as HEX String or {@code null} if md5sum is not known or this VirtualFile is not a file
+     * @throws ServerException
+     *         if any error occurs
+     */
+    String getKnownMd5Sum() throws ServerException;
+
     /**
      * Gets java.io.File if implementation uses java.io.File as backend.
      *
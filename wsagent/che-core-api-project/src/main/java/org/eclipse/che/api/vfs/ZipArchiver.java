@@ -10,22 +10,38 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.util.NotClosableInputStream;
 import org.eclipse.che.api.vfs.util.ZipContent;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 public class ZipArchiver extends Archiver {
+    /** Files bigger than this are compressed while writing to archive and aren't kept in memory. */
+    private static final long        MAX_PARALLEL_COMPRESSION_FILE_SIZE = 1024 * 1024;
+    /** Content of these files is already compressed, so they are written without compression. */
+    private static final Set<String> COMPRESSED_FORMATS                 = ImmutableSet.of("zip", "jar", "war", "ear", "gz", "tgz", "bz2",
+                                                                                           "xz", "7z", "png", "jpg", "jpeg", "gif",
+                                                                                           "ico", "woff", "woff2", "mp3", "mp4");
+
     public ZipArchiver(VirtualFile folder) {
         super(folder);
     }
@@ -37,13 +53,15 @@ public class ZipArchiver extends Archiver {
 
     @Override
     public void compress(OutputStream zipOutput, VirtualFileFilter filter) throws IOException, ServerException {
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput)) {
+        // Output stream belongs to caller, so archive is finished but the stream is not closed.
+        final ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(zipOutput);
+        try (EntryPipeline<PreparedZipEntry> pipeline = new EntryPipeline<>(entry -> entry.writeTo(zipOutputStream))) {
             folder.accept(new VirtualFileVisitor() {
                 @Override
                 public void visit(VirtualFile visitedVirtualFile) throws ServerException {
                     if (filter.accept(visitedVirtualFile)) {
                         if (!visitedVirtualFile.equals(folder)) {
-                            addZipEntry(visitedVirtualFile, zipOutputStream);
+                            addZipEntry(visitedVirtualFile, pipeline);
                         }
                         if (visitedVirtualFile.isFolder()) {
                             for (VirtualFile child : visitedVirtualFile.getChildren()) {
@@ -53,7 +71,11 @@ public class ZipArchiver extends Archiver {
                     }
                 }
             });
+            pipeline.finish();
+        } catch (ForbiddenException | ConflictException e) {
+            throw new ServerException(e.getServiceError());
         }
+        zipOutputStream.finish();
     }
 
     private String getZipEntryName(VirtualFile virtualFile) {
@@ -64,73 +86,212 @@ public class ZipArchiver extends Archiver {
         return zipPath.toString();
     }
 
-    private void addZipEntry(VirtualFile virtualFile, ZipOutputStream zipOutputStream) throws ServerException {
+    /**
+     * Small files are read and compressed in parallel and then written to the archive as is. Big files are compressed while written
+     * to the archive to avoid keeping their content in memory.
+     */
+    private void addZipEntry(VirtualFile virtualFile, EntryPipeline<PreparedZipEntry> pipeline) throws ServerException {
         try {
-            ZipEntry zipEntry = new ZipEntry(getZipEntryName(virtualFile));
-            zipOutputStream.putNextEntry(zipEntry);
+            final ZipArchiveEntry zipEntry = new ZipArchiveEntry(getZipEntryName(virtualFile));
             if (virtualFile.isFolder()) {
                 zipEntry.setTime(0);
+                pipeline.add(new PreparedZipEntry(zipEntry, null, null));
             } else {
-                try (InputStream content = virtualFile.getContent()) {
-                    ByteStreams.copy(content, zipOutputStream);
-                }
                 zipEntry.setTime(virtualFile.getLastModificationDate());
+                final long length = virtualFile.getLength();
+                if (length > MAX_PARALLEL_COMPRESSION_FILE_SIZE) {
+                    zipEntry.setSize(length);
+                    pipeline.add(new PreparedZipEntry(zipEntry, virtualFile, null));
+                } else {
+                    pipeline.submit(() -> compressEntry(zipEntry, virtualFile));
+                }
             }
-            zipOutputStream.closeEntry();
-        } catch (ForbiddenException e) {
+        } catch (ForbiddenException | ConflictException e) {
             throw new ServerException(e.getServiceError());
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         }
     }
 
+    private PreparedZipEntry compressEntry(ZipArchiveEntry zipEntry, VirtualFile virtualFile) throws IOException, ServerException {
+        final byte[] content;
+        try (InputStream contentStream = virtualFile.getContent()) {
+            content = ByteStreams.toByteArray(contentStream);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        zipEntry.setCrc(crc.getValue());
+        zipEntry.setSize(content.length);
+
+        if (!isCompressedFormat(zipEntry.getName())) {
+            final byte[] deflated = deflate(content);
+            if (deflated.length < content.length) {
+                zipEntry.setMethod(ZipEntry.DEFLATED);
+                zipEntry.setCompressedSize(deflated.length);
+                return new PreparedZipEntry(zipEntry, null, deflated);
+            }
+        }
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setCompressedSize(content.length);
+        return new PreparedZipEntry(zipEntry, null, content);
+    }
+
+    private static byte[] deflate(byte[] content) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            final ByteArrayOutputStream deflated = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                deflated.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return deflated.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static boolean isCompressedFormat(String name) {
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSED_FORMATS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    /**
+     * Entry of zip archive ready for writing. It has either raw (already compressed or stored) content, or reference to the file which
+     * content must be compressed while writing, or nothing if entry is folder.
+     */
+    private static class PreparedZipEntry {
+        final ZipArchiveEntry zipEntry;
+        final VirtualFile     file;
+        final byte[]          rawContent;
+
+        PreparedZipEntry(ZipArchiveEntry zipEntry, VirtualFile file, byte[] rawContent) {
+            this.zipEntry = zipEntry;
+            this.file = file;
+            this.rawContent = rawContent;
+        }
+
+        void writeTo(ZipArchiveOutputStream zipOutputStream) throws IOException, ServerException {
+            if (rawContent != null) {
+                zipOutputStream.addRawArchiveEntry(zipEntry, new ByteArrayInputStream(rawContent));
+                return;
+            }
+            zipOutputStream.putArchiveEntry(zipEntry);
+            if (file != null) {
+                try (InputStream content = file.getContent()) {
+                    ByteStreams.copy(content, zipOutputStream);
+                } catch (ForbiddenException e) {
+                    throw new ServerException(e.getServiceError());
+                }
+            }
+            zipOutputStream.closeArchiveEntry();
+        }
+    }
+
+    /**
+     * Zip spooled in file is read with random access to entries. Content of small entries is inflated in parallel while entries are
+     * created in virtual filesystem one by one in order they are listed in archive.
+     */
     @Override
     public void extract(InputStream zipInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
-        try (ZipInputStream zip = new ZipInputStream(ZipContent.of(zipInput).getContent())) {
+        try (ZipContent zipContent = ZipContent.of(zipInput)) {
+            final ZipFile zipFile = zipContent.getZipFile();
+            if (zipFile == null) {
+                extractStream(zipContent.getContent(), overwrite, stripNumber);
+                return;
+            }
+            try (EntryPipeline<ExtractedZipEntry> pipeline = new EntryPipeline<>(
+                    entry -> extractEntry(entry.zipEntry, entry.content == null ? null : new ByteArrayInputStream(entry.content),
+                                          zipContent, overwrite, stripNumber))) {
+                final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    final ZipEntry zipEntry = entries.nextElement();
+                    if (zipEntry.isDirectory() || zipEntry.getSize() > MAX_PARALLEL_COMPRESSION_FILE_SIZE) {
+                        pipeline.add(new ExtractedZipEntry(zipEntry, null));
+                    } else {
+                        pipeline.submit(() -> {
+                            try (InputStream entryContent = zipContent.getEntryContent(zipEntry)) {
+                                return new ExtractedZipEntry(zipEntry, ByteStreams.toByteArray(entryContent));
+                            }
+                        });
+                    }
+                }
+                pipeline.finish();
+            }
+        }
+    }
+
+    private void extractStream(InputStream zipInput, boolean overwrite, int stripNumber)
+            throws IOException, ForbiddenException, ConflictException, ServerException {
+        try (ZipInputStream zip = new ZipInputStream(zipInput)) {
             InputStream notClosableInputStream = new NotClosableInputStream(zip);
             ZipEntry zipEntry;
             while ((zipEntry = zip.getNextEntry()) != null) {
-                VirtualFile extractFolder = folder;
+                extractEntry(zipEntry, notClosableInputStream, null, overwrite, stripNumber);
+                zip.closeEntry();
+            }
+        }
+    }
 
-                Path relativePath = Path.of(zipEntry.getName());
+    /**
+     * Creates folder or file for zip entry. Content of file is taken from {@code content} or, if it is {@code null}, read directly
+     * from {@code zipContent}.
+     */
+    private void extractEntry(ZipEntry zipEntry, InputStream content, ZipContent zipContent, boolean overwrite, int stripNumber)
+            throws IOException, ForbiddenException, ConflictException, ServerException {
+        VirtualFile extractFolder = folder;
 
-                if (stripNumber > 0) {
-                    if (relativePath.length() <= stripNumber) {
-                        continue;
-                    }
-                    relativePath = relativePath.subPath(stripNumber);
-                }
+        Path relativePath = Path.of(zipEntry.getName());
 
-                if (zipEntry.isDirectory()) {
-                    if (!extractFolder.hasChild(relativePath)) {
-                        extractFolder.createFolder(relativePath.toString());
-                    }
-                    continue;
-                }
+        if (stripNumber > 0) {
+            if (relativePath.length() <= stripNumber) {
+                return;
+            }
+            relativePath = relativePath.subPath(stripNumber);
+        }
 
-                if (relativePath.length() > 1) {
-                    Path neededParentPath = relativePath.getParent();
-                    VirtualFile neededParent = extractFolder.getChild(neededParentPath);
-                    if (neededParent == null) {
-                        neededParent = extractFolder.createFolder(neededParentPath.toString());
-                    }
-                    extractFolder = neededParent;
-                }
+        if (zipEntry.isDirectory()) {
+            if (!extractFolder.hasChild(relativePath)) {
+                extractFolder.createFolder(relativePath.toString());
+            }
+            return;
+        }
 
-                String fileName = relativePath.getName();
-                VirtualFile file = extractFolder.getChild(Path.of(fileName));
-                if (file == null) {
-                    extractFolder.createFile(fileName, notClosableInputStream);
-                } else {
-                    if (overwrite) {
-                        file.updateContent(notClosableInputStream);
-                    } else {
-                        throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
-                    }
-                }
-                zip.closeEntry();
+        if (relativePath.length() > 1) {
+            Path neededParentPath = relativePath.getParent();
+            VirtualFile neededParent = extractFolder.getChild(neededParentPath);
+            if (neededParent == null) {
+                neededParent = extractFolder.createFolder(neededParentPath.toString());
             }
+            extractFolder = neededParent;
+        }
+
+        String fileName = relativePath.getName();
+        VirtualFile file = extractFolder.getChild(Path.of(fileName));
+        if (file != null && !overwrite) {
+            throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
+        }
+        try (InputStream fileContent = content == null ? zipContent.getEntryContent(zipEntry) : content) {
+            if (file == null) {
+                extractFolder.createFile(fileName, fileContent);
+            } else {
+                file.updateContent(fileContent);
+            }
+        }
+    }
+
+    /** Entry of zip archive with inflated content or without content if entry is folder or big file that is read while extracting. */
+    private static class ExtractedZipEntry {
+        final ZipEntry zipEntry;
+        final byte[]   content;
+
+        ExtractedZipEntry(ZipEntry zipEntry, byte[] content) {
+            this.zipEntry = zipEntry;
+            this.content = content;
         }
     }
 }
@@ -74,6 +74,8 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
         try {
             LocalVirtualFileSystem virtualFileSystem = (LocalVirtualFileSystem)virtualFileSystemProvider.getVirtualFileSystem(true);
             Path vfsPath = Path.of(subPath);
+            // Listings of folders and hash sums cached by file system may be out of date after external change.
+            virtualFileSystem.invalidateCaches(ROOT.newPath(vfsPath));
             VirtualFile virtualFile = virtualFileSystem.getRoot().getChild(vfsPath);
             if (virtualFile == null) {
                 virtualFile = new DeletedLocalVirtualFile(new File(root, subPath), ROOT.newPath(vfsPath), virtualFileSystem, isDir);
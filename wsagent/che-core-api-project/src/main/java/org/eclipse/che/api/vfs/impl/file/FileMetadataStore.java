@@ -0,0 +1,536 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.vfs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Keeps locks and properties of items of {@link LocalVirtualFileSystem} in memory and persists all changes in append-only log.
+ * <p>
+ * Log is read once when store is opened. Each change is appended to the log as single frame which contains one or more records
+ * and checksum of them, and then is applied to in-memory index. Frame that is not written completely, e.g. because of crash, is
+ * discarded on next start, so changes of whole subtrees (copy, move, delete) are applied all or nothing. When log contains too
+ * many obsolete records it is rewritten with actual state of store.
+ * <p>
+ * Reading methods of this class never block and do not touch file system.
+ */
+class FileMetadataStore {
+    private static final Logger LOG = LoggerFactory.getLogger(FileMetadataStore.class);
+
+    static final String LOG_FILE_NAME = "metadata";
+
+    private static final String LEGACY_LOCKS_DIR         = "locks";
+    private static final String LEGACY_LOCK_SUFFIX       = "_lock";
+    private static final String LEGACY_PROPS_DIR         = "props";
+    private static final String LEGACY_PROPERTIES_SUFFIX = "_props";
+
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+    private static final int MAX_RECORDS_IN_FRAME         = 1000;
+
+    private static final byte PUT_LOCK         = 1;
+    private static final byte REMOVE_LOCK      = 2;
+    private static final byte PUT_PROPERTIES   = 3;
+    private static final byte REMOVE_TREE      = 4;
+    private static final byte COPY_TREE        = 5;
+    private static final byte MOVE_TREE        = 6;
+
+    private final File                                                ioRoot;
+    private final File                                                serviceDir;
+    private final File                                                logFile;
+    private final int                                                 compactionThreshold;
+    private final FileLockSerializer                                  locksSerializer;
+    private final FileMetadataSerializer                              metadataSerializer;
+    private final ConcurrentNavigableMap<String, FileLock>            locks;
+    private final ConcurrentNavigableMap<String, Map<String, String>> properties;
+
+    private FileChannel logChannel;
+    /** Set when log can't be used. All changes are applied to in-memory index only. */
+    private boolean     inMemory;
+    /** Number of records appended to the log since it was written from scratch last time. */
+    private int         appendedRecords;
+
+    /**
+     * @param ioRoot
+     *         root of file system
+     * @param serviceDir
+     *         directory where log of store is kept
+     */
+    FileMetadataStore(File ioRoot, File serviceDir) {
+        this(ioRoot, serviceDir, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    FileMetadataStore(File ioRoot, File serviceDir, int compactionThreshold) {
+        this.ioRoot = ioRoot;
+        this.serviceDir = serviceDir;
+        this.compactionThreshold = compactionThreshold;
+        logFile = new File(serviceDir, LOG_FILE_NAME);
+        locksSerializer = new FileLockSerializer();
+        metadataSerializer = new FileMetadataSerializer();
+        locks = new ConcurrentSkipListMap<>();
+        properties = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Loads content of the store from log. If log does not exist yet, locks and properties kept in per-file {@code .vfs/locks} and
+     * {@code .vfs/props} directories by previous versions of file system are imported and removed.
+     *
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    synchronized void open() throws IOException {
+        if (!(serviceDir.isDirectory() || serviceDir.mkdirs())) {
+            throw new IOException(String.format("Unable create directory %s", serviceDir));
+        }
+        if (logFile.exists()) {
+            final long validLength = replayLog();
+            logChannel = FileChannel.open(logFile.toPath(), WRITE, APPEND);
+            if (logChannel.size() > validLength) {
+                LOG.warn("Discard incomplete tail of metadata log {}", logFile);
+                logChannel.truncate(validLength);
+            }
+            compactIfNeeded();
+        } else {
+            final List<File> legacyFiles = importLegacyFiles();
+            writeSnapshot();
+            deleteLegacyFiles(legacyFiles);
+        }
+    }
+
+    /**
+     * Switches store to work without log, e.g. when log can't be opened. Metadata that was read so far is kept, changes are applied
+     * to in-memory index only and are lost after restart.
+     */
+    synchronized void openInMemory() {
+        close();
+        inMemory = true;
+    }
+
+    synchronized void close() {
+        if (logChannel != null) {
+            try {
+                logChannel.close();
+            } catch (IOException e) {
+                LOG.warn(e.getMessage(), e);
+            }
+            logChannel = null;
+        }
+    }
+
+    /** Gets lock of item with specified path or {@code null} if item is not locked. */
+    FileLock getLock(Path path) {
+        return locks.get(path.toString());
+    }
+
+    /** Gets properties of item with specified path. Returned map is unmodifiable. */
+    Map<String, String> getProperties(Path path) {
+        final Map<String, String> itemProperties = properties.get(path.toString());
+        return itemProperties == null ? emptyMap() : itemProperties;
+    }
+
+    synchronized void putLock(Path path, FileLock lock) throws IOException {
+        final Frame frame = new Frame();
+        frame.writeRecord(PUT_LOCK, path.toString());
+        locksSerializer.write(frame.output, lock);
+        append(frame);
+    }
+
+    /** Removes lock of item with specified path. If {@code expected} isn't {@code null} lock is removed only if it is still same. */
+    synchronized void removeLock(Path path, FileLock expected) throws IOException {
+        final FileLock current = locks.get(path.toString());
+        if (current == null || (expected != null && !expected.equals(current))) {
+            return;
+        }
+        final Frame frame = new Frame();
+        frame.writeRecord(REMOVE_LOCK, path.toString());
+        append(frame);
+    }
+
+    /**
+     * Updates properties of item with specified path. Property with {@code null} value in {@code updates} is removed.
+     *
+     * @return updated properties of item
+     */
+    synchronized Map<String, String> updateProperties(Path path, Map<String, String> updates) throws IOException {
+        final Map<String, String> updated = newLinkedHashMap(getProperties(path));
+        for (Map.Entry<String, String> entry : updates.entrySet()) {
+            if (entry.getValue() == null) {
+                updated.remove(entry.getKey());
+            } else {
+                updated.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final Frame frame = new Frame();
+        frame.writeRecord(PUT_PROPERTIES, path.toString());
+        metadataSerializer.write(frame.output, updated);
+        append(frame);
+        return getProperties(path);
+    }
+
+    /** Removes locks and properties of item with specified path and all its descendants. */
+    synchronized void removeTree(Path path) throws IOException {
+        final String key = path.toString();
+        if (!containsTree(locks, key) && !containsTree(properties, key)) {
+            return;
+        }
+        final Frame frame = new Frame();
+        frame.writeRecord(REMOVE_TREE, key);
+        append(frame);
+    }
+
+    /** Copies properties of item and all its descendants. Locks are not copied. Existing metadata of destination is removed. */
+    synchronized void copyTree(Path source, Path destination) throws IOException {
+        final Frame frame = new Frame();
+        frame.writeRecord(COPY_TREE, source.toString());
+        frame.output.writeUTF(destination.toString());
+        append(frame);
+    }
+
+    /** Same as {@link #copyTree(Path, Path)} but also removes locks and properties of source in the same atomic update. */
+    synchronized void moveTree(Path source, Path destination) throws IOException {
+        final Frame frame = new Frame();
+        frame.writeRecord(MOVE_TREE, source.toString());
+        frame.output.writeUTF(destination.toString());
+        append(frame);
+    }
+
+    private void append(Frame frame) throws IOException {
+        if (inMemory) {
+            replayFrame(frame.records, frame.payload());
+            return;
+        }
+        if (logChannel == null) {
+            throw new IOException("Metadata store is not opened");
+        }
+        final long length = logChannel.size();
+        try {
+            frame.writeTo(logChannel);
+        } catch (IOException e) {
+            discardTail(length);
+            throw e;
+        }
+        replayFrame(frame.records, frame.payload());
+        appendedRecords += frame.records;
+        compactIfNeeded();
+    }
+
+    /**
+     * Cuts partially written frame off the log, otherwise frames appended after it would be discarded together with it on next
+     * start. If log can't be truncated it is closed and store refuses any further changes.
+     */
+    private void discardTail(long validLength) {
+        try {
+            logChannel.truncate(validLength);
+        } catch (IOException e) {
+            LOG.error(String.format("Unable discard incomplete tail of metadata log %s, store is closed", logFile), e);
+            close();
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        final int live = locks.size() + properties.size();
+        final int obsolete = appendedRecords - live;
+        if (obsolete > compactionThreshold && obsolete > live) {
+            writeSnapshot();
+        }
+    }
+
+    /** Rewrites log with actual state of the store. New log replaces old one atomically. */
+    private void writeSnapshot() throws IOException {
+        final File tmpFile = new File(serviceDir, LOG_FILE_NAME + ".tmp");
+        int records = 0;
+        try (FileChannel tmpChannel = FileChannel.open(tmpFile.toPath(), CREATE, WRITE, TRUNCATE_EXISTING)) {
+            Frame frame = new Frame();
+            for (Map.Entry<String, FileLock> entry : locks.entrySet()) {
+                frame.writeRecord(PUT_LOCK, entry.getKey());
+                locksSerializer.write(frame.output, entry.getValue());
+                frame = flushIfFull(frame, tmpChannel);
+                records++;
+            }
+            for (Map.Entry<String, Map<String, String>> entry : properties.entrySet()) {
+                frame.writeRecord(PUT_PROPERTIES, entry.getKey());
+                metadataSerializer.write(frame.output, entry.getValue());
+                frame = flushIfFull(frame, tmpChannel);
+                records++;
+            }
+            if (frame.records > 0) {
+                frame.writeTo(tmpChannel);
+            }
+            tmpChannel.force(true);
+        }
+        close();
+        Files.move(tmpFile.toPath(), logFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        logChannel = FileChannel.open(logFile.toPath(), WRITE, APPEND);
+        appendedRecords = records;
+    }
+
+    private Frame flushIfFull(Frame frame, FileChannel channel) throws IOException {
+        if (frame.records < MAX_RECORDS_IN_FRAME) {
+            return frame;
+        }
+        frame.writeTo(channel);
+        return new Frame();
+    }
+
+    /**
+     * Reads log and applies all complete frames from it.
+     *
+     * @return length of valid part of log
+     */
+    private long replayLog() throws IOException {
+        final long logLength = logFile.length();
+        long validLength = 0;
+        appendedRecords = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            final CRC32 crc = new CRC32();
+            while (true) {
+                final int records;
+                final byte[] payload;
+                final long checksum;
+                try {
+                    records = input.readInt();
+                    final int length = input.readInt();
+                    if (records < 0 || length < 0 || validLength + Frame.HEADER_LENGTH + length > logLength) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    checksum = input.readLong();
+                    input.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload);
+                if (crc.getValue() != checksum) {
+                    break;
+                }
+                replayFrame(records, payload);
+                appendedRecords += records;
+                validLength += Frame.HEADER_LENGTH + payload.length;
+            }
+        }
+        return validLength;
+    }
+
+    private void replayFrame(int records, byte[] payload) throws IOException {
+        final DataInput input = new DataInputStream(new ByteArrayInputStream(payload));
+        for (int i = 0; i < records; i++) {
+            final byte type = input.readByte();
+            final String path = input.readUTF();
+            switch (type) {
+                case PUT_LOCK:
+                    locks.put(path, locksSerializer.read(input));
+                    break;
+                case REMOVE_LOCK:
+                    locks.remove(path);
+                    break;
+                case PUT_PROPERTIES:
+                    final Map<String, String> itemProperties = metadataSerializer.read(input);
+                    if (itemProperties.isEmpty()) {
+                        properties.remove(path);
+                    } else {
+                        properties.put(path, ImmutableMap.copyOf(itemProperties));
+                    }
+                    break;
+                case REMOVE_TREE:
+                    removeTree(locks, path);
+                    removeTree(properties, path);
+                    break;
+                case COPY_TREE:
+                case MOVE_TREE:
+                    final String destination = input.readUTF();
+                    final Map<String, Map<String, String>> copied = newLinkedHashMap();
+                    final Map<String, String> rootProperties = properties.get(path);
+                    if (rootProperties != null) {
+                        copied.put(destination, rootProperties);
+                    }
+                    for (Map.Entry<String, Map<String, String>> entry : descendants(properties, path).entrySet()) {
+                        copied.put(rebase(entry.getKey(), path, destination), entry.getValue());
+                    }
+                    if (type == MOVE_TREE) {
+                        removeTree(locks, path);
+                        removeTree(properties, path);
+                    }
+                    removeTree(locks, destination);
+                    removeTree(properties, destination);
+                    properties.putAll(copied);
+                    break;
+                default:
+                    throw new IOException(String.format("Unknown record type %d in metadata log %s", type, logFile));
+            }
+        }
+    }
+
+    /** Gets view of part of map which contains entries for all descendants of item with specified path. */
+    private static <V> NavigableMap<String, V> descendants(ConcurrentNavigableMap<String, V> map, String path) {
+        if ("/".equals(path)) {
+            return map.tailMap(path, false);
+        }
+        // '0' is next character after '/'
+        return map.subMap(path + '/', true, path + '0', false);
+    }
+
+    private static <V> boolean containsTree(ConcurrentNavigableMap<String, V> map, String path) {
+        return map.containsKey(path) || !descendants(map, path).isEmpty();
+    }
+
+    private static <V> void removeTree(ConcurrentNavigableMap<String, V> map, String path) {
+        map.remove(path);
+        descendants(map, path).clear();
+    }
+
+    /** Gets path of descendant of {@code from} after its moving to {@code to}. */
+    private static String rebase(String path, String from, String to) {
+        final String relative = "/".equals(from) ? path : path.substring(from.length());
+        return "/".equals(to) ? relative : to + relative;
+    }
+
+    private List<File> importLegacyFiles() throws IOException {
+        final List<File> legacyFiles = newArrayList();
+        final String serviceDirName = serviceDir.getName();
+        Files.walkFileTree(ioRoot.toPath(), new SimpleFileVisitor<java.nio.file.Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.getFileName() != null && serviceDirName.equals(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                final Path parent = toVfsPath(dir);
+                final File legacyDir = new File(dir.toFile(), serviceDirName);
+                for (File lockFile : listFiles(new File(legacyDir, LEGACY_LOCKS_DIR), LEGACY_LOCK_SUFFIX)) {
+                    final Path path = parent.newPath(stripSuffix(lockFile.getName(), LEGACY_LOCK_SUFFIX));
+                    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(lockFile)))) {
+                        locks.put(path.toString(), locksSerializer.read(input));
+                    }
+                    legacyFiles.add(lockFile);
+                }
+                for (File propertiesFile : listFiles(new File(legacyDir, LEGACY_PROPS_DIR), LEGACY_PROPERTIES_SUFFIX)) {
+                    final Path path = parent.newPath(stripSuffix(propertiesFile.getName(), LEGACY_PROPERTIES_SUFFIX));
+                    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(propertiesFile)))) {
+                        final Map<String, String> itemProperties = metadataSerializer.read(input);
+                        if (!itemProperties.isEmpty()) {
+                            properties.put(path.toString(), ImmutableMap.copyOf(itemProperties));
+                        }
+                    }
+                    legacyFiles.add(propertiesFile);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(java.nio.file.Path file, IOException e) {
+                LOG.warn("Unable read {} while importing locks and properties of files. {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return legacyFiles;
+    }
+
+    private void deleteLegacyFiles(List<File> legacyFiles) {
+        for (File legacyFile : legacyFiles) {
+            if (!legacyFile.delete()) {
+                LOG.warn("Unable delete file {}", legacyFile);
+            }
+            // Remove directories 'locks' or 'props' and '.vfs' that contains them if they are empty. Root '.vfs' contains log.
+            final File legacyDir = legacyFile.getParentFile();
+            legacyDir.delete();
+            if (!legacyDir.getParentFile().equals(serviceDir)) {
+                legacyDir.getParentFile().delete();
+            }
+        }
+    }
+
+    private Path toVfsPath(java.nio.file.Path dir) {
+        final java.nio.file.Path relative = ioRoot.toPath().relativize(dir);
+        Path path = Path.ROOT;
+        for (java.nio.file.Path element : relative) {
+            if (!element.toString().isEmpty()) {
+                path = path.newPath(element.toString());
+            }
+        }
+        return path;
+    }
+
+    private static File[] listFiles(File dir, String suffix) {
+        final File[] files = dir.listFiles((parent, name) -> name.endsWith(suffix));
+        return files == null ? new File[0] : files;
+    }
+
+    private static String stripSuffix(String name, String suffix) {
+        return name.substring(0, name.length() - suffix.length());
+    }
+
+    /** Records of single atomic update of the store. */
+    private static class Frame {
+        static final int HEADER_LENGTH = 16; // number of records, length of payload, checksum
+
+        final ByteArrayOutputStream bytes  = new ByteArrayOutputStream();
+        final DataOutputStream      output = new DataOutputStream(bytes);
+        int records;
+
+        void writeRecord(byte type, String path) throws IOException {
+            output.writeByte(type);
+            output.writeUTF(path);
+            records++;
+        }
+
+        byte[] payload() {
+            return bytes.toByteArray();
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            final byte[] payload = payload();
+            final CRC32 crc = new CRC32();
+            crc.update(payload);
+            final ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+            buffer.putInt(records).putInt(payload.length).putLong(crc.getValue()).put(payload);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -21,11 +21,13 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
@@ -39,13 +41,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.Files.getLastModifiedTime;
@@ -54,27 +61,48 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Collections.emptyList;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 
+/**
+ * Watches file tree with {@link WatchService}, on Linux it is backed by inotify. Watches are registered for all directories in tree
+ * except excluded directories, registration runs in parallel. If limit of inotify watches is exhausted then directories that are left
+ * without watch are rescanned periodically, rest of tree keeps using native notifications. Registration time and lag of event
+ * processing are tracked and available with corresponding getters.
+ */
 @Singleton
 public class FileTreeWatcher {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWatcher.class);
 
-    private static final long EVENT_PROCESS_TIMEOUT_SEC = 2;
+    private static final long EVENT_PROCESS_TIMEOUT_SEC   = 2;
+    /** Pending events are processed even if new events are still coming when the oldest of them is waiting longer than this. */
+    private static final long MAX_EVENT_LAG_MILLIS        = 5000;
+    /** Period of rescan of directories that could not be watched because limit of watches is reached. */
+    private static final long UNWATCHED_RESCAN_PERIOD_SEC = 5;
 
     private final File                           watchRoot;
     private final Path                           watchRootPath;
     private final Map<Path, WatchedDirectory>    watchedDirectories;
+    private final Set<Path>                      unwatchedDirectories;
     private final List<PathMatcher>              excludePatterns;
     private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
     private final ExecutorService                executor;
+    private final ForkJoinPool                   registrationPool;
     private final AtomicBoolean                  running;
+    private final AtomicBoolean                  watchLimitReached;
     private       WatchService                   watchService;
     private       WatchEvent.Modifier[]          watchEventModifiers;
 
+    private volatile long    registrationTimeMillis;
+    private volatile long    lastEventLagMillis;
+    private volatile long    maxEventLagMillis;
+    private volatile boolean polling;
+    private volatile boolean eventsPending;
+
     @Inject
     public FileTreeWatcher(@Named("che.user.workspaces.storage") File watchRoot,
                            @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
@@ -82,13 +110,20 @@ public class FileTreeWatcher {
         watchEventModifiers = new WatchEvent.Modifier[0];
         this.watchRoot = toCanonicalFile(watchRoot);
         this.watchRootPath = this.watchRoot.toPath();
-        this.excludePatterns = newArrayList(excludePatterns);
+        this.excludePatterns = new CopyOnWriteArrayList<>(excludePatterns);
         this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
 
         ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("FileTreeWatcher-%d").build();
         executor = Executors.newSingleThreadExecutor(threadFactory);
+        registrationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("FileTreeWatcherRegistration-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
         running = new AtomicBoolean();
-        watchedDirectories = newHashMap();
+        watchLimitReached = new AtomicBoolean();
+        watchedDirectories = new ConcurrentHashMap<>();
+        unwatchedDirectories = ConcurrentHashMap.newKeySet();
     }
 
     private static File toCanonicalFile(File file) {
@@ -102,10 +137,17 @@ public class FileTreeWatcher {
     public void startup() throws IOException {
         watchService = FileSystems.getDefault().newWatchService();
         if (isPollingWatchService(watchService)) {
+            LOG.warn("Native file system notifications are not available, changes under {} are detected by polling of file system" +
+                     " that might consume a lot of CPU for large trees", watchRoot);
             watchEventModifiers = new WatchEvent.Modifier[]{createSensitivityWatchEventModifier()};
+            polling = true;
         }
         running.set(true);
-        walkTreeAndSetupWatches(watchRootPath);
+        final long start = System.currentTimeMillis();
+        setupTreeWatchers(watchRootPath);
+        registrationTimeMillis = System.currentTimeMillis() - start;
+        LOG.info("Registered watchers for {} directories under {} in {} ms, {} directories are left without watcher",
+                 getWatchedDirectoriesCount(), watchRoot, registrationTimeMillis, getUnwatchedDirectoriesCount());
         executor.execute(new WatchEventTask());
         fileWatcherNotificationHandler.started(watchRoot);
     }
@@ -127,6 +169,8 @@ public class FileTreeWatcher {
 
     public void shutdown() {
         boolean interrupted = false;
+        running.set(false);
+        registrationPool.shutdownNow();
         executor.shutdown();
         try {
             if (!executor.awaitTermination(3, SECONDS)) {
@@ -140,10 +184,8 @@ public class FileTreeWatcher {
             executor.shutdownNow();
         }
 
-        try {
-            walkTreeAndRemoveWatches(watchRootPath);
-        } catch (IOException e) {
-            LOG.warn(e.getMessage());
+        for (Path directory : newArrayList(watchedDirectories.keySet())) {
+            cancelDirectoryWatcher(directory);
         }
 
         try {
@@ -165,17 +207,41 @@ public class FileTreeWatcher {
         this.excludePatterns.remove(exclude);
     }
 
-    private void walkTreeAndSetupWatches(Path root) throws IOException {
-        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                Path relativePath = watchRootPath.relativize(dir);
-                if (shouldNotify(relativePath)) {
-                    setupDirectoryWatcher(dir);
-                }
-                return CONTINUE;
-            }
-        });
+    /** Time spent for registration of watchers for whole tree at startup, in milliseconds. */
+    public long getRegistrationTimeMillis() {
+        return registrationTimeMillis;
+    }
+
+    /** Number of directories that get notifications from native watch service. */
+    public int getWatchedDirectoriesCount() {
+        return watchedDirectories.size() - unwatchedDirectories.size();
+    }
+
+    /** Number of directories that are rescanned periodically because limit of native watches is reached. */
+    public int getUnwatchedDirectoriesCount() {
+        return unwatchedDirectories.size();
+    }
+
+    public boolean isWatchLimitReached() {
+        return watchLimitReached.get();
+    }
+
+    /** Time between receiving of the first event in the latest processed batch and notification about it, in milliseconds. */
+    public long getLastEventLagMillis() {
+        return lastEventLagMillis;
+    }
+
+    /** Max time between receiving of event and notification about it since watcher is started, in milliseconds. */
+    public long getMaxEventLagMillis() {
+        return maxEventLagMillis;
+    }
+
+    /**
+     * Returns {@code true} if changes of files might be not notified yet: events are received and wait for processing, some
+     * directories are rescanned periodically, file system is polled or watcher is not running.
+     */
+    public boolean hasUndeliveredEvents() {
+        return eventsPending || polling || !unwatchedDirectories.isEmpty() || !running.get();
     }
 
     private boolean shouldNotify(Path subPath) {
@@ -187,16 +253,6 @@ public class FileTreeWatcher {
         return true;
     }
 
-    private void walkTreeAndRemoveWatches(Path root) throws IOException {
-        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                cancelDirectoryWatcher(dir);
-                return CONTINUE;
-            }
-        });
-    }
-
     private void walkTreeAndFireCreatedEvents(Path root) throws IOException {
         Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
             @Override
@@ -215,54 +271,159 @@ public class FileTreeWatcher {
         });
     }
 
-    private void setupDirectoryWatcher(Path directory) throws IOException {
-        if (watchedDirectories.get(directory) == null) {
-            WatchKey watchKey = directory.register(watchService,
-                                                   new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
-                                                   watchEventModifiers);
-            WatchedDirectory watchedDirectory = new WatchedDirectory(directory, watchKey);
-            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
-                for (Path entry : entries) {
-                    watchedDirectory
-                            .addItem(new DirectoryItem(entry.getFileName(), Files.isDirectory(entry), getLastModifiedInMillis(entry)));
+    /** Sets up watchers for directory and all its not excluded sub-directories, sub-directories are processed in parallel. */
+    private void setupTreeWatchers(Path directory) throws IOException {
+        try {
+            registrationPool.invoke(new SetupDirectoryWatcherTask(directory));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-                    if (Files.isDirectory(entry)) {
-                        setupDirectoryWatcher(entry);
-                    }
+    private class SetupDirectoryWatcherTask extends RecursiveAction {
+        final Path directory;
+
+        SetupDirectoryWatcherTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            final List<Path> subDirectories;
+            try {
+                subDirectories = setupDirectoryWatcher(directory);
+            } catch (NoSuchFileException e) {
+                return;
+            } catch (IOException e) {
+                if (directory.equals(watchRootPath)) {
+                    throw new UncheckedIOException(e);
+                }
+                LOG.warn("Unable watch directory {}: {}", directory, e.getMessage());
+                return;
+            }
+            if (subDirectories.size() == 1) {
+                new SetupDirectoryWatcherTask(subDirectories.get(0)).compute();
+            } else if (!subDirectories.isEmpty()) {
+                invokeAll(subDirectories.stream().map(SetupDirectoryWatcherTask::new).collect(toList()));
+            }
+        }
+    }
+
+    /** Sets up watcher for single directory and returns sub-directories that should be watched too. */
+    private List<Path> setupDirectoryWatcher(Path directory) throws IOException {
+        if (watchedDirectories.containsKey(directory)) {
+            return emptyList();
+        }
+        final WatchedDirectory watchedDirectory = new WatchedDirectory(directory, registerDirectory(directory));
+        final List<Path> subDirectories = newArrayList();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                final BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class, NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    continue;
+                }
+                final boolean isDirectory = attributes.isDirectory() || (attributes.isSymbolicLink() && Files.isDirectory(entry));
+                watchedDirectory.addItem(new DirectoryItem(entry.getFileName(), isDirectory, attributes.lastModifiedTime().toMillis()));
+                if (isDirectory && shouldNotify(watchRootPath.relativize(entry))) {
+                    subDirectories.add(entry);
                 }
             }
-            watchedDirectories.put(directory, watchedDirectory);
         }
+        watchedDirectories.put(directory, watchedDirectory);
+        return subDirectories;
+    }
+
+    /**
+     * Registers directory in watch service. Returns {@code null} if limit of watches is reached, such directory is rescanned
+     * periodically.
+     */
+    private WatchKey registerDirectory(Path directory) throws IOException {
+        if (!watchLimitReached.get()) {
+            try {
+                return register(directory);
+            } catch (IOException e) {
+                if (!isWatchLimitError(e)) {
+                    throw e;
+                }
+                if (watchLimitReached.compareAndSet(false, true)) {
+                    LOG.warn("Limit of file system watches is reached after {} directories under {} are watched. Rest of directories is" +
+                             " rescanned every {} seconds. Increase kernel parameter 'fs.inotify.max_user_watches' to get native" +
+                             " notifications for all directories.", getWatchedDirectoriesCount(), watchRoot, UNWATCHED_RESCAN_PERIOD_SEC);
+                }
+            }
+        }
+        unwatchedDirectories.add(directory);
+        return null;
+    }
+
+    WatchKey register(Path directory) throws IOException {
+        return directory.register(watchService,
+                                  new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
+                                  watchEventModifiers);
+    }
+
+    /** Linux watch service reports exhausted limit of inotify watches (ENOSPC) with such message. */
+    private static boolean isWatchLimitError(IOException e) {
+        final String message = e.getMessage();
+        return message != null && (message.contains("limit of inotify watches") || message.contains("No space left on device"));
     }
 
     private void cancelDirectoryWatcher(Path path) {
         WatchedDirectory watchedDirectory = watchedDirectories.remove(path);
-        if (watchedDirectory != null) {
+        unwatchedDirectories.remove(path);
+        if (watchedDirectory != null && watchedDirectory.getWatchKey() != null) {
             watchedDirectory.getWatchKey().cancel();
         }
     }
 
     private class WatchEventTask implements Runnable {
         final Set<PendingEvent> pendingEvents = newLinkedHashSet();
+        long firstPendingEventTime;
+        long nextUnwatchedRescanTime;
 
         @Override
         public void run() {
             while (running.get()) {
                 try {
                     WatchKey watchKey;
-                    if (pendingEvents.isEmpty()) {
+                    if (pendingEvents.isEmpty() && unwatchedDirectories.isEmpty()) {
                         watchKey = watchService.take();
                     } else {
-                        watchKey = watchService.poll(EVENT_PROCESS_TIMEOUT_SEC, SECONDS);
-                        if (watchKey == null) {
-                            processPendingEvents(pendingEvents);
-                            pendingEvents.clear();
-                        }
+                        watchKey = watchService.poll(pendingEvents.isEmpty() ? UNWATCHED_RESCAN_PERIOD_SEC : EVENT_PROCESS_TIMEOUT_SEC,
+                                                     SECONDS);
                     }
-                    if (watchKey != null) {
+                    // drain all keys that are signalled at the moment and decode them in one batch, steady stream of events must not
+                    // delay processing of events which are already collected for longer than max lag
+                    boolean received = false;
+                    for (; watchKey != null; watchKey = watchService.poll()) {
+                        if (pendingEvents.isEmpty()) {
+                            firstPendingEventTime = System.currentTimeMillis();
+                            eventsPending = true;
+                        }
                         pendingEvents.add(new PendingEvent((Path)watchKey.watchable()));
                         watchKey.pollEvents();
                         watchKey.reset();
+                        received = true;
+                        if (System.currentTimeMillis() - firstPendingEventTime >= MAX_EVENT_LAG_MILLIS) {
+                            break;
+                        }
+                    }
+                    final long now = System.currentTimeMillis();
+                    if (!pendingEvents.isEmpty() && (!received || now - firstPendingEventTime >= MAX_EVENT_LAG_MILLIS)) {
+                        processPendingEvents(pendingEvents);
+                        pendingEvents.clear();
+                        eventsPending = false;
+                        updateEventLag(firstPendingEventTime);
+                    }
+                    if (!unwatchedDirectories.isEmpty() && now >= nextUnwatchedRescanTime) {
+                        final List<PendingEvent> rescan = newArrayList();
+                        for (Path unwatchedDirectory : unwatchedDirectories) {
+                            rescan.add(new PendingEvent(unwatchedDirectory));
+                        }
+                        processPendingEvents(rescan);
+                        nextUnwatchedRescanTime = now + SECONDS.toMillis(UNWATCHED_RESCAN_PERIOD_SEC);
                     }
                 } catch (InterruptedException | ClosedWatchServiceException e) {
                     running.set(false);
@@ -274,6 +435,14 @@ public class FileTreeWatcher {
         }
     }
 
+    private void updateEventLag(long eventTime) {
+        final long lag = System.currentTimeMillis() - eventTime;
+        lastEventLagMillis = lag;
+        if (lag > maxEventLagMillis) {
+            maxEventLagMillis = lag;
+        }
+    }
+
     private void processPendingEvents(Collection<PendingEvent> pendingEvents) throws IOException {
         for (PendingEvent pendingEvent : pendingEvents) {
             Path eventDirectoryPath = pendingEvent.getPath();
@@ -300,7 +469,9 @@ public class FileTreeWatcher {
                                 fireWatchEvent(CREATED, fsItem, directoryItem.isDirectory());
                                 if (directory) {
                                     walkTreeAndFireCreatedEvents(fsItem);
-                                    setupDirectoryWatcher(fsItem);
+                                    if (shouldNotify(watchRootPath.relativize(fsItem))) {
+                                        setupTreeWatchers(fsItem);
+                                    }
                                 }
                             } catch (IOException ignored) {
                             }
@@ -335,7 +506,7 @@ public class FileTreeWatcher {
                 for (DirectoryItem directoryItem : watchedDirectory.getItems()) {
                     fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
                 }
-                watchedDirectories.remove(eventDirectoryPath);
+                cancelDirectoryWatcher(eventDirectoryPath);
             }
         }
     }
@@ -381,17 +552,18 @@ public class FileTreeWatcher {
     }
 
     static class WatchedDirectory {
-        final Path                path;
-        final WatchKey            watchKey;
-        final List<DirectoryItem> items;
+        final Path                     path;
+        final WatchKey                 watchKey;
+        final Map<Path, DirectoryItem> items;
         int hitCounter;
 
         WatchedDirectory(Path path, WatchKey watchKey) {
             this.path = path;
             this.watchKey = watchKey;
-            items = newArrayList();
+            items = newLinkedHashMap();
         }
 
+        /** Returns {@code null} if directory is not registered in watch service and is rescanned periodically. */
         WatchKey getWatchKey() {
             return watchKey;
         }
@@ -401,21 +573,16 @@ public class FileTreeWatcher {
         }
 
         DirectoryItem getItem(Path name) {
-            for (DirectoryItem item : items) {
-                if (item.getName().equals(name)) {
-                    return item;
-                }
-            }
-            return null;
+            return items.get(name);
         }
 
         void addItem(DirectoryItem item) {
             item.updateHitCounter(this.hitCounter);
-            items.add(item);
+            items.put(item.getName(), item);
         }
 
-        List<DirectoryItem> getItems() {
-            return items;
+        Collection<DirectoryItem> getItems() {
+            return items.values();
         }
 
         int incrementHitCounter() {
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.hash.HashFunction;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.HashSumTree;
+import org.eclipse.che.api.vfs.HashSumsCounter;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Caches hash sums of files and trees of hash sums of folders of {@link LocalVirtualFileSystem}.
+ * <p>
+ * Hash sum of file is reused while size and modification date of file are not changed. Tree of folder is reused until any item in
+ * it is changed, see {@link #invalidate(Path)}, so repeated counting of hash sums of not changed folder does not touch file system
+ * at all and counting after change re-reads only changed files. Trees of folders that contain items excluded from file watching
+ * are not cached, since nothing invalidates them when such items are changed. Hash sums of files are saved in service directory of
+ * file system when it is closed and loaded on next start.
+ */
+class HashSumTreeCache {
+    private static final Logger LOG = LoggerFactory.getLogger(HashSumTreeCache.class);
+
+    static final String SNAPSHOT_FILE_NAME = "hashsums";
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static class FileHashSum {
+        final long   length;
+        final long   lastModified;
+        final String hash;
+
+        FileHashSum(long length, long lastModified, String hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+    private final File                                        snapshotFile;
+    private final HashFunction                                hashFunction;
+    private final ConcurrentNavigableMap<String, FileHashSum> files;
+    private final ConcurrentNavigableMap<String, HashSumTree> folders;
+    private final Set<PathMatcher>                            notWatchedPaths;
+    /** Incremented on each invalidation. Prevents caching of trees that were counted before invalidation. */
+    private final AtomicLong                                  generation;
+
+    HashSumTreeCache(File serviceDir, HashFunction hashFunction, Set<PathMatcher> notWatchedPaths) {
+        this.snapshotFile = new File(serviceDir, SNAPSHOT_FILE_NAME);
+        this.hashFunction = hashFunction;
+        this.notWatchedPaths = notWatchedPaths;
+        files = new ConcurrentSkipListMap<>();
+        folders = new ConcurrentSkipListMap<>();
+        generation = new AtomicLong();
+    }
+
+    /** Loads hash sums of files saved by {@link #save()}. Hash sums of files changed since then are ignored on first usage. */
+    void load() {
+        if (!snapshotFile.exists()) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (input.readInt() != SNAPSHOT_VERSION) {
+                return;
+            }
+            final int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                final String path = input.readUTF();
+                files.put(path, new FileHashSum(input.readLong(), input.readLong(), input.readUTF()));
+            }
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable load hash sums of files from %s. %s", snapshotFile, e.getMessage()));
+            files.clear();
+        }
+    }
+
+    void save() {
+        final File tmpFile = new File(snapshotFile.getParentFile(), SNAPSHOT_FILE_NAME + ".tmp");
+        try {
+            if (!snapshotFile.getParentFile().exists() && !snapshotFile.getParentFile().mkdirs()) {
+                throw new IOException(String.format("Unable create directory %s", snapshotFile.getParentFile()));
+            }
+            final List<Map.Entry<String, FileHashSum>> entries = newArrayList(files.entrySet());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                output.writeInt(SNAPSHOT_VERSION);
+                output.writeInt(entries.size());
+                for (Map.Entry<String, FileHashSum> entry : entries) {
+                    output.writeUTF(entry.getKey());
+                    output.writeLong(entry.getValue().length);
+                    output.writeLong(entry.getValue().lastModified);
+                    output.writeUTF(entry.getValue().hash);
+                }
+            }
+            Files.move(tmpFile.toPath(), snapshotFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable save hash sums of files to %s. %s", snapshotFile, e.getMessage()));
+        }
+    }
+
+    /** Gets tree of hash sums of specified file or folder. Only hash sums of files that are not cached or changed are counted. */
+    HashSumTree getHashSumTree(VirtualFile virtualFile) throws ServerException {
+        return getHashSumTree(virtualFile, generation.get());
+    }
+
+    private HashSumTree getHashSumTree(VirtualFile virtualFile, long startGeneration) throws ServerException {
+        final String path = virtualFile.getPath().toString();
+        if (virtualFile.isFile()) {
+            return HashSumTree.file(virtualFile.getName(), getFileHashSum(virtualFile, path));
+        }
+        HashSumTree tree = folders.get(path);
+        if (tree != null) {
+            return tree;
+        }
+        final List<HashSumTree> children = newArrayList();
+        boolean cacheable = !isNotWatched(virtualFile.getPath());
+        for (VirtualFile child : virtualFile.getChildren()) {
+            final HashSumTree childTree = getHashSumTree(child, startGeneration);
+            children.add(childTree);
+            // tree of child folder is not cached if it contains not watched items, then tree of this folder is not cached as well
+            cacheable &= !isNotWatched(child.getPath()) && (child.isFile() || folders.get(child.getPath().toString()) == childTree);
+        }
+        tree = HashSumTree.folder(virtualFile.getName(), children, hashFunction);
+        if (cacheable && generation.get() == startGeneration) {
+            folders.put(path, tree);
+            if (generation.get() != startGeneration) {
+                folders.remove(path, tree);
+            }
+        }
+        return tree;
+    }
+
+    /** Gets cached hash sum of specified file or {@code null} if hash sum is not cached or file was changed since it was counted. */
+    String getCachedHashSum(VirtualFile file) throws ServerException {
+        final FileHashSum cached = files.get(file.getPath().toString());
+        if (cached != null && cached.length == file.getLength() && cached.lastModified == file.getLastModificationDate()) {
+            return cached.hash;
+        }
+        return null;
+    }
+
+    private String getFileHashSum(VirtualFile file, String path) throws ServerException {
+        final long length = file.getLength();
+        final long lastModified = file.getLastModificationDate();
+        final FileHashSum cached = files.get(path);
+        if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+            return cached.hash;
+        }
+        final String hash = HashSumsCounter.countHashSum(file, hashFunction);
+        files.put(path, new FileHashSum(length, lastModified, hash));
+        return hash;
+    }
+
+    private boolean isNotWatched(Path path) {
+        if (notWatchedPaths.isEmpty() || path.isRoot()) {
+            return false;
+        }
+        final java.nio.file.Path relativePath = Paths.get(path.toString().substring(1));
+        return notWatchedPaths.stream().anyMatch(matcher -> matcher.matches(relativePath));
+    }
+
+    /** Drops cached hash sums of item with specified path, all its descendants and trees of all its ancestors. */
+    void invalidate(Path path) {
+        generation.incrementAndGet();
+        final String key = path.toString();
+        files.remove(key);
+        folders.remove(key);
+        descendants(files, key).clear();
+        descendants(folders, key).clear();
+        for (Path ancestor = path.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            folders.remove(ancestor.toString());
+        }
+    }
+
+    private static <V> Map<String, V> descendants(ConcurrentNavigableMap<String, V> map, String path) {
+        if ("/".equals(path)) {
+            return map.tailMap(path, false);
+        }
+        // '0' is next character after '/'
+        return map.subMap(path + '/', true, path + '0', false);
+    }
+}
@@ -15,6 +15,7 @@ import com.google.common.io.ByteStreams;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.HashSumTree;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
@@ -25,6 +26,8 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -41,10 +44,29 @@ public class LocalVirtualFile implements VirtualFile {
     private final Path                   path;
     private final LocalVirtualFileSystem fileSystem;
 
+    /**
+     * Attributes of file read together with listing of parent directory. They are used to avoid reading attributes of each item of
+     * listing again and are dropped as soon as file is changed through this instance or caches of file system are invalidated, e.g.
+     * by file watcher event about external change.
+     */
+    private volatile BasicFileAttributes attributes;
+    /** Generation of file system caches at the moment when {@link #attributes} were read. */
+    private final    long                attributesGeneration;
+
     LocalVirtualFile(java.io.File ioFile, Path path, LocalVirtualFileSystem fileSystem) {
+        this(ioFile, path, fileSystem, null, 0);
+    }
+
+    LocalVirtualFile(java.io.File ioFile,
+                     Path path,
+                     LocalVirtualFileSystem fileSystem,
+                     BasicFileAttributes attributes,
+                     long attributesGeneration) {
         this.ioFile = ioFile;
         this.path = path;
         this.fileSystem = fileSystem;
+        this.attributes = attributes;
+        this.attributesGeneration = attributesGeneration;
     }
 
     @Override
@@ -69,12 +91,23 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public boolean isFile() {
-        return toIoFile().isFile();
+        final BasicFileAttributes attributes = getAttributes();
+        return attributes == null ? toIoFile().isFile() : attributes.isRegularFile();
     }
 
     @Override
     public boolean isFolder() {
-        return toIoFile().isDirectory();
+        final BasicFileAttributes attributes = getAttributes();
+        return attributes == null ? toIoFile().isDirectory() : attributes.isDirectory();
+    }
+
+    private BasicFileAttributes getAttributes() {
+        final BasicFileAttributes attributes = this.attributes;
+        if (attributes != null && !fileSystem.isAttributesSnapshotActual(attributesGeneration)) {
+            this.attributes = null;
+            return null;
+        }
+        return attributes;
     }
 
     @Override
@@ -107,6 +140,11 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.getContent(this);
     }
 
+    @Override
+    public InputStream getContent(long offset, long length) throws ForbiddenException, ServerException {
+        return fileSystem.getContent(this, offset, length);
+    }
+
     @Override
     public byte[] getContentAsBytes() throws ForbiddenException, ServerException {
         if (getLength() > MAX_BUFFER_SIZE) {
@@ -126,7 +164,11 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public VirtualFile updateContent(InputStream content, String lockToken) throws ForbiddenException, ServerException {
-        fileSystem.updateContent(this, content, lockToken);
+        try {
+            fileSystem.updateContent(this, content, lockToken);
+        } finally {
+            attributes = null;
+        }
         return this;
     }
 
@@ -157,7 +199,8 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public long getLastModificationDate() {
-        return toIoFile().lastModified();
+        final BasicFileAttributes attributes = getAttributes();
+        return attributes == null ? toIoFile().lastModified() : attributes.lastModifiedTime().toMillis();
     }
 
     @Override
@@ -165,7 +208,8 @@ public class LocalVirtualFile implements VirtualFile {
         if (isFolder()) {
             return 0;
         }
-        return toIoFile().length();
+        final BasicFileAttributes attributes = getAttributes();
+        return attributes == null ? toIoFile().length() : attributes.size();
     }
 
     @Override
@@ -217,13 +261,21 @@ public class LocalVirtualFile implements VirtualFile {
 
     public LocalVirtualFile moveTo(VirtualFile parent, String name, boolean overwrite, String lockToken)
             throws ForbiddenException, ConflictException, ServerException {
-        return fileSystem.move(this, (LocalVirtualFile)parent, name, overwrite, lockToken);
+        try {
+            return fileSystem.move(this, (LocalVirtualFile)parent, name, overwrite, lockToken);
+        } finally {
+            attributes = null;
+        }
     }
 
     @Override
     public VirtualFile rename(String newName, String lockToken)
             throws ForbiddenException, ConflictException, ServerException {
-        return fileSystem.rename(this, newName, lockToken);
+        try {
+            return fileSystem.rename(this, newName, lockToken);
+        } finally {
+            attributes = null;
+        }
     }
 
     @Override
@@ -233,7 +285,11 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public void delete(String lockToken) throws ForbiddenException, ServerException {
-        fileSystem.delete(this, lockToken);
+        try {
+            fileSystem.delete(this, lockToken);
+        } finally {
+            attributes = null;
+        }
     }
 
     @Override
@@ -246,6 +302,11 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.zip(this);
     }
 
+    @Override
+    public void zip(OutputStream output) throws ForbiddenException, ServerException {
+        fileSystem.zip(this, output);
+    }
+
     @Override
     public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
@@ -314,6 +375,16 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.countMd5Sums(this);
     }
 
+    @Override
+    public HashSumTree countMd5SumTree() throws ServerException {
+        return fileSystem.countMd5SumTree(this);
+    }
+
+    @Override
+    public String getKnownMd5Sum() throws ServerException {
+        return fileSystem.getKnownMd5Sum(this);
+    }
+
     @Override
     public File toIoFile() {
         return ioFile;
@@ -10,10 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
@@ -25,7 +23,7 @@ import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
-import org.eclipse.che.api.vfs.HashSumsCounter;
+import org.eclipse.che.api.vfs.HashSumTree;
 import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.PathLockFactory;
@@ -41,31 +39,37 @@ import org.eclipse.che.commons.lang.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.readAttributes;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonMap;
-import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
@@ -82,41 +86,24 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
     private static final int  FILE_LOCK_MAX_THREADS      = 1024;
 
-    private static final String   VFS_SERVICE_DIR        = ".vfs";
-    private static final String   FILE_LOCKS_DIR         = VFS_SERVICE_DIR + File.separatorChar + "locks";
-    private static final String   LOCK_FILE_SUFFIX       = "_lock";
-    private static final FileLock NO_LOCK                = new FileLock("no_lock", 0);
-    private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
-    private static final String   PROPERTIES_FILE_SUFFIX = "_props";
+    private static final String   VFS_SERVICE_DIR = ".vfs";
+    private static final FileLock NO_LOCK         = new FileLock("no_lock", 0);
+
+    private static final long CHILDREN_CACHE_EXPIRE_SECONDS = 2;
+    private static final int  CHILDREN_CACHE_MAX_SIZE       = 1024;
 
     private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
 
-    private static final FilenameFilter VFS_LOCK_FILTER =
-            (dir, name) -> !(dir.getAbsolutePath().endsWith(FILE_LOCKS_DIR) || name.endsWith(LOCK_FILE_SUFFIX));
+    /** Item of cached listing of folder. Attributes may be {@code null} if they could not be read, e.g. for broken symbolic link. */
+    private static class ChildEntry {
+        final String              name;
+        final BasicFileAttributes attributes;
+        final long                generation;
 
-    private class LockTokenCacheLoader extends CacheLoader<Path, FileLock> {
-        @Override
-        public FileLock load(Path path) throws Exception {
-            final File lockIoFile = getFileLockIoFile(path);
-            if (lockIoFile.exists()) {
-                try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(lockIoFile)))) {
-                    return locksSerializer.read(dis);
-                }
-            }
-            return NO_LOCK;
-        }
-    }
-
-    private class FilePropertiesCacheLoader extends CacheLoader<Path, Map<String, String>> {
-        @Override
-        public Map<String, String> load(Path path) throws Exception {
-            final File metadataIoFile = getMetadataIoFile(path);
-            if (metadataIoFile.exists()) {
-                try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(metadataIoFile)))) {
-                    return ImmutableMap.copyOf(metadataSerializer.read(dis));
-                }
-            }
-            return emptyMap();
+        ChildEntry(String name, BasicFileAttributes attributes, long generation) {
+            this.name = name;
+            this.attributes = attributes;
+            this.generation = generation;
         }
     }
 
@@ -130,17 +117,36 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private final LocalVirtualFile root;
 
-    private final FileLockSerializer           locksSerializer;
-    private final LoadingCache<Path, FileLock> lockTokensCache;
+    private final FileMetadataStore metadataStore;
 
-    private final FileMetadataSerializer                  metadataSerializer;
-    private final LoadingCache<Path, Map<String, String>> metadataCache;
+    private final HashSumTreeCache hashSumTreeCache;
+
+    /**
+     * Short-lived cache of folder listings. It is invalidated by any modification made through this file system and by file watcher
+     * events (see {@link #invalidateCaches(Path)}) so expiration covers only changes that are not visible for watcher yet.
+     */
+    private final Cache<Path, List<ChildEntry>> childrenCache;
+    /** Incremented on each invalidation of childrenCache. Prevents caching of listing that was read before invalidation. */
+    private final AtomicLong                    childrenCacheGeneration;
 
-    @SuppressWarnings("unchecked")
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
                                   SearcherProvider searcherProvider,
                                   AbstractVirtualFileSystemProvider.CloseCallback closeCallback) {
+        this(ioRoot, archiverFactory, searcherProvider, closeCallback, emptySet());
+    }
+
+    /**
+     * @param notWatchedPaths
+     *         matchers of paths (relative to {@code ioRoot}) that are excluded from file watching. Hash sums of folders that contain
+     *         such items are not cached since their changes are not reported to file system.
+     */
+    @SuppressWarnings("unchecked")
+    public LocalVirtualFileSystem(File ioRoot,
+                                  ArchiverFactory archiverFactory,
+                                  SearcherProvider searcherProvider,
+                                  AbstractVirtualFileSystemProvider.CloseCallback closeCallback,
+                                  Set<PathMatcher> notWatchedPaths) {
         this.ioRoot = ioRoot;
         this.archiverFactory = archiverFactory;
         this.searcherProvider = searcherProvider;
@@ -149,19 +155,24 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         root = new LocalVirtualFile(ioRoot, Path.ROOT, this);
         pathLockFactory = new PathLockFactory(FILE_LOCK_MAX_THREADS);
 
-        locksSerializer = new FileLockSerializer();
-        lockTokensCache = CacheBuilder.newBuilder()
-                                      .concurrencyLevel(8)
-                                      .maximumSize(256)
-                                      .expireAfterAccess(10, MINUTES)
-                                      .build(new LockTokenCacheLoader());
+        metadataStore = new FileMetadataStore(ioRoot, new File(ioRoot, VFS_SERVICE_DIR));
+        try {
+            metadataStore.open();
+        } catch (IOException e) {
+            LOG.error(String.format("Unable load locks and properties of files from %s. Locks and properties are kept in memory only" +
+                                    " and are lost after restart. %s", ioRoot, e.getMessage()), e);
+            metadataStore.openInMemory();
+        }
+
+        hashSumTreeCache = new HashSumTreeCache(new File(ioRoot, VFS_SERVICE_DIR), Hashing.md5(), notWatchedPaths);
+        hashSumTreeCache.load();
 
-        metadataSerializer = new FileMetadataSerializer();
-        metadataCache = CacheBuilder.newBuilder()
+        childrenCache = CacheBuilder.newBuilder()
                                     .concurrencyLevel(8)
-                                    .maximumSize(256)
-                                    .expireAfterAccess(10, MINUTES)
-                                    .build(new FilePropertiesCacheLoader());
+                                    .maximumSize(CHILDREN_CACHE_MAX_SIZE)
+                                    .expireAfterWrite(CHILDREN_CACHE_EXPIRE_SECONDS, SECONDS)
+                                    .build();
+        childrenCacheGeneration = new AtomicLong();
     }
 
     @Override
@@ -177,6 +188,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     @Override
     public void close() throws ServerException {
         cleanUpCaches();
+        metadataStore.close();
+        hashSumTreeCache.save();
         if (searcherProvider != null) {
             Searcher searcher = searcherProvider.getSearcher(this, false);
             if (searcher != null) {
@@ -206,15 +219,50 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
     private void cleanUpCaches() {
-        lockTokensCache.invalidateAll();
-        metadataCache.invalidateAll();
+        childrenCacheGeneration.incrementAndGet();
+        childrenCache.invalidateAll();
     }
 
-    /** Used in tests. Need this to check state of PathLockFactory. All locks MUST be released at the end of request lifecycle. */
-    PathLockFactory getPathLockFactory() {
+    /**
+     * Drops cached listings that may be affected by change of item with specified path: listing of its parent, listing of item itself
+     * and listings of all its descendants. Also drops cached hash sums of item, its descendants and its ancestors.
+     */
+    void invalidateCaches(Path path) {
+        hashSumTreeCache.invalidate(path);
+        childrenCacheGeneration.incrementAndGet();
+        final Path parent = path.getParent();
+        if (parent != null) {
+            childrenCache.invalidate(parent);
+        }
+        if (path.isRoot()) {
+            childrenCache.invalidateAll();
+        } else {
+            childrenCache.asMap().keySet().removeIf(cached -> cached.equals(path) || cached.isChild(path));
+        }
+    }
+
+    /**
+     * Checks whether attributes of item read together with listing of its parent are still actual. Attributes are considered out of
+     * date after any invalidation of caches, including invalidation caused by file watcher events about external changes.
+     */
+    boolean isAttributesSnapshotActual(long generation) {
+        return childrenCacheGeneration.get() == generation;
+    }
+
+    /**
+     * Returns locks which guard items of this file system. Callers which need to change few items atomically may hold exclusive
+     * locks of their paths, operations of this file system made by the same thread are not blocked by such locks. All locks MUST be
+     * released at the end of request lifecycle.
+     */
+    public PathLockFactory getPathLockFactory() {
         return pathLockFactory;
     }
 
+    /** Used in tests. */
+    FileMetadataStore getMetadataStore() {
+        return metadataStore;
+    }
+
 
     LocalVirtualFile getParent(LocalVirtualFile virtualFile) {
         if (virtualFile.isRoot()) {
@@ -243,9 +291,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return newArrayList(path.elements()).contains(".vfs");
     }
 
-    synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
+    /**
+     * Gets children of folder. Listing does not use any locks. Names and attributes of items are read in one pass and kept in
+     * short-lived cache, so listing same folder repeatedly does not hit file system.
+     */
+    List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
         if (parent.isFolder()) {
-            final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
+            final List<VirtualFile> children = doGetChildren(parent, filter);
             Collections.sort(children);
             return children;
         }
@@ -253,25 +305,18 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
-            throws ServerException {
-        if (ioFileFilter == null) {
-            ioFileFilter = IoUtil.ANY_FILTER;
-        }
-
-        final String[] names = parent.toIoFile().list(ioFileFilter);
-        if (names == null) {
-            throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
-        }
-
+    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, VirtualFileFilter vfsFilter) throws ServerException {
         if (vfsFilter == null) {
             vfsFilter = VirtualFileFilter.ACCEPT_ALL;
         }
 
-        final List<VirtualFile> children = newArrayListWithCapacity(names.length);
-        for (String name : names) {
-            final Path childPath = parent.getPath().newPath(name);
-            final LocalVirtualFile child = new LocalVirtualFile(new File(ioRoot, toIoPath(childPath)), childPath, this);
+        final Path parentPath = parent.getPath();
+        final List<ChildEntry> entries = getChildEntries(parent);
+        final List<VirtualFile> children = newArrayListWithCapacity(entries.size());
+        for (ChildEntry entry : entries) {
+            final Path childPath = parentPath.newPath(entry.name);
+            final LocalVirtualFile child = new LocalVirtualFile(new File(ioRoot, toIoPath(childPath)), childPath, this, entry.attributes,
+                                                               entry.generation);
             if (vfsFilter.accept(child)) {
                 children.add(child);
             }
@@ -281,6 +326,41 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    private List<ChildEntry> getChildEntries(LocalVirtualFile parent) throws ServerException {
+        final Path parentPath = parent.getPath();
+        List<ChildEntry> entries = childrenCache.getIfPresent(parentPath);
+        if (entries != null) {
+            return entries;
+        }
+
+        final long generation = childrenCacheGeneration.get();
+        entries = newArrayList();
+        try (DirectoryStream<java.nio.file.Path> stream = newDirectoryStream(parent.toIoFile().toPath())) {
+            for (java.nio.file.Path entry : stream) {
+                final String name = entry.getFileName().toString();
+                if (VFS_SERVICE_DIR.equals(name)) {
+                    continue;
+                }
+                BasicFileAttributes attributes;
+                try {
+                    attributes = readAttributes(entry, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    attributes = null;
+                }
+                entries.add(new ChildEntry(name, attributes, generation));
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            throw new ServerException(String.format("Unable get children of '%s'", parentPath), e);
+        }
+        entries = Collections.unmodifiableList(entries);
+
+        if (childrenCacheGeneration.get() == generation) {
+            childrenCache.put(parentPath, entries);
+        }
+        return entries;
+    }
+
+
     LocalVirtualFile createFile(LocalVirtualFile parent, String name, InputStream content)
             throws ForbiddenException, ConflictException, ServerException {
         checkName(name);
@@ -309,6 +389,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 doUpdateContent(newVirtualFile, content);
             }
 
+            invalidateCaches(newPath);
             addInSearcher(newVirtualFile);
 
             return newVirtualFile;
@@ -330,6 +411,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                     throw new ConflictException(String.format("Item '%s' already exists", newPath));
                 }
             }
+            // Name may contain few segments and all missing intermediate folders are created.
+            invalidateCaches(parent.getPath().newPath(Path.of(name).element(0)));
 
             return new LocalVirtualFile(newIoFile, newPath, this);
         } else {
@@ -359,6 +442,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
 
             doCopy(source, destination);
+            invalidateCaches(destination.getPath());
 
             addInSearcher(destination);
 
@@ -374,14 +458,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             // First copy metadata (properties) for source. If we do in this way and fail cause to any i/o or other error client
             // will see error and may try to copy again. But if we successfully copy tree (or single file) and then fail to copy
             // metadata client may not try to copy again because copy destination already exists.
+            metadataStore.copyTree(from.getPath(), to.getPath());
 
-            final File fromMetadataFile = getMetadataIoFile(from.getPath());
-            final File toMetadataFile = getMetadataIoFile(to.getPath());
-            if (fromMetadataFile.exists()) {
-                IoUtil.copy(fromMetadataFile, toMetadataFile, null);
-            }
-
-            IoUtil.copy(from.toIoFile(), to.toIoFile(), VFS_LOCK_FILTER);
+            IoUtil.copy(from.toIoFile(), to.toIoFile(), DOT_VFS_DIR_FILTER);
         } catch (IOException e) {
             String errorMessage = String.format("Unable copy '%s' to '%s'", from, to);
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
@@ -420,12 +499,12 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ConflictException(String.format("Item '%s' already exists", newVirtualFile.getName()));
             }
 
-            doCopy(virtualFile, newVirtualFile);
-            addInSearcher(newVirtualFile);
-
             final Path path = virtualFile.getPath();
             final boolean isFile = virtualFile.isFile();
-            doDelete(virtualFile, lockToken);
+            doMove(virtualFile, newVirtualFile);
+            invalidateCaches(newPath);
+            invalidateCaches(path);
+            addInSearcher(newVirtualFile);
             deleteInSearcher(path, isFile);
 
             return newVirtualFile;
@@ -476,18 +555,39 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
         }
 
-        doCopy(virtualFile, newVirtualFile);
-        addInSearcher(newVirtualFile);
-
         final Path path = virtualFile.getPath();
         final boolean isFile = virtualFile.isFile();
-        doDelete(virtualFile, lockToken);
+        doMove(virtualFile, newVirtualFile);
+        invalidateCaches(newPath);
+        invalidateCaches(path);
+        addInSearcher(newVirtualFile);
         deleteInSearcher(path, isFile);
 
         return newVirtualFile;
     }
 
 
+    /**
+     * Moves item. Caller must check locks of source before. Metadata of whole moved tree is updated in single atomic batch: properties
+     * are moved to the new location and locks are dropped.
+     */
+    private void doMove(LocalVirtualFile from, LocalVirtualFile to) throws ServerException {
+        try {
+            IoUtil.copy(from.toIoFile(), to.toIoFile(), DOT_VFS_DIR_FILTER);
+            metadataStore.moveTree(from.getPath(), to.getPath());
+        } catch (IOException e) {
+            String errorMessage = String.format("Unable move '%s' to '%s'", from, to);
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
+            throw new ServerException(errorMessage);
+        }
+
+        if (!deleteRecursive(from.toIoFile())) {
+            LOG.error("Unable delete file {}", from.toIoFile());
+            throw new ServerException(String.format("Unable delete item '%s'", from.getPath()));
+        }
+    }
+
+
     InputStream getContent(LocalVirtualFile virtualFile) throws ForbiddenException, ServerException {
         if (virtualFile.isFile()) {
             final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
@@ -518,6 +618,49 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    InputStream getContent(LocalVirtualFile virtualFile, long offset, long length) throws ForbiddenException, ServerException {
+        if (virtualFile.isFile()) {
+            final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+            File spoolFile = null;
+            try (FileChannel channel = FileChannel.open(virtualFile.toIoFile().toPath(), StandardOpenOption.READ)) {
+                final long position = Math.min(Math.max(offset, 0), channel.size());
+                final long count = Math.min(Math.max(length, 0), channel.size() - position);
+                if (count <= MAX_BUFFER_SIZE) {
+                    final ByteBuffer buffer = ByteBuffer.allocate((int)count);
+                    while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+                        // read until buffer is full or end of file is reached
+                    }
+                    return new ByteArrayInputStream(buffer.array(), 0, buffer.position());
+                }
+                // Copy requested part of this file to be able release the file lock before leave this method.
+                spoolFile = File.createTempFile("spool_file", null);
+                try (FileChannel spool = FileChannel.open(spoolFile.toPath(), StandardOpenOption.WRITE)) {
+                    long transferred = 0;
+                    while (transferred < count) {
+                        final long n = channel.transferTo(position + transferred, count - transferred, spool);
+                        if (n <= 0) {
+                            break;
+                        }
+                        transferred += n;
+                    }
+                }
+                return new DeleteOnCloseFileInputStream(spoolFile);
+            } catch (IOException e) {
+                if (spoolFile != null) {
+                    FileCleaner.addFile(spoolFile);
+                }
+                String errorMessage = String.format("Unable get content of '%s'", virtualFile.getPath());
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
+            } finally {
+                lock.release();
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable get content. Item '%s' is not a file", virtualFile.getPath()));
+        }
+    }
+
+
     void updateContent(LocalVirtualFile virtualFile, InputStream content, String lockToken)
             throws ForbiddenException, ServerException {
         if (virtualFile.isFile()) {
@@ -530,6 +673,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             } finally {
                 lock.release();
             }
+            invalidateCaches(virtualFile.getPath());
             updateInSearcher(virtualFile);
         } else {
             throw new ForbiddenException(String.format("Unable update content. Item '%s' is not file", virtualFile.getPath()));
@@ -556,6 +700,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         final boolean isFile = virtualFile.isFile();
 
         doDelete(virtualFile, lockToken);
+        invalidateCaches(path);
 
         deleteInSearcher(path, isFile);
     }
@@ -571,22 +716,11 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ForbiddenException(String.format("Unable delete file '%s'. File is locked", virtualFile.getPath()));
         }
 
-        cleanUpCaches();
-
-        final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-        if (fileLockIoFile.delete()) {
-            if (fileLockIoFile.exists()) {
-                LOG.error("Unable delete lock file {}", fileLockIoFile);
-                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
-            }
-        }
-
-        final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
-        if (metadataIoFile.delete()) {
-            if (metadataIoFile.exists()) {
-                LOG.error("Unable delete metadata file {}", metadataIoFile);
-                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
-            }
+        try {
+            metadataStore.removeTree(virtualFile.getPath());
+        } catch (IOException e) {
+            LOG.error(String.format("Unable delete locks and properties of %s", virtualFile.getPath()), e);
+            throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
         }
 
         if (!deleteRecursive(virtualFile.toIoFile())) {
@@ -608,6 +742,22 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    void zip(LocalVirtualFile folder, OutputStream output) throws ForbiddenException, ServerException {
+        if(archiverFactory == null)
+            throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
+
+        if (folder.isFolder()) {
+            try {
+                archiverFactory.createArchiver(folder, "zip").compress(output, dotGitFilter());
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", folder.getPath()));
+        }
+    }
+
+
     void unzip(LocalVirtualFile parent, InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
         if(archiverFactory == null)
@@ -615,6 +765,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
         if (parent.isFolder()) {
             extract(archiverFactory.createArchiver(parent, "zip"), zipped, overwrite, stripNumber);
+            invalidateCaches(parent.getPath());
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import zip content. Item '%s' is not a folder", parent.getPath()));
@@ -640,6 +791,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
         if (parent.isFolder()) {
             extract(archiverFactory.createArchiver(parent, "tar"), tarArchive, overwrite, stripNumber);
+            invalidateCaches(parent.getPath());
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import tar archive. Item '%s' is not a folder", parent.getPath()));
@@ -685,27 +837,18 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
     private String doLock(LocalVirtualFile virtualFile, long timeout) throws ConflictException, ServerException {
-        try {
-            if (NO_LOCK == lockTokensCache.get(virtualFile.getPath())) {
-                final FileLock lock = createLock(timeout);
-                final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-                fileLockIoFile.getParentFile().mkdirs();
-                try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileLockIoFile)))) {
-                    locksSerializer.write(dos, lock);
-                }
-                lockTokensCache.put(virtualFile.getPath(), lock);
-                return lock.getLockToken();
-            }
-            throw new ConflictException(String.format("Unable lock file '%s'. File already locked", virtualFile.getPath()));
-        } catch (IOException | ExecutionException e) {
-            String errorMessage = String.format("Unable lock file '%s'", virtualFile.getPath());
-            if (e instanceof ExecutionException) {
-                LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-            } else {
+        if (NO_LOCK == getFileLock(virtualFile)) {
+            final FileLock lock = createLock(timeout);
+            try {
+                metadataStore.putLock(virtualFile.getPath(), lock);
+            } catch (IOException e) {
+                String errorMessage = String.format("Unable lock file '%s'", virtualFile.getPath());
                 LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
             }
-            throw new ServerException(errorMessage);
+            return lock.getLockToken();
         }
+        throw new ConflictException(String.format("Unable lock file '%s'. File already locked", virtualFile.getPath()));
     }
 
     private FileLock createLock(long timeout) {
@@ -743,13 +886,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private void doUnlock(LocalVirtualFile virtualFile) throws ForbiddenException, ServerException {
         try {
-            final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-            if (!fileLockIoFile.delete()) {
-                if (fileLockIoFile.exists()) {
-                    throw new IOException(String.format("Unable delete lock file %s", fileLockIoFile));
-                }
-            }
-            lockTokensCache.put(virtualFile.getPath(), NO_LOCK);
+            metadataStore.removeLock(virtualFile.getPath(), null);
         } catch (IOException e) {
             String errorMessage = String.format("Unable unlock file '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
@@ -770,61 +907,24 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
     private FileLock getFileLock(LocalVirtualFile virtualFile) throws ServerException {
-        final PathLockFactory.PathLock lockFilePathLock =
-                pathLockFactory.getLock(virtualFile.getPath(), true).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
-        try {
-            final FileLock lock;
+        final FileLock lock = metadataStore.getLock(virtualFile.getPath());
+        if (lock == null) {
+            return NO_LOCK;
+        }
+        if (lock.getExpired() < System.currentTimeMillis()) {
             try {
-                lock = lockTokensCache.get(virtualFile.getPath());
-            } catch (ExecutionException e) {
-                String errorMessage = String.format("Unable get lock of file '%s'", virtualFile.getPath());
-                LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-                throw new ServerException(errorMessage);
-            }
-            if (NO_LOCK == lock) {
-                return lock;
-            }
-            if (lock.getExpired() < System.currentTimeMillis()) {
-                final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-                if (!fileLockIoFile.delete()) {
-                    if (fileLockIoFile.exists()) {
-                        FileCleaner.addFile(fileLockIoFile);
-                        LOG.warn("Unable delete lock file %s", fileLockIoFile);
-                    }
-                }
-                lockTokensCache.put(virtualFile.getPath(), NO_LOCK);
-                return NO_LOCK;
+                metadataStore.removeLock(virtualFile.getPath(), lock);
+            } catch (IOException e) {
+                LOG.warn("Unable remove expired lock of file {}. {}", virtualFile.getPath(), e.getMessage());
             }
-            return lock;
-        } finally {
-            lockFilePathLock.release();
-        }
-    }
-
-    private File getFileLockIoFile(Path virtualFilePath) {
-        final String fileLockFileName = virtualFilePath.getName() + LOCK_FILE_SUFFIX;
-        final Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(FILE_LOCKS_DIR, fileLockFileName);
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(FILE_LOCKS_DIR, fileLockFileName);
+            return NO_LOCK;
         }
-        return new File(ioRoot, toIoPath(metadataFilePath));
+        return lock;
     }
 
 
     Map<String, String> getProperties(LocalVirtualFile virtualFile) throws ServerException {
-        final PathLockFactory.PathLock metadataFilePathLock =
-                pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
-        try {
-            return newLinkedHashMap(metadataCache.get(virtualFile.getPath()));
-        } catch (ExecutionException e) {
-            String errorMessage = String.format("Unable read properties of file '%s'", virtualFile.getPath());
-            LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-            throw new ServerException(errorMessage);
-        } finally {
-            metadataFilePathLock.release();
-        }
+        return newLinkedHashMap(metadataStore.getProperties(virtualFile.getPath()));
     }
 
 
@@ -839,50 +939,21 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ForbiddenException(
                     String.format("Unable update properties of item '%s'. Item is locked", virtualFile.getPath()));
         }
-        final PathLockFactory.PathLock pathLock = pathLockFactory.getLock(virtualFile.getPath(), true).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
-        try {
-            doUpdateProperties(virtualFile, updates);
-        } finally {
-            pathLock.release();
-        }
+        doUpdateProperties(virtualFile, updates);
     }
 
     private void doUpdateProperties(LocalVirtualFile virtualFile, Map<String, String> updates) throws ServerException {
         try {
-            final Map<String, String> properties = getProperties(virtualFile);
-            for (Map.Entry<String, String> entry : updates.entrySet()) {
-                if (entry.getValue() == null) {
-                    properties.remove(entry.getKey());
-                } else {
-                    properties.put(entry.getKey(), entry.getValue());
-                }
-            }
-
-            final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
-            if (properties.isEmpty()) {
-                if (!metadataIoFile.delete()) {
-                    if (metadataIoFile.exists()) {
-                        LOG.error("Unable delete metadata file {}", metadataIoFile);
-                        throw new IOException(String.format("Unable update properties of item '%s'", virtualFile.getPath()));
-                    }
-                }
-            } else {
-                metadataIoFile.getParentFile().mkdirs();
-                try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(metadataIoFile)))) {
-                    metadataSerializer.write(dos, properties);
-                }
-            }
-
-            metadataCache.put(virtualFile.getPath(), properties);
-
-            if (!virtualFile.toIoFile().setLastModified(System.currentTimeMillis())) {
-                LOG.warn("Unable to set timestamp to '{}'", virtualFile.toIoFile());
-            }
+            metadataStore.updateProperties(virtualFile.getPath(), updates);
         } catch (IOException e) {
-            String errorMessage = String.format("Unable lock file '%s'", virtualFile.getPath());
+            String errorMessage = String.format("Unable update properties of item '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
         }
+
+        if (!virtualFile.toIoFile().setLastModified(System.currentTimeMillis())) {
+            LOG.warn("Unable to set timestamp to '{}'", virtualFile.toIoFile());
+        }
     }
 
 
@@ -892,23 +963,19 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private File getMetadataIoFile(Path virtualFilePath) {
-        final String metadataFileName = virtualFilePath.getName() + PROPERTIES_FILE_SUFFIX;
-        final Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(FILE_PROPERTIES_DIR, metadataFileName);
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(FILE_PROPERTIES_DIR, metadataFileName);
-        }
-        return new File(ioRoot, toIoPath(metadataFilePath));
-    }
-
-
     List<Pair<String, String>> countMd5Sums(LocalVirtualFile virtualFile) throws ServerException {
         if (virtualFile.isFile()) {
             return emptyList();
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
+        return hashSumTreeCache.getHashSumTree(virtualFile).toHashSums();
+    }
+
+    HashSumTree countMd5SumTree(LocalVirtualFile virtualFile) throws ServerException {
+        return hashSumTreeCache.getHashSumTree(virtualFile);
+    }
+
+    String getKnownMd5Sum(LocalVirtualFile virtualFile) throws ServerException {
+        return virtualFile.isFile() ? hashSumTreeCache.getCachedHashSum(virtualFile) : null;
     }
 
 
@@ -22,22 +22,37 @@ import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.util.Set;
+
+import static java.util.Collections.emptySet;
 
 @Singleton
 public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemProvider {
     private final File             rootDirectory;
     private final SearcherProvider searcherProvider;
+    private final Set<PathMatcher> notWatchedPaths;
+
+    public LocalVirtualFileSystemProvider(File rootDirectory, SearcherProvider searcherProvider) throws IOException {
+        this(rootDirectory, searcherProvider, emptySet());
+    }
 
+    /**
+     * @param notWatchedPaths
+     *         matchers of paths that are excluded from file watching, changes of such items are not reported to file system
+     */
     @Inject
     public LocalVirtualFileSystemProvider(@Named("che.user.workspaces.storage") File rootDirectory,
-                                          SearcherProvider searcherProvider) throws IOException {
+                                          SearcherProvider searcherProvider,
+                                          @Named("vfs.index_filter_matcher") Set<PathMatcher> notWatchedPaths) throws IOException {
         this.rootDirectory = rootDirectory;
         this.searcherProvider = searcherProvider;
+        this.notWatchedPaths = notWatchedPaths;
         Files.createDirectories(rootDirectory.toPath());
     }
 
     @Override
     protected VirtualFileSystem createVirtualFileSystem(CloseCallback closeCallback) throws ServerException {
-        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback, notWatchedPaths);
     }
 }
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file.event;
+
+import com.google.common.annotations.Beta;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded queue of events. Elements are stored in lock-free {@link ConcurrentLinkedQueue}, capacity is controlled with atomic counter
+ * so producers never block: element is rejected when queue is full and producer decides how to handle overflow.
+ *
+ * @param <T>
+ *         type of queued events
+ * @since 5.0
+ */
+@Beta
+class BoundedEventQueue<T> {
+    private final Queue<T>      queue;
+    private final AtomicInteger size;
+    private final Semaphore     available;
+    private final int           capacity;
+
+    BoundedEventQueue(int capacity) {
+        this.capacity = capacity;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger();
+        this.available = new Semaphore(0);
+    }
+
+    /** Adds element to the queue. Returns {@code false} if queue is full and element is rejected. */
+    boolean offer(T element) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        queue.offer(element);
+        available.release();
+        return true;
+    }
+
+    /** Retrieves and removes head of the queue, waiting up to the specified time if queue is empty. */
+    T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!available.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        size.decrementAndGet();
+        return queue.poll();
+    }
+
+    /** Retrieves and removes head of the queue, waiting if queue is empty. */
+    T take() throws InterruptedException {
+        available.acquire();
+        size.decrementAndGet();
+        return queue.poll();
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -15,6 +15,7 @@ import com.google.common.annotations.Beta;
 import org.eclipse.che.api.vfs.Path;
 
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import static java.io.File.separator;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeNode.newInstance;
@@ -77,6 +78,59 @@ public class EventTreeHelper {
         return current;
     }
 
+    /**
+     * Get path of subtree the item belongs to. Subtree is identified by the first {@code depth} segments of item's path. If item's path
+     * is not deeper than {@code depth} then path of its parent is returned.
+     *
+     * @param path absolute path of item
+     * @param depth depth of subtree
+     *
+     * @return absolute path of subtree
+     */
+    public static String subtreePath(String path, int depth) {
+        final Path itemPath = Path.of(path);
+        if (itemPath.length() > depth) {
+            return itemPath.subPath(0, depth).toString();
+        }
+        return itemPath.isRoot() ? itemPath.toString() : itemPath.getParent().toString();
+    }
+
+    /**
+     * Creates copy of event tree that contains only nodes with paths accepted by filter and their ancestors. Events of ancestors that
+     * are not accepted by filter are not copied.
+     *
+     * @param root root node of the tree
+     * @param pathFilter filter for absolute paths of tree nodes
+     *
+     * @return filtered copy of tree or empty optional if there are no accepted nodes with events in the tree
+     */
+    public static Optional<EventTreeNode> filterTree(EventTreeNode root, Predicate<String> pathFilter) {
+        return Optional.ofNullable(copyAcceptedNodes(root, "/", pathFilter));
+    }
+
+    private static EventTreeNode copyAcceptedNodes(EventTreeNode node, String nodePath, Predicate<String> pathFilter) {
+        EventTreeNode copy = null;
+        if (node.modificationOccurred() && pathFilter.test(nodePath)) {
+            copy = copyOf(node);
+            copy.getEvents().putAll(node.getEvents());
+        }
+        for (EventTreeNode child : node.getChildren()) {
+            final String childPath = "/".equals(nodePath) ? nodePath + child.getName() : nodePath + '/' + child.getName();
+            final EventTreeNode childCopy = copyAcceptedNodes(child, childPath, pathFilter);
+            if (childCopy != null) {
+                if (copy == null) {
+                    copy = copyOf(node);
+                }
+                copy.withChild(childCopy);
+            }
+        }
+        return copy;
+    }
+
+    private static EventTreeNode copyOf(EventTreeNode node) {
+        return newInstance().withName(node.getName()).withPath(node.getPath()).withType(node.getType());
+    }
+
     private static EventTreeNode traverseAndCreate(EventTreeNode root, Path path) {
         EventTreeNode current = root;
 
@@ -16,16 +16,13 @@ import org.slf4j.Logger;
 
 import javax.inject.Singleton;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 import static java.util.Optional.empty;
-import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * Simple holder to benefit from Guice DI routines.
+ * Simple holder to benefit from Guice DI routines. Queue is bounded, producer is responsible for keeping event tree that is not accepted
+ * by full queue and retrying later.
  *
  * @author Dmitry Kuleshov
  *
@@ -36,18 +33,25 @@ import static org.slf4j.LoggerFactory.getLogger;
 class EventTreeQueueHolder {
     private static final Logger LOG = getLogger(EventTreeQueueHolder.class);
 
-    private final BlockingQueue<EventTreeNode> loVfsEventQueue;
+    static final int QUEUE_CAPACITY = 100;
+
+    private final BoundedEventQueue<EventTreeNode> loVfsEventQueue;
 
     public EventTreeQueueHolder() {
-        this.loVfsEventQueue = new LinkedBlockingQueue<>();
+        this(QUEUE_CAPACITY);
     }
 
-    public void put(EventTreeNode loVfsEventTreeRoot) {
-        try {
-            loVfsEventQueue.put(loVfsEventTreeRoot);
-        } catch (InterruptedException e) {
-            LOG.error("Error trying to put an event tree to an event tree queue: {}", loVfsEventTreeRoot, e);
+    EventTreeQueueHolder(int capacity) {
+        this.loVfsEventQueue = new BoundedEventQueue<>(capacity);
+    }
+
+    /** Returns {@code false} if queue is full and event tree is not queued. */
+    public boolean put(EventTreeNode loVfsEventTreeRoot) {
+        final boolean queued = loVfsEventQueue.offer(loVfsEventTreeRoot);
+        if (!queued) {
+            LOG.trace("Event tree queue is full, event tree {} is not queued", loVfsEventTreeRoot);
         }
+        return queued;
     }
 
     public Optional<EventTreeNode> take() {
@@ -14,13 +14,22 @@ import com.google.common.annotations.Beta;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static java.nio.file.FileSystems.getDefault;
 import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.filterTree;
 
 /**
+ * Runs event detectors over event trees. Detectors that implement {@link PathPatternHiEventDetector}
+ * get only part of the tree they are subscribed to.
+ *
  * @author Dmitry Kuleshov
  *
  * @since 4.5
@@ -28,19 +37,46 @@ import static java.util.stream.Collectors.toList;
 @Beta
 @Singleton
 class HiEventDetectorManager {
-    private final Set<HiEventDetector<?>> hiEventDetectors;
+    private final Set<HiEventDetector<?>>                    hiEventDetectors;
+    private final Map<HiEventDetector<?>, List<PathMatcher>> pathMatchers;
 
     @Inject
     public HiEventDetectorManager(Set<HiEventDetector<?>> hiEventDetectors) {
         this.hiEventDetectors = hiEventDetectors;
+        this.pathMatchers = new HashMap<>();
+        for (HiEventDetector<?> detector : hiEventDetectors) {
+            if (detector instanceof PathPatternHiEventDetector) {
+                pathMatchers.put(detector, ((PathPatternHiEventDetector<?>)detector).getPathPatterns()
+                                                                                     .stream()
+                                                                                     .map(p -> getDefault().getPathMatcher("glob:" + p))
+                                                                                     .collect(toList()));
+            }
+        }
     }
 
     List<HiEvent> getDetectedEvents(EventTreeNode root) {
         return hiEventDetectors.stream()
-                               .map(o -> o.detect(root))
+                               .map(o -> detect(o, root))
                                .filter(Optional::isPresent)
                                .map(Optional::get)
                                .collect(toList());
     }
 
+    private Optional<HiEvent> detect(HiEventDetector<?> detector, EventTreeNode root) {
+        final List<PathMatcher> matchers = pathMatchers.get(detector);
+        if (matchers == null) {
+            return detector.detect(root).map(HiEvent.class::cast);
+        }
+
+        final Optional<EventTreeNode> subscribedTree = filterTree(root, path -> matches(matchers, path));
+        if (subscribedTree.isPresent()) {
+            return detector.detect(subscribedTree.get()).map(HiEvent.class::cast);
+        }
+
+        return Optional.empty();
+    }
+
+    private boolean matches(List<PathMatcher> matchers, String path) {
+        return matchers.stream().anyMatch(matcher -> matcher.matches(Paths.get(path)));
+    }
 }
@@ -12,18 +12,27 @@ package org.eclipse.che.api.vfs.impl.file.event;
 
 import com.google.common.annotations.Beta;
 
+import org.eclipse.che.api.vfs.Path;
 import org.slf4j.Logger;
 
 import javax.inject.Singleton;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static java.util.Collections.singleton;
 import static java.util.Optional.empty;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.subtreePath;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
+ * Bounded queue of low level events. When queue is full new events are not queued, instead of that the subtree each dropped event
+ * belongs to is remembered, so consumer is able to report that subtree as changed.
+ *
  * @author Dmitry Kuleshov
  *
  * @since 4.5
@@ -33,17 +42,33 @@ import static org.slf4j.LoggerFactory.getLogger;
 class LoEventQueueHolder {
     private static final Logger LOG = getLogger(LoEventQueueHolder.class);
 
-    private final BlockingQueue<LoEvent> loEventQueue;
+    static final int QUEUE_CAPACITY          = 100_000;
+    /**
+     * Depth of path of subtree that is reported as changed when event is dropped because queue is full, e.g. for depth 2 dropped event
+     * for '/project/target/classes/A.class' is reported as change of subtree '/project/target'.
+     */
+    static final int OVERFLOW_SUBTREE_DEPTH  = 2;
+    /** Max number of remembered overflowed subtrees, if there are more of them whole tree is reported as changed. */
+    static final int MAX_OVERFLOWED_SUBTREES = 1_000;
+
+    private final BoundedEventQueue<LoEvent> loEventQueue;
+    private final Set<String>                overflowedSubtrees;
+    private final AtomicBoolean              wholeTreeOverflowed;
 
     public LoEventQueueHolder() {
-        this.loEventQueue = new LinkedBlockingQueue<>();
+        this(QUEUE_CAPACITY);
+    }
+
+    LoEventQueueHolder(int capacity) {
+        this.loEventQueue = new BoundedEventQueue<>(capacity);
+        this.overflowedSubtrees = ConcurrentHashMap.newKeySet();
+        this.wholeTreeOverflowed = new AtomicBoolean();
     }
 
     void put(LoEvent loEvent) {
-        try {
-            loEventQueue.put(loEvent);
-        } catch (InterruptedException e) {
-            LOG.error("Error trying to put an event to an event queue: {}", loEvent, e);
+        if (!loEventQueue.offer(loEvent)) {
+            LOG.trace("Event queue is full, dropping event {}", loEvent);
+            rememberOverflowedSubtree(loEvent.getPath());
         }
     }
 
@@ -55,4 +80,34 @@ class LoEventQueueHolder {
         }
         return empty();
     }
+
+    /**
+     * Returns paths of subtrees that had events dropped because queue was full and forgets about them. Only root path is returned if
+     * too many subtrees overflowed.
+     */
+    Set<String> drainOverflowedSubtrees() {
+        final Set<String> drained = new HashSet<>();
+        for (Iterator<String> iterator = overflowedSubtrees.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        if (wholeTreeOverflowed.compareAndSet(true, false)) {
+            return singleton(Path.ROOT.toString());
+        }
+        return drained;
+    }
+
+    private void rememberOverflowedSubtree(String path) {
+        if (wholeTreeOverflowed.get()) {
+            return;
+        }
+        if (overflowedSubtrees.size() >= MAX_OVERFLOWED_SUBTREES) {
+            if (wholeTreeOverflowed.compareAndSet(false, true)) {
+                LOG.warn("Too many file system events are dropped, whole file tree is reported as changed");
+            }
+            overflowedSubtrees.clear();
+        } else {
+            overflowedSubtrees.add(subtreePath(path, OVERFLOW_SUBTREE_DEPTH));
+        }
+    }
 }
@@ -12,16 +12,24 @@ package org.eclipse.che.api.vfs.impl.file.event;
 
 import com.google.common.annotations.Beta;
 
+import org.eclipse.che.api.vfs.Path;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
+import static java.lang.System.currentTimeMillis;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.addEventAndCreatePrecedingNodes;
+import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.subtreePath;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeNode.newRootInstance;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.DIR;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEventQueueHolder.OVERFLOW_SUBTREE_DEPTH;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -58,11 +66,28 @@ public class LoEventService extends VfsEventService {
      */
     private static final long   UNDEFINED                    = -1L;
 
+    /**
+     * Maximal number of events that are added to event tree of a single segment
+     * one by one. When it is exceeded the rest of events of the segment are
+     * coalesced into "subtree changed" events of their subtrees.
+     */
+    static final         int    MAX_SEGMENT_EVENTS           = 10_000;
+
     private final LoEventQueueHolder   loEventQueueHolder;
     private final EventTreeQueueHolder eventTreeQueueHolder;
 
+    /**
+     * Subtrees that were reported as changed in the current event segment.
+     * Events of items under such subtrees are folded into the event of the
+     * subtree root and are not added to the tree. Directories created in the
+     * segment are not folded, detectors need events of their children, e.g.
+     * a new {@code pom.xml}.
+     */
+    private final Set<String> coalescedDirectories;
+
     private EventTreeNode vfsEventTreeRoot;
     private long          eventSegmentStartTime;
+    private int           segmentEventsCount;
 
     @Inject
     public LoEventService(LoEventQueueHolder loEventQueueHolder,
@@ -72,11 +97,13 @@ public class LoEventService extends VfsEventService {
 
         this.vfsEventTreeRoot = newRootInstance();
         this.eventSegmentStartTime = UNDEFINED;
-
+        this.coalescedDirectories = new HashSet<>();
     }
 
     @Override
     protected void run() {
+        addOverflowedSubtrees();
+
         Optional<LoEvent> optional = loEventQueueHolder.poll(MAX_EVENT_INTERVAL_MILLIS);
 
         if (optional.isPresent()) {
@@ -92,22 +119,86 @@ public class LoEventService extends VfsEventService {
                 eventSegmentStartTime = eventTime;
             }
 
-            addEventAndCreatePrecedingNodes(vfsEventTreeRoot, loEvent);
+            addEvent(loEvent);
         } else {
             flushOldTreeAndStartNew();
             eventSegmentStartTime = UNDEFINED;
         }
     }
 
+    private void addEvent(LoEvent loEvent) {
+        final String path = loEvent.getPath();
+        if (isUnderCoalescedDirectory(path)) {
+            LOG.trace("Event {} is folded into event of its parent directory", loEvent);
+            return;
+        }
+
+        if (segmentEventsCount >= MAX_SEGMENT_EVENTS) {
+            addSubtreeChangedEvent(subtreePath(path, OVERFLOW_SUBTREE_DEPTH), loEvent.getTime());
+            return;
+        }
+
+        addEventAndCreatePrecedingNodes(vfsEventTreeRoot, loEvent);
+        segmentEventsCount++;
+    }
+
+    private void addOverflowedSubtrees() {
+        final Set<String> overflowedSubtrees = loEventQueueHolder.drainOverflowedSubtrees();
+        if (overflowedSubtrees.isEmpty()) {
+            return;
+        }
+
+        final long time = currentTimeMillis();
+        if (eventSegmentStartTime == UNDEFINED) {
+            eventSegmentStartTime = time;
+        }
+        overflowedSubtrees.forEach(subtree -> addSubtreeChangedEvent(subtree, time));
+    }
+
+    private void addSubtreeChangedEvent(String subtree, long time) {
+        if (coalescedDirectories.contains(subtree) || isUnderCoalescedDirectory(subtree)) {
+            return;
+        }
+
+        LOG.trace("Reporting subtree {} as changed", subtree);
+        final LoEvent subtreeChanged = LoEvent.newInstance()
+                                              .withPath(subtree)
+                                              .withName(Path.of(subtree).getName())
+                                              .withItemType(DIR)
+                                              .withEventType(MODIFIED)
+                                              .withTime(time);
+        addEventAndCreatePrecedingNodes(vfsEventTreeRoot, subtreeChanged);
+        coalescedDirectories.add(subtree);
+    }
+
+    private boolean isUnderCoalescedDirectory(String path) {
+        if (coalescedDirectories.isEmpty()) {
+            return false;
+        }
+
+        for (Path parent = Path.of(path).getParent(); parent != null; parent = parent.getParent()) {
+            if (coalescedDirectories.contains(parent.toString())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private void flushOldTreeAndStartNew() {
-        if (vfsEventTreeRoot.getChildren().isEmpty()) {
+        if (vfsEventTreeRoot.getChildren().isEmpty() && !vfsEventTreeRoot.modificationOccurred()) {
             return;
         }
 
-        eventTreeQueueHolder.put(vfsEventTreeRoot);
+        if (!eventTreeQueueHolder.put(vfsEventTreeRoot)) {
+            LOG.trace("Event tree queue is full, keep collecting events to event tree {}.", vfsEventTreeRoot);
+            return;
+        }
         LOG.trace("Flushing old event tree {}.", vfsEventTreeRoot);
 
         vfsEventTreeRoot = newRootInstance();
+        coalescedDirectories.clear();
+        segmentEventsCount = 0;
         LOG.trace("Starting new event tree {}.", vfsEventTreeRoot);
     }
 }
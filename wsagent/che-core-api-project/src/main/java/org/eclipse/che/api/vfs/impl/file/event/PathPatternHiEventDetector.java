@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file.event;
+
+import com.google.common.annotations.Beta;
+
+import java.util.Set;
+
+/**
+ * Event detector that is interested only in events of items with specific paths.
+ * <p>
+ *     Instead of the whole event tree such detector gets a filtered copy of the
+ *     tree that contains only nodes with paths that match to at least one of
+ *     detector's patterns (and their ancestors). If there are no such nodes the
+ *     detector is not called at all. Patterns use glob syntax of
+ *     {@link java.nio.file.FileSystem#getPathMatcher(String)} and are matched
+ *     against absolute paths of items, e.g. {@code /*}{@code /pom.xml}.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Beta
+public interface PathPatternHiEventDetector<T> extends HiEventDetector<T> {
+    Set<String> getPathPatterns();
+}
@@ -16,11 +16,14 @@ import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.impl.file.event.EventTreeNode;
 import org.eclipse.che.api.vfs.impl.file.event.HiEvent;
-import org.eclipse.che.api.vfs.impl.file.event.HiEventDetector;
+import org.eclipse.che.api.vfs.impl.file.event.PathPatternHiEventDetector;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Collections.singleton;
 
 /**
  * Tracks and notifies about VFS operations for registered files. List of registered files is
@@ -30,15 +33,21 @@ import java.util.Optional;
  */
 @Beta
 @Singleton
-public class FileStatusDetector implements HiEventDetector<FileStatusDetector> {
-    private final EventService eventService;
+public class FileStatusDetector implements PathPatternHiEventDetector<FileStatusDetector> {
+    private static final Set<String> PATH_PATTERNS = singleton("/**");
 
+    private final EventService eventService;
 
     @Inject
     public FileStatusDetector(EventService eventService) {
         this.eventService = eventService;
     }
 
+    @Override
+    public Set<String> getPathPatterns() {
+        return PATH_PATTERNS;
+    }
+
     @Override
     public Optional<HiEvent<FileStatusDetector>> detect(EventTreeNode eventTreeNode) {
         if (!eventTreeNode.isRoot() || eventTreeNode.getChildren().isEmpty()) {
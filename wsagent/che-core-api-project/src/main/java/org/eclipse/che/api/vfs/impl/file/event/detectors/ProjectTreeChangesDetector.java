@@ -18,7 +18,7 @@ import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.project.shared.dto.event.ProjectTreeStatusUpdateDto;
 import org.eclipse.che.api.vfs.impl.file.event.EventTreeNode;
 import org.eclipse.che.api.vfs.impl.file.event.HiEvent;
-import org.eclipse.che.api.vfs.impl.file.event.HiEventDetector;
+import org.eclipse.che.api.vfs.impl.file.event.PathPatternHiEventDetector;
 import org.eclipse.che.commons.schedule.executor.ThreadPullLauncher;
 import org.slf4j.Logger;
 
@@ -30,6 +30,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static java.lang.Math.min;
+import static java.util.Collections.singleton;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
@@ -40,8 +41,9 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 @Beta
 @Singleton
-public class ProjectTreeChangesDetector implements HiEventDetector<ProjectTreeChangesDetector> {
-    private static final Logger LOG = getLogger(ProjectTreeChangesDetector.class);
+public class ProjectTreeChangesDetector implements PathPatternHiEventDetector<ProjectTreeChangesDetector> {
+    private static final Logger      LOG           = getLogger(ProjectTreeChangesDetector.class);
+    private static final Set<String> PATH_PATTERNS = singleton("/**");
 
     private final JsonRpcRequestTransmitter transmitter;
     private final ThreadPullLauncher        launcher;
@@ -91,6 +93,11 @@ public class ProjectTreeChangesDetector implements HiEventDetector<ProjectTreeCh
         this.state = State.RESUMED;
     }
 
+    @Override
+    public Set<String> getPathPatterns() {
+        return PATH_PATTERNS;
+    }
+
     @Override
     public Optional<HiEvent<ProjectTreeChangesDetector>> detect(EventTreeNode eventTreeNode) {
         if (eventTreeNode.isRoot() && !eventTreeNode.getChildren().isEmpty()) {
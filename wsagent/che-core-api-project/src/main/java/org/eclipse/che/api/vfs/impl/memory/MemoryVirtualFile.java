@@ -17,6 +17,7 @@ import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.Archiver;
+import org.eclipse.che.api.vfs.HashSumTree;
 import org.eclipse.che.api.vfs.HashSumsCounter;
 import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
@@ -34,6 +35,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -228,6 +230,19 @@ public class MemoryVirtualFile implements VirtualFile {
         return new HashSumsCounter(this, Hashing.md5()).countHashSums();
     }
 
+    @Override
+    public HashSumTree countMd5SumTree() throws ServerException {
+        checkExistence();
+        return new HashSumsCounter(this, Hashing.md5()).countHashSumTree();
+    }
+
+    @Override
+    public String getKnownMd5Sum() throws ServerException {
+        checkExistence();
+        // content is kept in memory, so it is cheap to count md5sum
+        return isFile() ? countMd5SumTree().getHash() : null;
+    }
+
     @Override
     public List<VirtualFile> getChildren(VirtualFileFilter filter) {
         checkExistence();
@@ -289,6 +304,13 @@ public class MemoryVirtualFile implements VirtualFile {
         return new ByteArrayInputStream(getContentAsBytes());
     }
 
+    @Override
+    public InputStream getContent(long offset, long length) throws ForbiddenException {
+        final byte[] bytes = getContentAsBytes();
+        final int start = (int)Math.min(Math.max(offset, 0), bytes.length);
+        return new ByteArrayInputStream(bytes, start, (int)Math.min(Math.max(length, 0), bytes.length - start));
+    }
+
     @Override
     public byte[] getContentAsBytes() throws ForbiddenException {
         checkExistence();
@@ -588,6 +610,21 @@ public class MemoryVirtualFile implements VirtualFile {
         }
     }
 
+    @Override
+    public void zip(OutputStream output) throws ForbiddenException, ServerException {
+        checkExistence();
+
+        if (isFolder()) {
+            try {
+                fileSystem.getArchiverFactory().createArchiver(this, "zip").compress(output);
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", getPath()));
+        }
+    }
+
     @Override
     public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ServerException, ConflictException {
@@ -12,11 +12,13 @@ package org.eclipse.che.api.vfs.search;
 
 /** Container for parameters of query that executed by Searcher.*/
 public class QueryExpression {
-    private String name;
-    private String path;
-    private String text;
-    private int    skipCount;
-    private int    maxItems;
+    private String  name;
+    private String  path;
+    private String  text;
+    private int     skipCount;
+    private int     maxItems;
+    private boolean includePositions;
+    private String  continuationToken;
 
     /** Optional file path parameter. Only file with the specified path or children are included in result. */
     public String getPath() {
@@ -68,6 +70,34 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Whether line numbers and offsets of occurrences of {@link #getText() text} should be included in search result. Occurrences are
+     * computed on server side in one pass over each matched file.
+     */
+    public boolean isIncludePositions() {
+        return includePositions;
+    }
+
+    public QueryExpression setIncludePositions(boolean includePositions) {
+        this.includePositions = includePositions;
+        return this;
+    }
+
+    /**
+     * Opaque token returned with previous page of search result. If token is set then search continues from the place where previous
+     * page ended and {@link #getSkipCount() skip count} is not used. Cost of retrieving page with token does not depend on number of
+     * page. Token also guarantees that pages are consistent while index is updated, as long as token is not expired. If token is expired
+     * then search falls back to {@link #getSkipCount() skip count}.
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public QueryExpression setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
@@ -76,6 +106,8 @@ public class QueryExpression {
                ", path='" + path + '\'' +
                ", skipCount=" + skipCount +
                ", maxItems=" + maxItems +
+               ", includePositions=" + includePositions +
+               ", continuationToken='" + continuationToken + '\'' +
                '}';
     }
 }
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search;
+
+/**
+ * Single occurrence of searched text in the file.
+ */
+public class SearchOccurrence {
+    private final String phrase;
+    private final int    lineNumber;
+    private final int    startOffset;
+    private final int    endOffset;
+    private final String lineContent;
+
+    public SearchOccurrence(String phrase, int lineNumber, int startOffset, int endOffset, String lineContent) {
+        this.phrase = phrase;
+        this.lineNumber = lineNumber;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.lineContent = lineContent;
+    }
+
+    /** Matched text as it appears in the file. */
+    public String getPhrase() {
+        return phrase;
+    }
+
+    /** Number of line that contains matched text, starting from 1. */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /** Offset of the first character of matched text from the beginning of the file. */
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    /** Offset after the last character of matched text from the beginning of the file. */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    /** Content of line that contains matched text, long lines are cut around the match. */
+    public String getLineContent() {
+        return lineContent;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchOccurrence{" +
+               "phrase='" + phrase + '\'' +
+               ", lineNumber=" + lineNumber +
+               ", startOffset=" + startOffset +
+               ", endOffset=" + endOffset +
+               '}';
+    }
+}
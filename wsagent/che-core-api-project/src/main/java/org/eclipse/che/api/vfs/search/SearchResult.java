@@ -27,15 +27,18 @@ public class SearchResult {
 
     private final List<SearchResultEntry>   results;
     private final Optional<QueryExpression> nextPageQueryExpression;
+    private final Optional<String>          continuationToken;
     private final int                       totalHits;
     private final long                      elapsedTimeMillis;
 
     private SearchResult(List<SearchResultEntry> results,
                          Optional<QueryExpression> nextPageQueryExpression,
+                         Optional<String> continuationToken,
                          int totalHits,
                          long elapsedTimeMillis) {
         this.results = results;
         this.nextPageQueryExpression = nextPageQueryExpression;
+        this.continuationToken = continuationToken;
         this.totalHits = totalHits;
         this.elapsedTimeMillis = elapsedTimeMillis;
     }
@@ -75,8 +78,19 @@ public class SearchResult {
         return nextPageQueryExpression;
     }
 
+    /**
+     * Optional opaque token for retrieving next page. Query expression returned by {@link #getNextPageQueryExpression()} already
+     * contains this token.
+     *
+     * @see QueryExpression#setContinuationToken(String)
+     */
+    public Optional<String> getContinuationToken() {
+        return continuationToken;
+    }
+
     public static class SearchResultBuilder {
         private QueryExpression         nextPageQueryExpression;
+        private String                  continuationToken;
         private List<SearchResultEntry> results;
         private int                     totalHits;
         private long                    elapsedTimeMillis;
@@ -89,6 +103,11 @@ public class SearchResult {
             return this;
         }
 
+        public SearchResultBuilder withContinuationToken(String continuationToken) {
+            this.continuationToken = continuationToken;
+            return this;
+        }
+
         public SearchResultBuilder withResults(List<SearchResultEntry> results) {
             this.results = results;
             return this;
@@ -114,7 +133,11 @@ public class SearchResult {
             if (results == null) {
                 results = emptyList();
             }
-            return new SearchResult(results, optionalPageNexQueryExpression, totalHits, elapsedTimeMillis);
+            return new SearchResult(results,
+                                    optionalPageNexQueryExpression,
+                                    Optional.fromNullable(continuationToken),
+                                    totalHits,
+                                    elapsedTimeMillis);
         }
     }
 }
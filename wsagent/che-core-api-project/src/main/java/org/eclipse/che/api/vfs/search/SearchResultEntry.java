@@ -10,18 +10,36 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search;
 
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
 /**
  * Single item in {@code SearchResult}.
  */
 public class SearchResultEntry {
-    private final String filePath;
+    private final String                 filePath;
+    private final List<SearchOccurrence> occurrences;
 
     public SearchResultEntry(String filePath) {
+        this(filePath, emptyList());
+    }
+
+    public SearchResultEntry(String filePath, List<SearchOccurrence> occurrences) {
         this.filePath = filePath;
+        this.occurrences = occurrences;
     }
 
     /** Path of file that matches the search criteria. */
     public String getFilePath() {
         return filePath;
     }
+
+    /**
+     * Occurrences of searched text in the file. List is empty if query does not contain text criteria or if occurrences were not
+     * requested with {@link QueryExpression#setIncludePositions(boolean)}.
+     */
+    public List<SearchOccurrence> getOccurrences() {
+        return occurrences;
+    }
 }
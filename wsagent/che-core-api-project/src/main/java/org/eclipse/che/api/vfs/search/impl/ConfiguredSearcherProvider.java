@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * Provides implementation of {@link SearcherProvider} chosen with configuration property {@code vfs.local.fs_index_type}: {@code
+ * default} for {@link FSLuceneSearcherProvider} and {@code trigram} for {@link TrigramLuceneSearcherProvider}. Only chosen
+ * implementation is instantiated.
+ */
+@Singleton
+public class ConfiguredSearcherProvider implements Provider<SearcherProvider> {
+    private static final Logger LOG = LoggerFactory.getLogger(ConfiguredSearcherProvider.class);
+
+    static final String DEFAULT_INDEX_TYPE = "default";
+    static final String TRIGRAM_INDEX_TYPE = "trigram";
+
+    private final String                                  indexType;
+    private final Provider<FSLuceneSearcherProvider>      defaultSearcherProvider;
+    private final Provider<TrigramLuceneSearcherProvider> trigramSearcherProvider;
+
+    @Inject
+    public ConfiguredSearcherProvider(@Named("vfs.local.fs_index_type") String indexType,
+                                      Provider<FSLuceneSearcherProvider> defaultSearcherProvider,
+                                      Provider<TrigramLuceneSearcherProvider> trigramSearcherProvider) {
+        this.indexType = indexType;
+        this.defaultSearcherProvider = defaultSearcherProvider;
+        this.trigramSearcherProvider = trigramSearcherProvider;
+    }
+
+    @Override
+    public SearcherProvider get() {
+        if (TRIGRAM_INDEX_TYPE.equals(indexType)) {
+            return trigramSearcherProvider.get();
+        }
+        if (!DEFAULT_INDEX_TYPE.equals(indexType)) {
+            LOG.warn("Unknown type of search index '{}', default index is used", indexType);
+        }
+        return defaultSearcherProvider.get();
+    }
+}
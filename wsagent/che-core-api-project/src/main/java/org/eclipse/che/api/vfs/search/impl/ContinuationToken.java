@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.search.ScoreDoc;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Opaque token that allows continue retrieving of search result from the place where previous page ended. Token contains version of
+ * index searcher that was used for retrieving previous page, last document of previous page and number of documents retrieved so far.
+ */
+final class ContinuationToken {
+    private final long  searcherVersion;
+    private final int   doc;
+    private final float score;
+    private final int   retrieved;
+
+    ContinuationToken(long searcherVersion, ScoreDoc lastScoreDoc, int retrieved) {
+        this(searcherVersion, lastScoreDoc.doc, lastScoreDoc.score, retrieved);
+    }
+
+    private ContinuationToken(long searcherVersion, int doc, float score, int retrieved) {
+        this.searcherVersion = searcherVersion;
+        this.doc = doc;
+        this.score = score;
+        this.retrieved = retrieved;
+    }
+
+    /**
+     * Parses token.
+     *
+     * @param token
+     *         token created with method {@link #encode()}
+     * @return parsed token or {@code null} if {@code token} is {@code null} or malformed
+     */
+    static ContinuationToken decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(token), UTF_8).split(":");
+            if (parts.length != 4) {
+                return null;
+            }
+            return new ContinuationToken(Long.parseLong(parts[0]),
+                                         Integer.parseInt(parts[1]),
+                                         Float.intBitsToFloat(Integer.parseInt(parts[2])),
+                                         Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    String encode() {
+        final String token = searcherVersion + ":" + doc + ":" + Float.floatToIntBits(score) + ":" + retrieved;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(UTF_8));
+    }
+
+    /** Version of index searcher that was used for retrieving previous page. */
+    long getSearcherVersion() {
+        return searcherVersion;
+    }
+
+    /** Last document of previous page. */
+    ScoreDoc getLastScoreDoc() {
+        return new ScoreDoc(doc, score);
+    }
+
+    /** Number of documents retrieved before. */
+    int getRetrieved() {
+        return retrieved;
+    }
+}
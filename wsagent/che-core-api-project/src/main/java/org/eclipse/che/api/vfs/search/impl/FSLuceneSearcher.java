@@ -21,26 +21,40 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
 /**
- * Filesystem based LuceneSearcher which cleans index directory after call method {@link #close()}.
+ * Filesystem based LuceneSearcher. Non-persistent searcher cleans index directory after call method {@link #close()}. Persistent
+ * searcher keeps index directory together with fingerprints of indexed files, next time searcher is initialized only files that were
+ * added, changed or removed since index was closed are reindexed.
  *
  * @author andrew00x
  */
 public class FSLuceneSearcher extends LuceneSearcher {
     private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcher.class);
 
-    private final File indexDirectory;
+    private final File    indexDirectory;
+    private final File    fingerprintsFile;
+    private final boolean persistent;
 
     FSLuceneSearcher(File indexDirectory, VirtualFileFilter filter) {
         this(indexDirectory, filter, null);
     }
 
     FSLuceneSearcher(File indexDirectory, VirtualFileFilter filter, AbstractLuceneSearcherProvider.CloseCallback closeCallback) {
+        this(indexDirectory, filter, closeCallback, false);
+    }
+
+    FSLuceneSearcher(File indexDirectory,
+                     VirtualFileFilter filter,
+                     AbstractLuceneSearcherProvider.CloseCallback closeCallback,
+                     boolean persistent) {
         super(filter, closeCallback);
         this.indexDirectory = indexDirectory;
+        this.fingerprintsFile = new File(indexDirectory.getParentFile(), indexDirectory.getName() + ".fingerprints");
+        this.persistent = persistent;
     }
 
     @Override
@@ -52,8 +66,35 @@ public class FSLuceneSearcher extends LuceneSearcher {
         }
     }
 
+    @Override
+    IndexFingerprints loadFingerprints() throws ServerException {
+        if (!persistent) {
+            return super.loadFingerprints();
+        }
+        final IndexFingerprints fingerprints = new IndexFingerprints();
+        try {
+            if (fingerprints.load(fingerprintsFile)) {
+                LOG.debug("Loaded fingerprints of indexed files from {}", fingerprintsFile);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable read fingerprints of indexed files from '{}', all files will be reindexed: {}", fingerprintsFile, e.getMessage());
+        }
+        return fingerprints;
+    }
+
+    @Override
+    void storeFingerprints(Map<String, IndexFingerprints.Fingerprint> fingerprints) throws IOException {
+        if (persistent) {
+            IndexFingerprints.store(fingerprints, fingerprintsFile);
+        }
+    }
+
     @Override
     protected void afterClose() throws IOException {
+        if (persistent) {
+            super.afterClose();
+            return;
+        }
         if (!deleteRecursive(indexDirectory)) {
             LOG.warn("Unable delete index directory '{}', add it in FileCleaner", indexDirectory);
             FileCleaner.addFile(indexDirectory);
@@ -26,7 +26,8 @@ import static com.google.common.collect.Sets.newHashSet;
 
 @Singleton
 public class FSLuceneSearcherProvider extends AbstractLuceneSearcherProvider {
-    private final File indexRootDirectory;
+    private final File    indexRootDirectory;
+    private final boolean persistent;
 
     /**
      * @param indexRootDirectory
@@ -35,16 +36,32 @@ public class FSLuceneSearcherProvider extends AbstractLuceneSearcherProvider {
      *         set filter for files that should not be indexed
      * @see LuceneSearcher
      */
+    public FSLuceneSearcherProvider(File indexRootDirectory, Set<PathMatcher> excludePatterns) throws IOException {
+        this(indexRootDirectory, excludePatterns, false);
+    }
+
+    /**
+     * @param indexRootDirectory
+     *         root directory for creation index
+     * @param excludePatterns
+     *         set filter for files that should not be indexed
+     * @param persistent
+     *         {@code true} to keep index between restarts and reindex only files changed since index was closed
+     * @see LuceneSearcher
+     * @see FSLuceneSearcher
+     */
     @Inject
     public FSLuceneSearcherProvider(@Named("vfs.local.fs_index_root_dir") File indexRootDirectory,
-                                    @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns) throws IOException {
+                                    @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
+                                    @Named("vfs.local.fs_index_persistent") boolean persistent) throws IOException {
         super(newHashSet(transform(excludePatterns, VirtualFileFilters::wrap)));
         this.indexRootDirectory = indexRootDirectory;
+        this.persistent = persistent;
         Files.createDirectories(indexRootDirectory.toPath());
     }
 
     @Override
     protected LuceneSearcher createLuceneSearcher(CloseCallback closeCallback) {
-        return new FSLuceneSearcher(indexRootDirectory, excludeFileIndexFilters, closeCallback);
+        return new FSLuceneSearcher(indexRootDirectory, excludeFileIndexFilters, closeCallback, persistent);
     }
 }
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+
+/**
+ * Applies changes reported by file watcher to the search index. Events are not applied one by one, they are collected in queue where
+ * repeated events for the same path are merged. Queue is flushed when no new events come during {@link #QUIET_PERIOD_MILLIS}, when the
+ * oldest event waits for longer than {@link #MAX_LAG_MILLIS} or when queue contains {@link #MAX_BATCH_SIZE} paths. Files which did not
+ * change since they were indexed last time, according to fingerprints kept by {@link LuceneSearcher}, are skipped. So are changes made
+ * through virtual filesystem, they are already in index when watcher reports them. All changes of one batch become visible for search
+ * with single reopen of index searcher.
+ */
+@Singleton
+public class FileWatcherIndexUpdater {
+    private static final Logger LOG = LoggerFactory.getLogger(FileWatcherIndexUpdater.class);
+
+    static final long QUIET_PERIOD_MILLIS = 500;
+    static final long MAX_LAG_MILLIS      = 5000;
+    static final int  MAX_BATCH_SIZE      = 1000;
+    static final long CHECK_PERIOD_MILLIS = 100;
+
+    private final VirtualFileSystemProvider            virtualFileSystemProvider;
+    private final FileWatcherNotificationHandler       fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener      listener;
+    private final ConcurrentMap<String, PendingUpdate> pendingUpdates;
+    private final AtomicLong                           oldestEventTime;
+    private final AtomicLong                           lastEventTime;
+    private final ScheduledExecutorService             executor;
+
+    @Inject
+    public FileWatcherIndexUpdater(VirtualFileSystemProvider virtualFileSystemProvider,
+                                   FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this.virtualFileSystemProvider = virtualFileSystemProvider;
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.pendingUpdates = new ConcurrentHashMap<>();
+        this.oldestEventTime = new AtomicLong();
+        this.lastEventTime = new AtomicLong();
+        this.listener = new FileWatcherNotificationListener(file -> true) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                enqueue(virtualFile.getPath().toString(), virtualFile.isFile(), eventType);
+            }
+        };
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("FileWatcherIndexUpdater")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+    }
+
+    @PostConstruct
+    void start() {
+        fileWatcherNotificationHandler.addNotificationListener(listener);
+        executor.scheduleWithFixedDelay(this::flushIfReady, CHECK_PERIOD_MILLIS, CHECK_PERIOD_MILLIS, MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        fileWatcherNotificationHandler.removeNotificationListener(listener);
+        executor.shutdownNow();
+    }
+
+    /** Number of paths waiting to be applied to the search index. */
+    public int getQueueDepth() {
+        return pendingUpdates.size();
+    }
+
+    /** Time in milliseconds the oldest not applied event waits in queue or {@code 0} if queue is empty. */
+    public long getLagMillis() {
+        final long oldest = oldestEventTime.get();
+        return oldest == 0 ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    void enqueue(String path, boolean isFile, FileWatcherEventType eventType) {
+        final long now = System.currentTimeMillis();
+        pendingUpdates.merge(path, new PendingUpdate(isFile, eventType), PendingUpdate::merge);
+        lastEventTime.set(now);
+        oldestEventTime.compareAndSet(0, now);
+    }
+
+    private void flushIfReady() {
+        try {
+            final long oldest = oldestEventTime.get();
+            if (oldest == 0) {
+                return;
+            }
+            final long now = System.currentTimeMillis();
+            if (now - lastEventTime.get() >= QUIET_PERIOD_MILLIS
+                || now - oldest >= MAX_LAG_MILLIS
+                || pendingUpdates.size() >= MAX_BATCH_SIZE) {
+                flush();
+            }
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /** Applies all collected changes to the search index. */
+    void flush() throws ServerException {
+        oldestEventTime.set(0);
+        final List<String> deleted = new ArrayList<>();
+        final List<String> changed = new ArrayList<>();
+        final Map<String, PendingUpdate> batch = new HashMap<>();
+        for (String path : pendingUpdates.keySet()) {
+            final PendingUpdate update = pendingUpdates.remove(path);
+            if (update != null) {
+                batch.put(path, update);
+                (update.eventType == DELETED ? deleted : changed).add(path);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final VirtualFileSystem virtualFileSystem = virtualFileSystemProvider.getVirtualFileSystem(false);
+        final SearcherProvider searcherProvider = virtualFileSystem == null ? null : virtualFileSystem.getSearcherProvider();
+        final Searcher searcher = searcherProvider == null ? null : searcherProvider.getSearcher(virtualFileSystem, false);
+        if (searcher == null || searcher.isClosed()) {
+            // index is not created yet, all files are indexed when it is created
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        int applied = 0;
+        for (String path : deleted) {
+            searcher.delete(path, batch.get(path).isFile);
+            applied++;
+        }
+        for (String path : changed) {
+            final PendingUpdate update = batch.get(path);
+            final VirtualFile virtualFile = virtualFileSystem.getRoot().getChild(Path.of(path));
+            if (virtualFile == null) {
+                searcher.delete(path, update.isFile);
+                applied++;
+            } else if (virtualFile.isFolder()) {
+                if (update.eventType == CREATED) {
+                    if (searcher instanceof LuceneSearcher) {
+                        ((LuceneSearcher)searcher).reconcile(virtualFile);
+                    } else {
+                        searcher.add(virtualFile);
+                    }
+                    applied++;
+                }
+            } else if (!(searcher instanceof LuceneSearcher && ((LuceneSearcher)searcher).isUpToDate(virtualFile))) {
+                searcher.update(virtualFile);
+                applied++;
+            }
+        }
+        if (applied > 0 && searcher instanceof LuceneSearcher) {
+            ((LuceneSearcher)searcher).refresh();
+        }
+        LOG.debug("Applied {} of {} changes to search index, time: {} ms", applied, batch.size(), System.currentTimeMillis() - start);
+    }
+
+    private static class PendingUpdate {
+        final boolean              isFile;
+        final FileWatcherEventType eventType;
+
+        PendingUpdate(boolean isFile, FileWatcherEventType eventType) {
+            this.isFile = isFile;
+            this.eventType = eventType;
+        }
+
+        /** The latest event wins, except that folder which is re-created must be indexed as whole tree. */
+        static PendingUpdate merge(PendingUpdate previous, PendingUpdate next) {
+            if (previous.eventType == CREATED && next.eventType != DELETED) {
+                return new PendingUpdate(next.isFile, CREATED);
+            }
+            return next;
+        }
+    }
+}
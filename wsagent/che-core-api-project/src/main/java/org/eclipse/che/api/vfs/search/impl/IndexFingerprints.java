@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Fingerprints (length, modification date and hash sum of content) of files that are added in index. Fingerprints are stored next to
+ * the index and allow to find files that were added, changed or removed while index was closed without reindexing of all files.
+ */
+class IndexFingerprints {
+    private static final int FORMAT_VERSION = 1;
+
+    private final ConcurrentMap<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    Fingerprint get(String path) {
+        return fingerprints.get(path);
+    }
+
+    void put(String path, Fingerprint fingerprint) {
+        fingerprints.put(path, fingerprint);
+    }
+
+    void remove(String path) {
+        fingerprints.remove(path);
+    }
+
+    /** Removes fingerprints of all files under the specified folder. */
+    void removeTree(String folderPath) {
+        final String prefix = folderPath.endsWith("/") ? folderPath : folderPath + '/';
+        fingerprints.keySet().removeIf(path -> path.startsWith(prefix));
+    }
+
+    void clear() {
+        fingerprints.clear();
+    }
+
+    Set<String> paths() {
+        return fingerprints.keySet();
+    }
+
+    boolean isEmpty() {
+        return fingerprints.isEmpty();
+    }
+
+    /** Copy of all fingerprints at the moment of call. */
+    Map<String, Fingerprint> snapshot() {
+        return new HashMap<>(fingerprints);
+    }
+
+    /**
+     * Loads fingerprints from the file. If file does not exist or can't be read then this instance stays empty.
+     *
+     * @return {@code true} if fingerprints are loaded and {@code false} otherwise
+     */
+    boolean load(File file) throws IOException {
+        if (!file.exists()) {
+            return false;
+        }
+        final Map<String, Fingerprint> loaded = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            final int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                final String path = in.readUTF();
+                final long length = in.readLong();
+                final long modified = in.readLong();
+                final String hash = in.readBoolean() ? in.readUTF() : null;
+                loaded.put(path, new Fingerprint(length, modified, hash));
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+        fingerprints.clear();
+        fingerprints.putAll(loaded);
+        return true;
+    }
+
+    /** Writes fingerprints to the file. File is replaced atomically, so partially written file is never visible. */
+    static void store(Map<String, Fingerprint> fingerprints, File file) throws IOException {
+        final File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(fingerprints.size());
+            for (Map.Entry<String, Fingerprint> entry : fingerprints.entrySet()) {
+                final Fingerprint fingerprint = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(fingerprint.length);
+                out.writeLong(fingerprint.modified);
+                out.writeBoolean(fingerprint.hash != null);
+                if (fingerprint.hash != null) {
+                    out.writeUTF(fingerprint.hash);
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    static class Fingerprint {
+        final long   length;
+        final long   modified;
+        final String hash;
+
+        Fingerprint(long length, long modified, String hash) {
+            this.length = length;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+}
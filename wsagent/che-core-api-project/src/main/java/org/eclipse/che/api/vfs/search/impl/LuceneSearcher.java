@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
@@ -31,6 +36,7 @@ import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherLifetimeManager;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
@@ -38,12 +44,14 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.IOUtils;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
@@ -54,12 +62,23 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Lucene based searcher.
@@ -69,13 +88,21 @@ import static com.google.common.collect.Lists.newArrayList;
 public abstract class LuceneSearcher implements Searcher {
     private static final Logger LOG = LoggerFactory.getLogger(LuceneSearcher.class);
 
-    private static final int RESULT_LIMIT = 1000;
+    private static final int  RESULT_LIMIT                        = 1000;
+    private static final int  BULK_INDEX_BATCH_SIZE               = 50;
+    private static final long BULK_INDEX_PROGRESS_INTERVAL_MILLIS = 5000;
+    /** Max age of index searcher retained for retrieving next pages of search results, in seconds. */
+    private static final int  SEARCHER_MAX_AGE_SECONDS            = 600;
 
     private final List<VirtualFileFilter>                      excludeFileIndexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
 
-    private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
+    private IndexWriter             luceneIndexWriter;
+    private SearcherManager         searcherManager;
+    private SearcherLifetimeManager searcherLifetimeManager;
+
+    private volatile VirtualFileSystem virtualFileSystem;
+    private          IndexFingerprints fingerprints;
 
     private boolean closed = true;
 
@@ -122,7 +149,8 @@ public abstract class LuceneSearcher implements Searcher {
     protected abstract Directory makeDirectory() throws ServerException;
 
     /**
-     * Init lucene index. Need call this method if index directory is clean. Scan all files in virtual filesystem and add to index.
+     * Init lucene index. Scan all files in virtual filesystem and add to index. If fingerprints of files indexed before are available
+     * then only new, changed and removed files are reflected in index.
      *
      * @param virtualFileSystem
      *         VirtualFileSystem
@@ -130,16 +158,18 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error occurs
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        indexAll(virtualFileSystem.getRoot());
     }
 
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
         if (!executor.isShutdown()) {
             executor.execute(() -> {
                 try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.indexAll(virtualFileSystem.getRoot());
                 } catch (ServerException e) {
                     LOG.error(e.getMessage());
                 }
@@ -151,16 +181,34 @@ public abstract class LuceneSearcher implements Searcher {
         try {
             luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+            searcherLifetimeManager = new SearcherLifetimeManager();
+            fingerprints = loadFingerprints();
             closed = false;
         } catch (IOException e) {
             throw new ServerException(e);
         }
     }
 
+    /**
+     * Loads fingerprints of files that are already present in index. By default fingerprints are tracked in memory only, so they are
+     * empty when index is created.
+     */
+    IndexFingerprints loadFingerprints() throws ServerException {
+        return new IndexFingerprints();
+    }
+
+    /** Saves fingerprints of indexed files. Called after changes in index are committed. */
+    void storeFingerprints(Map<String, IndexFingerprints.Fingerprint> fingerprints) throws IOException {
+    }
+
     public final synchronized void close() {
         if (!closed) {
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                final Map<String, IndexFingerprints.Fingerprint> fingerprintsSnapshot = fingerprints == null ? null : fingerprints.snapshot();
+                IOUtils.close(searcherLifetimeManager, getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                if (fingerprintsSnapshot != null) {
+                    storeFingerprints(fingerprintsSnapshot);
+                }
                 afterClose();
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
@@ -184,20 +232,97 @@ public abstract class LuceneSearcher implements Searcher {
         return luceneIndexWriter;
     }
 
+    /**
+     * Acquires index searcher that reflects all changes applied to index so far. Searcher must be released with method {@link
+     * #releaseIndexSearcher(IndexSearcher)}.
+     */
+    protected IndexSearcher acquireIndexSearcher() throws IOException {
+        searcherManager.maybeRefresh();
+        return searcherManager.acquire();
+    }
+
+    protected void releaseIndexSearcher(IndexSearcher indexSearcher) throws IOException {
+        searcherManager.release(indexSearcher);
+    }
+
+    /**
+     * Retains index searcher for retrieving next pages of search result. Pages are consistent while index is updated, as long as
+     * searcher is not expired.
+     *
+     * @return version of retained searcher which may be used for {@link #acquireRetainedIndexSearcher(long)}
+     */
+    protected long retainIndexSearcher(IndexSearcher indexSearcher) throws IOException {
+        final long version = searcherLifetimeManager.record(indexSearcher);
+        searcherLifetimeManager.prune(new SearcherLifetimeManager.PruneByAge(SEARCHER_MAX_AGE_SECONDS));
+        return version;
+    }
+
+    /**
+     * Acquires index searcher retained with {@link #retainIndexSearcher(IndexSearcher)} or returns {@code null} if searcher is expired.
+     * Searcher must be released with method {@link #releaseRetainedIndexSearcher(IndexSearcher)}.
+     */
+    protected IndexSearcher acquireRetainedIndexSearcher(long version) {
+        return searcherLifetimeManager.acquire(version);
+    }
+
+    protected void releaseRetainedIndexSearcher(IndexSearcher indexSearcher) throws IOException {
+        searcherLifetimeManager.release(indexSearcher);
+    }
+
+    /** VirtualFileSystem this searcher was initialized for or {@code null} if searcher is not initialized yet. */
+    protected VirtualFileSystem getVirtualFileSystem() {
+        return virtualFileSystem;
+    }
+
+    /**
+     * Reopens index searcher if index was changed since last reopen. After this method returns all changes applied to index so far are
+     * visible for search.
+     *
+     * @throws ServerException
+     *         if an error occurs
+     */
+    public void refresh() throws ServerException {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public SearchResult search(QueryExpression query) throws ServerException {
         IndexSearcher luceneSearcher = null;
+        boolean retainedSearcher = false;
         try {
             final long startTime = System.currentTimeMillis();
-            searcherManager.maybeRefresh();
-            luceneSearcher = searcherManager.acquire();
+            final ContinuationToken continuationToken = ContinuationToken.decode(query.getContinuationToken());
+            if (continuationToken != null) {
+                luceneSearcher = acquireRetainedIndexSearcher(continuationToken.getSearcherVersion());
+                retainedSearcher = luceneSearcher != null;
+            }
+            if (luceneSearcher == null) {
+                luceneSearcher = acquireIndexSearcher();
+            }
+
+            final Query textQuery = query.getText() == null ? null : parseTextQuery(query.getText());
+            Query luceneQuery = createLuceneQuery(query, textQuery);
 
-            Query luceneQuery = createLuceneQuery(query);
+            OccurrenceFinder occurrenceFinder = null;
+            if (query.isIncludePositions() && textQuery != null && virtualFileSystem != null) {
+                occurrenceFinder = new OccurrenceFinder(textQuery, makeAnalyzer());
+            }
 
             ScoreDoc after = null;
-            final int numSkipDocs = Math.max(0, query.getSkipCount());
-            if (numSkipDocs > 0) {
-                after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+            final int numSkipDocs;
+            if (retainedSearcher) {
+                after = continuationToken.getLastScoreDoc();
+                numSkipDocs = continuationToken.getRetrieved();
+            } else {
+                // if retained searcher is expired then hits retrieved so far are skipped with new searcher
+                numSkipDocs = continuationToken != null ? continuationToken.getRetrieved() : Math.max(0, query.getSkipCount());
+                if (numSkipDocs > 0) {
+                    after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+                }
             }
 
             final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
@@ -208,57 +333,88 @@ public abstract class LuceneSearcher implements Searcher {
             for (int i = 0; i < topDocs.scoreDocs.length; i++) {
                 ScoreDoc scoreDoc = topDocs.scoreDocs[i];
                 String filePath = luceneSearcher.doc(scoreDoc.doc).getField("path").stringValue();
-                results.add(new SearchResultEntry(filePath));
+                if (occurrenceFinder == null || occurrenceFinder.isEmpty()) {
+                    results.add(new SearchResultEntry(filePath));
+                } else {
+                    results.add(new SearchResultEntry(filePath, findOccurrences(occurrenceFinder, filePath)));
+                }
             }
 
             final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
 
-            boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
+            boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length < totalHitsNum;
             QueryExpression nextPageQueryExpression = null;
-            if (hasMoreToRetrieve) {
-                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+            String nextPageContinuationToken = null;
+            if (hasMoreToRetrieve && topDocs.scoreDocs.length > 0) {
+                final int retrieved = numSkipDocs + topDocs.scoreDocs.length;
+                final long searcherVersion = retainIndexSearcher(luceneSearcher);
+                nextPageContinuationToken =
+                        new ContinuationToken(searcherVersion, topDocs.scoreDocs[topDocs.scoreDocs.length - 1], retrieved).encode();
+                nextPageQueryExpression = createNextPageQuery(query, retrieved).setContinuationToken(nextPageContinuationToken);
             }
 
             return SearchResult.aSearchResult()
                                .withResults(results)
                                .withTotalHits(totalHitsNum)
                                .withNextPageQueryExpression(nextPageQueryExpression)
+                               .withContinuationToken(nextPageContinuationToken)
                                .withElapsedTimeMillis(elapsedTimeMillis)
                                .build();
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
             try {
-                searcherManager.release(luceneSearcher);
+                if (retainedSearcher) {
+                    releaseRetainedIndexSearcher(luceneSearcher);
+                } else {
+                    releaseIndexSearcher(luceneSearcher);
+                }
             } catch (IOException e) {
                 LOG.error(e.getMessage());
             }
         }
     }
 
-    private Query createLuceneQuery(QueryExpression query) throws ServerException {
+    private Query createLuceneQuery(QueryExpression query, Query textQuery) {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
-        final String text = query.getText();
         if (path != null) {
             luceneQuery.add(new PrefixQuery(new Term("path", path)), BooleanClause.Occur.MUST);
         }
         if (name != null) {
             luceneQuery.add(new WildcardQuery(new Term("name", name)), BooleanClause.Occur.MUST);
         }
-        if (text != null) {
-            QueryParser qParser = new QueryParser("text", makeAnalyzer());
-            qParser.setAllowLeadingWildcard(true);
-            try {
-                luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
-            } catch (ParseException e) {
-                throw new ServerException(e.getMessage());
-            }
+        if (textQuery != null) {
+            luceneQuery.add(textQuery, BooleanClause.Occur.MUST);
         }
         return luceneQuery;
     }
 
+    private Query parseTextQuery(String text) throws ServerException {
+        QueryParser qParser = new QueryParser("text", makeAnalyzer());
+        qParser.setAllowLeadingWildcard(true);
+        try {
+            return qParser.parse(text);
+        } catch (ParseException e) {
+            throw new ServerException(e.getMessage());
+        }
+    }
+
+    private List<SearchOccurrence> findOccurrences(OccurrenceFinder occurrenceFinder, String filePath) {
+        try {
+            final VirtualFile file = virtualFileSystem.getRoot().getChild(Path.of(filePath));
+            if (file != null && file.isFile()) {
+                try (Reader content = new BufferedReader(new InputStreamReader(file.getContent()))) {
+                    return occurrenceFinder.find(content);
+                }
+            }
+        } catch (ServerException | ForbiddenException | IOException e) {
+            LOG.warn("Unable find occurrences of searched text in file {}: {}", filePath, e.getMessage());
+        }
+        return emptyList();
+    }
+
     private ScoreDoc skipScoreDocs(IndexSearcher luceneSearcher, Query luceneQuery, int numSkipDocs) throws IOException {
         final int readFrameSize = Math.min(numSkipDocs, RESULT_LIMIT);
         ScoreDoc scoreDoc = null;
@@ -285,7 +441,8 @@ public abstract class LuceneSearcher implements Searcher {
                                     .setName(originalQuery.getName())
                                     .setPath(originalQuery.getPath())
                                     .setSkipCount(newSkipCount)
-                                    .setMaxItems(originalQuery.getMaxItems());
+                                    .setMaxItems(originalQuery.getMaxItems())
+                                    .setIncludePositions(originalQuery.isIncludePositions());
     }
 
     @Override
@@ -293,6 +450,35 @@ public abstract class LuceneSearcher implements Searcher {
         doAdd(virtualFile);
     }
 
+    /**
+     * Checks whether file is indexed and was not changed since then. File is considered unchanged if its length and modification date or
+     * its length and hash sum of content match to the fingerprint recorded when file was indexed.
+     */
+    public boolean isUpToDate(VirtualFile virtualFile) throws ServerException {
+        if (fingerprints == null) {
+            return false;
+        }
+        try {
+            return checkUpToDate(virtualFile);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
+
+    /**
+     * Adds in index files of the tree which are new or changed since they were indexed last time and removes from index files which do
+     * not exist anymore. Files which are not changed are not read.
+     */
+    public void reconcile(VirtualFile tree) throws ServerException {
+        if (fingerprints == null) {
+            doAdd(tree);
+        } else {
+            bulkAddTree(tree, true);
+        }
+    }
+
     protected void doAdd(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.isFolder()) {
             addTree(virtualFile);
@@ -323,13 +509,195 @@ public abstract class LuceneSearcher implements Searcher {
         LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
     }
 
+    private void indexAll(VirtualFile root) throws ServerException {
+        final boolean reconcile = fingerprints != null && !fingerprints.isEmpty() && getIndexWriter().numDocs() > 0;
+        if (!reconcile) {
+            if (fingerprints != null) {
+                fingerprints.clear();
+            }
+            if (getIndexWriter().numDocs() > 0) {
+                try {
+                    getIndexWriter().deleteAll();
+                } catch (IOException e) {
+                    throw new ServerException(e.getMessage(), e);
+                }
+            }
+        }
+        bulkAddTree(root, reconcile);
+    }
+
+    /**
+     * Adds all files of the tree in index in bulk mode. Folders are traversed in the calling thread, files are read and tokenized with
+     * bounded pool of workers, each worker sends its documents to the {@code IndexWriter} as one batch. Changes are committed once,
+     * after the whole tree is indexed.
+     * <p>
+     * In reconcile mode files that did not change since they were indexed last time are skipped, file is considered unchanged if its
+     * length and modification date or its length and hash sum of content match to the stored fingerprint. Files that were indexed before
+     * but do not exist anymore are removed from index.
+     *
+     * @param tree
+     *         root folder of tree to add in index
+     * @param reconcile
+     *         {@code true} to index only new and changed files, requires fingerprints of indexed files
+     * @throws ServerException
+     *         if any virtual filesystem or index error occurs
+     */
+    protected void bulkAddTree(VirtualFile tree, boolean reconcile) throws ServerException {
+        final int workers = getBulkIndexThreads();
+        final ThreadPoolExecutor indexExecutor = new ThreadPoolExecutor(workers, workers, 0L, MILLISECONDS,
+                                                                        new ArrayBlockingQueue<>(workers * 2),
+                                                                        new ThreadFactoryBuilder().setDaemon(true)
+                                                                                                  .setNameFormat("LuceneBulkIndexer-%d")
+                                                                                                  .build(),
+                                                                        new ThreadPoolExecutor.CallerRunsPolicy());
+        final boolean emptyIndex = getIndexWriter().numDocs() == 0;
+        final BulkIndexProgress progress = new BulkIndexProgress(tree.getPath().toString());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Set<String> visited = new HashSet<>();
+        try {
+            final LinkedList<VirtualFile> q = new LinkedList<>();
+            q.add(tree);
+            List<VirtualFile> batch = new ArrayList<>(BULK_INDEX_BATCH_SIZE);
+            while (!q.isEmpty() && failure.get() == null && !isClosed()) {
+                final VirtualFile folder = q.pop();
+                if (folder.exists()) {
+                    for (VirtualFile child : folder.getChildren()) {
+                        if (child.isFolder()) {
+                            q.push(child);
+                        } else {
+                            if (reconcile) {
+                                visited.add(child.getPath().toString());
+                            }
+                            batch.add(child);
+                            if (batch.size() == BULK_INDEX_BATCH_SIZE) {
+                                submitBatch(indexExecutor, batch, emptyIndex, reconcile, progress, failure);
+                                batch = new ArrayList<>(BULK_INDEX_BATCH_SIZE);
+                            }
+                        }
+                    }
+                }
+            }
+            if (!batch.isEmpty() && failure.get() == null) {
+                submitBatch(indexExecutor, batch, emptyIndex, reconcile, progress, failure);
+            }
+        } finally {
+            indexExecutor.shutdown();
+        }
+
+        try {
+            while (!indexExecutor.awaitTermination(BULK_INDEX_PROGRESS_INTERVAL_MILLIS, MILLISECONDS)) {
+                progress.report();
+            }
+        } catch (InterruptedException e) {
+            indexExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new ServerException("Indexing of " + tree.getPath() + " was interrupted");
+        }
+
+        final Exception error = failure.get();
+        if (error != null) {
+            throw error instanceof ServerException ? (ServerException)error : new ServerException(error.getMessage(), error);
+        }
+        if (!isClosed()) {
+            try {
+                if (reconcile && failure.get() == null) {
+                    deleteNotVisited(tree, visited);
+                }
+                final Map<String, IndexFingerprints.Fingerprint> fingerprintsSnapshot =
+                        fingerprints == null ? null : fingerprints.snapshot();
+                getIndexWriter().commit();
+                if (fingerprintsSnapshot != null) {
+                    storeFingerprints(fingerprintsSnapshot);
+                }
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        }
+        progress.done();
+    }
+
+    private void deleteNotVisited(VirtualFile tree, Set<String> visited) throws IOException {
+        final String prefix = tree.isRoot() ? "/" : tree.getPath().toString() + '/';
+        int deleted = 0;
+        for (String path : fingerprints.paths()) {
+            if (path.startsWith(prefix) && !visited.contains(path)) {
+                getIndexWriter().deleteDocuments(new Term("path", path));
+                fingerprints.remove(path);
+                deleted++;
+            }
+        }
+        LOG.debug("Removed {} files that do not exist anymore from index", deleted);
+    }
+
+    /** Number of threads that read and tokenize files in bulk indexing mode. */
+    protected int getBulkIndexThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private void submitBatch(ExecutorService indexExecutor,
+                             List<VirtualFile> batch,
+                             boolean emptyIndex,
+                             boolean reconcile,
+                             BulkIndexProgress progress,
+                             AtomicReference<Exception> failure) {
+        indexExecutor.execute(() -> {
+            if (failure.get() != null || isClosed()) {
+                return;
+            }
+            try {
+                progress.indexed(addFiles(batch, emptyIndex, reconcile));
+            } catch (ServerException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    private int addFiles(List<VirtualFile> files, boolean emptyIndex, boolean reconcile) throws ServerException {
+        final List<VirtualFile> indexed = new ArrayList<>(files.size());
+        final List<Document> documents = new ArrayList<>(files.size());
+        final List<Reader> readers = new ArrayList<>(files.size());
+        final List<IndexFingerprints.Fingerprint> stats = new ArrayList<>(files.size());
+        try {
+            for (VirtualFile file : files) {
+                if (file.exists() && !(reconcile && checkUpToDate(file))) {
+                    stats.add(new IndexFingerprints.Fingerprint(file.getLength(), file.getLastModificationDate(), null));
+                    final Reader fContentReader = openContentReader(file);
+                    readers.add(fContentReader);
+                    indexed.add(file);
+                    documents.add(createDocument(file, fContentReader));
+                }
+            }
+            if (emptyIndex) {
+                getIndexWriter().addDocuments(documents);
+            } else {
+                for (Document document : documents) {
+                    getIndexWriter().updateDocument(new Term("path", document.get("path")), document);
+                }
+            }
+            for (int i = 0; i < indexed.size(); i++) {
+                recordFingerprint(indexed.get(i), stats.get(i), readers.get(i));
+            }
+            return documents.size();
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        } finally {
+            IOUtils.closeWhileHandlingException(readers);
+        }
+    }
+
     protected void addFile(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.exists()) {
-            try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                         ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                         : null) {
+            final IndexFingerprints.Fingerprint stat =
+                    new IndexFingerprints.Fingerprint(virtualFile.getLength(), virtualFile.getLastModificationDate(), null);
+            try (Reader fContentReader = openContentReader(virtualFile)) {
                 getIndexWriter()
                         .updateDocument(new Term("path", virtualFile.getPath().toString()), createDocument(virtualFile, fContentReader));
+                recordFingerprint(virtualFile, stat, fContentReader);
             } catch (OutOfMemoryError oome) {
                 close();
                 throw oome;
@@ -347,9 +715,15 @@ public abstract class LuceneSearcher implements Searcher {
             if (isFile) {
                 Term term = new Term("path", path);
                 getIndexWriter().deleteDocuments(term);
+                if (fingerprints != null) {
+                    fingerprints.remove(path);
+                }
             } else {
                 Term term = new Term("path", path + "/");
                 getIndexWriter().deleteDocuments(new PrefixQuery(term));
+                if (fingerprints != null) {
+                    fingerprints.removeTree(path);
+                }
             }
         } catch (OutOfMemoryError oome) {
             close();
@@ -365,10 +739,11 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
-        try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                     ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                     : null) {
+        final IndexFingerprints.Fingerprint stat =
+                new IndexFingerprints.Fingerprint(virtualFile.getLength(), virtualFile.getLastModificationDate(), null);
+        try (Reader fContentReader = openContentReader(virtualFile)) {
             getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+            recordFingerprint(virtualFile, stat, fContentReader);
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
@@ -389,6 +764,52 @@ public abstract class LuceneSearcher implements Searcher {
         return doc;
     }
 
+    /**
+     * Opens reader of file content for indexing or returns {@code null} if content of file should not be indexed. If fingerprints of
+     * indexed files are tracked then hash sum of content is calculated while content is read by the index writer.
+     */
+    private Reader openContentReader(VirtualFile virtualFile) throws ForbiddenException, ServerException {
+        if (!shouldIndexContent(virtualFile)) {
+            return null;
+        }
+        if (fingerprints == null) {
+            return new BufferedReader(new InputStreamReader(virtualFile.getContent()));
+        }
+        return new HashingContentReader(new HashingInputStream(Hashing.md5(), virtualFile.getContent()));
+    }
+
+    private void recordFingerprint(VirtualFile virtualFile, IndexFingerprints.Fingerprint stat, Reader fContentReader) {
+        if (fingerprints != null) {
+            final String hash = fContentReader instanceof HashingContentReader ? ((HashingContentReader)fContentReader).hash() : null;
+            fingerprints.put(virtualFile.getPath().toString(), new IndexFingerprints.Fingerprint(stat.length, stat.modified, hash));
+        }
+    }
+
+    private boolean checkUpToDate(VirtualFile virtualFile) throws ForbiddenException, ServerException, IOException {
+        final IndexFingerprints.Fingerprint indexed = fingerprints.get(virtualFile.getPath().toString());
+        if (indexed == null) {
+            return false;
+        }
+        final long length = virtualFile.getLength();
+        final long modified = virtualFile.getLastModificationDate();
+        if (indexed.length == length && indexed.modified == modified) {
+            return true;
+        }
+        if (indexed.length != length || indexed.hash == null) {
+            return false;
+        }
+        final String hash;
+        try (HashingInputStream content = new HashingInputStream(Hashing.md5(), virtualFile.getContent())) {
+            ByteStreams.copy(content, ByteStreams.nullOutputStream());
+            hash = content.hash().toString();
+        }
+        if (hash.equals(indexed.hash)) {
+            fingerprints.put(virtualFile.getPath().toString(), new IndexFingerprints.Fingerprint(length, modified, hash));
+            return true;
+        }
+        return false;
+    }
+
     private boolean shouldIndexContent(VirtualFile virtualFile) {
         for (VirtualFileFilter indexFilter : excludeFileIndexFilters) {
             if (indexFilter.accept(virtualFile)) {
@@ -397,4 +818,58 @@ public abstract class LuceneSearcher implements Searcher {
         }
         return true;
     }
+
+    /** Reader of file content that calculates hash sum of content while it is read. */
+    private static class HashingContentReader extends BufferedReader {
+        private final HashingInputStream content;
+
+        HashingContentReader(HashingInputStream content) {
+            super(new InputStreamReader(content));
+            this.content = content;
+        }
+
+        String hash() {
+            return content.hash().toString();
+        }
+    }
+
+    /** Tracks progress and throughput of bulk indexing and periodically reports them to the log. */
+    private static class BulkIndexProgress {
+        private final String        root;
+        private final long          startTime;
+        private final AtomicInteger indexedFiles;
+        private final AtomicLong    lastReportTime;
+
+        BulkIndexProgress(String root) {
+            this.root = root;
+            this.startTime = System.currentTimeMillis();
+            this.indexedFiles = new AtomicInteger();
+            this.lastReportTime = new AtomicLong(startTime);
+        }
+
+        void indexed(int files) {
+            indexedFiles.addAndGet(files);
+            final long lastReport = lastReportTime.get();
+            final long now = System.currentTimeMillis();
+            if (now - lastReport >= BULK_INDEX_PROGRESS_INTERVAL_MILLIS && lastReportTime.compareAndSet(lastReport, now)) {
+                report();
+            }
+        }
+
+        void report() {
+            final int files = indexedFiles.get();
+            LOG.info("Indexing {}: {} files indexed, {} files/s", root, files, throughput(files));
+        }
+
+        void done() {
+            final int files = indexedFiles.get();
+            LOG.info("Indexed {} files from {}, time: {} ms, {} files/s",
+                     files, root, System.currentTimeMillis() - startTime, throughput(files));
+        }
+
+        private long throughput(int files) {
+            final long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+            return files * 1000L / elapsed;
+        }
+    }
 }
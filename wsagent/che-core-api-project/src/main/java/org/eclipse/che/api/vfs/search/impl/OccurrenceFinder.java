@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Finds occurrences of terms of text query in content of file. Content is analyzed with the same analyzer that is used for indexing, so
+ * offsets of tokens match to offsets of terms in index. Content is analyzed line by line, so occurrences are found without loading whole
+ * file in memory.
+ */
+class OccurrenceFinder {
+    static final int MAX_OCCURRENCES_PER_FILE = 100;
+    static final int MAX_LINE_CONTENT_LENGTH  = 200;
+    static final int MAX_LINE_LENGTH          = 64 * 1024;
+
+    private final Analyzer      analyzer;
+    private final Set<String>   terms;
+    private final List<Pattern> wildcards;
+
+    OccurrenceFinder(Query textQuery, Analyzer analyzer) {
+        this.analyzer = analyzer;
+        this.terms = new HashSet<>();
+        this.wildcards = new ArrayList<>();
+        collectTerms(textQuery);
+    }
+
+    /** Returns {@code true} if text query does not contain any term that might be found in content of file. */
+    boolean isEmpty() {
+        return terms.isEmpty() && wildcards.isEmpty();
+    }
+
+    /**
+     * Finds occurrences in content which is read line by line, so only single line of file is kept in memory. Lines longer than {@link
+     * #MAX_LINE_LENGTH} are processed in chunks.
+     */
+    List<SearchOccurrence> find(Reader content) throws IOException {
+        final List<SearchOccurrence> occurrences = new ArrayList<>();
+        final StringBuilder line = new StringBuilder();
+        int lineNumber = 1;
+        int lineOffset = 0;
+        int c = 0;
+        while (c != -1 && occurrences.size() < MAX_OCCURRENCES_PER_FILE) {
+            c = readLine(content, line);
+            findInLine(line.toString(), lineNumber, lineOffset, occurrences);
+            lineOffset += line.length();
+            if (c == '\n') {
+                lineOffset++;
+                lineNumber++;
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Reads next line of content in {@code line} without line separator. Line longer than {@link #MAX_LINE_LENGTH} is split in chunks.
+     *
+     * @return {@code '\n'} if line is terminated with line separator, {@code -1} if end of content is reached, any other value if line
+     * is split
+     */
+    static int readLine(Reader content, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c = 0;
+        while (line.length() < MAX_LINE_LENGTH && (c = content.read()) != -1 && c != '\n') {
+            line.append((char)c);
+        }
+        return c;
+    }
+
+    private void findInLine(String line, int lineNumber, int lineOffset, List<SearchOccurrence> occurrences) throws IOException {
+        try (TokenStream tokenStream = analyzer.tokenStream("text", line)) {
+            final CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            final OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
+            tokenStream.reset();
+            while (occurrences.size() < MAX_OCCURRENCES_PER_FILE && tokenStream.incrementToken()) {
+                if (matches(termAttribute.toString())) {
+                    final int startOffset = offsetAttribute.startOffset();
+                    final int endOffset = offsetAttribute.endOffset();
+                    occurrences.add(new SearchOccurrence(line.substring(startOffset, endOffset),
+                                                         lineNumber,
+                                                         lineOffset + startOffset,
+                                                         lineOffset + endOffset,
+                                                         lineContent(line, 0, startOffset, endOffset)));
+                }
+            }
+            tokenStream.end();
+        }
+    }
+
+    private boolean matches(String token) {
+        if (terms.contains(token)) {
+            return true;
+        }
+        for (Pattern wildcard : wildcards) {
+            if (wildcard.matcher(token).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Content of line that starts at {@code lineStart} and contains text in range {@code [startOffset, endOffset)}. */
+    static String lineContent(String content, int lineStart, int startOffset, int endOffset) {
+        int lineEnd = content.indexOf('\n', endOffset);
+        if (lineEnd < 0) {
+            lineEnd = content.length();
+        }
+        if (lineEnd > lineStart && content.charAt(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        if (lineEnd - lineStart <= MAX_LINE_CONTENT_LENGTH) {
+            return content.substring(lineStart, lineEnd);
+        }
+        final int margin = Math.max(0, (MAX_LINE_CONTENT_LENGTH - (endOffset - startOffset)) / 2);
+        final int snippetStart = Math.max(lineStart, startOffset - margin);
+        final int snippetEnd = Math.min(lineEnd, Math.max(endOffset, snippetStart + MAX_LINE_CONTENT_LENGTH));
+        return content.substring(snippetStart, snippetEnd);
+    }
+
+    private void collectTerms(Query query) {
+        if (query instanceof BooleanQuery) {
+            for (BooleanClause clause : ((BooleanQuery)query).clauses()) {
+                if (!clause.isProhibited()) {
+                    collectTerms(clause.getQuery());
+                }
+            }
+        } else if (query instanceof TermQuery) {
+            terms.add(((TermQuery)query).getTerm().text());
+        } else if (query instanceof PhraseQuery) {
+            for (Term term : ((PhraseQuery)query).getTerms()) {
+                terms.add(term.text());
+            }
+        } else if (query instanceof WildcardQuery) {
+            wildcards.add(toPattern(((WildcardQuery)query).getTerm().text()));
+        } else if (query instanceof PrefixQuery) {
+            wildcards.add(Pattern.compile(Pattern.quote(((PrefixQuery)query).getPrefix().text()) + ".*"));
+        }
+    }
+
+    /** Converts lucene wildcard, that supports {@code *} and {@code ?} characters, to regular expression. */
+    static Pattern toPattern(String wildcard) {
+        final StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < wildcard.length(); i++) {
+            final char c = wildcard.charAt(i);
+            if (c == WildcardQuery.WILDCARD_STRING) {
+                regex.append(".*");
+            } else if (c == WildcardQuery.WILDCARD_CHAR) {
+                regex.append('.');
+            } else if (c == WildcardQuery.WILDCARD_ESCAPE && i + 1 < wildcard.length()) {
+                regex.append(Pattern.quote(String.valueOf(wildcard.charAt(++i))));
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
@@ -0,0 +1,441 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CharStreams;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+import org.eclipse.che.api.vfs.search.SearchResult;
+import org.eclipse.che.api.vfs.search.SearchResultEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Filesystem based searcher that indexes trigrams of file content and file names. It answers literal substring and regular expression
+ * queries: index is used for selecting candidate files that contain all trigrams required by query, then each candidate is verified
+ * against the query.
+ * <p/>
+ * Text of query is treated as case insensitive literal substring. Text surrounded by slashes, e.g. {@code /get[A-Z]\w+\(/}, is treated
+ * as java regular expression. Name of query is wildcard, the same as for {@link LuceneSearcher}. Text must contain at least one literal
+ * of three or more characters, otherwise index can't select candidates and query is rejected.
+ * <p/>
+ * Content of files larger than {@link #MAX_CONTENT_LENGTH} is not indexed and searched. Content of candidate is matched line by line.
+ * <p/>
+ * Candidates are verified only until page of results is filled, so total number of hits in result is number of files matched so far.
+ * One request verifies at most {@link #MAX_VERIFIED_CANDIDATES} files, page may contain fewer results if this limit is reached. Next
+ * page is retrieved with continuation token, that continues verification from the candidate after the last verified one, with the same
+ * index searcher.
+ */
+public class TrigramLuceneSearcher extends FSLuceneSearcher {
+    private static final Logger LOG = LoggerFactory.getLogger(TrigramLuceneSearcher.class);
+
+    static final String TEXT_TRIGRAM_FIELD = "text_trigram";
+    static final String NAME_TRIGRAM_FIELD = "name_trigram";
+
+    private static final int RESULT_LIMIT            = 1000;
+    private static final int CANDIDATES_FRAME_SIZE   = 1000;
+    /** Max number of trigram clauses in query for candidate files, more trigrams do not narrow set of candidates significantly. */
+    private static final int MAX_QUERY_TRIGRAMS      = 64;
+    /** Max number of candidate files which are verified while serving one request. */
+    private static final int MAX_VERIFIED_CANDIDATES = 10000;
+    /** Max length of file, in bytes, which content is indexed and verified. Content of larger files is not searched. */
+    static final long        MAX_CONTENT_LENGTH      = 1024 * 1024;
+
+    TrigramLuceneSearcher(File indexDirectory,
+                          VirtualFileFilter filter,
+                          AbstractLuceneSearcherProvider.CloseCallback closeCallback,
+                          boolean persistent) {
+        super(indexDirectory, filter, closeCallback, persistent);
+    }
+
+    @Override
+    protected Analyzer makeAnalyzer() {
+        final Analyzer trigramAnalyzer = new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new NGramTokenizer(3, 3);
+                return new TokenStreamComponents(tokenizer, new LowerCaseFilter(tokenizer));
+            }
+        };
+        return new PerFieldAnalyzerWrapper(super.makeAnalyzer(), ImmutableMap.of(TEXT_TRIGRAM_FIELD, trigramAnalyzer,
+                                                                                  NAME_TRIGRAM_FIELD, trigramAnalyzer));
+    }
+
+    @Override
+    protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
+        final Document doc;
+        if (reader == null || virtualFile.getLength() > MAX_CONTENT_LENGTH) {
+            doc = super.createDocument(virtualFile, null);
+        } else {
+            final String content;
+            try {
+                content = CharStreams.toString(reader);
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+            doc = super.createDocument(virtualFile, new StringReader(content));
+            doc.add(new TextField(TEXT_TRIGRAM_FIELD, content, Field.Store.NO));
+        }
+        doc.add(new TextField(NAME_TRIGRAM_FIELD, virtualFile.getName(), Field.Store.NO));
+        return doc;
+    }
+
+    @Override
+    public SearchResult search(QueryExpression query) throws ServerException {
+        final String text = query.getText();
+        final String name = query.getName();
+        if (text == null && name == null) {
+            return super.search(query);
+        }
+        final long startTime = System.currentTimeMillis();
+
+        final Pattern namePattern = name == null ? null : OccurrenceFinder.toPattern(name);
+        final Pattern textPattern = text == null ? null : toTextPattern(text);
+
+        final BooleanQuery candidatesQuery = new BooleanQuery();
+        if (query.getPath() != null) {
+            candidatesQuery.add(new PrefixQuery(new Term("path", query.getPath())), BooleanClause.Occur.MUST);
+        }
+        if (name != null) {
+            addTrigrams(candidatesQuery, NAME_TRIGRAM_FIELD, wildcardLiterals(name));
+        }
+        if (text != null
+            && !addTrigrams(candidatesQuery, TEXT_TRIGRAM_FIELD, isRegex(text) ? regexLiterals(regexOf(text)) : singletonList(text))) {
+            throw new ServerException(String.format("Unable search for '%s', text must contain at least 3 characters in a row", text));
+        }
+        if (candidatesQuery.clauses().isEmpty()) {
+            candidatesQuery.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+
+        final int maxItems = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+        final List<SearchResultEntry> results = new ArrayList<>();
+        final ContinuationToken continuationToken = ContinuationToken.decode(query.getContinuationToken());
+        IndexSearcher luceneSearcher = null;
+        boolean retainedSearcher = false;
+        try {
+            if (continuationToken != null) {
+                luceneSearcher = acquireRetainedIndexSearcher(continuationToken.getSearcherVersion());
+                retainedSearcher = luceneSearcher != null;
+            }
+            if (luceneSearcher == null) {
+                luceneSearcher = acquireIndexSearcher();
+            }
+            // last candidate which is verified and either returned or rejected
+            ScoreDoc lastVerified = retainedSearcher ? continuationToken.getLastScoreDoc() : null;
+            int totalHits = retainedSearcher ? continuationToken.getRetrieved() : 0;
+            int skipCount = retainedSearcher ? 0 : Math.max(0, query.getSkipCount());
+            int candidates = 0;
+            boolean hasMore = false;
+            TopDocs topDocs;
+            candidatesLoop:
+            do {
+                topDocs = luceneSearcher.searchAfter(lastVerified, candidatesQuery, CANDIDATES_FRAME_SIZE);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    if (candidates == MAX_VERIFIED_CANDIDATES) {
+                        hasMore = true;
+                        break candidatesLoop;
+                    }
+                    candidates++;
+                    final Document doc = luceneSearcher.doc(scoreDoc.doc);
+                    List<SearchOccurrence> occurrences = emptyList();
+                    if (namePattern != null && !namePattern.matcher(doc.get("name")).matches()) {
+                        occurrences = null;
+                    } else if (textPattern != null) {
+                        final boolean collectOccurrences = query.isIncludePositions() && skipCount == 0;
+                        occurrences = findMatches(doc.get("path"), textPattern, collectOccurrences);
+                    }
+                    if (occurrences != null) {
+                        if (results.size() == maxItems) {
+                            // this hit goes to the next page, it will be verified again
+                            hasMore = true;
+                            break candidatesLoop;
+                        }
+                        if (skipCount > 0) {
+                            skipCount--;
+                        } else {
+                            results.add(new SearchResultEntry(doc.get("path"), occurrences));
+                        }
+                        totalHits++;
+                    }
+                    lastVerified = scoreDoc;
+                }
+            } while (topDocs.scoreDocs.length == CANDIDATES_FRAME_SIZE);
+
+            final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
+            LOG.debug("Query {} verified {} candidate files in {} ms", query, candidates, elapsedTimeMillis);
+
+            QueryExpression nextPageQueryExpression = null;
+            String nextPageContinuationToken = null;
+            if (hasMore && lastVerified != null) {
+                nextPageContinuationToken = new ContinuationToken(retainIndexSearcher(luceneSearcher), lastVerified, totalHits).encode();
+                nextPageQueryExpression = new QueryExpression().setText(text)
+                                                               .setName(name)
+                                                               .setPath(query.getPath())
+                                                               .setSkipCount(totalHits)
+                                                               .setMaxItems(query.getMaxItems())
+                                                               .setIncludePositions(query.isIncludePositions())
+                                                               .setContinuationToken(nextPageContinuationToken);
+            }
+            return SearchResult.aSearchResult()
+                               .withResults(results)
+                               .withTotalHits(totalHits)
+                               .withNextPageQueryExpression(nextPageQueryExpression)
+                               .withContinuationToken(nextPageContinuationToken)
+                               .withElapsedTimeMillis(elapsedTimeMillis)
+                               .build();
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            if (luceneSearcher != null) {
+                try {
+                    if (retainedSearcher) {
+                        releaseRetainedIndexSearcher(luceneSearcher);
+                    } else {
+                        releaseIndexSearcher(luceneSearcher);
+                    }
+                } catch (IOException e) {
+                    LOG.error(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies that content of file matches to the pattern. Returns {@code null} if file doesn't match, otherwise list of occurrences of
+     * pattern in content of file, the list is empty if {@code collectOccurrences} is {@code false}. Content is matched line by line, so
+     * pattern doesn't match text which spans few lines and work of regular expression is bounded by length of line.
+     */
+    private List<SearchOccurrence> findMatches(String filePath, Pattern pattern, boolean collectOccurrences) {
+        try {
+            final VirtualFileSystem virtualFileSystem = getVirtualFileSystem();
+            final VirtualFile file = virtualFileSystem == null ? null : virtualFileSystem.getRoot().getChild(Path.of(filePath));
+            if (file == null || !file.isFile() || file.getLength() > MAX_CONTENT_LENGTH) {
+                return null;
+            }
+            try (Reader content = new BufferedReader(new InputStreamReader(file.getContent()))) {
+                return findMatches(content, pattern, collectOccurrences);
+            }
+        } catch (ServerException | ForbiddenException | IOException e) {
+            LOG.warn("Unable verify content of file {}: {}", filePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<SearchOccurrence> findMatches(Reader content, Pattern pattern, boolean collectOccurrences) throws IOException {
+        final List<SearchOccurrence> occurrences = new ArrayList<>();
+        final StringBuilder line = new StringBuilder();
+        int lineNumber = 1;
+        int lineOffset = 0;
+        int c;
+        do {
+            c = OccurrenceFinder.readLine(content, line);
+            final Matcher matcher = pattern.matcher(line);
+            while (matcher.find()) {
+                if (!collectOccurrences) {
+                    return emptyList();
+                }
+                occurrences.add(new SearchOccurrence(matcher.group(),
+                                                     lineNumber,
+                                                     lineOffset + matcher.start(),
+                                                     lineOffset + matcher.end(),
+                                                     OccurrenceFinder.lineContent(line.toString(), 0, matcher.start(), matcher.end())));
+                if (occurrences.size() == OccurrenceFinder.MAX_OCCURRENCES_PER_FILE) {
+                    return occurrences;
+                }
+            }
+            lineOffset += line.length();
+            if (c == '\n') {
+                lineOffset++;
+                lineNumber++;
+            }
+        } while (c != -1);
+        return occurrences.isEmpty() ? null : occurrences;
+    }
+
+    /** Adds clauses for trigrams of literals in query, returns {@code false} if literals don't contain any trigram. */
+    private boolean addTrigrams(BooleanQuery query, String field, List<String> literals) {
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (String literal : literals) {
+            final String lowerCaseLiteral = literal.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + 3 <= lowerCaseLiteral.length() && trigrams.size() < MAX_QUERY_TRIGRAMS; i++) {
+                trigrams.add(lowerCaseLiteral.substring(i, i + 3));
+            }
+        }
+        for (String trigram : trigrams) {
+            query.add(new TermQuery(new Term(field, trigram)), BooleanClause.Occur.MUST);
+        }
+        return !trigrams.isEmpty();
+    }
+
+    private Pattern toTextPattern(String text) throws ServerException {
+        if (isRegex(text)) {
+            try {
+                return Pattern.compile(regexOf(text), Pattern.MULTILINE);
+            } catch (PatternSyntaxException e) {
+                throw new ServerException(e.getMessage());
+            }
+        }
+        return Pattern.compile(Pattern.quote(text), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private static boolean isRegex(String text) {
+        return text.length() > 2 && text.startsWith("/") && text.endsWith("/");
+    }
+
+    private static String regexOf(String text) {
+        return text.substring(1, text.length() - 1);
+    }
+
+    /** Literal parts of wildcard, each file name that matches to the wildcard contains all of them. */
+    static List<String> wildcardLiterals(String wildcard) {
+        final List<String> literals = new ArrayList<>();
+        for (String literal : wildcard.split("[*?]")) {
+            if (literal.length() >= 3) {
+                literals.add(literal);
+            }
+        }
+        return literals;
+    }
+
+    /**
+     * Literal strings that are required to be present in any text that matches to the regular expression. Analysis is conservative: any
+     * content of groups and character classes, optional characters and alternations are skipped. Empty list is returned if nothing is
+     * known about text that matches to the regular expression.
+     */
+    static List<String> regexLiterals(String regex) {
+        final List<String> literals = new ArrayList<>();
+        final StringBuilder run = new StringBuilder();
+        int groupDepth = 0;
+        for (int i = 0, length = regex.length(); i < length; i++) {
+            final char c = regex.charAt(i);
+            switch (c) {
+                case '\\':
+                    if (i + 1 < length && groupDepth == 0 && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                        run.append(regex.charAt(++i));
+                    } else {
+                        // escaped character class, e.g. \w, or back reference
+                        i++;
+                        flushLiteral(run, literals);
+                    }
+                    break;
+                case '[':
+                    i = skipCharacterClass(regex, i);
+                    flushLiteral(run, literals);
+                    break;
+                case '(':
+                    groupDepth++;
+                    flushLiteral(run, literals);
+                    break;
+                case ')':
+                    groupDepth = Math.max(0, groupDepth - 1);
+                    flushLiteral(run, literals);
+                    break;
+                case '*':
+                case '?':
+                case '{':
+                    if (groupDepth == 0 && run.length() > 0) {
+                        // previous character is optional
+                        run.setLength(run.length() - 1);
+                    }
+                    flushLiteral(run, literals);
+                    if (c == '{') {
+                        final int end = regex.indexOf('}', i);
+                        i = end < 0 ? length : end;
+                    }
+                    break;
+                case '|':
+                    if (groupDepth == 0) {
+                        return emptyList();
+                    }
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                case '+':
+                    flushLiteral(run, literals);
+                    break;
+                default:
+                    if (groupDepth == 0) {
+                        run.append(c);
+                    }
+            }
+        }
+        flushLiteral(run, literals);
+        return literals;
+    }
+
+    private static int skipCharacterClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            // ']' right after '[' is literal
+            i++;
+        }
+        for (; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return regex.length();
+    }
+
+    private static void flushLiteral(StringBuilder run, List<String> literals) {
+        if (run.length() >= 3) {
+            literals.add(run.toString());
+        }
+        run.setLength(0);
+    }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.VirtualFileFilters;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.util.Set;
+
+import static com.google.common.collect.Iterables.transform;
+import static com.google.common.collect.Sets.newHashSet;
+
+/**
+ * Provides {@link TrigramLuceneSearcher} for literal substring and regular expression search. It is used instead of {@link
+ * FSLuceneSearcherProvider} if configuration property {@code vfs.local.fs_index_type} is {@code trigram}, see {@link
+ * ConfiguredSearcherProvider}. Trigram index is kept in sibling directory of index root directory since layout of the index is not
+ * compatible with index of {@link FSLuceneSearcher}.
+ */
+@Singleton
+public class TrigramLuceneSearcherProvider extends AbstractLuceneSearcherProvider {
+    private final File    indexDirectory;
+    private final boolean persistent;
+
+    /**
+     * @param indexRootDirectory
+     *         root directory for creation index
+     * @param excludePatterns
+     *         set filter for files that should not be indexed
+     * @param persistent
+     *         {@code true} to keep index between restarts and reindex only files changed since index was closed
+     * @see TrigramLuceneSearcher
+     */
+    @Inject
+    public TrigramLuceneSearcherProvider(@Named("vfs.local.fs_index_root_dir") File indexRootDirectory,
+                                         @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
+                                         @Named("vfs.local.fs_index_persistent") boolean persistent) throws IOException {
+        super(newHashSet(transform(excludePatterns, VirtualFileFilters::wrap)));
+        this.indexDirectory = new File(indexRootDirectory.getAbsoluteFile().getParentFile(), indexRootDirectory.getName() + "_trigram");
+        this.persistent = persistent;
+        Files.createDirectories(indexDirectory.toPath());
+    }
+
+    @Override
+    protected LuceneSearcher createLuceneSearcher(CloseCallback closeCallback) {
+        return new TrigramLuceneSearcher(indexDirectory, excludeFileIndexFilters, closeCallback, persistent);
+    }
+}
@@ -11,18 +11,28 @@
 package org.eclipse.che.api.vfs.util;
 
 import org.apache.commons.io.input.CountingInputStream;
+import org.eclipse.che.api.core.util.FileCleaner;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.FileInputStream;
+import java.io.Closeable;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Enumeration;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
-/** @author andrew00x */
-public final class ZipContent {
+/**
+ * Spools zip stream once, in memory or in temporary file, and checks it isn't zip bomb. Zip spooled in file is checked with sizes of
+ * entries from its central directory without inflating it, the same file is then used for random access to entries with {@link
+ * #getZipFile()}. Instance must be closed to release the temporary file.
+ *
+ * @author andrew00x
+ */
+public final class ZipContent implements Closeable {
     /** Memory threshold. If zip stream over this size it spooled in file. */
     private static final int  KEEP_IN_MEMORY_THRESHOLD = 200 * 1024;
     private static final int  COPY_BUFFER_SIZE         = 8 * 1024;
@@ -36,9 +46,6 @@ public final class ZipContent {
     private static final int  ZIP_RATIO                = 100;
 
     public static ZipContent of(InputStream in) throws IOException {
-        java.io.File file = null;
-        byte[] inMemory = null;
-
         int count = 0;
         ByteArrayOutputStream inMemorySpool = new ByteArrayOutputStream(KEEP_IN_MEMORY_THRESHOLD);
 
@@ -49,21 +56,33 @@ public final class ZipContent {
             count += bytes;
         }
 
-        InputStream spool;
-        if (count > KEEP_IN_MEMORY_THRESHOLD) {
-            file = java.io.File.createTempFile("import", ".zip");
+        if (count <= KEEP_IN_MEMORY_THRESHOLD) {
+            byte[] inMemory = inMemorySpool.toByteArray();
+            checkZipStream(new ByteArrayInputStream(inMemory));
+            return new ZipContent(inMemory, null);
+        }
+
+        java.io.File file = java.io.File.createTempFile("import", ".zip");
+        boolean success = false;
+        try {
             try (FileOutputStream fileSpool = new FileOutputStream(file)) {
                 inMemorySpool.writeTo(fileSpool);
                 while ((bytes = in.read(buff)) != -1) {
                     fileSpool.write(buff, 0, bytes);
                 }
             }
-            spool = new FileInputStream(file);
-        } else {
-            inMemory = inMemorySpool.toByteArray();
-            spool = new ByteArrayInputStream(inMemory);
+            checkCentralDirectory(file);
+            success = true;
+            return new ZipContent(null, file);
+        } finally {
+            if (!success) {
+                FileCleaner.addFile(file);
+            }
         }
+    }
 
+    private static void checkZipStream(InputStream spool) throws IOException {
+        final byte[] buff = new byte[COPY_BUFFER_SIZE];
         try (CountingInputStream compressedDataCounter = new CountingInputStream(spool);
              ZipInputStream zip = new ZipInputStream(compressedDataCounter)) {
             try (CountingInputStream uncompressedDataCounter = new CountingInputStream(zip)) {
@@ -71,29 +90,137 @@ public final class ZipContent {
                 while ((zipEntry = zip.getNextEntry()) != null) {
                     if (!zipEntry.isDirectory()) {
                         while (uncompressedDataCounter.read(buff) != -1) {
-                            long uncompressedBytes = uncompressedDataCounter.getByteCount();
-                            if (uncompressedBytes > ZIP_THRESHOLD) {
-                                long compressedBytes = compressedDataCounter.getByteCount();
-                                if (uncompressedBytes > (ZIP_RATIO * compressedBytes)) {
-                                    throw new IOException("Zip bomb detected");
-                                }
-                            }
+                            checkRatio(uncompressedDataCounter.getByteCount(), compressedDataCounter.getByteCount());
                         }
                     }
                 }
             }
+        }
+    }
 
-            return new ZipContent(inMemory == null ? new DeleteOnCloseFileInputStream(file) : new ByteArrayInputStream(inMemory));
+    /**
+     * Checks compression ratio with sizes declared in central directory. Declared sizes are verified later while entries are read, see
+     * {@link #getEntryContent(ZipEntry)}.
+     */
+    private static void checkCentralDirectory(java.io.File file) throws IOException {
+        try (ZipFile zipFile = new ZipFile(file)) {
+            long uncompressedBytes = 0;
+            long compressedBytes = 0;
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry zipEntry = entries.nextElement();
+                if (!zipEntry.isDirectory()) {
+                    if (zipEntry.getSize() < 0 || zipEntry.getCompressedSize() < 0) {
+                        throw new IOException(String.format("Unknown size of zip entry '%s'", zipEntry.getName()));
+                    }
+                    uncompressedBytes += zipEntry.getSize();
+                    compressedBytes += zipEntry.getCompressedSize();
+                    checkRatio(uncompressedBytes, compressedBytes);
+                }
+            }
+        }
+    }
+
+    private static void checkRatio(long uncompressedBytes, long compressedBytes) throws IOException {
+        if (uncompressedBytes > ZIP_THRESHOLD && uncompressedBytes > (ZIP_RATIO * compressedBytes)) {
+            throw new IOException("Zip bomb detected");
         }
     }
 
-    private final InputStream zipContent;
+    private final byte[]       inMemory;
+    private final java.io.File file;
+    private       ZipFile      zipFile;
+    private       InputStream  zipContent;
 
-    private ZipContent(InputStream zipContent) {
-        this.zipContent = zipContent;
+    private ZipContent(byte[] inMemory, java.io.File file) {
+        this.inMemory = inMemory;
+        this.file = file;
     }
 
-    public InputStream getContent() {
+    /**
+     * Returns zip stream. If zip is spooled in file the file is deleted when returned stream is closed, after that this instance may
+     * not be used for access to entries.
+     */
+    public InputStream getContent() throws IOException {
+        if (zipContent == null) {
+            zipContent = inMemory == null ? new DeleteOnCloseFileInputStream(file) : new ByteArrayInputStream(inMemory);
+        }
         return zipContent;
     }
+
+    /** Returns random access to zip spooled in file or {@code null} if zip is small enough to be kept in memory. */
+    public ZipFile getZipFile() throws IOException {
+        if (file == null) {
+            return null;
+        }
+        if (zipFile == null) {
+            zipFile = new ZipFile(file);
+        }
+        return zipFile;
+    }
+
+    /**
+     * Returns content of entry of zip spooled in file. Returned stream fails if entry contains more bytes than declared in central
+     * directory since only declared sizes are checked for compression ratio.
+     */
+    public InputStream getEntryContent(ZipEntry zipEntry) throws IOException {
+        return new SizeLimitedInputStream(getZipFile().getInputStream(zipEntry), zipEntry.getSize(), zipEntry.getName());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (zipFile != null) {
+                zipFile.close();
+            }
+        } finally {
+            if (file != null && zipContent == null) {
+                FileCleaner.addFile(file);
+            }
+        }
+    }
+
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private final long   limit;
+        private final String name;
+        private       long   count;
+
+        SizeLimitedInputStream(InputStream in, long limit, String name) {
+            super(in);
+            this.limit = limit;
+            this.name = name;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int bytes = super.read(b, off, len);
+            if (bytes > 0) {
+                count(bytes);
+            }
+            return bytes;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long bytes) throws IOException {
+            count += bytes;
+            if (count > limit) {
+                throw new IOException(String.format("Size of zip entry '%s' exceeds declared size %d", name, limit));
+            }
+        }
+    }
 }
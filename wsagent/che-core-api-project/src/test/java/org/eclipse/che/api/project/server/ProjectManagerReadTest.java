@@ -13,7 +13,12 @@ package org.eclipse.che.api.project.server;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
 import org.eclipse.che.api.project.server.type.BaseProjectType;
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
+import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProviderFactory;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.junit.Before;
@@ -23,7 +28,9 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -190,6 +197,23 @@ public class ProjectManagerReadTest extends WsAgentTestBase {
 
     }
 
+    @Test
+    public void testGetProjectsUnderPath() throws Exception {
+        new File(root, "/normal-copy").mkdir();
+        workspaceHolder.addProject(DtoFactory.newDto(ProjectConfigDto.class)
+                                             .withPath("/normal-copy")
+                                             .withName("copy")
+                                             .withType("primary1"));
+        projectRegistry = new ProjectRegistry(workspaceHolder, vfsProvider, projectTypeRegistry, projectHandlerRegistry, eventService);
+        projectRegistry.initProjects();
+
+        assertEquals(singletonList("/normal/module"), projectRegistry.getProjects("/normal"));
+        assertEquals(singletonList("/normal/module"), projectRegistry.getProjects("normal/"));
+        assertTrue(projectRegistry.getProjects("/normal/module").isEmpty());
+        assertEquals(5, projectRegistry.getProjects("/").size());
+        assertEquals("/normal-copy", projectRegistry.getParentProject("/normal-copy/src/Main.java").getPath());
+    }
+
     @Test
     public void testSerializeProject() throws Exception {
         ProjectConfig config = DtoConverter.asDto(pm.getProject("/fromConfig"));
@@ -232,6 +256,62 @@ public class ProjectManagerReadTest extends WsAgentTestBase {
 
     }
 
+    @Test
+    public void testProvidedValueIsReadAtStartupAndCachedUntilDependencyChanged() throws Exception {
+        new File(root, "/lazy").mkdir();
+        workspaceHolder.addProject(DtoFactory.newDto(ProjectConfigDto.class)
+                                             .withPath("/lazy")
+                                             .withName("lazy")
+                                             .withType("lazyPT"));
+
+        LazyPT lazyPT = new LazyPT();
+        ProjectTypeRegistry projectTypeRegistry = new ProjectTypeRegistry(new HashSet<>());
+        projectTypeRegistry.registerProjectType(new PT1());
+        projectTypeRegistry.registerProjectType(lazyPT);
+
+        projectRegistry = new ProjectRegistry(workspaceHolder, vfsProvider, projectTypeRegistry, projectHandlerRegistry, eventService);
+        projectRegistry.initProjects();
+
+        assertEquals(1, lazyPT.reads.get());
+
+        RegisteredProject project = projectRegistry.getProject("/lazy");
+        assertEquals("1", project.getAttributeEntries().get("lazy-provided").getString());
+        assertEquals("1", project.getAttributeEntries().get("lazy-provided").getString());
+
+        projectRegistry.invalidateProvidedValues(Path.of("/lazy/src/Main.java"));
+        assertEquals("1", project.getAttributeEntries().get("lazy-provided").getString());
+
+        projectRegistry.invalidateProvidedValues(Path.of("/lazy/build.txt"));
+        assertEquals("2", project.getAttributeEntries().get("lazy-provided").getString());
+        assertEquals(2, lazyPT.reads.get());
+    }
+
+    private static class LazyPT extends ProjectTypeDef {
+        final AtomicInteger reads = new AtomicInteger();
+
+        LazyPT() {
+            super("lazyPT", "lazyPT", true, false);
+            addVariableDefinition("lazy-provided", "", false, new LazyValueProviderFactory());
+        }
+
+        private class LazyValueProviderFactory implements ValueProviderFactory {
+            @Override
+            public ValueProvider newInstance(FolderEntry projectFolder) {
+                return new ReadonlyValueProvider() {
+                    @Override
+                    public List<String> getValues(String attributeName) {
+                        return singletonList(String.valueOf(reads.incrementAndGet()));
+                    }
+
+                    @Override
+                    public List<String> getDependencies() {
+                        return singletonList("build.txt");
+                    }
+                };
+            }
+        }
+    }
+
 
 
 }
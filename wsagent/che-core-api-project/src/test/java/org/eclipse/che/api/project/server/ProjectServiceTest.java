@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -17,17 +22,21 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.project.SourceStorage;
 import org.eclipse.che.api.core.model.project.type.Attribute;
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.ApiExceptionMapper;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.api.core.util.PagingUtil;
 import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.api.project.server.handlers.CreateProjectHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
 import org.eclipse.che.api.project.server.importer.ProjectImporter;
 import org.eclipse.che.api.project.server.importer.ProjectImporterRegistry;
+import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
+import org.eclipse.che.api.project.server.notification.ProjectItemsModifiedEvent;
 import org.eclipse.che.api.project.server.type.AttributeValue;
 import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
@@ -35,9 +44,14 @@ import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
 import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
+import org.eclipse.che.api.project.shared.dto.FileEdits;
+import org.eclipse.che.api.project.shared.dto.FileOperation;
+import org.eclipse.che.api.project.shared.dto.FileOperationResult;
+import org.eclipse.che.api.project.shared.dto.FileOperationsBatch;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TextEdit;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.user.server.spi.UserDao;
 import org.eclipse.che.api.vfs.Path;
@@ -78,6 +92,7 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.EntityTag;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -106,6 +121,7 @@ import java.util.stream.IntStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.singletonList;
 import static javax.ws.rs.HttpMethod.DELETE;
 import static javax.ws.rs.HttpMethod.GET;
@@ -122,6 +138,7 @@ import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertEqualsNoOrder;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 
 /**
  * @author andrew00x
@@ -151,6 +168,7 @@ public class ProjectServiceTest {
     private ProjectManager         pm;
     private ResourceLauncher       launcher;
     private ProjectHandlerRegistry phRegistry;
+    private EventService           eventService;
 
     private org.eclipse.che.commons.env.EnvironmentContext env;
 
@@ -211,7 +229,7 @@ public class ProjectServiceTest {
 
         vfsProvider = new LocalVirtualFileSystemProvider(root, sProvider);
 
-        final EventService eventService = new EventService();
+        eventService = new EventService();
 
         // PTs for test
         ProjectTypeDef chuck = new ProjectTypeDef("chuck_project_type", "chuck_project_type", true, false) {
@@ -843,6 +861,81 @@ public class ProjectServiceTest {
         assertEquals(new String(writer.getBody()), myContent);
     }
 
+    @Test
+    public void testGetFileContentRange() throws Exception {
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", "to be or not to be".getBytes(UTF_8));
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=6-11"));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range"), "bytes 6-11/18");
+        assertEquals(new String(writer.getBody(), UTF_8), "or not");
+
+        headers.put("Range", singletonList("bytes=-2"));
+        writer = new ByteArrayContainerResponseWriter();
+        response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                    "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(new String(writer.getBody(), UTF_8), "be");
+
+        headers.put("Range", singletonList("bytes=18-"));
+        response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                    "http://localhost:8080/api", headers, null, null);
+        assertEquals(response.getStatus(), 416);
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range"), "bytes */18");
+    }
+
+    @Test
+    public void testGetFileContentIfNoneMatch() throws Exception {
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", "to be or not to be".getBytes(UTF_8));
+        // hash sum of content is used as tag only if it is already counted
+        pm.asFile("my_project/test.txt").getVirtualFile().countMd5SumTree();
+        String tag = new EntityTag(Hashing.md5().hashBytes("to be or not to be".getBytes(UTF_8)).toString()).toString();
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", singletonList(tag));
+        ContainerResponse response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, null);
+        assertEquals(response.getStatus(), 304);
+
+        pm.asFile("my_project/test.txt").updateContent("to be".getBytes(UTF_8));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                    "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(new String(writer.getBody(), UTF_8), "to be");
+    }
+
+    @Test
+    public void testGetFileContentWithWeakTagIfHashSumIsNotCounted() throws Exception {
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", "to be or not to be".getBytes(UTF_8));
+
+        ContainerResponse response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        EntityTag tag = EntityTag.valueOf(response.getHttpHeaders().getFirst("ETag").toString());
+        assertTrue(tag.isWeak());
+
+        // weak tag doesn't match If-Range, whole content is sent
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=6-11"));
+        headers.put("If-Range", singletonList(tag.toString()));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                    "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(new String(writer.getBody(), UTF_8), "to be or not to be");
+
+        pm.asFile("my_project/test.txt").getVirtualFile().countMd5SumTree();
+        response = launcher.service(GET, "http://localhost:8080/api/project/file/my_project/test.txt",
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(EntityTag.valueOf(response.getHttpHeaders().getFirst("ETag").toString()),
+                     new EntityTag(Hashing.md5().hashBytes("to be or not to be".getBytes(UTF_8)).toString()));
+    }
+
     @Test
     public void testUpdateFileContent() throws Exception {
         String myContent = "<test>hello</test>";
@@ -999,6 +1092,114 @@ public class ProjectServiceTest {
         executor.shutdown();
     }
 
+    @Test
+    public void testApplyFileOperations() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a/b");
+        ((FolderEntry)myProject.getBaseFolder().getChild("a")).createFile("old.txt", "old".getBytes(Charset.defaultCharset()));
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, singletonList(APPLICATION_JSON));
+
+        FileOperationsBatch batch = DtoFactory.newDto(FileOperationsBatch.class).withOperations(
+                Arrays.asList(DtoFactory.newDto(FileOperation.class).withType(FileOperation.CREATE_FOLDER).withPath("/my_project/c"),
+                              DtoFactory.newDto(FileOperation.class).withType(FileOperation.CREATE_FILE)
+                                        .withPath("/my_project/c/new.txt").withContent("new"),
+                              DtoFactory.newDto(FileOperation.class).withType(FileOperation.UPDATE)
+                                        .withPath("/my_project/a/old.txt").withContent("updated"),
+                              DtoFactory.newDto(FileOperation.class).withType(FileOperation.COPY)
+                                        .withPath("/my_project/a/old.txt").withTo("/my_project/a/b"),
+                              DtoFactory.newDto(FileOperation.class).withType(FileOperation.MOVE)
+                                        .withPath("/my_project/c/new.txt").withTo("/my_project/a").withName("moved.txt"),
+                              DtoFactory.newDto(FileOperation.class).withType(FileOperation.DELETE).withPath("/my_project/c"),
+                              DtoFactory.newDto(FileOperation.class).withType(FileOperation.DELETE).withPath("/my_project/c")));
+
+        Map<String, ProjectItemModifiedEvent.EventType> changes = new HashMap<>();
+        eventService.subscribe(new EventSubscriber<ProjectItemsModifiedEvent>() {
+            @Override
+            public void onEvent(ProjectItemsModifiedEvent event) {
+                event.getEvents().forEach(change -> changes.put(change.getPath(), change.getType()));
+            }
+        });
+
+        ContainerResponse response = launcher.service(POST, "http://localhost:8080/api/project/batch",
+                                                      "http://localhost:8080/api", headers,
+                                                      DtoFactory.getInstance().toJson(batch).getBytes(Charset.defaultCharset()), null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<FileOperationResult> results = (List<FileOperationResult>)response.getEntity();
+        assertEquals(results.stream().map(FileOperationResult::getStatus).collect(Collectors.toList()),
+                     Arrays.asList(201, 201, 200, 201, 201, 200, 404));
+        // file created and then moved is reported as created at the new location
+        Map<String, ProjectItemModifiedEvent.EventType> expectedChanges = new HashMap<>();
+        expectedChanges.put("/my_project/a/old.txt", ProjectItemModifiedEvent.EventType.UPDATED);
+        expectedChanges.put("/my_project/a/b/old.txt", ProjectItemModifiedEvent.EventType.CREATED);
+        expectedChanges.put("/my_project/a/moved.txt", ProjectItemModifiedEvent.EventType.CREATED);
+        assertEquals(changes, expectedChanges);
+        assertEquals(results.get(3).getPath(), "/my_project/a/b/old.txt");
+        assertEquals(results.get(4).getPath(), "/my_project/a/moved.txt");
+
+        FolderEntry baseFolder = myProject.getBaseFolder();
+        assertEquals(new String(((FileEntry)baseFolder.getChild("a/old.txt")).contentAsBytes()), "updated");
+        assertEquals(new String(((FileEntry)baseFolder.getChild("a/b/old.txt")).contentAsBytes()), "updated");
+        assertEquals(new String(((FileEntry)baseFolder.getChild("a/moved.txt")).contentAsBytes()), "new");
+        assertNull(baseFolder.getChild("c"));
+    }
+
+    @Test
+    public void testEditFile() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFile("edit.txt", "to be or not to be".getBytes(UTF_8));
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, singletonList(APPLICATION_JSON));
+
+        String version = Hashing.md5().hashBytes("to be or not to be".getBytes(UTF_8)).toString();
+        FileEdits edits = DtoFactory.newDto(FileEdits.class).withVersion(version).withEdits(
+                Arrays.asList(DtoFactory.newDto(TextEdit.class).withStart(9).withEnd(18).withText("!"),
+                              DtoFactory.newDto(TextEdit.class).withStart(0).withEnd(2).withText("To")));
+
+        ContainerResponse response = launcher.service(POST, "http://localhost:8080/api/project/edit/my_project/edit.txt",
+                                                      "http://localhost:8080/api", headers,
+                                                      DtoFactory.getInstance().toJson(edits).getBytes(UTF_8), null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(new String(((FileEntry)myProject.getBaseFolder().getChild("edit.txt")).contentAsBytes(), UTF_8), "To be or !");
+
+        // version is not actual any more
+        response = launcher.service(POST, "http://localhost:8080/api/project/edit/my_project/edit.txt",
+                                    "http://localhost:8080/api", headers,
+                                    DtoFactory.getInstance().toJson(edits).getBytes(UTF_8), null);
+        assertEquals(response.getStatus(), 409);
+
+        // overlapped edits
+        edits.withVersion(Hashing.md5().hashBytes("To be or !".getBytes(UTF_8)).toString())
+             .withEdits(Arrays.asList(DtoFactory.newDto(TextEdit.class).withStart(0).withEnd(5).withText(""),
+                                      DtoFactory.newDto(TextEdit.class).withStart(3).withEnd(6).withText("")));
+        response = launcher.service(POST, "http://localhost:8080/api/project/edit/my_project/edit.txt",
+                                    "http://localhost:8080/api", headers,
+                                    DtoFactory.getInstance().toJson(edits).getBytes(UTF_8), null);
+        assertEquals(response.getStatus(), 400);
+        assertEquals(new String(((FileEntry)myProject.getBaseFolder().getChild("edit.txt")).contentAsBytes(), UTF_8), "To be or !");
+    }
+
+    @Test
+    public void testEditFileWhichIsNotUtf8Text() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        byte[] content = {'a', (byte)0xC3, 'b', (byte)0xFF};
+        myProject.getBaseFolder().createFile("binary.dat", content);
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, singletonList(APPLICATION_JSON));
+
+        FileEdits edits = DtoFactory.newDto(FileEdits.class).withVersion(Hashing.md5().hashBytes(content).toString()).withEdits(
+                singletonList(DtoFactory.newDto(TextEdit.class).withStart(0).withEnd(1).withText("c")));
+
+        ContainerResponse response = launcher.service(POST, "http://localhost:8080/api/project/edit/my_project/binary.dat",
+                                                      "http://localhost:8080/api", headers,
+                                                      DtoFactory.getInstance().toJson(edits).getBytes(UTF_8), null);
+        assertEquals(response.getStatus(), 400);
+        assertEquals(((FileEntry)myProject.getBaseFolder().getChild("binary.dat")).contentAsBytes(), content);
+    }
+
     @Test
     public void testCopyFile() throws Exception {
         RegisteredProject myProject = pm.getProject("my_project");
@@ -1588,6 +1789,73 @@ public class ProjectServiceTest {
         Assert.assertTrue(names.contains("x/y"));
     }
 
+    @Test
+    public void testGetTreeEntries() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b/c");
+        a.createFolder("x").createFile("test.txt", "test".getBytes(Charset.defaultCharset()));
+        a.createFile("z.txt", "test".getBytes(Charset.defaultCharset()));
+
+        JsonObject entries = getTreeEntries("my_project/a?depth=2");
+
+        assertEquals(entryPaths(entries), Arrays.asList("/my_project/a/b", "/my_project/a/b/c", "/my_project/a/x",
+                                                        "/my_project/a/x/test.txt", "/my_project/a/z.txt"));
+        JsonObject file = entries.getAsJsonArray("entries").get(3).getAsJsonObject();
+        assertEquals(file.get("name").getAsString(), "test.txt");
+        assertEquals(file.get("type").getAsString(), "file");
+        assertEquals(file.get("length").getAsLong(), 4);
+        Assert.assertFalse(file.has("links"));
+        Assert.assertFalse(entries.has("next"));
+    }
+
+    @Test
+    public void testGetTreeEntriesWithFilters() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("node_modules").createFile("index.js", "test".getBytes(Charset.defaultCharset()));
+        a.createFolder("src").createFile("A.java", "test".getBytes(Charset.defaultCharset()));
+        a.getChildFolder("src").createFile("README", "test".getBytes(Charset.defaultCharset()));
+
+        JsonObject entries = getTreeEntries("my_project/a?depth=5&name=*.java&exclude=node_modules");
+
+        assertEquals(entryPaths(entries), Arrays.asList("/my_project/a/src", "/my_project/a/src/A.java"));
+    }
+
+    @Test
+    public void testGetTreeEntriesWithContinuation() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b").createFile("1.txt", "test".getBytes(Charset.defaultCharset()));
+        a.getChildFolder("b").createFile("2.txt", "test".getBytes(Charset.defaultCharset()));
+        a.createFile("c.txt", "test".getBytes(Charset.defaultCharset()));
+
+        JsonObject first = getTreeEntries("my_project/a?depth=2&maxItems=2");
+        assertEquals(entryPaths(first), Arrays.asList("/my_project/a/b", "/my_project/a/b/1.txt"));
+        assertEquals(first.get("next").getAsString(), "b/1.txt");
+
+        JsonObject second = getTreeEntries("my_project/a?depth=2&maxItems=2&after=" + first.get("next").getAsString());
+        assertEquals(entryPaths(second), Arrays.asList("/my_project/a/b/2.txt", "/my_project/a/c.txt"));
+        Assert.assertFalse(second.has("next"));
+    }
+
+    private JsonObject getTreeEntries(String pathAndQuery) throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/entries/" + pathAndQuery,
+                                                      "http://localhost:8080/api", null, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        return new JsonParser().parse(new String(writer.getBody(), UTF_8)).getAsJsonObject();
+    }
+
+    private List<String> entryPaths(JsonObject entries) {
+        List<String> paths = new ArrayList<>();
+        for (JsonElement entry : entries.getAsJsonArray("entries")) {
+            paths.add(entry.getAsJsonObject().get("path").getAsString());
+        }
+        return paths;
+    }
+
     @Test
     public void testGetTreeWithDepthAndIncludeFiles() throws Exception {
         RegisteredProject myProject = pm.getProject("my_project");
@@ -1700,6 +1968,38 @@ public class ProjectServiceTest {
         Assert.assertTrue(paths.contains("/my_project/x/y/__test.txt"));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSearchNextPageWithContinuationToken() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a").createFile("test.txt", "searchhit".getBytes(Charset.defaultCharset()));
+        myProject.getBaseFolder().createFolder("b").createFile("test.txt", "searchhit".getBytes(Charset.defaultCharset()));
+        myProject.getBaseFolder().createFolder("c").createFile("test.txt", "searchhit".getBytes(Charset.defaultCharset()));
+        myProject.getBaseFolder().createFolder("d").createFile("test.txt", "searchhit".getBytes(Charset.defaultCharset()));
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search/my_project?text=searchhit&maxItems=2",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> firstPage = (List<ItemReference>)response.getEntity();
+        assertEquals(firstPage.size(), 2);
+        String next = PagingUtil.parseLinkHeader((String)response.getHttpHeaders().getFirst("Link")).get("next");
+        assertNotNull(next);
+        Assert.assertTrue(next.contains("continuationToken="));
+        Assert.assertTrue(next.contains("skipCount=2"));
+
+        response = launcher.service(GET, next, "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> secondPage = (List<ItemReference>)response.getEntity();
+        assertEquals(secondPage.size(), 2);
+        assertNull(response.getHttpHeaders().getFirst("Link"));
+        Set<String> paths = new HashSet<>();
+        firstPage.forEach(item -> paths.add(item.getPath()));
+        secondPage.forEach(item -> paths.add(item.getPath()));
+        assertEquals(paths, new HashSet<>(Arrays.asList("/my_project/a/test.txt", "/my_project/b/test.txt",
+                                                        "/my_project/c/test.txt", "/my_project/d/test.txt")));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testSearchByTextWhenFileWasNotIndexed() throws Exception {
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
+import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProviderFactory;
+import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProjectTypesDetectorTest extends WsAgentTestBase {
+    private FolderEntry folder;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        folder = pm.getProjectsRoot().createFolder("detect");
+        folder.createFile("pom.xml", "<project/>".getBytes(UTF_8));
+    }
+
+    @Test
+    public void returnsMatchedTypesInOrderOfConfidence() throws Exception {
+        List<ProjectTypeDef> types = newArrayList(new DetectedPT("one", 0, "pom.xml"),
+                                                  new DetectedPT("none", 0, "package.json"),
+                                                  new DetectedPT("two", 0, "pom.xml", "pom.xml"));
+
+        List<ProjectTypeResolution> resolutions = new ProjectTypesDetector().detect(folder, types);
+
+        assertEquals(newArrayList("two", "one"), types(resolutions));
+    }
+
+    @Test
+    public void skipsTypeWhichIsNotCheckedDuringTimeBudget() throws Exception {
+        List<ProjectTypeDef> types = newArrayList(new DetectedPT("slow", 5000, "pom.xml"),
+                                                  new DetectedPT("fast", 0, "pom.xml"));
+
+        List<ProjectTypeResolution> resolutions = new ProjectTypesDetector(200).detect(folder, types);
+
+        assertEquals(newArrayList("fast"), types(resolutions));
+    }
+
+    @Test
+    public void boundsDetectionTimeFromSubmissionOfTypes() throws Exception {
+        List<ProjectTypeDef> types = newArrayList();
+        for (int i = 0; i < 2 * Runtime.getRuntime().availableProcessors(); i++) {
+            types.add(new DetectedPT("slow" + i, 1000, "pom.xml"));
+        }
+
+        long start = System.currentTimeMillis();
+        List<ProjectTypeResolution> resolutions = new ProjectTypesDetector(200).detect(folder, types);
+
+        assertTrue(resolutions.isEmpty());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    private List<String> types(List<ProjectTypeResolution> resolutions) {
+        return resolutions.stream().map(ProjectTypeResolution::getType).collect(Collectors.toList());
+    }
+
+    /** Type that requires specified files, each file gives one provided attribute. */
+    private static class DetectedPT extends ProjectTypeDef {
+        DetectedPT(String id, long delay, String... requiredFiles) {
+            super(id, id, true, false);
+            for (int i = 0; i < requiredFiles.length; i++) {
+                addVariableDefinition(id + "-file" + i, "", true, new FileValueProviderFactory(requiredFiles[i], delay));
+            }
+        }
+    }
+
+    private static class FileValueProviderFactory implements ValueProviderFactory {
+        final String file;
+        final long   delay;
+
+        FileValueProviderFactory(String file, long delay) {
+            this.file = file;
+            this.delay = delay;
+        }
+
+        @Override
+        public ValueProvider newInstance(FolderEntry projectFolder) {
+            return new ReadonlyValueProvider() {
+                @Override
+                public List<String> getValues(String attributeName) throws ValueStorageException {
+                    try {
+                        Thread.sleep(delay);
+                        final FileEntry fileEntry = (FileEntry)projectFolder.getChild(file);
+                        if (fileEntry == null) {
+                            return Collections.emptyList();
+                        }
+                        return Collections.singletonList(new String(fileEntry.contentAsBytes(), UTF_8));
+                    } catch (Exception e) {
+                        throw new ValueStorageException(e.getMessage());
+                    }
+                }
+            };
+        }
+    }
+}
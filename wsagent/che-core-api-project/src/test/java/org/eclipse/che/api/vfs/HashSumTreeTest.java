@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import org.junit.Test;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashSumTreeTest {
+    private static final HashFunction MD5 = Hashing.md5();
+
+    @Test
+    public void folderHashDoesNotDependOnOrderOfChildren() throws Exception {
+        HashSumTree one = HashSumTree.folder("a", newArrayList(HashSumTree.file("x", "1"), HashSumTree.file("y", "2")), MD5);
+        HashSumTree two = HashSumTree.folder("a", newArrayList(HashSumTree.file("y", "2"), HashSumTree.file("x", "1")), MD5);
+
+        assertEquals(one.getHash(), two.getHash());
+    }
+
+    @Test
+    public void folderHashDependsOnNamesOfChildren() throws Exception {
+        HashSumTree one = HashSumTree.folder("a", newArrayList(HashSumTree.file("x", "1")), MD5);
+        HashSumTree two = HashSumTree.folder("a", newArrayList(HashSumTree.file("z", "1")), MD5);
+
+        assertNotEquals(one.getHash(), two.getHash());
+    }
+
+    @Test
+    public void returnsNothingWhenTreesAreSame() throws Exception {
+        assertTrue(HashSumTree.diff(createTree("1"), createTree("1")).isEmpty());
+    }
+
+    @Test
+    public void findsChangedAddedAndRemovedFiles() throws Exception {
+        HashSumTree left = HashSumTree.folder("", newArrayList(HashSumTree.file("removed", "1"),
+                                                               HashSumTree.file("changed", "2"),
+                                                               createTree("3")), MD5);
+        HashSumTree right = HashSumTree.folder("", newArrayList(HashSumTree.file("added", "1"),
+                                                                HashSumTree.file("changed", "5"),
+                                                                createTree("3")), MD5);
+
+        assertEquals(newArrayList("added", "changed", "removed"), HashSumTree.diff(left, right));
+    }
+
+    @Test
+    public void findsFilesInChangedSubtreeOnly() throws Exception {
+        HashSumTree left = HashSumTree.folder("", newArrayList(createTree("1"), HashSumTree.file("file", "2")), MD5);
+        HashSumTree right = HashSumTree.folder("", newArrayList(createTree("3"), HashSumTree.file("file", "2")), MD5);
+
+        assertEquals(newArrayList("a/b/file"), HashSumTree.diff(left, right));
+    }
+
+    @Test
+    public void findsItemWhichIsFileInOneTreeAndFolderInAnother() throws Exception {
+        HashSumTree left = HashSumTree.folder("", newArrayList(HashSumTree.file("a", "1")), MD5);
+        HashSumTree right = HashSumTree.folder("", newArrayList(HashSumTree.folder("a", emptyList(), MD5)), MD5);
+
+        assertEquals(newArrayList("a"), HashSumTree.diff(left, right));
+    }
+
+    private HashSumTree createTree(String hashOfFile) {
+        HashSumTree folderB = HashSumTree.folder("b", newArrayList(HashSumTree.file("file", hashOfFile)), MD5);
+        return HashSumTree.folder("a", newArrayList(folderB), MD5);
+    }
+}
@@ -45,6 +45,23 @@ public class HashSumsCounterTest {
         assertEquals(expected, hashSums);
     }
 
+    @Test
+    public void countsHashSumTree() throws Exception {
+        VirtualFile fileAB = mockFile("/a/file", "file1".getBytes());
+        VirtualFile fileBA = mockFile("/a/b/file", "file2".getBytes());
+        VirtualFile folderB = mockFolder("/a/b", fileBA);
+        VirtualFile folderA = mockFolder("/a", folderB, fileAB);
+        VirtualFile fileCA = mockFile("/c/file", "file2".getBytes());
+        VirtualFile folderC = mockFolder("/c", fileCA);
+        Set<Pair<String, String>> expected = newHashSet(Pair.of(countMd5Sum("file1".getBytes()), "file"),
+                                                        Pair.of(countMd5Sum("file2".getBytes()), "b/file"));
+
+        HashSumTree tree = new HashSumsCounter(folderA, Hashing.md5()).countHashSumTree();
+
+        assertEquals(expected, newHashSet(tree.toHashSums()));
+        assertEquals(new HashSumsCounter(folderC, Hashing.md5()).countHashSumTree().getHash(), tree.getChild("b").getHash());
+    }
+
     private String countMd5Sum(byte[] bytes) throws Exception {
         return ByteSource.wrap(bytes).hash(Hashing.md5()).toString();
     }
@@ -53,6 +70,7 @@ public class HashSumsCounterTest {
         VirtualFile file = mock(VirtualFile.class);
         when(file.isFile()).thenReturn(true);
         when(file.getPath()).thenReturn(Path.of(path));
+        when(file.getName()).thenReturn(Path.of(path).getName());
         when(file.toString()).thenReturn(path);
         when(file.getContent()).thenReturn(new ByteArrayInputStream(content));
         accept(file);
@@ -63,6 +81,7 @@ public class HashSumsCounterTest {
         VirtualFile folder = mock(VirtualFile.class);
         when(folder.isFolder()).thenReturn(true);
         when(folder.getPath()).thenReturn(Path.of(path));
+        when(folder.getName()).thenReturn(Path.of(path).getName());
         when(folder.getChildren()).thenReturn(newArrayList(children));
         when(folder.toString()).thenReturn(path);
         accept(folder);
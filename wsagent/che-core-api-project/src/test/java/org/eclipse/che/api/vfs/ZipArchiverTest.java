@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -41,7 +42,9 @@ import java.util.zip.ZipOutputStream;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static java.util.stream.Collectors.toMap;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -92,6 +95,26 @@ public class ZipArchiverTest {
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
+    @Test
+    public void finishesArchiveButDoesNotCloseOutputStreamOfCaller() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        };
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        new ZipArchiver(folder).compress(compressedFolder);
+
+        assertFalse(closed[0]);
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+    }
+
     @Test
     public void compressesFolderToArchiveWithFilter() throws Exception {
         VirtualFile folder = createFileTreeForArchiving();
@@ -105,6 +128,53 @@ public class ZipArchiverTest {
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
+    @Test
+    public void storesAlreadyCompressedFilesWithoutCompression() throws Exception {
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        folder.createFile("image.png", TEST_CONTENT);
+        folder.createFile("text.txt", TEST_CONTENT + TEST_CONTENT + TEST_CONTENT);
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+
+        new ZipArchiver(folder).compress(compressedFolder);
+
+        Map<String, Integer> methods = newHashMap();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(compressedFolder.toByteArray()))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                methods.put(zipEntry.getName(), zipEntry.getMethod());
+            }
+        }
+        assertEquals(ZipEntry.STORED, (int)methods.get("image.png"));
+        assertEquals(ZipEntry.DEFLATED, (int)methods.get("text.txt"));
+    }
+
+    @Test
+    public void compressesBigFilesAndKeepsOrderOfEntries() throws Exception {
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        byte[] bigContent = new byte[3 * 1024 * 1024];
+        for (int i = 0; i < bigContent.length; i++) {
+            bigContent[i] = (byte)(i % 31);
+        }
+        folder.createFile("a.txt", TEST_CONTENT);
+        folder.createFile("b.bin", bigContent);
+        folder.createFile("c.txt", TEST_CONTENT);
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+
+        new ZipArchiver(folder).compress(compressedFolder);
+
+        List<String> names = newArrayList();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(compressedFolder.toByteArray()))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                names.add(zipEntry.getName());
+                if ("b.bin".equals(zipEntry.getName())) {
+                    assertArrayEquals(bigContent, ByteStreams.toByteArray(zip));
+                }
+            }
+        }
+        assertEquals(newArrayList("a.txt", "b.bin", "c.txt"), names);
+    }
+
     @Test
     public void extractsArchiveToFolder() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -118,6 +188,29 @@ public class ZipArchiverTest {
         assertEquals(readArchiveEntries(new ByteArrayInputStream(archive)), entries);
     }
 
+    @Test
+    public void extractsArchiveSpooledToFile() throws Exception {
+        byte[] smallContent = randomBytes(300 * 1024);
+        byte[] bigContent = randomBytes(2 * 1024 * 1024);
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            zipOut.putNextEntry(new ZipEntry("arc/"));
+            zipOut.putNextEntry(new ZipEntry("arc/small.bin"));
+            zipOut.write(smallContent);
+            zipOut.putNextEntry(new ZipEntry("arc/a/big.bin"));
+            zipOut.write(bigContent);
+            zipOut.putNextEntry(new ZipEntry("arc/a/_a.txt"));
+            zipOut.write(TEST_CONTENT_BYTES);
+        }
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        new ZipArchiver(folder).extract(new ByteArrayInputStream(byteOut.toByteArray()), false, 1);
+
+        assertArrayEquals(smallContent, ByteStreams.toByteArray(folder.getChild(Path.of("small.bin")).getContent()));
+        assertArrayEquals(bigContent, ByteStreams.toByteArray(folder.getChild(Path.of("a/big.bin")).getContent()));
+        assertEquals(TEST_CONTENT, folder.getChild(Path.of("a/_a.txt")).getContentAsString());
+    }
+
     @Test
     public void extractsArchiveToFolderAndSkipsRootFolderFromArchive() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -226,6 +319,12 @@ public class ZipArchiverTest {
         return arc;
     }
 
+    private byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+
     private byte[] createTestZipArchive() throws IOException {
         ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
         ZipOutputStream zipOut = new ZipOutputStream(byteOut);
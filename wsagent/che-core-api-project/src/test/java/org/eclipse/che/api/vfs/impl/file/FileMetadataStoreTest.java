@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileMetadataStoreTest {
+    private File              testDirectory;
+    private File              serviceDirectory;
+    private FileMetadataStore metadataStore;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
+        assertTrue(testDirectory.mkdir());
+        serviceDirectory = new File(testDirectory, ".vfs");
+        metadataStore = openStore(100);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        metadataStore.close();
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    @Test
+    public void restoresLocksAndPropertiesAfterReopen() throws Exception {
+        FileLock lock = new FileLock("token", Long.MAX_VALUE);
+        metadataStore.putLock(Path.of("/a/file.txt"), lock);
+        metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+
+        metadataStore.close();
+        metadataStore = openStore(100);
+
+        assertEquals(lock, metadataStore.getLock(Path.of("/a/file.txt")));
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+    }
+
+    @Test
+    public void keepsChangesInMemoryOnlyWhenLogIsNotAvailable() throws Exception {
+        metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        metadataStore.openInMemory();
+
+        metadataStore.updateProperties(Path.of("/b"), ImmutableMap.of("property2", "value2"));
+        metadataStore.copyTree(Path.of("/a"), Path.of("/c"));
+
+        assertEquals(ImmutableMap.of("property2", "value2"), metadataStore.getProperties(Path.of("/b")));
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/c")));
+
+        metadataStore.close();
+        metadataStore = openStore(100);
+
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+        assertTrue(metadataStore.getProperties(Path.of("/b")).isEmpty());
+        assertTrue(metadataStore.getProperties(Path.of("/c")).isEmpty());
+    }
+
+    @Test
+    public void removesPropertyWithNullValue() throws Exception {
+        metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value1", "property2", "value2"));
+        metadataStore.updateProperties(Path.of("/a"), singletonMap("property1", null));
+
+        assertEquals(ImmutableMap.of("property2", "value2"), metadataStore.getProperties(Path.of("/a")));
+    }
+
+    @Test
+    public void removesLocksAndPropertiesOfWholeTree() throws Exception {
+        metadataStore.putLock(Path.of("/a/b/file.txt"), new FileLock("token", Long.MAX_VALUE));
+        metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        metadataStore.updateProperties(Path.of("/a/b"), ImmutableMap.of("property1", "value1"));
+        metadataStore.updateProperties(Path.of("/ab"), ImmutableMap.of("property1", "value1"));
+
+        metadataStore.removeTree(Path.of("/a"));
+
+        assertNull(metadataStore.getLock(Path.of("/a/b/file.txt")));
+        assertTrue(metadataStore.getProperties(Path.of("/a")).isEmpty());
+        assertTrue(metadataStore.getProperties(Path.of("/a/b")).isEmpty());
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/ab")));
+    }
+
+    @Test
+    public void copiesPropertiesButNotLocksOfWholeTree() throws Exception {
+        metadataStore.putLock(Path.of("/a/b/file.txt"), new FileLock("token", Long.MAX_VALUE));
+        metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        metadataStore.updateProperties(Path.of("/a/b/file.txt"), ImmutableMap.of("property2", "value2"));
+
+        metadataStore.copyTree(Path.of("/a"), Path.of("/c"));
+
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/c")));
+        assertEquals(ImmutableMap.of("property2", "value2"), metadataStore.getProperties(Path.of("/c/b/file.txt")));
+        assertNull(metadataStore.getLock(Path.of("/c/b/file.txt")));
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+    }
+
+    @Test
+    public void movesPropertiesOfWholeTreeAndDropsLocks() throws Exception {
+        metadataStore.putLock(Path.of("/a/b/file.txt"), new FileLock("token", Long.MAX_VALUE));
+        metadataStore.updateProperties(Path.of("/a/b/file.txt"), ImmutableMap.of("property1", "value1"));
+
+        metadataStore.moveTree(Path.of("/a"), Path.of("/c"));
+        metadataStore.close();
+        metadataStore = openStore(100);
+
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/c/b/file.txt")));
+        assertTrue(metadataStore.getProperties(Path.of("/a/b/file.txt")).isEmpty());
+        assertNull(metadataStore.getLock(Path.of("/a/b/file.txt")));
+        assertNull(metadataStore.getLock(Path.of("/c/b/file.txt")));
+    }
+
+    @Test
+    public void discardsIncompleteTailOfLog() throws Exception {
+        metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        metadataStore.updateProperties(Path.of("/b"), ImmutableMap.of("property1", "value1"));
+        metadataStore.close();
+
+        File logFile = new File(serviceDirectory, FileMetadataStore.LOG_FILE_NAME);
+        try (RandomAccessFile log = new RandomAccessFile(logFile, "rw")) {
+            log.setLength(log.length() - 3);
+        }
+        metadataStore = openStore(100);
+
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+        assertTrue(metadataStore.getProperties(Path.of("/b")).isEmpty());
+
+        metadataStore.updateProperties(Path.of("/c"), ImmutableMap.of("property1", "value1"));
+        metadataStore.close();
+        metadataStore = openStore(100);
+
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/c")));
+    }
+
+    @Test
+    public void compactsLogWhenItContainsTooManyObsoleteRecords() throws Exception {
+        File logFile = new File(serviceDirectory, FileMetadataStore.LOG_FILE_NAME);
+        for (int i = 0; i < 100; i++) {
+            metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value" + i));
+        }
+        long lengthBeforeCompaction = logFile.length();
+
+        for (int i = 100; i < 200; i++) {
+            metadataStore.updateProperties(Path.of("/a"), ImmutableMap.of("property1", "value" + i));
+        }
+
+        assertTrue(logFile.length() < lengthBeforeCompaction);
+        metadataStore.close();
+        metadataStore = openStore(100);
+        assertEquals(ImmutableMap.of("property1", "value199"), metadataStore.getProperties(Path.of("/a")));
+    }
+
+    @Test
+    public void importsLegacyLockAndPropertiesFiles() throws Exception {
+        metadataStore.close();
+        IoUtil.deleteRecursive(serviceDirectory);
+
+        File folder = new File(testDirectory, "a");
+        assertTrue(folder.mkdirs());
+        File lockFile = new File(folder, ".vfs/locks/file.txt_lock");
+        assertTrue(lockFile.getParentFile().mkdirs());
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(lockFile))) {
+            new FileLockSerializer().write(output, new FileLock("token", Long.MAX_VALUE));
+        }
+        File propertiesFile = new File(testDirectory, ".vfs/props/a_props");
+        assertTrue(propertiesFile.getParentFile().mkdirs());
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(propertiesFile))) {
+            new FileMetadataSerializer().write(output, ImmutableMap.of("property1", "value1"));
+        }
+
+        metadataStore = openStore(100);
+
+        assertEquals(new FileLock("token", Long.MAX_VALUE), metadataStore.getLock(Path.of("/a/file.txt")));
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+        assertFalse(lockFile.exists());
+        assertFalse(new File(folder, ".vfs").exists());
+        assertFalse(propertiesFile.exists());
+        assertTrue(new File(serviceDirectory, FileMetadataStore.LOG_FILE_NAME).exists());
+    }
+
+    private FileMetadataStore openStore(int compactionThreshold) throws Exception {
+        FileMetadataStore store = new FileMetadataStore(testDirectory, serviceDirectory, compactionThreshold);
+        store.open();
+        return store;
+    }
+}
@@ -18,16 +18,21 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.FileSystems;
+import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.WatchKey;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -351,6 +356,50 @@ public class FileTreeWatcherTest {
         verify(notificationHandler, timeout(10000)).errorOccurred(eq(testDirectory), eq(error));
     }
 
+    @Test
+    public void registersWatchersForNotExcludedDirectories() throws Exception {
+        fileWatcherTestTree.createDirectory("", "a");
+        fileWatcherTestTree.createDirectory("a", "b");
+        fileWatcherTestTree.createDirectory("", "excluded");
+        fileWatcherTestTree.createDirectory("excluded", "c");
+
+        PathMatcher excludeMatcher = FileSystems.getDefault().getPathMatcher("glob:excluded");
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(excludeMatcher), aNotificationHandler());
+        fileWatcher.startup();
+
+        assertEquals(3, fileWatcher.getWatchedDirectoriesCount());
+        assertEquals(0, fileWatcher.getUnwatchedDirectoriesCount());
+        assertFalse(fileWatcher.isWatchLimitReached());
+    }
+
+    @Test
+    public void rescansDirectoriesLeftWithoutWatcherWhenLimitOfWatchesIsReached() throws Exception {
+        fileWatcherTestTree.createDirectory("", "unwatched");
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        AtomicInteger registered = new AtomicInteger();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler) {
+            @Override
+            WatchKey register(Path directory) throws IOException {
+                if (registered.incrementAndGet() > 1) {
+                    throw new IOException("User limit of inotify watches reached");
+                }
+                return super.register(directory);
+            }
+        };
+        fileWatcher.startup();
+
+        assertTrue(fileWatcher.isWatchLimitReached());
+        assertEquals(1, fileWatcher.getWatchedDirectoriesCount());
+        assertEquals(1, fileWatcher.getUnwatchedDirectoriesCount());
+
+        Thread.sleep(500);
+        String file = fileWatcherTestTree.createFile("unwatched");
+
+        verify(notificationHandler, timeout(15000)).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), eq(file), eq(false));
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+    }
+
     private FileWatcherNotificationHandler aNotificationHandler() {
         return mock(FileWatcherNotificationHandler.class);
     }
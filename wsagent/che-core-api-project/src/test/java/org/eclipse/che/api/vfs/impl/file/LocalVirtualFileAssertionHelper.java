@@ -16,16 +16,22 @@ import org.eclipse.che.api.vfs.Path;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class LocalVirtualFileAssertionHelper {
-    private final File testDirectory;
+    private final File              testDirectory;
+    private final FileMetadataStore metadataStore;
 
-    public LocalVirtualFileAssertionHelper(File testDirectory) {
+    public LocalVirtualFileAssertionHelper(File testDirectory, FileMetadataStore metadataStore) {
         this.testDirectory = testDirectory;
+        this.metadataStore = metadataStore;
     }
 
     public void assertThatIoFileExists(Path virtualFilePath) {
@@ -48,29 +54,26 @@ public class LocalVirtualFileAssertionHelper {
     }
 
 
-    public void assertThatMetadataIoFileDoesNotExist(Path virtualFilePath) {
-        File metadataIoFile = getMetadataIoFile(virtualFilePath);
-        assertFalse(metadataIoFile.exists());
+    public void assertThatPropertiesDoNotExist(Path virtualFilePath) {
+        assertTrue(metadataStore.getProperties(virtualFilePath).isEmpty());
     }
 
-    public void assertThatMetadataIoFilesHaveSameContent(Path fileOne, Path fileTwo) throws IOException {
-        assertArrayEquals(String.format("Same content expected for files %s and %s", fileOne, fileTwo),
-                          Files.toByteArray(getMetadataIoFile(fileOne)), Files.toByteArray(getMetadataIoFile(fileTwo)));
+    public void assertThatPropertiesAreSame(Path fileOne, Path fileTwo) {
+        assertEquals(String.format("Same properties expected for files %s and %s", fileOne, fileTwo),
+                     metadataStore.getProperties(fileOne), metadataStore.getProperties(fileTwo));
     }
 
-    public void assertThatMetadataIoFileHasContent(Path virtualFilePath, byte[] bytes) throws IOException {
-        assertArrayEquals(bytes, Files.toByteArray(getMetadataIoFile(virtualFilePath)));
+    public void assertThatPropertiesEqual(Path virtualFilePath, Map<String, String> properties) {
+        assertEquals(properties, metadataStore.getProperties(virtualFilePath));
     }
 
 
-    public void assertThatLockIoFileExists(Path virtualFilePath) {
-        File ioFile = getLockIoFile(virtualFilePath);
-        assertTrue(ioFile.exists());
+    public void assertThatLockExists(Path virtualFilePath) {
+        assertNotNull(metadataStore.getLock(virtualFilePath));
     }
 
-    public void assertThatLockIoFileDoesNotExist(Path virtualFilePath) {
-        File lockIoFile = getLockIoFile(virtualFilePath);
-        assertFalse(lockIoFile.exists());
+    public void assertThatLockDoesNotExist(Path virtualFilePath) {
+        assertNull(metadataStore.getLock(virtualFilePath));
     }
 
 
@@ -78,26 +81,6 @@ public class LocalVirtualFileAssertionHelper {
         return new File(testDirectory, toIoPath(virtualFilePath));
     }
 
-    private File getMetadataIoFile(Path virtualFilePath) {
-        Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(".vfs", "props", virtualFilePath.getName() + "_props");
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(".vfs", "props", virtualFilePath.getName() + "_props");
-        }
-        return new File(testDirectory, toIoPath(metadataFilePath));
-    }
-
-    private File getLockIoFile(Path virtualFilePath) {
-        Path lockFilePath;
-        if (virtualFilePath.isRoot()) {
-            lockFilePath = virtualFilePath.newPath(".vfs", "locks", virtualFilePath.getName() + "_lock");
-        } else {
-            lockFilePath = virtualFilePath.getParent().newPath(".vfs", "locks", virtualFilePath.getName() + "_lock");
-        }
-        return new File(testDirectory, toIoPath(lockFilePath));
-    }
-
     private String toIoPath(Path vfsPath) {
         if (vfsPath.isRoot()) {
             return "";
@@ -14,6 +14,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -22,6 +23,7 @@ import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.HashSumTree;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
@@ -39,12 +41,12 @@ import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.PathMatcher;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -53,7 +55,9 @@ import java.util.Set;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -85,7 +89,6 @@ public class LocalVirtualFileTest {
         File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
         testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
         assertTrue(testDirectory.mkdir());
-        assertionHelper = new LocalVirtualFileAssertionHelper(testDirectory);
 
         archiverFactory = mock(ArchiverFactory.class);
         SearcherProvider searcherProvider = mock(SearcherProvider.class);
@@ -96,6 +99,7 @@ public class LocalVirtualFileTest {
         searcher = mock(Searcher.class);
         when(searcherProvider.getSearcher(eq(fileSystem), eq(true))).thenReturn(searcher);
         when(searcherProvider.getSearcher(eq(fileSystem))).thenReturn(searcher);
+        assertionHelper = new LocalVirtualFileAssertionHelper(testDirectory, fileSystem.getMetadataStore());
     }
 
     @After
@@ -216,7 +220,7 @@ public class LocalVirtualFileTest {
         VirtualFile root = getRoot();
         VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
 
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatPropertiesDoNotExist(file.getPath());
         assertTrue(file.getProperties().isEmpty());
     }
 
@@ -226,7 +230,7 @@ public class LocalVirtualFileTest {
         VirtualFile file = root.createFile(generateFileName(), "");
         Map<String, String> properties = ImmutableMap.of("property1", "value1", "property2", "value2");
         file.updateProperties(properties);
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
+        assertionHelper.assertThatPropertiesEqual(file.getPath(), properties);
         assertEquals(properties, file.getProperties());
     }
 
@@ -237,7 +241,7 @@ public class LocalVirtualFileTest {
         Map<String, String> properties = ImmutableMap.of("property1", "value1");
         file.updateProperties(ImmutableMap.of("property1", "value1"));
 
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
+        assertionHelper.assertThatPropertiesEqual(file.getPath(), properties);
         assertEquals("value1", file.getProperty("property1"));
     }
 
@@ -250,7 +254,7 @@ public class LocalVirtualFileTest {
 
         Map<String, String> expected = ImmutableMap.of("property1", "valueX",
                                                        "new property1", "value3");
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
+        assertionHelper.assertThatPropertiesEqual(file.getPath(), expected);
         assertEquals(expected, file.getProperties());
     }
 
@@ -262,7 +266,7 @@ public class LocalVirtualFileTest {
         file.setProperty("property1", "value1");
 
         Map<String, String> expected = ImmutableMap.of("property1", "value1");
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
+        assertionHelper.assertThatPropertiesEqual(file.getPath(), expected);
         assertEquals(expected, file.getProperties());
     }
 
@@ -276,7 +280,7 @@ public class LocalVirtualFileTest {
 
         file.setProperty("property1", null);
 
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatPropertiesDoNotExist(file.getPath());
         assertTrue(file.getProperties().isEmpty());
     }
 
@@ -305,6 +309,108 @@ public class LocalVirtualFileTest {
         assertEquals(expected, newHashSet(folder.countMd5Sums()));
     }
 
+    @Test
+    public void countsMd5SumTree() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file1 = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        VirtualFile file2 = folder.createFolder(generateFolderName()).createFile(generateFileName(), "xxx");
+        Set<Pair<String, String>> expected = newHashSet(Pair.of(countMd5Sum(file1), file1.getPath().subPath(folder.getPath()).toString()),
+                                                        Pair.of(countMd5Sum(file2), file2.getPath().subPath(folder.getPath()).toString()));
+
+        HashSumTree tree = folder.countMd5SumTree();
+
+        assertEquals(expected, newHashSet(tree.toHashSums()));
+        assertSame(tree, folder.countMd5SumTree());
+    }
+
+    @Test
+    public void getsKnownMd5SumOfFileOnlyIfItIsCountedAndFileIsNotChanged() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        assertNull(file.getKnownMd5Sum());
+
+        folder.countMd5SumTree();
+        assertEquals(countMd5Sum(file), file.getKnownMd5Sum());
+        assertNull(folder.getKnownMd5Sum());
+
+        file.updateContent("updated content");
+        assertNull(file.getKnownMd5Sum());
+    }
+
+    @Test
+    public void recountsMd5SumsAfterUpdateOfFile() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFolder(generateFolderName()).createFile(generateFileName(), DEFAULT_CONTENT);
+        HashSumTree treeBeforeUpdate = folder.countMd5SumTree();
+
+        file.updateContent("updated content");
+        HashSumTree treeAfterUpdate = folder.countMd5SumTree();
+
+        assertEquals(newArrayList(file.getPath().subPath(folder.getPath()).toString()), HashSumTree.diff(treeBeforeUpdate, treeAfterUpdate));
+        assertEquals(newHashSet(Pair.of(countMd5Sum(file), file.getPath().subPath(folder.getPath()).toString())),
+                     newHashSet(folder.countMd5Sums()));
+    }
+
+    @Test
+    public void recountsMd5SumsOfFilesChangedOutsideOfFileSystemAfterInvalidation() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        folder.countMd5SumTree();
+
+        Files.write("changed outside".getBytes(), file.toIoFile());
+        fileSystem.invalidateCaches(file.getPath());
+
+        assertEquals(newHashSet(Pair.of(countMd5Sum(file), file.getPath().subPath(folder.getPath()).toString())),
+                     newHashSet(folder.countMd5Sums()));
+    }
+
+    @Test
+    public void getsLengthOfListedFileChangedOutsideOfFileSystemAfterInvalidation() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        VirtualFile listedFile = folder.getChildren().get(0);
+        assertEquals(DEFAULT_CONTENT_BYTES.length, listedFile.getLength());
+
+        byte[] newContent = "changed outside of file system".getBytes();
+        Files.write(newContent, listedFile.toIoFile());
+        fileSystem.invalidateCaches(listedFile.getPath());
+
+        assertEquals(newContent.length, listedFile.getLength());
+    }
+
+    @Test
+    public void recountsMd5SumsOfFolderWhichContainsNotWatchedItemsWithoutInvalidation() throws Exception {
+        PathMatcher notWatched = path -> path.toString().contains(".che");
+        fileSystem.close();
+        fileSystem = new LocalVirtualFileSystem(testDirectory, archiverFactory, mock(SearcherProvider.class), null, singleton(notWatched));
+        VirtualFile folder = getRoot().createFolder(generateFolderName());
+        VirtualFile file = folder.createFolder(".che").createFile(generateFileName(), DEFAULT_CONTENT);
+        HashSumTree tree = folder.countMd5SumTree();
+
+        Files.write("changed outside".getBytes(), file.toIoFile());
+
+        assertFalse(tree.getHash().equals(folder.countMd5SumTree().getHash()));
+    }
+
+    @Test
+    public void restoresMd5SumsOfFilesAfterReopeningFileSystem() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        HashSumTree tree = folder.countMd5SumTree();
+
+        fileSystem.close();
+        assertTrue(new File(testDirectory, ".vfs/" + HashSumTreeCache.SNAPSHOT_FILE_NAME).exists());
+        fileSystem = new LocalVirtualFileSystem(testDirectory, archiverFactory, mock(SearcherProvider.class), null);
+
+        assertEquals(tree.getHash(), fileSystem.getRoot().getChild(folder.getPath()).countMd5SumTree().getHash());
+    }
+
     @Test
     public void returnsEmptyListWhenCountMd5SumsOnFile() throws Exception {
         VirtualFile root = getRoot();
@@ -341,6 +447,49 @@ public class LocalVirtualFileTest {
         assertEquals(expectedResult, root.getChildren());
     }
 
+    @Test
+    public void getsChildrenAfterModificationOfCachedListing() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile file1 = root.createFile(generateFileName(), DEFAULT_CONTENT);
+        assertEquals(newArrayList(file1), root.getChildren());
+
+        VirtualFile file2 = root.createFile(generateFileName(), DEFAULT_CONTENT);
+        List<VirtualFile> expectedResult = newArrayList(file1, file2);
+        Collections.sort(expectedResult);
+        assertEquals(expectedResult, root.getChildren());
+
+        file1.delete();
+        assertEquals(newArrayList(file2), root.getChildren());
+    }
+
+    @Test
+    public void getsChildrenChangedOutsideOfFileSystemAfterInvalidationOfCachedListing() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile file1 = root.createFile(generateFileName(), DEFAULT_CONTENT);
+        assertEquals(newArrayList(file1), root.getChildren());
+
+        String name = generateFileName();
+        assertTrue(new File(testDirectory, name).createNewFile());
+        fileSystem.invalidateCaches(Path.of("/" + name));
+
+        List<VirtualFile> expectedResult = newArrayList(file1, root.getChild(Path.of(name)));
+        Collections.sort(expectedResult);
+        assertEquals(expectedResult, root.getChildren());
+    }
+
+    @Test
+    public void getsLengthOfChildAfterContentUpdate() throws Exception {
+        VirtualFile root = getRoot();
+        root.createFile(generateFileName(), DEFAULT_CONTENT);
+        VirtualFile child = root.getChildren().get(0);
+        assertEquals(DEFAULT_CONTENT_BYTES.length, child.getLength());
+
+        child.updateContent("updated " + DEFAULT_CONTENT);
+
+        assertEquals(DEFAULT_CONTENT_BYTES.length + 8, child.getLength());
+        assertEquals(DEFAULT_CONTENT_BYTES.length + 8, root.getChildren().get(0).getLength());
+    }
+
     @Test
     public void getsChildrenWithFilter() throws Exception {
         VirtualFile root = getRoot();
@@ -399,6 +548,41 @@ public class LocalVirtualFileTest {
         assertEquals(DEFAULT_CONTENT, new String(bytes));
     }
 
+    @Test
+    public void getsPartOfContentAsStream() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
+
+        byte[] bytes;
+        try (InputStream content = file.getContent(2, 4)) {
+            bytes = ByteStreams.toByteArray(content);
+        }
+        byte[] tail;
+        try (InputStream content = file.getContent(6, 100)) {
+            tail = ByteStreams.toByteArray(content);
+        }
+
+        assertEquals(DEFAULT_CONTENT.substring(2, 6), new String(bytes));
+        assertEquals(DEFAULT_CONTENT.substring(6), new String(tail));
+    }
+
+    @Test
+    public void getsPartOfBigContentAsStream() throws Exception {
+        VirtualFile root = getRoot();
+        byte[] bigContent = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 3];
+        for (int i = 0; i < bigContent.length; i++) {
+            bigContent[i] = (byte)i;
+        }
+        VirtualFile file = root.createFile(generateFileName(), new ByteArrayInputStream(bigContent));
+
+        byte[] bytes;
+        try (InputStream content = file.getContent(100, LocalVirtualFileSystem.MAX_BUFFER_SIZE * 2)) {
+            bytes = ByteStreams.toByteArray(content);
+        }
+
+        assertArrayEquals(Arrays.copyOfRange(bigContent, 100, 100 + LocalVirtualFileSystem.MAX_BUFFER_SIZE * 2), bytes);
+    }
+
     @Test
     public void getsContentAsBytes() throws Exception {
         VirtualFile root = getRoot();
@@ -628,7 +812,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatPropertiesAreSame(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -642,7 +826,7 @@ public class LocalVirtualFileTest {
 
         assertFalse(copy.isLocked());
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatLockIoFileDoesNotExist(copy.getPath());
+        assertionHelper.assertThatLockDoesNotExist(copy.getPath());
     }
 
     @Test
@@ -655,7 +839,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder, "new name", false);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatPropertiesAreSame(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -669,7 +853,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder, "existed_name", true);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatPropertiesAreSame(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -709,7 +893,7 @@ public class LocalVirtualFileTest {
             VirtualFile original = originalIterator.next();
             VirtualFile copy = copiedIterator.next();
             assertionHelper.assertThatIoFileExists(copy.getPath());
-            assertionHelper.assertThatMetadataIoFilesHaveSameContent(original.getPath(), copy.getPath());
+            assertionHelper.assertThatPropertiesAreSame(original.getPath(), copy.getPath());
             if (original.isFile()) {
                 assertionHelper.assertThatIoFilesHaveSameContent(original.getPath(), copy.getPath());
             }
@@ -730,7 +914,7 @@ public class LocalVirtualFileTest {
         VirtualFile copiedFile = copiedFolder.getChild(Path.of(file.getName()));
         assertionHelper.assertThatIoFileExists(copiedFolder.getPath());
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copiedFile.getPath());
-        assertionHelper.assertThatLockIoFileDoesNotExist(copiedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(copiedFile.getPath());
     }
 
     @Test
@@ -837,11 +1021,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesEqual(movedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -853,11 +1037,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder, "new_name", false, null);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesEqual(movedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -870,11 +1054,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder, "new_name", true, null);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesEqual(movedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -887,9 +1071,9 @@ public class LocalVirtualFileTest {
         VirtualFile movedFile = file.moveTo(targetFolder, null, false, lockToken);
 
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatLockIoFileDoesNotExist(movedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(movedFile.getPath());
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -906,13 +1090,13 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(movedFilePath);
+            assertionHelper.assertThatLockDoesNotExist(movedFilePath);
+            assertionHelper.assertThatPropertiesDoNotExist(movedFilePath);
 
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesEqual(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -930,13 +1114,13 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(movedFilePath);
+            assertionHelper.assertThatLockDoesNotExist(movedFilePath);
+            assertionHelper.assertThatPropertiesDoNotExist(movedFilePath);
 
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesEqual(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -980,10 +1164,10 @@ public class LocalVirtualFileTest {
             if (moved.isFile()) {
                 assertionHelper.assertThatIoFileHasContent(moved.getPath(), DEFAULT_CONTENT_BYTES);
             }
-            assertionHelper.assertThatMetadataIoFileHasContent(moved.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property" + i, "value" + i)));
+            assertionHelper.assertThatPropertiesEqual(moved.getPath(),
+                                                               ImmutableMap.of("property" + i, "value" + i));
             assertionHelper.assertThatIoFileDoesNotExist(originalPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(originalPath);
+            assertionHelper.assertThatPropertiesDoNotExist(originalPath);
             i++;
         }
         assertFalse(originalPathIterator.hasNext() || movedIterator.hasNext());
@@ -1055,7 +1239,7 @@ public class LocalVirtualFileTest {
 
             assertionHelper.assertThatIoFileExists(folder.getPath());
             assertionHelper.assertThatIoFileExists(lockedFile.getPath());
-            assertionHelper.assertThatLockIoFileExists(lockedFile.getPath());
+            assertionHelper.assertThatLockExists(lockedFile.getPath());
         }
     }
 
@@ -1126,10 +1310,10 @@ public class LocalVirtualFileTest {
         VirtualFile renamedFile = file.rename("new name");
 
         assertionHelper.assertThatIoFileHasContent(renamedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatMetadataIoFileHasContent(renamedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesEqual(renamedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -1142,9 +1326,9 @@ public class LocalVirtualFileTest {
         VirtualFile renamedFile = file.rename("new name", lockToken);
 
         assertionHelper.assertThatIoFileHasContent(renamedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatLockIoFileDoesNotExist(renamedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(renamedFile.getPath());
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -1162,12 +1346,12 @@ public class LocalVirtualFileTest {
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesEqual(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
 
             assertionHelper.assertThatIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(newPath);
+            assertionHelper.assertThatLockDoesNotExist(newPath);
+            assertionHelper.assertThatPropertiesDoNotExist(newPath);
         }
     }
 
@@ -1186,12 +1370,12 @@ public class LocalVirtualFileTest {
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesEqual(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
 
             assertionHelper.assertThatIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(newPath);
+            assertionHelper.assertThatLockDoesNotExist(newPath);
+            assertionHelper.assertThatPropertiesDoNotExist(newPath);
         }
     }
 
@@ -1210,11 +1394,11 @@ public class LocalVirtualFileTest {
             thrown.expect(ConflictException.class);
         } catch (ConflictException e) {
             assertionHelper.assertThatIoFileHasContent(conflictFilePath, "xxx".getBytes());
-            assertionHelper.assertThatMetadataIoFileHasContent(conflictFilePath,
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
+            assertionHelper.assertThatPropertiesEqual(conflictFilePath,
+                                                               ImmutableMap.of("property2", "value2"));
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+                    .assertThatPropertiesEqual(filePath, ImmutableMap.of("property1", "value1"));
         }
     }
 
@@ -1234,15 +1418,15 @@ public class LocalVirtualFileTest {
         assertionHelper.assertThatIoFileExists(renamed.getPath());
         assertionHelper.assertThatIoFileHasContent(newFilePath, DEFAULT_CONTENT_BYTES);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(renamed.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesEqual(renamed.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper
-                .assertThatMetadataIoFileHasContent(newFilePath, serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
+                .assertThatPropertiesEqual(newFilePath, ImmutableMap.of("property2", "value2"));
 
         assertionHelper.assertThatIoFileDoesNotExist(folderPath);
         assertionHelper.assertThatIoFileDoesNotExist(folderPath.newPath(fileName));
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath.newPath(fileName));
+        assertionHelper.assertThatPropertiesDoNotExist(folderPath);
+        assertionHelper.assertThatPropertiesDoNotExist(folderPath.newPath(fileName));
     }
 
     @Test
@@ -1260,7 +1444,7 @@ public class LocalVirtualFileTest {
 
             assertionHelper.assertThatIoFileExists(folder.getPath());
             assertionHelper.assertThatIoFileHasContent(lockedFile.getPath(), DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatLockIoFileExists(lockedFile.getPath());
+            assertionHelper.assertThatLockExists(lockedFile.getPath());
         }
     }
 
@@ -1291,7 +1475,7 @@ public class LocalVirtualFileTest {
         file.delete();
 
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -1305,8 +1489,8 @@ public class LocalVirtualFileTest {
         file.delete(lockToken);
 
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -1323,9 +1507,9 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+            assertionHelper.assertThatPropertiesEqual(file.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -1343,9 +1527,9 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+            assertionHelper.assertThatPropertiesEqual(file.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -1361,9 +1545,9 @@ public class LocalVirtualFileTest {
         folder.delete();
 
         assertionHelper.assertThatIoFileDoesNotExist(folderPath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath);
+        assertionHelper.assertThatPropertiesDoNotExist(folderPath);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -1381,11 +1565,11 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileExists(folderPath);
-            assertionHelper.assertThatMetadataIoFileHasContent(folder.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatPropertiesEqual(folder.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
+            assertionHelper.assertThatPropertiesEqual(file.getPath(),
+                                                               ImmutableMap.of("property2", "value2"));
         }
     }
 
@@ -1455,7 +1639,7 @@ public class LocalVirtualFileTest {
     public void locksFile() throws Exception {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         file.lock(0);
-        assertionHelper.assertThatLockIoFileExists(file.getPath());
+        assertionHelper.assertThatLockExists(file.getPath());
         assertTrue(file.isLocked());
     }
 
@@ -1463,11 +1647,11 @@ public class LocalVirtualFileTest {
     public void lockExpiredAfterTimeout() throws Exception {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         file.lock(500);
-        assertionHelper.assertThatLockIoFileExists(file.getPath());
+        assertionHelper.assertThatLockExists(file.getPath());
         assertTrue(file.isLocked());
         Thread.sleep(1000);
         assertFalse(file.isLocked());
-        assertionHelper.assertThatLockIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatLockDoesNotExist(file.getPath());
     }
 
     @Test
@@ -1477,7 +1661,7 @@ public class LocalVirtualFileTest {
             folder.lock(0);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileDoesNotExist(folder.getPath());
+            assertionHelper.assertThatLockDoesNotExist(folder.getPath());
             assertFalse(folder.isLocked());
         }
     }
@@ -1487,7 +1671,7 @@ public class LocalVirtualFileTest {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         String lockToken = file.lock(0);
         file.unlock(lockToken);
-        assertionHelper.assertThatLockIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatLockDoesNotExist(file.getPath());
         assertFalse(file.isLocked());
     }
 
@@ -1500,7 +1684,7 @@ public class LocalVirtualFileTest {
             file.unlock(null);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileExists(file.getPath());
+            assertionHelper.assertThatLockExists(file.getPath());
             assertTrue(file.isLocked());
         }
     }
@@ -1514,7 +1698,7 @@ public class LocalVirtualFileTest {
             file.unlock(invalidLockToken);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileExists(file.getPath());
+            assertionHelper.assertThatLockExists(file.getPath());
             assertTrue(file.isLocked());
         }
     }
@@ -1574,8 +1758,8 @@ public class LocalVirtualFileTest {
             thrown.expect(ConflictException.class);
         } catch (ConflictException expected) {
             assertionHelper.assertThatIoFileHasContent(file.getPath(), DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatPropertiesEqual(file.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
         }
     }
 
@@ -1780,14 +1964,6 @@ public class LocalVirtualFileTest {
         return NameGenerator.generate("folder-", 8);
     }
 
-    private byte[] serializeVirtualFileMetadata(Map<String, String> properties) throws IOException {
-        ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
-        DataOutputStream dataOutput = new DataOutputStream(byteOutput);
-        new FileMetadataSerializer().write(dataOutput, properties);
-        dataOutput.flush();
-        return byteOutput.toByteArray();
-    }
-
     private String countMd5Sum(VirtualFile file) throws Exception {
         return ByteSource.wrap(file.getContentAsBytes()).hash(Hashing.md5()).toString();
     }
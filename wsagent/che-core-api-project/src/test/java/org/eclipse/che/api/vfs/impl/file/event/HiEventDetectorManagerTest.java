@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file.event;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.addEventAndCreatePrecedingNodes;
+import static org.eclipse.che.api.vfs.impl.file.event.EventTreeNode.newRootInstance;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.FILE;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.newInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link HiEventDetectorManager}
+ */
+public class HiEventDetectorManagerTest {
+
+    @Test
+    public void shouldPassOnlySubscribedSubtreesToPathPatternDetector() throws Exception {
+        final EventTreeNode root = newRootInstance();
+        addEventAndCreatePrecedingNodes(root, getLoEvent("/project/pom.xml"));
+        addEventAndCreatePrecedingNodes(root, getLoEvent("/project/target/classes/Main.class"));
+
+        final List<EventTreeNode> detectedTrees = new ArrayList<>();
+        final PathPatternHiEventDetector<Object> detector = new PathPatternHiEventDetector<Object>() {
+            @Override
+            public Set<String> getPathPatterns() {
+                return ImmutableSet.of("/*/pom.xml");
+            }
+
+            @Override
+            public Optional<HiEvent<Object>> detect(EventTreeNode eventTreeNode) {
+                detectedTrees.add(eventTreeNode);
+                return Optional.empty();
+            }
+        };
+
+        new HiEventDetectorManager(ImmutableSet.<HiEventDetector<?>>of(detector)).getDetectedEvents(root);
+
+        assertEquals(1, detectedTrees.size());
+        final List<String> modifiedPaths = detectedTrees.get(0)
+                                                        .stream()
+                                                        .filter(EventTreeNode::modificationOccurred)
+                                                        .map(EventTreeNode::getPath)
+                                                        .collect(toList());
+        assertEquals(ImmutableSet.of("/project/pom.xml"), ImmutableSet.copyOf(modifiedPaths));
+    }
+
+    @Test
+    public void shouldNotCallPathPatternDetectorWhenThereAreNoSubscribedChanges() throws Exception {
+        final EventTreeNode root = newRootInstance();
+        addEventAndCreatePrecedingNodes(root, getLoEvent("/project/target/classes/Main.class"));
+
+        final List<EventTreeNode> detectedTrees = new ArrayList<>();
+        final PathPatternHiEventDetector<Object> detector = new PathPatternHiEventDetector<Object>() {
+            @Override
+            public Set<String> getPathPatterns() {
+                return ImmutableSet.of("/*/pom.xml");
+            }
+
+            @Override
+            public Optional<HiEvent<Object>> detect(EventTreeNode eventTreeNode) {
+                detectedTrees.add(eventTreeNode);
+                return Optional.empty();
+            }
+        };
+
+        new HiEventDetectorManager(ImmutableSet.<HiEventDetector<?>>of(detector)).getDetectedEvents(root);
+
+        assertTrue(detectedTrees.isEmpty());
+    }
+
+    private LoEvent getLoEvent(String path) {
+        return newInstance().withName(path.substring(path.lastIndexOf('/') + 1))
+                            .withPath(path)
+                            .withEventType(MODIFIED)
+                            .withItemType(FILE)
+                            .withTime(currentTimeMillis());
+    }
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file.event;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.FILE;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.newInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link LoEventQueueHolder}
+ */
+public class LoEventQueueHolderTest {
+
+    @Test
+    public void shouldRememberSubtreesOfEventsDroppedBecauseQueueIsFull() throws Exception {
+        final LoEventQueueHolder loEventQueueHolder = new LoEventQueueHolder(1);
+
+        loEventQueueHolder.put(getLoEvent("/project/src/Main.java"));
+        loEventQueueHolder.put(getLoEvent("/project/target/classes/Main.class"));
+        loEventQueueHolder.put(getLoEvent("/project/target/classes/Test.class"));
+
+        assertEquals(singleton("/project/target"), loEventQueueHolder.drainOverflowedSubtrees());
+        assertEquals(emptySet(), loEventQueueHolder.drainOverflowedSubtrees());
+
+        final Optional<LoEvent> queued = loEventQueueHolder.poll(100);
+        assertTrue(queued.isPresent());
+        assertEquals("/project/src/Main.java", queued.get().getPath());
+    }
+
+    @Test
+    public void shouldReportWholeTreeWhenTooManySubtreesOverflow() throws Exception {
+        final LoEventQueueHolder loEventQueueHolder = new LoEventQueueHolder(0);
+
+        for (int i = 0; i <= LoEventQueueHolder.MAX_OVERFLOWED_SUBTREES; i++) {
+            loEventQueueHolder.put(getLoEvent("/project" + i + "/target/file"));
+        }
+
+        assertEquals(singleton("/"), loEventQueueHolder.drainOverflowedSubtrees());
+    }
+
+    private LoEvent getLoEvent(String path) {
+        return newInstance().withName(path.substring(path.lastIndexOf('/') + 1))
+                            .withPath(path)
+                            .withEventType(MODIFIED)
+                            .withItemType(FILE)
+                            .withTime(currentTimeMillis());
+    }
+}
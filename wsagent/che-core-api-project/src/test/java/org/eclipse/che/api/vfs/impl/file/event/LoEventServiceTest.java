@@ -23,7 +23,9 @@ import java.util.Optional;
 import static java.io.File.separator;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.Thread.sleep;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.DIR;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.FILE;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.newInstance;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEventService.MAX_EVENT_INTERVAL_MILLIS;
@@ -181,6 +183,26 @@ public class LoEventServiceTest {
         assertEquals(totalCounter - firstSegmentCounter, folderII.get().getChildren().size());
     }
 
+    @Test
+    public void shouldKeepEventsUnderCreatedDirectory() throws Exception {
+        loEventQueueHolder.put(newInstance().withName(FOLDER_NAME)
+                                            .withPath(separator + FOLDER_NAME)
+                                            .withEventType(CREATED)
+                                            .withItemType(DIR)
+                                            .withTime(currentTimeMillis()));
+        loEventQueueHolder.put(getLoEvent(PATH, FILE_NAME));
+
+        final Optional<EventTreeNode> rootOptional = eventTreeQueueHolder.take();
+        assertTrue(rootOptional.isPresent());
+
+        final Optional<EventTreeNode> dirOptional = rootOptional.get().getChild(FOLDER_NAME);
+        assertTrue(dirOptional.isPresent());
+
+        final EventTreeNode dir = dirOptional.get();
+        assertEquals(CREATED, dir.getLastEventType());
+        assertTrue(dir.getChild(FILE_NAME).isPresent());
+    }
+
     private LoEvent getLoEvent(String path, String name) {
         return newInstance().withName(name)
                             .withPath(path)
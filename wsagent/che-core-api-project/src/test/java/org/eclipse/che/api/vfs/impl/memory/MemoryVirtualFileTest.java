@@ -337,6 +337,24 @@ public class MemoryVirtualFileTest {
         assertEquals(DEFAULT_CONTENT, new String(bytes));
     }
 
+    @Test
+    public void getsPartOfContentAsStream() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
+
+        byte[] bytes;
+        try (InputStream content = file.getContent(2, 4)) {
+            bytes = ByteStreams.toByteArray(content);
+        }
+        byte[] tail;
+        try (InputStream content = file.getContent(6, 100)) {
+            tail = ByteStreams.toByteArray(content);
+        }
+
+        assertEquals(DEFAULT_CONTENT.substring(2, 6), new String(bytes));
+        assertEquals(DEFAULT_CONTENT.substring(6), new String(tail));
+    }
+
     @Test
     public void getsContentAsBytes() throws Exception {
         VirtualFile root = getRoot();
@@ -18,6 +18,7 @@ import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
@@ -85,6 +86,22 @@ public class FSLuceneSearcherTest {
         assertEquals(newArrayList("/folder/zzz.txt"), paths);
     }
 
+    @Test
+    public void initializesIndexForFileTreeLargerThanOneIndexBatch() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 10; i++) {
+            VirtualFile folder = virtualFileSystem.getRoot().createFolder(String.format("folder%d/sub", i));
+            for (int j = 0; j < 30; j++) {
+                folder.createFile(String.format("file%02d", j), TEST_CONTENT[j % TEST_CONTENT.length]);
+            }
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("twice"));
+        assertEquals(80, result.getTotalHits());
+        assertEquals(300, searcher.getIndexWriter().numDocs());
+    }
+
     @Test
     public void addsSingleFileInIndex() throws Exception {
         VirtualFileSystem virtualFileSystem = virtualFileSystem();
@@ -217,6 +234,39 @@ public class FSLuceneSearcherTest {
         assertEquals(newArrayList("/folder1/a/b/xxx.txt"), paths);
     }
 
+    @Test
+    public void returnsLineNumbersAndOffsetsOfSearchedTextWhenPositionsRequested() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0] + "\n" + TEST_CONTENT[3]);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("*mission*").setIncludePositions(true));
+
+        assertEquals(1, result.getResults().size());
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(1, occurrences.size());
+        SearchOccurrence occurrence = occurrences.get(0);
+        int expectedStartOffset = TEST_CONTENT[0].length() + 1 + TEST_CONTENT[3].indexOf("mission");
+        assertEquals("mission", occurrence.getPhrase());
+        assertEquals(2, occurrence.getLineNumber());
+        assertEquals(expectedStartOffset, occurrence.getStartOffset());
+        assertEquals(expectedStartOffset + "mission".length(), occurrence.getEndOffset());
+        assertEquals(TEST_CONTENT[3], occurrence.getLineContent());
+    }
+
+    @Test
+    public void doesNotReturnPositionsOfSearchedTextWhenTheyAreNotRequested() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFolder("folder").createFile("xxx.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("be"));
+
+        assertEquals(1, result.getResults().size());
+        assertTrue(result.getResults().get(0).getOccurrences().isEmpty());
+    }
+
     @Test
     public void closesLuceneIndexWriterWhenSearcherClosed() throws Exception {
         VirtualFileSystem virtualFileSystem = virtualFileSystem();
@@ -307,6 +357,102 @@ public class FSLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void retrievesConsistentPagesWithContinuationTokenWhileIndexIsUpdated() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        assertTrue(firstPage.getContinuationToken().isPresent());
+
+        for (int i = 0; i < 10; i++) {
+            searcher.add(virtualFileSystem.getRoot().createFile(String.format("new%02d", i), TEST_CONTENT[0]));
+        }
+
+        QueryExpression nextPageQueryExpression = firstPage.getNextPageQueryExpression().get();
+        assertEquals(firstPage.getContinuationToken().get(), nextPageQueryExpression.getContinuationToken());
+        nextPageQueryExpression.setMaxItems(100);
+
+        SearchResult lastPage = searcher.search(nextPageQueryExpression);
+        assertEquals(25, lastPage.getTotalHits());
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+
+        assertEquals(35, searcher.search(new QueryExpression().setText("spaceflight")).getTotalHits());
+    }
+
+    @Test
+    public void generatesNextPageWhenOnlyOneResultIsLeft() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(24));
+        assertEquals(25, firstPage.getTotalHits());
+        assertTrue(firstPage.getNextPageQueryExpression().isPresent());
+
+        SearchResult lastPage = searcher.search(firstPage.getNextPageQueryExpression().get());
+        assertEquals(1, lastPage.getFilePaths().size());
+        assertFalse(lastPage.getNextPageQueryExpression().isPresent());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
+    @Test
+    public void skipsRetrievedResultsWhenRetainedSearcherIsExpired() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        ContinuationToken token = ContinuationToken.decode(firstPage.getContinuationToken().get());
+        String expiredToken = new ContinuationToken(token.getSearcherVersion() + 100, token.getLastScoreDoc(), token.getRetrieved()).encode();
+
+        SearchResult lastPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(100)
+                                                                     .setContinuationToken(expiredToken));
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
+    @Test
+    public void reindexesOnlyChangedFilesWhenPersistentIndexIsReopened() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        VirtualFile changed = folder.createFile("changed.txt", TEST_CONTENT[1]);
+        VirtualFile removed = folder.createFile("removed.txt", TEST_CONTENT[2]);
+        folder.createFile("same.txt", TEST_CONTENT[3]);
+        FSLuceneSearcher persistentSearcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback, true);
+        persistentSearcher.init(virtualFileSystem);
+        persistentSearcher.close();
+        assertTrue(indexDirectory.exists());
+
+        changed.updateContent(TEST_CONTENT[0]);
+        removed.delete();
+        folder.createFile("added.txt", TEST_CONTENT[1]);
+
+        persistentSearcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback, true);
+        try {
+            persistentSearcher.init(virtualFileSystem);
+
+            assertEquals(newArrayList("/folder/added.txt"),
+                         persistentSearcher.search(new QueryExpression().setText("think")).getFilePaths());
+            assertEquals(newArrayList("/folder/changed.txt"),
+                         persistentSearcher.search(new QueryExpression().setText("spaceflight")).getFilePaths());
+            assertEquals(newArrayList("/folder/same.txt"),
+                         persistentSearcher.search(new QueryExpression().setText("ascent")).getFilePaths());
+            assertTrue(persistentSearcher.search(new QueryExpression().setText("be")).getFilePaths().isEmpty());
+        } finally {
+            persistentSearcher.close();
+            IoUtil.deleteRecursive(new File(indexDirectory.getParentFile(), indexDirectory.getName() + ".fingerprints"));
+        }
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.document.Document;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Reader;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FileWatcherIndexUpdaterTest {
+    private VirtualFileSystemProvider virtualFileSystemProvider;
+    private VirtualFile               root;
+    private Searcher                  searcher;
+    private FileWatcherIndexUpdater   indexUpdater;
+
+    @Before
+    public void setUp() throws Exception {
+        virtualFileSystemProvider = mock(VirtualFileSystemProvider.class);
+        VirtualFileSystem virtualFileSystem = mock(VirtualFileSystem.class);
+        SearcherProvider searcherProvider = mock(SearcherProvider.class);
+        root = mock(VirtualFile.class);
+        searcher = mock(Searcher.class);
+        when(virtualFileSystemProvider.getVirtualFileSystem(false)).thenReturn(virtualFileSystem);
+        when(virtualFileSystem.getRoot()).thenReturn(root);
+        when(virtualFileSystem.getSearcherProvider()).thenReturn(searcherProvider);
+        when(searcherProvider.getSearcher(virtualFileSystem, false)).thenReturn(searcher);
+
+        indexUpdater = new FileWatcherIndexUpdater(virtualFileSystemProvider, mock(FileWatcherNotificationHandler.class));
+    }
+
+    @Test
+    public void mergesRepeatedEventsForSamePath() throws Exception {
+        VirtualFile file = mockFile("/a/b.txt", 10, 1000);
+
+        indexUpdater.enqueue("/a/b.txt", true, CREATED);
+        indexUpdater.enqueue("/a/b.txt", true, MODIFIED);
+        indexUpdater.enqueue("/a/b.txt", true, MODIFIED);
+        assertEquals(1, indexUpdater.getQueueDepth());
+
+        indexUpdater.flush();
+
+        verify(searcher).update(file);
+        assertEquals(0, indexUpdater.getQueueDepth());
+        assertEquals(0, indexUpdater.getLagMillis());
+    }
+
+    @Test
+    public void skipsFilesWhichAreNotChangedSinceTheyWereIndexed() throws Exception {
+        CountingLuceneSearcher luceneSearcher = new CountingLuceneSearcher();
+        VirtualFileSystem virtualFileSystem = memoryFileSystem(luceneSearcher);
+        virtualFileSystem.getRoot().createFolder("a").createFile("b.txt", "hello");
+        luceneSearcher.init(virtualFileSystem);
+
+        assertEquals(1, luceneSearcher.indexed);
+
+        indexUpdater.enqueue("/a/b.txt", true, MODIFIED);
+        indexUpdater.flush();
+
+        assertEquals(1, luceneSearcher.indexed);
+    }
+
+    @Test
+    public void skipsChangesWhichAreAlreadyAppliedThroughVirtualFileSystem() throws Exception {
+        CountingLuceneSearcher luceneSearcher = new CountingLuceneSearcher();
+        VirtualFileSystem virtualFileSystem = memoryFileSystem(luceneSearcher);
+        luceneSearcher.init(virtualFileSystem);
+        VirtualFile file = virtualFileSystem.getRoot().createFolder("a").createFile("b.txt", "hello");
+        file.updateContent("hello world");
+        assertEquals(2, luceneSearcher.indexed);
+
+        indexUpdater.enqueue("/a", false, CREATED);
+        indexUpdater.enqueue("/a/b.txt", true, MODIFIED);
+        indexUpdater.flush();
+
+        assertEquals(2, luceneSearcher.indexed);
+        assertEquals(newArrayList("/a/b.txt"), luceneSearcher.search(new QueryExpression().setText("world")).getFilePaths());
+    }
+
+    @Test
+    public void deletesFileFromIndexWhenLastEventIsDeleted() throws Exception {
+        mockFile("/a/b.txt", 10, 1000);
+        indexUpdater.enqueue("/a/b.txt", true, MODIFIED);
+        indexUpdater.enqueue("/a/b.txt", true, DELETED);
+
+        indexUpdater.flush();
+
+        verify(searcher).delete("/a/b.txt", true);
+        verify(searcher, never()).update(any(VirtualFile.class));
+    }
+
+    @Test
+    public void deletesFileFromIndexWhenFileDoesNotExistAnymore() throws Exception {
+        indexUpdater.enqueue("/a/b.txt", true, MODIFIED);
+
+        indexUpdater.flush();
+
+        verify(searcher).delete("/a/b.txt", true);
+    }
+
+    @Test
+    public void doesNotTouchIndexWhenNothingWasChanged() throws Exception {
+        indexUpdater.flush();
+
+        verify(searcher, never()).delete(anyString(), anyBoolean());
+        verify(searcher, never()).update(any(VirtualFile.class));
+    }
+
+    @Test
+    public void addsTreeOfCreatedFolderInIndex() throws Exception {
+        VirtualFile folder = mock(VirtualFile.class);
+        when(folder.isFolder()).thenReturn(true);
+        when(root.getChild(eq(Path.of("/a")))).thenReturn(folder);
+        indexUpdater.enqueue("/a", false, CREATED);
+
+        indexUpdater.flush();
+
+        verify(searcher).add(folder);
+    }
+
+    /** Memory filesystem which applies its changes to the specified searcher and is returned by virtual filesystem provider. */
+    private VirtualFileSystem memoryFileSystem(LuceneSearcher luceneSearcher) throws Exception {
+        SearcherProvider searcherProvider = mock(SearcherProvider.class);
+        VirtualFileSystem virtualFileSystem = new MemoryVirtualFileSystem(mock(ArchiverFactory.class), searcherProvider);
+        when(searcherProvider.getSearcher(virtualFileSystem)).thenReturn(luceneSearcher);
+        when(searcherProvider.getSearcher(virtualFileSystem, false)).thenReturn(luceneSearcher);
+        when(virtualFileSystemProvider.getVirtualFileSystem(false)).thenReturn(virtualFileSystem);
+        return virtualFileSystem;
+    }
+
+    private VirtualFile mockFile(String path, long length, long lastModified) throws Exception {
+        VirtualFile file = mock(VirtualFile.class);
+        when(file.isFile()).thenReturn(true);
+        when(file.getLength()).thenReturn(length);
+        when(file.getLastModificationDate()).thenReturn(lastModified);
+        when(root.getChild(eq(Path.of(path)))).thenReturn(file);
+        return file;
+    }
+
+    /** Counts documents which are created for indexed files. */
+    private static class CountingLuceneSearcher extends MemoryLuceneSearcher {
+        volatile int indexed;
+
+        CountingLuceneSearcher() {
+            super(file -> false, null);
+        }
+
+        @Override
+        protected synchronized Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
+            indexed++;
+            return super.createDocument(virtualFile, reader);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+import org.eclipse.che.api.vfs.search.SearchResult;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TrigramLuceneSearcherTest {
+    private File                  indexDirectory;
+    private TrigramLuceneSearcher searcher;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        indexDirectory = new File(targetDir, NameGenerator.generate("index-", 4));
+        assertTrue(indexDirectory.mkdir());
+
+        VirtualFileFilter filter = mock(VirtualFileFilter.class);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(false);
+        searcher = new TrigramLuceneSearcher(indexDirectory, filter, null, false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        searcher.close();
+        IoUtil.deleteRecursive(indexDirectory);
+    }
+
+    @Test
+    public void findsFilesByLiteralSubstringOfContent() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("a.java", "int getNumberOfItems() { return items.size(); }");
+        folder.createFile("b.java", "int getNumber() { return number; }");
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("berOfIt")).getFilePaths();
+        assertEquals(newArrayList("/folder/a.java"), paths);
+        paths = searcher.search(new QueryExpression().setText("GETNUMBER(")).getFilePaths();
+        assertEquals(newArrayList("/folder/b.java"), paths);
+    }
+
+    @Test
+    public void findsFilesByRegularExpression() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("a.java", "int getNumberOfItems() { return items.size(); }");
+        folder.createFile("b.java", "int getNumber() { return number; }");
+        folder.createFile("c.java", "int setNumber(int n) { number = n; }");
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("/getNumber\\w*\\(\\)/")).getFilePaths();
+        Collections.sort(paths);
+        assertEquals(newArrayList("/folder/a.java", "/folder/b.java"), paths);
+        paths = searcher.search(new QueryExpression().setText("/[gs]etNumber\\(int/")).getFilePaths();
+        assertEquals(newArrayList("/folder/c.java"), paths);
+    }
+
+    @Test
+    public void findsFilesByNameWildcard() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("ProjectService.java", "");
+        folder.createFile("ProjectManager.java", "");
+        folder.createFile("ProjectService.class", "");
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setName("*Service.java")).getFilePaths();
+        assertEquals(newArrayList("/folder/ProjectService.java"), paths);
+    }
+
+    @Test
+    public void returnsPositionsOfMatchedText() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFolder("folder").createFile("a.txt", "first line\nsecond line with match\n");
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("/wi.h m/").setIncludePositions(true));
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(1, occurrences.size());
+        assertEquals("with m", occurrences.get(0).getPhrase());
+        assertEquals(2, occurrences.get(0).getLineNumber());
+        assertEquals(23, occurrences.get(0).getStartOffset());
+    }
+
+    @Test
+    public void pagesVerifiedResults() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        for (int i = 0; i < 5; i++) {
+            folder.createFile("match" + i, "the quick brown fox");
+            folder.createFile("other" + i, "the quick brown dog, not a fox");
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("brown fox").setMaxItems(3));
+        assertEquals(3, result.getFilePaths().size());
+        assertTrue(result.getContinuationToken().isPresent());
+        SearchResult nextPage = searcher.search(result.getNextPageQueryExpression().get());
+        assertEquals(2, nextPage.getFilePaths().size());
+        assertEquals(5, nextPage.getTotalHits());
+        assertFalse(nextPage.getNextPageQueryExpression().isPresent());
+
+        Set<String> paths = new HashSet<>(result.getFilePaths());
+        paths.addAll(nextPage.getFilePaths());
+        assertEquals(5, paths.size());
+    }
+
+    @Test
+    public void doesNotSearchContentOfTooLargeFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        StringBuilder content = new StringBuilder("the quick brown fox\n");
+        while (content.length() <= TrigramLuceneSearcher.MAX_CONTENT_LENGTH) {
+            content.append("jumps over the lazy dog\n");
+        }
+        folder.createFile("large.txt", content.toString());
+        folder.createFile("small.txt", "the quick brown fox");
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("brown fox")).getFilePaths();
+        assertEquals(newArrayList("/folder/small.txt"), paths);
+    }
+
+    @Test(expected = ServerException.class)
+    public void rejectsTextWithoutTrigrams() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFolder("folder").createFile("a.txt", "ab");
+        searcher.init(virtualFileSystem);
+
+        searcher.search(new QueryExpression().setText("ab"));
+    }
+
+    @Test
+    public void extractsLiteralsRequiredByRegularExpression() {
+        assertEquals(newArrayList("getNumber"), TrigramLuceneSearcher.regexLiterals("getNumber\\w*\\("));
+        assertEquals(newArrayList("abc"), TrigramLuceneSearcher.regexLiterals("abcd?e(xyz)+"));
+        assertEquals(newArrayList("foo", "bar"), TrigramLuceneSearcher.regexLiterals("foo[0-9]bar"));
+        assertEquals(Collections.emptyList(), TrigramLuceneSearcher.regexLiterals("foobar|bazqux"));
+    }
+
+    private VirtualFileSystem virtualFileSystem() throws Exception {
+        return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+    }
+}
@@ -10,14 +10,30 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.util;
 
+import com.google.common.io.ByteStreams;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 public class ZipContentTest {
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
 
 //    @Rule
     public ExpectedException thrown = ExpectedException.none();
@@ -31,4 +47,98 @@ public class ZipContentTest {
             ZipContent.of(fileIn);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void failsWhenDetectZipBombInArchiveSpooledToFile() throws Exception {
+        byte[] padding = new byte[250 * 1024];
+        new Random().nextBytes(padding);
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            zipOut.putNextEntry(new ZipEntry("padding.bin"));
+            zipOut.write(padding);
+            zipOut.putNextEntry(new ZipEntry("zeros.bin"));
+            byte[] zeros = new byte[1024 * 1024];
+            for (int i = 0; i < 50; i++) {
+                zipOut.write(zeros);
+            }
+        }
+
+        try {
+            ZipContent.of(new ByteArrayInputStream(byteOut.toByteArray()));
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("Zip bomb detected", e.getMessage());
+        }
+    }
+
+    @Test
+    public void providesRandomAccessToArchiveSpooledToFile() throws Exception {
+        byte[] content = new byte[250 * 1024];
+        new Random().nextBytes(content);
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            zipOut.putNextEntry(new ZipEntry("content.bin"));
+            zipOut.write(content);
+        }
+
+        try (ZipContent zipContent = ZipContent.of(new ByteArrayInputStream(byteOut.toByteArray()))) {
+            ZipEntry zipEntry = zipContent.getZipFile().getEntry("content.bin");
+            try (InputStream entryContent = zipContent.getEntryContent(zipEntry)) {
+                assertArrayEquals(content, ByteStreams.toByteArray(entryContent));
+            }
+        }
+    }
+
+    @Test
+    public void failsReadEntryWhichExceedsSizeDeclaredInCentralDirectory() throws Exception {
+        byte[] padding = new byte[250 * 1024];
+        new Random().nextBytes(padding);
+        byte[] content = new byte[10 * 1024];
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            zipOut.putNextEntry(new ZipEntry("padding.bin"));
+            zipOut.write(padding);
+            zipOut.putNextEntry(new ZipEntry("content.bin"));
+            zipOut.write(content);
+        }
+        byte[] archive = byteOut.toByteArray();
+        declareUncompressedSize(archive, "content.bin", 1024);
+
+        try (ZipContent zipContent = ZipContent.of(new ByteArrayInputStream(archive))) {
+            ZipEntry zipEntry = zipContent.getZipFile().getEntry("content.bin");
+            try (InputStream entryContent = zipContent.getEntryContent(zipEntry)) {
+                ByteStreams.toByteArray(entryContent);
+                fail("IOException expected");
+            } catch (IOException e) {
+                assertEquals("Size of zip entry 'content.bin' exceeds declared size 1024", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void doesNotProvideRandomAccessToArchiveKeptInMemory() throws Exception {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            zipOut.putNextEntry(new ZipEntry("content.txt"));
+            zipOut.write("content".getBytes());
+        }
+
+        try (ZipContent zipContent = ZipContent.of(new ByteArrayInputStream(byteOut.toByteArray()))) {
+            assertNull(zipContent.getZipFile());
+        }
+    }
+
+    /** Overwrites uncompressed size of entry in central directory of archive. */
+    private void declareUncompressedSize(byte[] archive, String entryName, int size) {
+        ByteBuffer buffer = ByteBuffer.wrap(archive).order(LITTLE_ENDIAN);
+        byte[] name = entryName.getBytes();
+        for (int i = 0; i + 46 + name.length <= archive.length; i++) {
+            if (buffer.getInt(i) == CENTRAL_DIRECTORY_HEADER_SIGNATURE
+                && Arrays.equals(name, Arrays.copyOfRange(archive, i + 46, i + 46 + name.length))) {
+                buffer.putInt(i + 24, size);
+                return;
+            }
+        }
+        fail("Entry " + entryName + " is not found in central directory");
+    }
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Index of commits reachable from local and remote branches of repository. Each commit gets its position in index and each branch gets
+ * set of positions of commits reachable from its tip, so check whether branch contains commit doesn't need to walk history.
+ * <p>
+ * Index is shared by all connections to the same repository and is refreshed by {@link #refresh(Repository)}: only branches which tips
+ * were changed are walked again. Walk stops at commits which are tips of already indexed branches, so if new tip of branch is
+ * descendant of its previous tip only commits between them are walked, and branch which tip is the same as or descendant of tip of
+ * another branch, e.g. local branch and its remote-tracking branch, doesn't walk history of that branch again. Branches are walked
+ * from older tips to newer ones, so on the first refresh history shared by branches is mostly walked once.
+ */
+class CommitReachabilityIndex {
+    private static final Cache<File, CommitReachabilityIndex> INDEXES = CacheBuilder.newBuilder()
+                                                                                     .expireAfterAccess(30, MINUTES)
+                                                                                     .build();
+
+    /** Gets index of specified repository. Index is empty until it is refreshed. */
+    static CommitReachabilityIndex of(Repository repository) {
+        try {
+            return INDEXES.get(repository.getDirectory().getAbsoluteFile(), CommitReachabilityIndex::new);
+        } catch (ExecutionException e) {
+            // constructor doesn't throw checked exceptions
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private final Map<ObjectId, Integer> positions;
+    /** Sorted by name in the same way as branches are listed by JGit. */
+    private final Map<String, ObjectId>  tips;
+    private final Map<String, BitSet>    reachable;
+
+    CommitReachabilityIndex() {
+        positions = new HashMap<>();
+        tips = new TreeMap<>();
+        reachable = new HashMap<>();
+    }
+
+    /** Brings index in line with current tips of branches. */
+    synchronized void refresh(Repository repository) throws IOException {
+        final Map<String, ObjectId> current = readTips(repository);
+        // commits reachable from tips indexed before, including tips of removed branches, and from tips indexed during this refresh
+        final Map<ObjectId, BitSet> indexed = new HashMap<>();
+        for (Map.Entry<String, ObjectId> entry : tips.entrySet()) {
+            indexed.put(entry.getValue(), reachable.get(entry.getKey()));
+        }
+        tips.keySet().retainAll(current.keySet());
+        reachable.keySet().retainAll(current.keySet());
+
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.setRetainBody(false);
+            final List<Map.Entry<String, RevCommit>> changed = new ArrayList<>();
+            for (Map.Entry<String, ObjectId> entry : current.entrySet()) {
+                final String name = entry.getKey();
+                final ObjectId tip = entry.getValue();
+                if (tip.equals(tips.get(name))) {
+                    continue;
+                }
+                try {
+                    changed.add(new SimpleImmutableEntry<>(name, walk.parseCommit(tip)));
+                } catch (IncorrectObjectTypeException | MissingObjectException e) {
+                    // branch doesn't point to commit, it can't contain any commit
+                    tips.remove(name);
+                    reachable.remove(name);
+                }
+            }
+            // older tips first, they are likely ancestors of newer ones and walk of newer tips stops at them
+            changed.sort(comparingInt(entry -> entry.getValue().getCommitTime()));
+
+            for (Map.Entry<String, RevCommit> entry : changed) {
+                final BitSet commits = walk(walk, entry.getValue(), indexed);
+                final ObjectId tip = entry.getValue().copy();
+                tips.put(entry.getKey(), tip);
+                reachable.put(entry.getKey(), commits);
+                indexed.put(tip, commits);
+            }
+        }
+        prune();
+    }
+
+    /**
+     * Collects positions of commits reachable from specified tip. History is not walked beyond commits which are already indexed
+     * tips, commits reachable from them are taken from index. Previous tip of branch is never parsed, so it doesn't matter whether it
+     * still exists, e.g. after forced update of branch and garbage collection.
+     */
+    private BitSet walk(RevWalk walk, RevCommit tip, Map<ObjectId, BitSet> indexed) throws IOException {
+        final BitSet commits = new BitSet();
+        final Deque<RevCommit> pending = new ArrayDeque<>();
+        pending.push(tip);
+        while (!pending.isEmpty()) {
+            final RevCommit commit = pending.pop();
+            final int position = getPosition(commit);
+            if (commits.get(position)) {
+                continue;
+            }
+            final BitSet reachableFromCommit = indexed.get(commit);
+            if (reachableFromCommit != null) {
+                commits.or(reachableFromCommit);
+                continue;
+            }
+            commits.set(position);
+            for (RevCommit parent : commit.getParents()) {
+                try {
+                    walk.parseHeaders(parent);
+                } catch (MissingObjectException e) {
+                    // history is cut, e.g. in shallow clone
+                    continue;
+                }
+                pending.push(parent);
+            }
+        }
+        return commits;
+    }
+
+    /**
+     * Drops positions of commits which are not reachable from any branch any more, e.g. after branches were removed or rewritten.
+     * Positions are renumbered when most of them are not used, so index doesn't grow with each rewrite of history.
+     */
+    private void prune() {
+        final BitSet used = new BitSet();
+        reachable.values().forEach(used::or);
+        final int unused = positions.size() - used.cardinality();
+        if (unused <= used.cardinality()) {
+            return;
+        }
+        final int[] newPositions = new int[positions.size()];
+        int next = 0;
+        for (int position = used.nextSetBit(0); position >= 0; position = used.nextSetBit(position + 1)) {
+            newPositions[position] = next++;
+        }
+        positions.values().removeIf(position -> !used.get(position));
+        positions.replaceAll((commit, position) -> newPositions[position]);
+        for (Map.Entry<String, BitSet> entry : reachable.entrySet()) {
+            final BitSet commits = entry.getValue();
+            final BitSet renumbered = new BitSet(next);
+            for (int position = commits.nextSetBit(0); position >= 0; position = commits.nextSetBit(position + 1)) {
+                renumbered.set(newPositions[position]);
+            }
+            entry.setValue(renumbered);
+        }
+    }
+
+    /** Gets full names of branches which contain specified commit. Names are sorted. */
+    synchronized List<String> getBranches(AnyObjectId commit) {
+        final Integer position = positions.get(commit);
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        final List<String> branches = new ArrayList<>();
+        for (String name : tips.keySet()) {
+            if (reachable.get(name).get(position)) {
+                branches.add(name);
+            }
+        }
+        return branches;
+    }
+
+    private int getPosition(RevCommit commit) {
+        Integer position = positions.get(commit);
+        if (position == null) {
+            position = positions.size();
+            positions.put(commit.copy(), position);
+        }
+        return position;
+    }
+
+    /** Reads tips of the same branches which JGit lists in {@link org.eclipse.jgit.api.ListBranchCommand.ListMode#ALL} mode. */
+    private static Map<String, ObjectId> readTips(Repository repository) throws IOException {
+        final Map<String, ObjectId> result = new TreeMap<>();
+        for (String prefix : new String[]{Constants.R_HEADS, Constants.R_REMOTES}) {
+            for (Map.Entry<String, Ref> entry : repository.getRefDatabase().getRefs(prefix).entrySet()) {
+                final ObjectId tip = entry.getValue().getObjectId();
+                if (tip != null) {
+                    result.put(prefix + entry.getKey(), tip);
+                }
+            }
+        }
+        final Ref head = repository.exactRef(Constants.HEAD);
+        if (head != null && !head.isSymbolic() && head.getObjectId() != null) {
+            // detached HEAD
+            result.put(Constants.HEAD, head.getObjectId());
+        }
+        return result;
+    }
+}
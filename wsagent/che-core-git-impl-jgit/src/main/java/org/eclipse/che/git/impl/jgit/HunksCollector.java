@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.api.git.shared.DiffHunk;
+import org.eclipse.che.api.git.shared.FileDiff;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.eclipse.jgit.diff.DiffEntry.Side;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.util.io.NullOutputStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Collects hunks of difference of file instead of writing them as text. Hunks before {@code skip} are only counted. Collecting is
+ * stopped when {@code maxHunks} hunks are collected or when total length of collected lines reaches size limit, hunk which doesn't fit
+ * in size limit is left for the next portion. Only the first hunk of portion may be cut, otherwise too big hunk could never be
+ * returned. Content of file is not loaded at all if it is larger than content size limit, then file is reported without hunks.
+ */
+class HunksCollector extends DiffFormatter {
+    /** Max total size in bytes of both sides of file which are loaded to compare them. */
+    static final long CONTENT_SIZE_LIMIT = 50 * 1024 * 1024;
+
+    private final int  skip;
+    private final int  maxHunks;
+    private final long sizeLimit;
+    private final long contentSizeLimit;
+
+    private Repository repository;
+
+    private List<DiffHunk> hunks;
+    private DiffHunk       hunk;
+    private int            index;
+    private int            next;
+    private long           size;
+    private boolean        binary;
+    private boolean        truncated;
+
+    /**
+     * @param skip
+     *         number of hunks to skip
+     * @param maxHunks
+     *         max number of hunks to collect, {@code 0} means no limit
+     * @param sizeLimit
+     *         max total length of lines of collected hunks, {@code 0} means no limit
+     * @param contentSizeLimit
+     *         max total size in bytes of both sides of file which may be loaded, {@code 0} means no limit
+     */
+    HunksCollector(int skip, int maxHunks, long sizeLimit, long contentSizeLimit) {
+        super(NullOutputStream.INSTANCE);
+        this.skip = skip;
+        this.maxHunks = maxHunks;
+        this.sizeLimit = sizeLimit;
+        this.contentSizeLimit = contentSizeLimit;
+    }
+
+    @Override
+    public void setRepository(Repository repository) {
+        super.setRepository(repository);
+        this.repository = repository;
+    }
+
+    FileDiff collect(DiffEntry entry) throws IOException {
+        hunks = new ArrayList<>();
+        hunk = null;
+        index = -1;
+        next = -1;
+        size = 0;
+        binary = false;
+        truncated = false;
+        final boolean sizeLimitExceeded = contentSizeLimit > 0 && contentSize(entry) > contentSizeLimit;
+        if (!sizeLimitExceeded) {
+            try {
+                format(entry);
+            } catch (CollectedException ignored) {
+                // the rest of hunks is not needed
+            }
+        }
+        return newDto(FileDiff.class).withChangeType(entry.getChangeType().name())
+                                     .withOldPath(entry.getChangeType() == ChangeType.ADD ? null : entry.getOldPath())
+                                     .withNewPath(entry.getChangeType() == ChangeType.DELETE ? null : entry.getNewPath())
+                                     .withBinary(binary)
+                                     .withSizeLimitExceeded(sizeLimitExceeded)
+                                     .withHunks(hunks)
+                                     .withNext(next)
+                                     .withTruncated(truncated);
+    }
+
+    private long contentSize(DiffEntry entry) throws IOException {
+        try (ObjectReader reader = repository.newObjectReader()) {
+            return JGitDiffFilesPage.size(repository, reader, entry, Side.OLD)
+                   + JGitDiffFilesPage.size(repository, reader, entry, Side.NEW);
+        }
+    }
+
+    @Override
+    public void format(FileHeader head, RawText a, RawText b) throws IOException {
+        // header of file is not written, only its hunks are collected
+        if (head.getPatchType() != FileHeader.PatchType.UNIFIED) {
+            binary = true;
+            return;
+        }
+        format(head.toEditList(), a, b);
+    }
+
+    @Override
+    protected void writeHunkHeader(int aStartLine, int aEndLine, int bStartLine, int bEndLine) throws IOException {
+        index++;
+        if (index < skip) {
+            hunk = null;
+            return;
+        }
+        if (truncated || (maxHunks > 0 && hunks.size() == maxHunks)) {
+            next = index;
+            throw new CollectedException();
+        }
+        hunk = newDto(DiffHunk.class).withOldStart(start(aStartLine, aEndLine))
+                                     .withOldLines(aEndLine - aStartLine)
+                                     .withNewStart(start(bStartLine, bEndLine))
+                                     .withNewLines(bEndLine - bStartLine)
+                                     .withLines(new ArrayList<>());
+        hunks.add(hunk);
+    }
+
+    @Override
+    protected void writeLine(char prefix, RawText text, int cur) throws IOException {
+        if (hunk == null || truncated) {
+            return;
+        }
+        final String line = prefix + text.getString(cur);
+        if (sizeLimit > 0 && size + line.length() > sizeLimit) {
+            if (hunks.size() > 1) {
+                hunks.remove(hunks.size() - 1);
+                next = index;
+                throw new CollectedException();
+            }
+            truncated = true;
+            return;
+        }
+        size += line.length();
+        hunk.getLines().add(line);
+    }
+
+    /** Same as in unified diff: lines are counted from 1, empty range starts at line before it. */
+    private static int start(int startLine, int endLine) {
+        return endLine > startLine ? startLine + 1 : startLine;
+    }
+
+    private static class CollectedException extends IOException {
+    }
+}
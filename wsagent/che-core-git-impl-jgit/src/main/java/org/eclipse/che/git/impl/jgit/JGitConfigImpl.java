@@ -100,11 +100,15 @@ class JGitConfigImpl extends Config {
     @Override
     public Config set(String name, String value) throws GitException {
         ConfigKey key = parseName(name);
-        repository.getConfig().setString(key.section, key.subsection, key.name, value);
-        try {
-            this.repository.getConfig().save();
-        } catch (IOException e) {
-            throw new GitException(e.getMessage(), e);
+        StoredConfig config = repository.getConfig();
+        // repository and its config are shared by connections, see RepositoryPool
+        synchronized (config) {
+            config.setString(key.section, key.subsection, key.name, value);
+            try {
+                config.save();
+            } catch (IOException e) {
+                throw new GitException(e.getMessage(), e);
+            }
         }
         return this;
     }
@@ -117,11 +121,14 @@ class JGitConfigImpl extends Config {
     @Override
     public Config unset(String name) throws GitException {
         ConfigKey key = parseName(name);
-        repository.getConfig().unset(key.section, key.subsection, key.name);
-        try {
-            this.repository.getConfig().save();
-        } catch (IOException e) {
-            throw new GitException(e.getMessage(), e);
+        StoredConfig config = repository.getConfig();
+        synchronized (config) {
+            config.unset(key.section, key.subsection, key.name);
+            try {
+                config.save();
+            } catch (IOException e) {
+                throw new GitException(e.getMessage(), e);
+            }
         }
         return this;
     }
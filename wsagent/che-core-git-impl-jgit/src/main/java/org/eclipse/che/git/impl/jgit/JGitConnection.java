@@ -37,6 +37,7 @@ import org.eclipse.che.api.git.exception.GitRefNotFoundException;
 import org.eclipse.che.api.git.exception.GitInvalidRefNameException;
 import org.eclipse.che.api.git.GitUrlUtils;
 import org.eclipse.che.api.git.GitUserResolver;
+import org.eclipse.che.api.git.InfoPage;
 import org.eclipse.che.api.git.LogPage;
 import org.eclipse.che.api.git.UserCredential;
 import org.eclipse.che.api.git.params.AddParams;
@@ -58,6 +59,7 @@ import org.eclipse.che.api.git.params.TagCreateParams;
 import org.eclipse.che.api.git.shared.AddRequest;
 import org.eclipse.che.api.git.shared.Branch;
 import org.eclipse.che.api.git.shared.DiffCommitFile;
+import org.eclipse.che.api.git.shared.FileDiff;
 import org.eclipse.che.api.git.shared.GitUser;
 import org.eclipse.che.api.git.shared.MergeResult;
 import org.eclipse.che.api.git.shared.ProviderInfo;
@@ -136,12 +138,8 @@ import org.eclipse.jgit.transport.SshTransport;
 import org.eclipse.jgit.transport.TrackingRefUpdate;
 import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
-import org.eclipse.jgit.treewalk.EmptyTreeIterator;
 import org.eclipse.jgit.treewalk.TreeWalk;
-import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
 import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
-import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
 import org.eclipse.jgit.util.FS;
 import org.eclipse.jgit.util.FileUtils;
@@ -176,6 +174,7 @@ import java.util.stream.Stream;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.String.format;
 import static java.lang.System.lineSeparator;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.attribute.PosixFilePermission.OWNER_READ;
 import static java.nio.file.attribute.PosixFilePermission.OWNER_WRITE;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -248,6 +247,7 @@ class JGitConnection implements GitConnection {
     private Git                 git;
     private JGitConfigImpl      config;
     private LineConsumerFactory lineConsumerFactory;
+    private StatusCache         statusCache;
 
     private final CredentialsLoader credentialsLoader;
     private final SshKeyProvider    sshKeyProvider;
@@ -455,55 +455,35 @@ class JGitConnection implements GitConnection {
             // We have to do this here because the clone command doesn't revert its own changes in case of failure.
             removeIfFailed = !repository.getDirectory().exists();
 
-            CloneCommand cloneCommand = Git.cloneRepository()
-                                           .setDirectory(new File(params.getWorkingDir()))
-                                           .setRemote(params.getRemoteName())
-                                           .setCloneSubmodules(params.isRecursive())
-                                           .setURI(remoteUri);
-            if (params.getBranchesToFetch().isEmpty()) {
-                cloneCommand.setCloneAllBranches(true);
+            if (params.getReference() != null) {
+                cloneWithReference(params);
             } else {
-                cloneCommand.setBranchesToClone(params.getBranchesToFetch());
-            }
-
-            LineConsumer lineConsumer = lineConsumerFactory.newLineConsumer();
-            cloneCommand.setProgressMonitor(new BatchingProgressMonitor() {
-                @Override
-                protected void onUpdate(String taskName, int workCurr) {
-                    try {
-                        lineConsumer.writeLine(taskName + ": " + workCurr + " completed");
-                    } catch (IOException exception) {
-                        LOG.error(exception.getMessage(), exception);
-                    }
-                }
-
-                @Override
-                protected void onEndTask(String taskName, int workCurr) {
-                }
-
-                @Override
-                protected void onUpdate(String taskName, int workCurr, int workTotal, int percentDone) {
-                    try {
-                        lineConsumer.writeLine(taskName + ": " + workCurr + " of " + workTotal + " completed, " + percentDone + "% done");
-                    } catch (IOException exception) {
-                        LOG.error(exception.getMessage(), exception);
-                    }
-                }
-
-                @Override
-                protected void onEndTask(String taskName, int workCurr, int workTotal, int percentDone) {
+                CloneCommand cloneCommand = Git.cloneRepository()
+                                               .setDirectory(new File(params.getWorkingDir()))
+                                               .setRemote(params.getRemoteName())
+                                               .setCloneSubmodules(params.isRecursive())
+                                               .setURI(remoteUri)
+                                               .setProgressMonitor(newProgressMonitor());
+                if (params.getBranchesToFetch().isEmpty()) {
+                    cloneCommand.setCloneAllBranches(true);
+                } else {
+                    // remote HEAD may point to branch which is not fetched
+                    cloneCommand.setBranchesToClone(params.getBranchesToFetch())
+                                .setBranch(params.getBranchesToFetch().get(0));
                 }
-            });
 
-            executeRemoteCommand(remoteUri, cloneCommand, params.getUsername(), params.getPassword());
+                executeRemoteCommand(remoteUri, cloneCommand, params.getUsername(), params.getPassword());
+            }
 
             StoredConfig repositoryConfig = getRepository().getConfig();
             GitUser gitUser = getUser();
-            if (gitUser != null) {
-                repositoryConfig.setString(ConfigConstants.CONFIG_USER_SECTION, null, ConfigConstants.CONFIG_KEY_NAME, gitUser.getName());
-                repositoryConfig.setString(ConfigConstants.CONFIG_USER_SECTION, null, ConfigConstants.CONFIG_KEY_EMAIL, gitUser.getEmail());
+            synchronized (repositoryConfig) {
+                if (gitUser != null) {
+                    repositoryConfig.setString(ConfigConstants.CONFIG_USER_SECTION, null, ConfigConstants.CONFIG_KEY_NAME, gitUser.getName());
+                    repositoryConfig.setString(ConfigConstants.CONFIG_USER_SECTION, null, ConfigConstants.CONFIG_KEY_EMAIL, gitUser.getEmail());
+                }
+                repositoryConfig.save();
             }
-            repositoryConfig.save();
         } catch (IOException | GitAPIException exception) {
             // Delete .git directory in case it was created
             if (removeIfFailed) {
@@ -525,6 +505,110 @@ class JGitConnection implements GitConnection {
         }
     }
 
+    /**
+     * Clones repository which borrows objects from reference repository. Alternate object database must be set up before the first
+     * fetch, but clone command of JGit doesn't allow that, so repository is initialized, fetched and checked out step by step. Fetch
+     * tells remote repository that objects of reference repository are already present.
+     */
+    private void cloneWithReference(CloneParams params) throws GitException, GitAPIException, IOException, UnauthorizedException {
+        File referenceObjects = getObjectsDirectory(new File(params.getReference()));
+        if (referenceObjects == null) {
+            throw new GitException(format("Reference %s is not a git repository", params.getReference()));
+        }
+        repository.create();
+        Files.write(referenceObjects.getCanonicalPath() + '\n',
+                    new File(repository.getDirectory(), "objects/info/alternates"),
+                    UTF_8);
+
+        String remoteName = params.getRemoteName();
+        List<String> branches = params.getBranchesToFetch().stream().map(Repository::shortenRefName).collect(Collectors.toList());
+        remoteAdd(RemoteAddParams.create(remoteName, params.getRemoteUrl()).withBranches(branches));
+        FetchCommand fetchCommand = getGit().fetch()
+                                            .setRemote(remoteName)
+                                            .setProgressMonitor(newProgressMonitor());
+        FetchResult fetchResult = (FetchResult)executeRemoteCommand(params.getRemoteUrl(),
+                                                                    fetchCommand,
+                                                                    params.getUsername(),
+                                                                    params.getPassword());
+
+        String branch = branches.isEmpty() ? getAdvertisedHeadBranch(fetchResult) : branches.get(0);
+        if (branch != null) {
+            getGit().checkout()
+                    .setCreateBranch(true)
+                    .setName(branch)
+                    .setStartPoint(Constants.R_REMOTES + remoteName + "/" + branch)
+                    .setUpstreamMode(SetupUpstreamMode.TRACK)
+                    .call();
+        } else if (fetchResult.getAdvertisedRef(Constants.HEAD) != null) {
+            // remote HEAD is detached
+            getGit().checkout().setName(fetchResult.getAdvertisedRef(Constants.HEAD).getObjectId().name()).call();
+        }
+
+        if (params.isRecursive()) {
+            getGit().submoduleInit().call();
+            executeRemoteCommand(params.getRemoteUrl(),
+                                 getGit().submoduleUpdate().setProgressMonitor(newProgressMonitor()),
+                                 params.getUsername(),
+                                 params.getPassword());
+        }
+    }
+
+    /** Gets {@code objects} directory of repository with working tree or of bare repository, {@code null} if it is not a repository. */
+    private static File getObjectsDirectory(File repositoryDir) {
+        File gitDir = new File(repositoryDir, Constants.DOT_GIT);
+        File objects = new File(gitDir.isDirectory() ? gitDir : repositoryDir, "objects");
+        return objects.isDirectory() ? objects : null;
+    }
+
+    /** Gets short name of branch which remote HEAD points to, prefers master if several branches point to the same commit. */
+    private static String getAdvertisedHeadBranch(FetchResult fetchResult) {
+        Ref head = fetchResult.getAdvertisedRef(Constants.HEAD);
+        if (head == null || head.getObjectId() == null) {
+            return null;
+        }
+        Ref master = fetchResult.getAdvertisedRef(Constants.R_HEADS + Constants.MASTER);
+        if (master != null && head.getObjectId().equals(master.getObjectId())) {
+            return Constants.MASTER;
+        }
+        for (Ref ref : fetchResult.getAdvertisedRefs()) {
+            if (ref.getName().startsWith(Constants.R_HEADS) && head.getObjectId().equals(ref.getObjectId())) {
+                return Repository.shortenRefName(ref.getName());
+            }
+        }
+        return null;
+    }
+
+    private BatchingProgressMonitor newProgressMonitor() {
+        LineConsumer lineConsumer = lineConsumerFactory.newLineConsumer();
+        return new BatchingProgressMonitor() {
+            @Override
+            protected void onUpdate(String taskName, int workCurr) {
+                try {
+                    lineConsumer.writeLine(taskName + ": " + workCurr + " completed");
+                } catch (IOException exception) {
+                    LOG.error(exception.getMessage(), exception);
+                }
+            }
+
+            @Override
+            protected void onEndTask(String taskName, int workCurr) {
+            }
+
+            @Override
+            protected void onUpdate(String taskName, int workCurr, int workTotal, int percentDone) {
+                try {
+                    lineConsumer.writeLine(taskName + ": " + workCurr + " of " + workTotal + " completed, " + percentDone + "% done");
+                } catch (IOException exception) {
+                    LOG.error(exception.getMessage(), exception);
+                }
+            }
+
+            @Override
+            protected void onEndTask(String taskName, int workCurr, int workTotal, int percentDone) {
+            }
+        };
+    }
+
     @Override
     public Revision commit(CommitParams params) throws GitException {
         try {
@@ -590,6 +674,29 @@ class JGitConnection implements GitConnection {
         return new JGitDiffPage(params, repository);
     }
 
+    @Override
+    public InfoPage diffFiles(DiffParams params) throws GitException {
+        return new JGitDiffFilesPage(params, repository);
+    }
+
+    @Override
+    public FileDiff diffFile(DiffParams params, String path, String oldPath, int skipHunks, int maxHunks) throws GitException {
+        // old path in filter lets rename detector pair both sides of renamed file
+        List<String> fileFilter = oldPath == null ? Collections.singletonList(path) : Arrays.asList(path, oldPath);
+        try (HunksCollector collector = new HunksCollector(skipHunks, maxHunks, params.getSizeLimit(), HunksCollector.CONTENT_SIZE_LIMIT)) {
+            collector.setRepository(repository);
+            for (DiffEntry entry : new JGitDiffPage(params, repository).scan(collector, fileFilter)) {
+                String entryPath = entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath();
+                if (path.equals(entryPath)) {
+                    return collector.collect(entry);
+                }
+            }
+            return null;
+        } catch (IOException | IllegalArgumentException exception) {
+            throw new GitException(exception.getMessage(), exception);
+        }
+    }
+
     @Override
     public boolean isInsideWorkTree() throws GitException {
         return RepositoryCache.FileKey.isGitRepository(getRepository().getDirectory(), FS.DETECTED);
@@ -725,11 +832,18 @@ class JGitConnection implements GitConnection {
                 logCommand.addPath(filePath);
             }
             Iterator<RevCommit> revIterator = logCommand.call().iterator();
+            CommitReachabilityIndex branchesIndex = CommitReachabilityIndex.of(repository);
+            branchesIndex.refresh(repository);
             List<Revision> commits = new ArrayList<>();
-            while (revIterator.hasNext()) {
-                RevCommit commit = revIterator.next();
-                Revision revision = getRevision(commit, filePath);
-                commits.add(revision);
+            try (DiffFormatter diffFormat = params.isDiffFiles() ? newCommitDiffFormatter(filePath) : null) {
+                while (revIterator.hasNext()) {
+                    RevCommit commit = revIterator.next();
+                    Revision revision = getRevision(commit, branchesIndex);
+                    if (diffFormat != null) {
+                        revision.setDiffCommitFile(getCommitDiffFiles(commit, diffFormat));
+                    }
+                    commits.add(revision);
+                }
             }
             return new LogPage(commits);
         } catch (GitAPIException | IOException exception) {
@@ -743,7 +857,7 @@ class JGitConnection implements GitConnection {
         }
     }
 
-    private Revision getRevision(RevCommit commit, String filePath) throws GitAPIException, IOException {
+    private Revision getRevision(RevCommit commit, CommitReachabilityIndex branchesIndex) {
         List<String> commitParentsList = Stream.of(commit.getParents())
                                                .map(RevCommit::getName)
                                                .collect(Collectors.toList());
@@ -753,9 +867,8 @@ class JGitConnection implements GitConnection {
                                      .withCommitTime((long)commit.getCommitTime() * 1000)
                                      .withCommitter(getCommitCommitter(commit))
                                      .withAuthor(getCommitAuthor(commit))
-                                     .withBranches(getBranchesOfCommit(commit, ListMode.ALL))
-                                     .withCommitParent(commitParentsList)
-                                     .withDiffCommitFile(getCommitDiffFiles(commit, filePath));
+                                     .withBranches(getBranchesOfCommit(commit, branchesIndex))
+                                     .withCommitParent(commitParentsList);
     }
 
     private GitUser getCommitCommitter(RevCommit commit) {
@@ -770,67 +883,31 @@ class JGitConnection implements GitConnection {
                                     .withEmail(authorIdentity.getEmailAddress());
     }
 
-    private List<Branch> getBranchesOfCommit(RevCommit commit, ListMode mode) throws GitAPIException {
-        List<Ref> branches = getGit().branchList()
-                                     .setListMode(mode)
-                                     .setContains(commit.getName())
-                                     .call();
-        return branches.stream()
-                       .map(branch -> newDto(Branch.class).withName(branch.getName()))
-                       .collect(Collectors.toList());
+    private List<Branch> getBranchesOfCommit(RevCommit commit, CommitReachabilityIndex branchesIndex) {
+        return branchesIndex.getBranches(commit)
+                            .stream()
+                            .map(branch -> newDto(Branch.class).withName(branch))
+                            .collect(Collectors.toList());
     }
 
-    private List<DiffCommitFile> getCommitDiffFiles(RevCommit revCommit, String pattern) throws IOException {
-        List<DiffEntry> diffs;
-        TreeFilter filter = null;
+    /** Creates formatter which is shared by all commits of log, diff of each commit may be limited by specified path. */
+    private DiffFormatter newCommitDiffFormatter(String pattern) {
+        DiffFormatter diffFormat = new DiffFormatter(NullOutputStream.INSTANCE);
+        diffFormat.setRepository(repository);
         if (!isNullOrEmpty(pattern)) {
-            filter = AndTreeFilter.create(PathFilterGroup.createFromStrings(Collections.singleton(pattern)), TreeFilter.ANY_DIFF);
-        }
-        List<DiffCommitFile> commitFilesList = new ArrayList<>();
-        try (TreeWalk tw = new TreeWalk(repository)) {
-            tw.setRecursive(true);
-            // get the current commit parent in order to compare it with the current commit
-            // and to get the list of DiffEntry.
-            if (revCommit.getParentCount() > 0) {
-                RevCommit parent = parseCommit(revCommit.getParent(0));
-                tw.reset(parent.getTree(), revCommit.getTree());
-                if (filter != null) {
-                    tw.setFilter(filter);
-                } else {
-                    tw.setFilter(TreeFilter.ANY_DIFF);
-                }
-                diffs = DiffEntry.scan(tw);
-            } else {
-                // If the current commit has no parents (which means it is the initial commit),
-                // then create an empty tree and compare it to the current commit to get the
-                // list of DiffEntry.
-                try (RevWalk rw = new RevWalk(repository);
-                     DiffFormatter diffFormat = new DiffFormatter(NullOutputStream.INSTANCE)) {
-                    diffFormat.setRepository(repository);
-                    if (filter != null) {
-                        diffFormat.setPathFilter(filter);
-                    }
-                    diffs = diffFormat.scan(new EmptyTreeIterator(),
-                                            new CanonicalTreeParser(null, rw.getObjectReader(), revCommit.getTree()));
-                }
-            }
-        }
-        if (diffs != null) {
-            commitFilesList.addAll(diffs.stream().map(diff -> newDto(DiffCommitFile.class).withOldPath(diff.getOldPath())
-                                                                                          .withNewPath(diff.getNewPath())
-                                                                                          .withChangeType(diff.getChangeType().name()))
-                                        .collect(Collectors.toList()));
+            diffFormat.setPathFilter(PathFilterGroup.createFromStrings(Collections.singleton(pattern)));
         }
-        return commitFilesList;
+        return diffFormat;
     }
 
-    private RevCommit parseCommit(RevCommit revCommit) {
-        try (RevWalk rw = new RevWalk(repository)) {
-            return rw.parseCommit(revCommit);
-        } catch (IOException exception) {
-            LOG.error("Failed to parse commit. ", exception);
-            return revCommit;
-        }
+    private List<DiffCommitFile> getCommitDiffFiles(RevCommit revCommit, DiffFormatter diffFormat) throws IOException {
+        // compare commit with its first parent, initial commit is compared with empty tree
+        List<DiffEntry> diffs = diffFormat.scan(revCommit.getParentCount() > 0 ? revCommit.getParent(0) : null, revCommit);
+        return diffs.stream()
+                    .map(diff -> newDto(DiffCommitFile.class).withOldPath(diff.getOldPath())
+                                                             .withNewPath(diff.getNewPath())
+                                                             .withChangeType(diff.getChangeType().name()))
+                    .collect(Collectors.toList());
     }
 
 
@@ -1219,80 +1296,85 @@ class JGitConnection implements GitConnection {
         }
 
         StoredConfig config = repository.getConfig();
-        Set<String> remoteNames = config.getSubsections("remote");
-        if (remoteNames.contains(remoteName)) {
-            throw new GitException(format(ERROR_ADD_REMOTE_NAME_ALREADY_EXISTS, remoteName));
-        }
+        // repository and its config are shared by connections, see RepositoryPool
+        synchronized (config) {
+            Set<String> remoteNames = config.getSubsections("remote");
+            if (remoteNames.contains(remoteName)) {
+                throw new GitException(format(ERROR_ADD_REMOTE_NAME_ALREADY_EXISTS, remoteName));
+            }
 
-        String url = params.getUrl();
-        if (isNullOrEmpty(url)) {
-            throw new GitException(ERROR_ADD_REMOTE_URL_MISSING);
-        }
+            String url = params.getUrl();
+            if (isNullOrEmpty(url)) {
+                throw new GitException(ERROR_ADD_REMOTE_URL_MISSING);
+            }
 
-        RemoteConfig remoteConfig;
-        try {
-            remoteConfig = new RemoteConfig(config, remoteName);
-        } catch (URISyntaxException exception) {
-            // Not happen since it is newly created remote.
-            throw new GitException(exception.getMessage(), exception);
-        }
+            RemoteConfig remoteConfig;
+            try {
+                remoteConfig = new RemoteConfig(config, remoteName);
+            } catch (URISyntaxException exception) {
+                // Not happen since it is newly created remote.
+                throw new GitException(exception.getMessage(), exception);
+            }
 
-        try {
-            remoteConfig.addURI(new URIish(url));
-        } catch (URISyntaxException exception) {
-            throw new GitException("Remote url " + url + " is invalid. ");
-        }
+            try {
+                remoteConfig.addURI(new URIish(url));
+            } catch (URISyntaxException exception) {
+                throw new GitException("Remote url " + url + " is invalid. ");
+            }
 
-        List<String> branches = params.getBranches();
-        if (branches.isEmpty()) {
-            remoteConfig.addFetchRefSpec(
-                    new RefSpec(Constants.R_HEADS + "*" + ":" + Constants.R_REMOTES + remoteName + "/*").setForceUpdate(true));
-        } else {
-            for (String branch : branches) {
-                remoteConfig.addFetchRefSpec(new RefSpec(Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + remoteName + "/" + branch)
-                                                     .setForceUpdate(true));
+            List<String> branches = params.getBranches();
+            if (branches.isEmpty()) {
+                remoteConfig.addFetchRefSpec(
+                        new RefSpec(Constants.R_HEADS + "*" + ":" + Constants.R_REMOTES + remoteName + "/*").setForceUpdate(true));
+            } else {
+                for (String branch : branches) {
+                    remoteConfig.addFetchRefSpec(new RefSpec(Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + remoteName + "/" + branch)
+                                                         .setForceUpdate(true));
+                }
             }
-        }
 
-        remoteConfig.update(config);
+            remoteConfig.update(config);
 
-        try {
-            config.save();
-        } catch (IOException exception) {
-            throw new GitException(exception.getMessage(), exception);
+            try {
+                config.save();
+            } catch (IOException exception) {
+                throw new GitException(exception.getMessage(), exception);
+            }
         }
     }
 
     @Override
     public void remoteDelete(String name) throws GitException {
         StoredConfig config = repository.getConfig();
-        Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
-        if (!remoteNames.contains(name)) {
-            throw new GitException("error: Could not remove config section 'remote." + name + "'");
-        }
-
-        config.unsetSection(ConfigConstants.CONFIG_REMOTE_SECTION, name);
-        Set<String> branches = config.getSubsections(ConfigConstants.CONFIG_BRANCH_SECTION);
-
-        for (String branch : branches) {
-            String r = config.getString(ConfigConstants.CONFIG_BRANCH_SECTION, branch,
-                                        ConfigConstants.CONFIG_KEY_REMOTE);
-            if (name.equals(r)) {
-                config.unset(ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_REMOTE);
-                config.unset(ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_MERGE);
-                List<Branch> remoteBranches = branchList(LIST_REMOTE);
-                for (Branch remoteBranch : remoteBranches) {
-                    if (remoteBranch.getDisplayName().startsWith(name)) {
-                        branchDelete(remoteBranch.getName(), true);
+        synchronized (config) {
+            Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
+            if (!remoteNames.contains(name)) {
+                throw new GitException("error: Could not remove config section 'remote." + name + "'");
+            }
+
+            config.unsetSection(ConfigConstants.CONFIG_REMOTE_SECTION, name);
+            Set<String> branches = config.getSubsections(ConfigConstants.CONFIG_BRANCH_SECTION);
+
+            for (String branch : branches) {
+                String r = config.getString(ConfigConstants.CONFIG_BRANCH_SECTION, branch,
+                                            ConfigConstants.CONFIG_KEY_REMOTE);
+                if (name.equals(r)) {
+                    config.unset(ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_REMOTE);
+                    config.unset(ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_MERGE);
+                    List<Branch> remoteBranches = branchList(LIST_REMOTE);
+                    for (Branch remoteBranch : remoteBranches) {
+                        if (remoteBranch.getDisplayName().startsWith(name)) {
+                            branchDelete(remoteBranch.getName(), true);
+                        }
                     }
                 }
             }
-        }
 
-        try {
-            config.save();
-        } catch (IOException exception) {
-            throw new GitException(exception.getMessage(), exception);
+            try {
+                config.save();
+            } catch (IOException exception) {
+                throw new GitException(exception.getMessage(), exception);
+            }
         }
     }
 
@@ -1326,82 +1408,84 @@ class JGitConnection implements GitConnection {
         }
 
         StoredConfig config = repository.getConfig();
-        Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
-        if (!remoteNames.contains(remoteName)) {
-            throw new GitException("Remote " + remoteName + " not found. ");
-        }
-
-        RemoteConfig remoteConfig;
-        try {
-            remoteConfig = new RemoteConfig(config, remoteName);
-        } catch (URISyntaxException e) {
-            throw new GitException(e.getMessage(), e);
-        }
+        synchronized (config) {
+            Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
+            if (!remoteNames.contains(remoteName)) {
+                throw new GitException("Remote " + remoteName + " not found. ");
+            }
 
-        List<String> branches = params.getBranches();
-        if (!branches.isEmpty()) {
-            if (!params.isAddBranches()) {
-                remoteConfig.setFetchRefSpecs(Collections.emptyList());
-                remoteConfig.setPushRefSpecs(Collections.emptyList());
-            } else {
-                // Replace wildcard refSpec if any.
-                remoteConfig.removeFetchRefSpec(
-                        new RefSpec(Constants.R_HEADS + "*" + ":" + Constants.R_REMOTES + remoteName + "/*")
-                                .setForceUpdate(true));
-                remoteConfig.removeFetchRefSpec(
-                        new RefSpec(Constants.R_HEADS + "*" + ":" + Constants.R_REMOTES + remoteName + "/*"));
+            RemoteConfig remoteConfig;
+            try {
+                remoteConfig = new RemoteConfig(config, remoteName);
+            } catch (URISyntaxException e) {
+                throw new GitException(e.getMessage(), e);
             }
 
-            // Add new refSpec.
-            for (String branch : branches) {
-                remoteConfig.addFetchRefSpec(
-                        new RefSpec(Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + remoteName + "/" + branch)
-                                .setForceUpdate(true));
+            List<String> branches = params.getBranches();
+            if (!branches.isEmpty()) {
+                if (!params.isAddBranches()) {
+                    remoteConfig.setFetchRefSpecs(Collections.emptyList());
+                    remoteConfig.setPushRefSpecs(Collections.emptyList());
+                } else {
+                    // Replace wildcard refSpec if any.
+                    remoteConfig.removeFetchRefSpec(
+                            new RefSpec(Constants.R_HEADS + "*" + ":" + Constants.R_REMOTES + remoteName + "/*")
+                                    .setForceUpdate(true));
+                    remoteConfig.removeFetchRefSpec(
+                            new RefSpec(Constants.R_HEADS + "*" + ":" + Constants.R_REMOTES + remoteName + "/*"));
+                }
+
+                // Add new refSpec.
+                for (String branch : branches) {
+                    remoteConfig.addFetchRefSpec(
+                            new RefSpec(Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + remoteName + "/" + branch)
+                                    .setForceUpdate(true));
+                }
             }
-        }
 
-        // Remove URLs first.
-        for (String url : params.getRemoveUrl()) {
-            try {
-                remoteConfig.removeURI(new URIish(url));
-            } catch (URISyntaxException e) {
-                LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+            // Remove URLs first.
+            for (String url : params.getRemoveUrl()) {
+                try {
+                    remoteConfig.removeURI(new URIish(url));
+                } catch (URISyntaxException e) {
+                    LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+                }
             }
-        }
 
-        // Add new URLs.
-        for (String url : params.getAddUrl()) {
-            try {
-                remoteConfig.addURI(new URIish(url));
-            } catch (URISyntaxException e) {
-                throw new GitException("Remote url " + url + " is invalid. ");
+            // Add new URLs.
+            for (String url : params.getAddUrl()) {
+                try {
+                    remoteConfig.addURI(new URIish(url));
+                } catch (URISyntaxException e) {
+                    throw new GitException("Remote url " + url + " is invalid. ");
+                }
             }
-        }
 
-        // Remove URLs for pushing.
-        for (String url : params.getRemovePushUrl()) {
-            try {
-                remoteConfig.removePushURI(new URIish(url));
-            } catch (URISyntaxException e) {
-                LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+            // Remove URLs for pushing.
+            for (String url : params.getRemovePushUrl()) {
+                try {
+                    remoteConfig.removePushURI(new URIish(url));
+                } catch (URISyntaxException e) {
+                    LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+                }
             }
-        }
 
-        // Add URLs for pushing.
-        for (String url : params.getAddPushUrl()) {
-            try {
-                remoteConfig.addPushURI(new URIish(url));
-            } catch (URISyntaxException e) {
-                throw new GitException("Remote push url " + url + " is invalid. ");
+            // Add URLs for pushing.
+            for (String url : params.getAddPushUrl()) {
+                try {
+                    remoteConfig.addPushURI(new URIish(url));
+                } catch (URISyntaxException e) {
+                    throw new GitException("Remote push url " + url + " is invalid. ");
+                }
             }
-        }
 
-        remoteConfig.update(config);
+            remoteConfig.update(config);
 
-        try {
-            config.save();
-        } catch (IOException exception) {
-            throw new GitException(exception.getMessage(), exception);
+            try {
+                config.save();
+            } catch (IOException exception) {
+                throw new GitException(exception.getMessage(), exception);
+            }
         }
     }
 
@@ -1462,6 +1546,9 @@ class JGitConnection implements GitConnection {
             throw new GitException("Not a git repository");
         }
         String branchName = getCurrentBranch();
+        if (statusCache != null) {
+            return statusCache.getStatus(repository, branchName, format);
+        }
         return new JGitStatusImpl(branchName, getGit().status(), format);
     }
 
@@ -1591,6 +1678,11 @@ class JGitConnection implements GitConnection {
         this.lineConsumerFactory = lineConsumerFactory;
     }
 
+    /** Sets cache which is used to get status of working tree instead of scanning the whole tree each time. */
+    void setStatusCache(StatusCache statusCache) {
+        this.statusCache = statusCache;
+    }
+
 
     private Git getGit() {
         if (git != null) {
@@ -1611,11 +1703,16 @@ class JGitConnection implements GitConnection {
 
     @Override
     public void cloneWithSparseCheckout(String directory, String remoteUrl) throws GitException, UnauthorizedException {
+        cloneWithSparseCheckout(directory, CloneParams.create(remoteUrl));
+    }
+
+    @Override
+    public void cloneWithSparseCheckout(String directory, CloneParams params) throws GitException, UnauthorizedException {
         //TODO rework this code when jgit will support sparse-checkout. Tracked issue: https://bugs.eclipse.org/bugs/show_bug.cgi?id=383772
         if (directory == null) {
             throw new GitException("Subdirectory for sparse-checkout is not specified");
         }
-        clone(CloneParams.create(remoteUrl));
+        clone(params);
         final String sourcePath = getWorkingDir().getPath();
         final String keepDirectoryPath = sourcePath + "/" + directory;
         IOFileFilter folderFilter = new DirectoryFileFilter() {
@@ -11,45 +11,94 @@
  *******************************************************************************/
 package org.eclipse.che.git.impl.jgit;
 
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.git.CredentialsLoader;
 import org.eclipse.che.api.git.GitConnectionFactory;
 import org.eclipse.che.api.git.exception.GitException;
 import org.eclipse.che.api.git.GitUserResolver;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileTreeWatcher;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
 import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
-import org.eclipse.jgit.internal.storage.file.FileRepository;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.transport.UserAgent;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.PathMatcher;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Set;
 
 /**
- * JGit implementation for GitConnectionFactory
+ * JGit implementation for GitConnectionFactory. Repositories are kept open between connections, see {@link RepositoryPool}. Pooled
+ * repository is invalidated when its {@code .git} directory or list of alternate object databases is changed. If file watcher is
+ * available status of working trees is cached and kept up to date by watcher, see {@link StatusCache}.
  * 
  * @author Tareq Sharafy (tareq.sha@gmail.com)
  */
+@Singleton
 public class JGitConnectionFactory extends GitConnectionFactory {
 
     private static final String USER_AGENT = "git/2.1.0";
 
-    private final CredentialsLoader credentialsLoader;
-    private final SshKeyProvider    sshKeyProvider;
-    private final GitUserResolver   userResolver;
+    private final CredentialsLoader               credentialsLoader;
+    private final SshKeyProvider                  sshKeyProvider;
+    private final GitUserResolver                 userResolver;
+    private final RepositoryPool                  repositories;
+    private final FileWatcherNotificationHandler  fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener repositoriesInvalidator;
+    private final StatusCache                     statusCache;
 
-    @Inject
     public JGitConnectionFactory(CredentialsLoader credentialsLoader, SshKeyProvider sshKeyProvider, GitUserResolver userResolver) throws GitException {
+        this(credentialsLoader, sshKeyProvider, userResolver, null, null, null, null);
+    }
+
+    @Inject
+    public JGitConnectionFactory(CredentialsLoader credentialsLoader,
+                                 SshKeyProvider sshKeyProvider,
+                                 GitUserResolver userResolver,
+                                 FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                                 FileTreeWatcher fileTreeWatcher,
+                                 @Named("vfs.index_filter_matcher") Set<PathMatcher> notWatchedPaths,
+                                 EventService eventService) throws GitException {
         this.credentialsLoader = credentialsLoader;
         this.sshKeyProvider = sshKeyProvider;
         this.userResolver = userResolver;
+        this.repositories = new RepositoryPool();
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        // without watcher cached status can't be kept up to date
+        this.statusCache = fileWatcherNotificationHandler == null
+                           ? null
+                           : new StatusCache(repositories, eventService, fileTreeWatcher, notWatchedPaths);
+        this.repositoriesInvalidator = new FileWatcherNotificationListener(file -> isRepositoryStructure(file.getPath())) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                final File ioFile = virtualFile.toIoFile();
+                if (ioFile != null) {
+                    // .git or .git/objects/info/alternates
+                    final File gitDir = Constants.DOT_GIT.equals(ioFile.getName())
+                                        ? ioFile
+                                        : ioFile.getParentFile().getParentFile().getParentFile();
+                    repositories.invalidate(gitDir);
+                    statusCache.invalidate(gitDir.getParentFile());
+                }
+            }
+        };
 
         UserAgent.set(USER_AGENT);
         // Install the all-trusting trust manager
@@ -76,22 +125,54 @@ public class JGitConnectionFactory extends GitConnectionFactory {
         }
     }
 
+    @PostConstruct
+    void start() {
+        if (fileWatcherNotificationHandler != null) {
+            fileWatcherNotificationHandler.addNotificationListener(repositoriesInvalidator);
+            fileWatcherNotificationHandler.addNotificationListener(statusCache.getListener());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (fileWatcherNotificationHandler != null) {
+            fileWatcherNotificationHandler.removeNotificationListener(repositoriesInvalidator);
+            fileWatcherNotificationHandler.removeNotificationListener(statusCache.getListener());
+            statusCache.close();
+        }
+        repositories.closeAll();
+    }
+
     @Override
     public JGitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory) throws GitException {
         Repository gitRepo = createRepository(workDir);
         JGitConnection conn = new JGitConnection(gitRepo, credentialsLoader, sshKeyProvider, userResolver);
         conn.setOutputLineConsumerFactory(outputPublisherFactory);
+        conn.setStatusCache(statusCache);
         return conn;
     }
 
-    private static Repository createRepository(File workDir) throws GitException {
+    private Repository createRepository(File workDir) throws GitException {
         try {
-            return new FileRepository(new File(workDir, Constants.DOT_GIT));
+            return repositories.acquire(new File(workDir, Constants.DOT_GIT));
         } catch (IOException e) {
             throw new GitException(e.getMessage(), e);
         }
     }
 
+    /** Checks whether path is {@code .git} directory or file with list of alternate object databases in it. */
+    private static boolean isRepositoryStructure(Path path) {
+        final int length = path.length();
+        if (length > 0 && Constants.DOT_GIT.equals(path.element(length - 1))) {
+            return true;
+        }
+        return length > 3
+               && "alternates".equals(path.element(length - 1))
+               && "info".equals(path.element(length - 2))
+               && "objects".equals(path.element(length - 3))
+               && Constants.DOT_GIT.equals(path.element(length - 4));
+    }
+
     @Override
     public CredentialsLoader getCredentialsLoader() {
         return credentialsLoader;
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.che.api.git.InfoPage;
+import org.eclipse.che.api.git.params.DiffParams;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.eclipse.jgit.diff.DiffEntry.Side;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.util.io.NullOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes files which differ as JSON, see {@link org.eclipse.che.api.git.GitConnection#diffFiles(DiffParams)}. List of changed files is
+ * found first, then files are compared one by one and each file is written as soon as it is compared, so files are not collected in
+ * memory. Content of file is loaded only if it fits in the rest of size limit.
+ */
+class JGitDiffFilesPage implements InfoPage {
+    /** Files are flushed to client by portions of this size. */
+    private static final int FLUSH_FILES = 100;
+
+    private final DiffParams params;
+    private final Repository repository;
+
+    JGitDiffFilesPage(DiffParams params, Repository repository) {
+        this.params = params;
+        this.repository = repository;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        final JGitDiffPage diffPage = new JGitDiffPage(params, repository);
+        try (DiffFormatter formatter = new DiffFormatter(NullOutputStream.INSTANCE);
+             ObjectReader reader = repository.newObjectReader()) {
+            formatter.setRepository(repository);
+            final List<DiffEntry> diff = diffPage.scan(formatter, params.getFileFilter());
+
+            final JsonWriter json = new JsonWriter(new OutputStreamWriter(out, UTF_8));
+            json.beginObject().name("files").beginArray();
+            final long sizeLimit = params.getSizeLimit();
+            long size = 0;
+            boolean sizeLimitExceeded = false;
+            for (int i = 0; i < diff.size(); i++) {
+                final DiffEntry entry = diff.get(i);
+                json.beginObject().name("changeType").value(entry.getChangeType().name());
+                if (entry.getChangeType() != ChangeType.ADD) {
+                    json.name("oldPath").value(entry.getOldPath());
+                }
+                if (entry.getChangeType() != ChangeType.DELETE) {
+                    json.name("newPath").value(entry.getNewPath());
+                }
+                if (!sizeLimitExceeded) {
+                    size += size(repository, reader, entry, Side.OLD) + size(repository, reader, entry, Side.NEW);
+                    sizeLimitExceeded = sizeLimit > 0 && size > sizeLimit;
+                }
+                if (!sizeLimitExceeded) {
+                    writeStats(json, formatter.toFileHeader(entry));
+                }
+                json.endObject();
+                if ((i + 1) % FLUSH_FILES == 0) {
+                    json.flush();
+                }
+            }
+            json.endArray()
+                .name("renameLimitExceeded").value(diffPage.isRenameLimitExceeded())
+                .name("sizeLimitExceeded").value(sizeLimitExceeded)
+                .endObject();
+            json.flush();
+        }
+    }
+
+    private void writeStats(JsonWriter json, FileHeader header) throws IOException {
+        final boolean binary = header.getPatchType() != FileHeader.PatchType.UNIFIED;
+        json.name("binary").value(binary);
+        if (!binary) {
+            int added = 0;
+            int deleted = 0;
+            for (Edit edit : header.toEditList()) {
+                deleted += edit.getLengthA();
+                added += edit.getLengthB();
+            }
+            json.name("added").value(added).name("deleted").value(deleted);
+        }
+    }
+
+    /** Gets size of content of one side of changed file without loading the content. */
+    static long size(Repository repository, ObjectReader reader, DiffEntry entry, Side side) throws IOException {
+        final FileMode mode = entry.getMode(side);
+        final AbbreviatedObjectId id = entry.getId(side);
+        if (mode == FileMode.MISSING || mode == FileMode.GITLINK || !id.isComplete()) {
+            return 0;
+        }
+        final ObjectId objectId = id.toObjectId();
+        if (reader.has(objectId)) {
+            return reader.getObjectSize(objectId, Constants.OBJ_BLOB);
+        }
+        // content of working tree is not in repository yet
+        return new File(repository.getWorkTree(), entry.getPath(side)).length();
+    }
+}
@@ -54,6 +54,8 @@ class JGitDiffPage extends DiffPage {
     private final DiffParams params;
     private final Repository repository;
 
+    private RenameDetector renameDetector;
+
     JGitDiffPage(DiffParams params, Repository repository) {
         this.params = params;
         this.repository = repository;
@@ -63,26 +65,9 @@ class JGitDiffPage extends DiffPage {
     public final void writeTo(OutputStream out) throws IOException {
         DiffFormatter formatter = new DiffFormatter(new BufferedOutputStream(out));
         formatter.setRepository(repository);
-        List<String> rawFileFilter = params.getFileFilter();
-        TreeFilter pathFilter = (rawFileFilter != null && rawFileFilter.size() > 0)
-                                ? PathFilterGroup.createFromStrings(rawFileFilter) : TreeFilter.ALL;
-        formatter.setPathFilter(AndTreeFilter.create(TreeFilter.ANY_DIFF, pathFilter));
 
         try {
-            String commitA = params.getCommitA();
-            String commitB = params.getCommitB();
-            boolean cached = params.isCached();
-
-            List<DiffEntry> diff;
-            if (commitA == null && commitB == null && !cached) {
-                diff = indexToWorkingTree(formatter);
-            } else if (commitA != null && commitB == null && !cached) {
-                diff = commitToWorkingTree(commitA, formatter);
-            } else if (commitB == null) {
-                diff = commitToIndex(commitA, formatter);
-            } else {
-                diff = commitToCommit(commitA, commitB, formatter);
-            }
+            List<DiffEntry> diff = scan(formatter, params.getFileFilter());
 
             DiffType type = params.getType();
             if (type == DiffType.NAME_ONLY) {
@@ -98,6 +83,42 @@ class JGitDiffPage extends DiffPage {
         }
     }
 
+    /**
+     * Finds changed files. After scan formatter is able to format any of found files.
+     *
+     * @param formatter
+     *            diff formatter with repository
+     * @param fileFilter
+     *            paths of files to compare, if empty all files are compared
+     * @return list of diff entries
+     * @throws IOException
+     *             if any i/o errors occurs
+     */
+    List<DiffEntry> scan(DiffFormatter formatter, List<String> fileFilter) throws IOException {
+        TreeFilter pathFilter = (fileFilter != null && fileFilter.size() > 0)
+                                ? PathFilterGroup.createFromStrings(fileFilter) : TreeFilter.ALL;
+        formatter.setPathFilter(AndTreeFilter.create(TreeFilter.ANY_DIFF, pathFilter));
+
+        String commitA = params.getCommitA();
+        String commitB = params.getCommitB();
+        boolean cached = params.isCached();
+
+        if (commitA == null && commitB == null && !cached) {
+            return indexToWorkingTree(formatter);
+        } else if (commitA != null && commitB == null && !cached) {
+            return commitToWorkingTree(commitA, formatter);
+        } else if (commitB == null) {
+            return commitToIndex(commitA, formatter);
+        } else {
+            return commitToCommit(commitA, commitB, formatter);
+        }
+    }
+
+    /** Checks whether renames were not looked for by the last scan because there are too many added and deleted files. */
+    boolean isRenameLimitExceeded() {
+        return renameDetector != null && renameDetector.isOverRenameLimit();
+    }
+
     /**
      * Show changes between index and working tree.
      *
@@ -223,6 +244,7 @@ class JGitDiffPage extends DiffPage {
                 if (renameLimit > 0) {
                     formatter.getRenameDetector().setRenameLimit(renameLimit);
                 }
+                renameDetector = formatter.getRenameDetector();
             }
             diff = formatter.scan(iterA, iterB);
         } finally {
@@ -279,12 +301,13 @@ class JGitDiffPage extends DiffPage {
             if (renameLimit > 0) {
                 formatter.getRenameDetector().setRenameLimit(renameLimit);
             }
+            renameDetector = formatter.getRenameDetector();
         }
         return formatter.scan(treeA, treeB);
     }
 
     private RenameDetector createRenameDetector() {
-        RenameDetector renameDetector = new RenameDetector(repository);
+        renameDetector = new RenameDetector(repository);
         int renameLimit = params.getRenameLimit();
         if (renameLimit > 0) {
             renameDetector.setRenameLimit(renameLimit);
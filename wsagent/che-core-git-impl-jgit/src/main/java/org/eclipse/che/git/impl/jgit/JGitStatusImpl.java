@@ -22,6 +22,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static java.lang.System.lineSeparator;
 
@@ -77,6 +80,56 @@ public class JGitStatusImpl implements Status, InfoPage {
         conflicting = new ArrayList<>(gitStatus.getConflicting());
     }
 
+    /**
+     * @param branchName
+     *         current repository branch name
+     * @param files
+     *         states of files which are not clean, keyed by path of file relative to working tree
+     * @param format
+     *         the output format for the status
+     */
+    JGitStatusImpl(String branchName, Map<String, Set<StatusCache.State>> files, StatusFormat format) {
+        this.branchName = branchName;
+        this.format = format;
+
+        added = new ArrayList<>();
+        changed = new ArrayList<>();
+        removed = new ArrayList<>();
+        missing = new ArrayList<>();
+        modified = new ArrayList<>();
+        untracked = new ArrayList<>();
+        untrackedFolders = new ArrayList<>();
+        conflicting = new ArrayList<>();
+        for (Map.Entry<String, Set<StatusCache.State>> entry : new TreeMap<>(files).entrySet()) {
+            for (StatusCache.State state : entry.getValue()) {
+                getFiles(state).add(entry.getKey());
+            }
+        }
+        clean = added.isEmpty() && changed.isEmpty() && removed.isEmpty() && missing.isEmpty() && modified.isEmpty()
+                && untracked.isEmpty() && conflicting.isEmpty();
+    }
+
+    private List<String> getFiles(StatusCache.State state) {
+        switch (state) {
+            case ADDED:
+                return added;
+            case CHANGED:
+                return changed;
+            case REMOVED:
+                return removed;
+            case MISSING:
+                return missing;
+            case MODIFIED:
+                return modified;
+            case UNTRACKED:
+                return untracked;
+            case UNTRACKED_FOLDER:
+                return untrackedFolders;
+            default:
+                return conflicting;
+        }
+    }
+
     @Override
     public void writeTo(OutputStream out) throws IOException {
         StringBuilder status = new StringBuilder();
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Pool of open repositories keyed by their {@code .git} directories. Repository is opened once and then shared by all connections to
+ * it, so its object database, pack indexes, refs and config stay loaded between requests. Repository returned by
+ * {@link #acquire(File)} must be released by {@link Repository#close()}.
+ * <p>
+ * Repository which is not used during idle timeout is closed. Check of idle repositories is done when any repository is acquired or
+ * released and in background while pool has repositories which are not used, so idle repositories are closed even if pool is not
+ * used any more. Repository may be invalidated, e.g. if its {@code .git} directory is removed or re-created, then it is closed as soon as
+ * it is released by all its users and next {@link #acquire(File)} opens it again.
+ * <p>
+ * Config of pooled repository is shared by all its users. Users which change config must do it while holding monitor of config,
+ * config is reloaded from disk under the same monitor, so concurrent changes are not lost.
+ */
+class RepositoryPool {
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    private static final ScheduledExecutorService EVICTOR =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("GitRepositoryPoolEvictor-%d")
+                                                                                 .setDaemon(true)
+                                                                                 .build());
+
+    private final long                        idleTimeoutMillis;
+    private final Map<File, PooledRepository> repositories;
+    private       boolean                     evictionScheduled;
+
+    RepositoryPool() {
+        this(DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    RepositoryPool(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.repositories = new HashMap<>();
+    }
+
+    /**
+     * Gets repository with specified {@code .git} directory. Repository which doesn't exist yet, e.g. before init or clone, is not pooled
+     * and is opened each time.
+     */
+    synchronized Repository acquire(File gitDir) throws IOException {
+        final File key = toKey(gitDir);
+        evictIdle();
+        if (!key.isDirectory()) {
+            invalidate(key);
+            return new FileRepository(key);
+        }
+        PooledRepository repository = repositories.get(key);
+        if (repository == null) {
+            repository = new PooledRepository(key);
+            repositories.put(key, repository);
+        }
+        repository.users++;
+        return repository;
+    }
+
+    /** Invalidates repository with specified {@code .git} directory. */
+    synchronized void invalidate(File gitDir) {
+        final PooledRepository repository = repositories.remove(toKey(gitDir));
+        if (repository != null) {
+            repository.invalid = true;
+            if (repository.users == 0) {
+                repository.doClose();
+            }
+        }
+    }
+
+    /** Closes all repositories which are not used at the moment and invalidates the rest. */
+    synchronized void closeAll() {
+        for (PooledRepository repository : repositories.values()) {
+            repository.invalid = true;
+            if (repository.users == 0) {
+                repository.doClose();
+            }
+        }
+        repositories.clear();
+    }
+
+    private synchronized void release(PooledRepository repository) {
+        if (repository.users == 0) {
+            // already released
+            return;
+        }
+        repository.users--;
+        repository.released = System.currentTimeMillis();
+        if (repository.users == 0 && repository.invalid) {
+            repository.doClose();
+        }
+        evictIdle();
+        scheduleEviction();
+    }
+
+    /** Used in tests. */
+    synchronized int size() {
+        return repositories.size();
+    }
+
+    /** Schedules check of idle repositories if there are repositories which are not used. */
+    private void scheduleEviction() {
+        if (evictionScheduled || repositories.values().stream().noneMatch(repository -> repository.users == 0)) {
+            return;
+        }
+        evictionScheduled = true;
+        // scheduled task is the only reference to pool from executor and it is dropped once pool has no unused repositories
+        EVICTOR.schedule(this::evictScheduled, idleTimeoutMillis, MILLISECONDS);
+    }
+
+    private synchronized void evictScheduled() {
+        evictionScheduled = false;
+        evictIdle();
+        scheduleEviction();
+    }
+
+    private void evictIdle() {
+        final long now = System.currentTimeMillis();
+        for (Iterator<PooledRepository> iterator = repositories.values().iterator(); iterator.hasNext(); ) {
+            final PooledRepository repository = iterator.next();
+            if (repository.users == 0 && now - repository.released >= idleTimeoutMillis) {
+                iterator.remove();
+                repository.doClose();
+            }
+        }
+    }
+
+    private static File toKey(File gitDir) {
+        return gitDir.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    /** Repository which returns itself to pool when it is closed by its user. */
+    private class PooledRepository extends FileRepository {
+        final FileBasedConfig config;
+
+        int     users;
+        long    released;
+        boolean invalid;
+
+        PooledRepository(File gitDir) throws IOException {
+            super(gitDir);
+            config = super.getConfig();
+            released = System.currentTimeMillis();
+        }
+
+        @Override
+        public FileBasedConfig getConfig() {
+            // config is reloaded if it was changed on disk, that must not happen while other user of repository changes config
+            synchronized (config) {
+                return super.getConfig();
+            }
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+
+        void doClose() {
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,462 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.WorkspaceIdProvider;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.git.exception.GitException;
+import org.eclipse.che.api.git.shared.GitStatusChangedEvent;
+import org.eclipse.che.api.git.shared.StatusChange;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileTreeWatcher;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Keeps status of working trees of repositories between calls of {@link JGitConnection#status(StatusFormat)}. The first call scans
+ * whole working tree, next calls re-examine only files reported by file watcher as changed since previous call, see
+ * {@link #getListener()}. Working tree is scanned again when index, HEAD, {@code .gitignore} or {@code .git/info/exclude} is changed.
+ * Files are marked as changed before they are re-examined, so change which happens during scan is re-examined by the next call.
+ * <p>
+ * Cached status is not trusted when watcher might miss or delay changes:
+ * <ul>
+ * <li>working tree is scanned again if watcher has events which are not delivered yet, e.g. events are batched by watcher</li>
+ * <li>files which were modified within {@link #RACY_WINDOW_MILLIS} of the scan are re-examined by the next call, since another change
+ * within the same tick of modification time is not noticed by watcher</li>
+ * <li>paths which are ignored by watcher, e.g. {@code .che} or {@code node_modules}, are re-examined by each call</li>
+ * </ul>
+ * <p>
+ * After change reported by watcher status of repository is refreshed in background and files which status is changed are published
+ * as {@link GitStatusChangedEvent}. Only repositories which status was requested at least once are tracked.
+ */
+class StatusCache {
+    private static final Logger LOG = LoggerFactory.getLogger(StatusCache.class);
+
+    static final long DEFAULT_REFRESH_DELAY_MILLIS = 500;
+    /** Max granularity of modification time of files, watcher doesn't notice change if modification time stays the same. */
+    static final long RACY_WINDOW_MILLIS           = 2000;
+
+    /** States of file in working tree, each state corresponds to one list of {@link org.eclipse.che.api.git.shared.Status}. */
+    enum State {
+        ADDED, CHANGED, REMOVED, MISSING, MODIFIED, UNTRACKED, UNTRACKED_FOLDER, CONFLICTING
+    }
+
+    private final RepositoryPool                  repositories;
+    private final EventService                    eventService;
+    private final FileTreeWatcher                 watcher;
+    private final Set<PathMatcher>                ignoredPaths;
+    private final long                            refreshDelayMillis;
+    private final Map<File, RepositoryStatus>     statuses;
+    private final ScheduledExecutorService        executor;
+    private final FileWatcherNotificationListener listener;
+
+    StatusCache(RepositoryPool repositories, EventService eventService, FileTreeWatcher watcher, Set<PathMatcher> ignoredPaths) {
+        this(repositories, eventService, watcher, ignoredPaths, DEFAULT_REFRESH_DELAY_MILLIS);
+    }
+
+    /**
+     * @param eventService
+     *         service to publish changes of status, may be {@code null} then changes are not published
+     * @param watcher
+     *         watcher which reports changes of files, may be {@code null} then it's assumed that all events are delivered
+     * @param ignoredPaths
+     *         matchers of paths which are ignored by watcher, each of them is applied to path relative to working tree
+     * @param refreshDelayMillis
+     *         delay between the first change reported by watcher and refresh of status of repository
+     */
+    StatusCache(RepositoryPool repositories,
+                EventService eventService,
+                FileTreeWatcher watcher,
+                Set<PathMatcher> ignoredPaths,
+                long refreshDelayMillis) {
+        this.repositories = repositories;
+        this.eventService = eventService;
+        this.watcher = watcher;
+        this.ignoredPaths = ignoredPaths;
+        this.refreshDelayMillis = refreshDelayMillis;
+        this.statuses = new ConcurrentHashMap<>();
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("GitStatusCache-%d")
+                                                                                              .setDaemon(true)
+                                                                                              .build());
+        this.listener = new FileWatcherNotificationListener(file -> !statuses.isEmpty()) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                final File ioFile = virtualFile.toIoFile();
+                if (ioFile != null) {
+                    onFileChanged(ioFile);
+                }
+            }
+        };
+    }
+
+    /** Returns listener which must be registered in file watcher to keep cached statuses up to date. */
+    FileWatcherNotificationListener getListener() {
+        return listener;
+    }
+
+    JGitStatusImpl getStatus(Repository repository, String branchName, StatusFormat format) throws GitException {
+        final File workTree = toKey(repository.getWorkTree());
+        final RepositoryStatus status = statuses.computeIfAbsent(workTree, RepositoryStatus::new);
+        try {
+            return new JGitStatusImpl(branchName, status.update(repository, true), format);
+        } catch (IOException | GitAPIException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+    }
+
+    /** Forgets status of repository, e.g. when its {@code .git} directory is removed or re-created. */
+    void invalidate(File workTree) {
+        statuses.remove(toKey(workTree));
+    }
+
+    void close() {
+        executor.shutdownNow();
+        statuses.clear();
+    }
+
+    void onFileChanged(File file) {
+        final List<String> names = new ArrayList<>();
+        for (File current = toKey(file); current != null; current = current.getParentFile()) {
+            final RepositoryStatus status = statuses.get(current);
+            if (status != null) {
+                Collections.reverse(names);
+                status.onChanged(names);
+                return;
+            }
+            names.add(current.getName());
+        }
+    }
+
+    private static File toKey(File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    private class RepositoryStatus {
+        final File          workTree;
+        final Set<String>   dirty;
+        final AtomicBoolean scheduled;
+
+        volatile boolean rescan;
+
+        /** Files which are not clean, guarded by this. */
+        Map<String, Set<State>> files;
+        /** State of index and HEAD for which {@link #files} are computed, guarded by this. */
+        String                  stamp;
+        /** Files which were modified within racy window of the latest scan, guarded by this. */
+        Set<String>             racy;
+        /** Topmost paths which are ignored by watcher, guarded by this. */
+        Set<String>             ignored;
+
+        RepositoryStatus(File workTree) {
+            this.workTree = workTree;
+            this.dirty = ConcurrentHashMap.newKeySet();
+            this.scheduled = new AtomicBoolean();
+            this.racy = Collections.emptySet();
+            this.ignored = new HashSet<>();
+        }
+
+        /**
+         * @param names
+         *         names of path elements of changed file relative to working tree
+         */
+        void onChanged(List<String> names) {
+            if (names.isEmpty()) {
+                rescan = true;
+            } else if (Constants.DOT_GIT.equals(names.get(0))) {
+                final String gitPath = String.join("/", names.subList(1, names.size()));
+                if ("info/exclude".equals(gitPath)
+                    || "index".equals(gitPath)
+                    || Constants.HEAD.equals(gitPath)
+                    || gitPath.startsWith(Constants.R_REFS)) {
+                    // stamp may miss change of index, e.g. file of the same length is staged within the same second
+                    rescan = true;
+                } else {
+                    // objects, logs, locks etc. don't affect status
+                    return;
+                }
+            } else {
+                if (Constants.DOT_GIT_IGNORE.equals(names.get(names.size() - 1))) {
+                    rescan = true;
+                }
+                dirty.add(String.join("/", names));
+            }
+            scheduleRefresh();
+        }
+
+        void scheduleRefresh() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.schedule(this::refresh, refreshDelayMillis, MILLISECONDS);
+            }
+        }
+
+        void refresh() {
+            scheduled.set(false);
+            if (statuses.get(workTree) != this) {
+                return;
+            }
+            try (Repository repository = repositories.acquire(new File(workTree, Constants.DOT_GIT))) {
+                update(repository, false);
+            } catch (Exception e) {
+                LOG.warn("Unable to refresh git status of {}: {}", workTree, e.getMessage());
+            }
+        }
+
+        /**
+         * @param checkWatcher
+         *         {@code true} if working tree should be scanned again when watcher has undelivered events
+         */
+        synchronized Map<String, Set<State>> update(Repository repository, boolean checkWatcher) throws IOException, GitAPIException {
+            final String currentStamp = stamp(repository);
+            final long scanTime = System.currentTimeMillis();
+            final Set<String> examined;
+            final Map<String, Set<State>> updated;
+            try {
+                examined = takeDirty();
+                examined.addAll(racy);
+                if (files == null
+                    || rescan
+                    || !currentStamp.equals(stamp)
+                    || (checkWatcher && watcher != null && watcher.hasUndeliveredEvents())) {
+                    rescan = false;
+                    updated = scan(repository, Collections.emptySet());
+                    ignored = ignoredRoots(repository.readDirCache());
+                    addIgnoredRoots(ignored, updated.keySet());
+                } else {
+                    final Set<String> paths = new HashSet<>(examined);
+                    paths.addAll(ignored);
+                    if (paths.isEmpty()) {
+                        return files;
+                    }
+                    final Map<String, Set<State>> scanned = scan(repository, paths);
+                    addIgnoredRoots(ignored, scanned.keySet());
+                    updated = new HashMap<>(files);
+                    updated.keySet().removeIf(path -> isUnder(path, paths));
+                    updated.putAll(scanned);
+                }
+            } catch (IOException | GitAPIException | RuntimeException e) {
+                // changes taken for this update are lost
+                rescan = true;
+                throw e;
+            }
+
+            final Map<String, Set<State>> previous = files;
+            files = updated;
+            stamp = currentStamp;
+            racy = racy(examined, scanTime);
+            if (previous != null) {
+                publish(changes(previous, updated));
+            }
+            return updated;
+        }
+
+        /** Selects files which may be changed after scan without notification from watcher. */
+        private Set<String> racy(Set<String> paths, long scanTime) {
+            final Set<String> racy = new HashSet<>();
+            for (String path : paths) {
+                if (new File(workTree, path).lastModified() >= scanTime - RACY_WINDOW_MILLIS) {
+                    racy.add(path);
+                }
+            }
+            return racy;
+        }
+
+        /** Takes changed paths, path inside untracked folder is replaced with folder since the whole folder may become tracked. */
+        private Set<String> takeDirty() {
+            final Set<String> paths = new HashSet<>();
+            for (Iterator<String> iterator = dirty.iterator(); iterator.hasNext(); ) {
+                final String path = iterator.next();
+                iterator.remove();
+                paths.add(untrackedAncestor(path));
+            }
+            return paths;
+        }
+
+        private String untrackedAncestor(String path) {
+            if (files == null) {
+                return path;
+            }
+            for (int i = path.indexOf('/'); i > 0; i = path.indexOf('/', i + 1)) {
+                final String ancestor = path.substring(0, i);
+                final Set<State> states = files.get(ancestor);
+                if (states != null && states.contains(State.UNTRACKED_FOLDER)) {
+                    return ancestor;
+                }
+            }
+            return path;
+        }
+
+        private void publish(List<StatusChange> changes) {
+            if (eventService != null && !changes.isEmpty()) {
+                eventService.publish(newDto(GitStatusChangedEvent.class).withWorkspaceId(WorkspaceIdProvider.getWorkspaceId())
+                                                                        .withProjectName(workTree.getName())
+                                                                        .withChanges(changes));
+            }
+        }
+    }
+
+    /** Runs status command for specified paths, for the whole working tree if set of paths is empty. */
+    private static Map<String, Set<State>> scan(Repository repository, Set<String> paths) throws GitAPIException {
+        final StatusCommand command = Git.wrap(repository).status();
+        paths.forEach(command::addPath);
+        final org.eclipse.jgit.api.Status status = command.call();
+
+        final Map<String, Set<State>> files = new HashMap<>();
+        add(files, status.getAdded(), State.ADDED);
+        add(files, status.getChanged(), State.CHANGED);
+        add(files, status.getRemoved(), State.REMOVED);
+        add(files, status.getMissing(), State.MISSING);
+        add(files, status.getModified(), State.MODIFIED);
+        add(files, status.getUntracked(), State.UNTRACKED);
+        add(files, status.getUntrackedFolders(), State.UNTRACKED_FOLDER);
+        add(files, status.getConflicting(), State.CONFLICTING);
+        return files;
+    }
+
+    private static void add(Map<String, Set<State>> files, Collection<String> paths, State state) {
+        for (String path : paths) {
+            files.computeIfAbsent(path, p -> EnumSet.noneOf(State.class)).add(state);
+        }
+    }
+
+    /**
+     * Modification time, length and checksum of index together with HEAD, status is scanned again when any of them is changed. Checksum
+     * is the last bytes of index file, so content of index is not read.
+     */
+    private static String stamp(Repository repository) throws IOException {
+        final File index = repository.getIndexFile();
+        final Ref head = repository.exactRef(Constants.HEAD);
+        return index.lastModified() + ":" + index.length() + ":" + indexChecksum(index) + ":"
+               + (head == null ? "" : head.getLeaf().getName() + ":" + head.getObjectId());
+    }
+
+    private static String indexChecksum(File index) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(index, "r")) {
+            if (file.length() < Constants.OBJECT_ID_LENGTH) {
+                return "";
+            }
+            final byte[] checksum = new byte[Constants.OBJECT_ID_LENGTH];
+            file.seek(file.length() - checksum.length);
+            file.readFully(checksum);
+            return ObjectId.fromRaw(checksum).name();
+        } catch (FileNotFoundException e) {
+            // index is not created yet
+            return "";
+        }
+    }
+
+    /** Topmost paths of tracked files which are ignored by watcher. */
+    private Set<String> ignoredRoots(DirCache index) {
+        final Set<String> roots = new HashSet<>();
+        if (!ignoredPaths.isEmpty()) {
+            for (int i = 0; i < index.getEntryCount(); i++) {
+                addIgnoredRoot(roots, index.getEntry(i).getPathString());
+            }
+        }
+        return roots;
+    }
+
+    private void addIgnoredRoots(Set<String> roots, Collection<String> paths) {
+        if (!ignoredPaths.isEmpty()) {
+            paths.forEach(path -> addIgnoredRoot(roots, path));
+        }
+    }
+
+    /** Adds the topmost ancestor of path, or path itself, which is ignored by watcher. */
+    private void addIgnoredRoot(Set<String> roots, String path) {
+        if (!isIgnored(path)) {
+            return;
+        }
+        for (int i = path.indexOf('/'); i > 0; i = path.indexOf('/', i + 1)) {
+            final String ancestor = path.substring(0, i);
+            if (roots.contains(ancestor) || isIgnored(ancestor)) {
+                roots.add(ancestor);
+                return;
+            }
+        }
+        roots.add(path);
+    }
+
+    private boolean isIgnored(String path) {
+        final Path relativePath = Paths.get(path);
+        for (PathMatcher ignoredPath : ignoredPaths) {
+            if (ignoredPath.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnder(String path, Set<String> paths) {
+        if (paths.contains(path)) {
+            return true;
+        }
+        for (int i = path.indexOf('/'); i > 0; i = path.indexOf('/', i + 1)) {
+            if (paths.contains(path.substring(0, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<StatusChange> changes(Map<String, Set<State>> previous, Map<String, Set<State>> current) {
+        final Set<String> paths = new TreeSet<>(previous.keySet());
+        paths.addAll(current.keySet());
+        final List<StatusChange> changes = new ArrayList<>();
+        for (String path : paths) {
+            final Set<State> states = current.getOrDefault(path, Collections.emptySet());
+            if (!states.equals(previous.getOrDefault(path, Collections.emptySet()))) {
+                final List<String> names = new ArrayList<>();
+                states.forEach(state -> names.add(state.name()));
+                changes.add(newDto(StatusChange.class).withPath(path).withStates(names));
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.io.Files;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand.ResetType;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test class for {@link CommitReachabilityIndex}
+ */
+public class CommitReachabilityIndexTest {
+    private static final String MASTER  = "refs/heads/master";
+    private static final String FEATURE = "refs/heads/feature";
+
+    private File                    workDir;
+    private Git                     git;
+    private CommitReachabilityIndex index;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDir();
+        git = Git.init().setDirectory(workDir).call();
+        index = new CommitReachabilityIndex();
+    }
+
+    @AfterMethod
+    public void cleanUp() throws Exception {
+        git.close();
+        FileUtils.delete(workDir, FileUtils.RECURSIVE | FileUtils.IGNORE_ERRORS);
+    }
+
+    @Test
+    public void findsBranchesWhichContainCommit() throws Exception {
+        RevCommit first = commit("first");
+        git.branchCreate().setName("feature").call();
+        git.checkout().setName("feature").call();
+        RevCommit second = commit("second");
+
+        index.refresh(git.getRepository());
+
+        assertEquals(index.getBranches(first), asList(FEATURE, MASTER));
+        assertEquals(index.getBranches(second), singletonList(FEATURE));
+    }
+
+    @Test
+    public void reindexesBranchWhichPreviousTipIsMissing() throws Exception {
+        RevCommit first = commit("first");
+        RevCommit second = commit("second");
+        index.refresh(git.getRepository());
+
+        git.reset().setMode(ResetType.HARD).setRef(first.getName()).call();
+        RevCommit third = commit("third");
+        // previous tip is removed, e.g. by garbage collection after forced update of branch
+        String name = second.getName();
+        assertTrue(new File(git.getRepository().getDirectory(), "objects/" + name.substring(0, 2) + '/' + name.substring(2)).delete());
+        index.refresh(git.getRepository());
+
+        assertEquals(index.getBranches(first), singletonList(MASTER));
+        assertEquals(index.getBranches(third), singletonList(MASTER));
+        assertEquals(index.getBranches(second), emptyList());
+    }
+
+    @Test
+    public void keepsBranchesOfCommitsAfterHistoryIsRewrittenFewTimes() throws Exception {
+        RevCommit first = commit("first");
+        git.branchCreate().setName("feature").call();
+        List<RevCommit> rewritten = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            git.reset().setMode(ResetType.HARD).setRef(first.getName()).call();
+            rewritten.add(commit("rewritten " + i));
+            rewritten.add(commit("rewritten again " + i));
+            index.refresh(git.getRepository());
+        }
+
+        assertEquals(index.getBranches(first), asList(FEATURE, MASTER));
+        assertEquals(index.getBranches(rewritten.get(rewritten.size() - 1)), singletonList(MASTER));
+        assertEquals(index.getBranches(rewritten.get(rewritten.size() - 2)), singletonList(MASTER));
+        for (RevCommit commit : rewritten.subList(0, rewritten.size() - 2)) {
+            assertEquals(index.getBranches(commit), emptyList());
+        }
+    }
+
+    private RevCommit commit(String message) throws Exception {
+        return git.commit().setMessage(message).call();
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.io.Files;
+
+import org.eclipse.che.api.git.shared.FileDiff;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test class for {@link HunksCollector}
+ */
+public class HunksCollectorTest {
+    private File      workDir;
+    private Git       git;
+    private RevCommit first;
+    private RevCommit second;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDir();
+        git = Git.init().setDirectory(workDir).call();
+        first = commit("line1\nline2\nline3\n");
+        second = commit("line1\nchanged\nline3\n");
+    }
+
+    @AfterMethod
+    public void cleanUp() throws Exception {
+        git.close();
+        FileUtils.delete(workDir, FileUtils.RECURSIVE | FileUtils.IGNORE_ERRORS);
+    }
+
+    @Test
+    public void collectsHunksOfFileWhichFitsInContentSizeLimit() throws Exception {
+        FileDiff diff = collect(new HunksCollector(0, 0, 0, 1024));
+
+        assertFalse(diff.isSizeLimitExceeded());
+        assertEquals(diff.getHunks().size(), 1);
+    }
+
+    @Test
+    public void doesNotLoadContentOfFileWhichExceedsContentSizeLimit() throws Exception {
+        // both sides are 38 bytes
+        FileDiff diff = collect(new HunksCollector(0, 0, 0, 30));
+
+        assertTrue(diff.isSizeLimitExceeded());
+        assertTrue(diff.getHunks().isEmpty());
+        assertEquals(diff.getNext(), -1);
+    }
+
+    private FileDiff collect(HunksCollector collector) throws Exception {
+        try {
+            collector.setRepository(git.getRepository());
+            List<DiffEntry> entries = collector.scan(first.getTree(), second.getTree());
+            assertEquals(entries.size(), 1);
+            return collector.collect(entries.get(0));
+        } finally {
+            collector.close();
+        }
+    }
+
+    private RevCommit commit(String content) throws Exception {
+        Files.write(content, new File(workDir, "a.txt"), UTF_8);
+        git.add().addFilepattern("a.txt").call();
+        return git.commit().setMessage("change a.txt").call();
+    }
+}
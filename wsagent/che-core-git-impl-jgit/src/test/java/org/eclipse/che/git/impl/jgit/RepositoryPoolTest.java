@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.io.Files;
+
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Test class for {@link RepositoryPool}
+ */
+public class RepositoryPoolTest {
+    private File workDir;
+    private File gitDir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDir();
+        gitDir = new File(workDir, ".git");
+        try (Repository repository = new RepositoryPool().acquire(gitDir)) {
+            repository.create();
+        }
+    }
+
+    @AfterMethod
+    public void cleanUp() throws Exception {
+        FileUtils.delete(workDir, FileUtils.RECURSIVE | FileUtils.IGNORE_ERRORS);
+    }
+
+    @Test
+    public void reusesReleasedRepository() throws Exception {
+        RepositoryPool pool = new RepositoryPool();
+
+        Repository first = pool.acquire(gitDir);
+        first.close();
+        Repository second = pool.acquire(gitDir);
+
+        assertSame(second, first);
+    }
+
+    @Test
+    public void sharesRepositoryBetweenUsers() throws Exception {
+        RepositoryPool pool = new RepositoryPool();
+
+        Repository first = pool.acquire(gitDir);
+        Repository second = pool.acquire(new File(workDir, "./.git"));
+
+        assertSame(second, first);
+    }
+
+    @Test
+    public void reopensIdleRepository() throws Exception {
+        RepositoryPool pool = new RepositoryPool(0);
+
+        Repository first = pool.acquire(gitDir);
+        first.close();
+        Repository second = pool.acquire(gitDir);
+
+        assertNotSame(second, first);
+    }
+
+    @Test
+    public void closesIdleRepositoryWhenPoolIsNotUsed() throws Exception {
+        RepositoryPool pool = new RepositoryPool(100);
+
+        pool.acquire(gitDir).close();
+        assertEquals(pool.size(), 1);
+
+        long timeout = System.currentTimeMillis() + 5000;
+        while (pool.size() > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+        }
+        assertEquals(pool.size(), 0);
+    }
+
+    @Test
+    public void reopensInvalidatedRepository() throws Exception {
+        RepositoryPool pool = new RepositoryPool();
+
+        Repository first = pool.acquire(gitDir);
+        pool.invalidate(gitDir);
+        Repository second = pool.acquire(gitDir);
+        first.close();
+
+        assertNotSame(second, first);
+    }
+
+    @Test
+    public void doesNotPoolRepositoryWhichDoesNotExist() throws Exception {
+        RepositoryPool pool = new RepositoryPool();
+        File newGitDir = new File(workDir, "sub/.git");
+
+        Repository first = pool.acquire(newGitDir);
+        first.close();
+        Repository second = pool.acquire(newGitDir);
+
+        assertNotSame(second, first);
+    }
+}
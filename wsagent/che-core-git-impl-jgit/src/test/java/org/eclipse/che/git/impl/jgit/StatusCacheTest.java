@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.io.Files;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.git.shared.GitStatusChangedEvent;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusChange;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.vfs.impl.file.FileTreeWatcher;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.FileUtils;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test class for {@link StatusCache}
+ */
+public class StatusCacheTest {
+    private File            workDir;
+    private RepositoryPool  pool;
+    private Repository      repository;
+    private EventService    eventService;
+    private FileTreeWatcher watcher;
+    private StatusCache     cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDir();
+        pool = new RepositoryPool();
+        repository = pool.acquire(new File(workDir, ".git"));
+        repository.create();
+        eventService = mock(EventService.class);
+        watcher = mock(FileTreeWatcher.class);
+        PathMatcher ignoredByWatcher = path -> {
+            for (Path pathElement : path) {
+                if (".che".equals(pathElement.toString())) {
+                    return true;
+                }
+            }
+            return false;
+        };
+        // refresh in background is not expected during test
+        cache = new StatusCache(pool, eventService, watcher, Collections.singleton(ignoredByWatcher), 60000);
+    }
+
+    @AfterMethod
+    public void cleanUp() throws Exception {
+        cache.close();
+        repository.close();
+        pool.closeAll();
+        FileUtils.delete(workDir, FileUtils.RECURSIVE | FileUtils.IGNORE_ERRORS);
+    }
+
+    @Test
+    public void reExaminesFilesReportedByWatcher() throws Exception {
+        assertTrue(getStatus().isClean());
+        File file = new File(workDir, "a.txt");
+        Files.write("a", file, UTF_8);
+
+        cache.onFileChanged(file);
+
+        assertEquals(getStatus().getUntracked(), Collections.singletonList("a.txt"));
+    }
+
+    @Test
+    public void scansWorkingTreeAgainWhenIndexIsChanged() throws Exception {
+        File file = new File(workDir, "a.txt");
+        Files.write("a", file, UTF_8);
+        getStatus();
+
+        Git.wrap(repository).add().addFilepattern("a.txt").call();
+
+        Status status = getStatus();
+        assertEquals(status.getAdded(), Collections.singletonList("a.txt"));
+        assertTrue(status.getUntracked().isEmpty());
+    }
+
+    @Test
+    public void scansWorkingTreeAgainWhenModifiedTrackedFileIsStaged() throws Exception {
+        File file = new File(workDir, "a.txt");
+        Files.write("a", file, UTF_8);
+        Git.wrap(repository).add().addFilepattern("a.txt").call();
+        Git.wrap(repository).commit().setMessage("add a.txt").call();
+        // the same length, so only content of index is changed by add
+        Files.write("b", file, UTF_8);
+        cache.onFileChanged(file);
+        assertEquals(getStatus().getModified(), Collections.singletonList("a.txt"));
+
+        Git.wrap(repository).add().addFilepattern("a.txt").call();
+        cache.onFileChanged(new File(workDir, ".git/index"));
+
+        Status status = getStatus();
+        assertEquals(status.getChanged(), Collections.singletonList("a.txt"));
+        assertTrue(status.getModified().isEmpty());
+    }
+
+    @Test
+    public void publishesChangedFiles() throws Exception {
+        getStatus();
+        File file = new File(workDir, "a.txt");
+        Files.write("a", file, UTF_8);
+
+        cache.onFileChanged(file);
+        getStatus();
+
+        ArgumentCaptor<GitStatusChangedEvent> captor = ArgumentCaptor.forClass(GitStatusChangedEvent.class);
+        verify(eventService).publish(captor.capture());
+        StatusChange change = captor.getValue().getChanges().get(0);
+        assertEquals(change.getPath(), "a.txt");
+        assertEquals(change.getStates(), Collections.singletonList("UNTRACKED"));
+    }
+
+    @Test
+    public void scansWorkingTreeAgainWhenWatcherHasUndeliveredEvents() throws Exception {
+        assertTrue(getStatus().isClean());
+        Files.write("a", new File(workDir, "a.txt"), UTF_8);
+
+        when(watcher.hasUndeliveredEvents()).thenReturn(true);
+
+        assertEquals(getStatus().getUntracked(), Collections.singletonList("a.txt"));
+    }
+
+    @Test
+    public void reExaminesFilesModifiedWithinRacyWindowOfScan() throws Exception {
+        File file = new File(workDir, "a.txt");
+        Files.write("a", file, UTF_8);
+        Git.wrap(repository).add().addFilepattern("a.txt").call();
+        Git.wrap(repository).commit().setMessage("add a.txt").call();
+        Files.write("b", file, UTF_8);
+        cache.onFileChanged(file);
+        assertEquals(getStatus().getModified(), Collections.singletonList("a.txt"));
+
+        // modification time may stay the same, so watcher doesn't report this change
+        Files.write("a", file, UTF_8);
+
+        assertTrue(getStatus().isClean());
+    }
+
+    @Test
+    public void reExaminesPathsIgnoredByWatcher() throws Exception {
+        File ignoredFolder = new File(workDir, ".che");
+        assertTrue(ignoredFolder.mkdir());
+        Files.write("a", new File(ignoredFolder, "a.txt"), UTF_8);
+        Git.wrap(repository).add().addFilepattern(".che/a.txt").call();
+        Git.wrap(repository).commit().setMessage("add .che/a.txt").call();
+        assertTrue(getStatus().isClean());
+
+        // watcher doesn't report changes of ignored paths
+        Files.write("b", new File(ignoredFolder, "a.txt"), UTF_8);
+        Files.write("b", new File(ignoredFolder, "b.txt"), UTF_8);
+
+        Status status = getStatus();
+        assertEquals(status.getModified(), Collections.singletonList(".che/a.txt"));
+        assertEquals(status.getUntracked(), Collections.singletonList(".che/b.txt"));
+    }
+
+    private Status getStatus() throws Exception {
+        return cache.getStatus(repository, "master", StatusFormat.SHORT);
+    }
+}